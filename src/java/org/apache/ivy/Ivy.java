@@ -305,6 +305,7 @@ public class Ivy {
                     settings, searchEngine, resolveEngine);
             }
     
+            configureEventManager();
             eventManager.addTransferListener(new TransferListener() {
                 public void transferProgress(TransferEvent evt) {
                     ResolveData resolve;
@@ -833,6 +834,7 @@ public class Ivy {
     }
 
     private void postConfigure() {
+        configureEventManager();
         Collection triggers = settings.getTriggers();
         for (Iterator iter = triggers.iterator(); iter.hasNext();) {
             Trigger trigger = (Trigger) iter.next();
@@ -847,6 +849,24 @@ public class Ivy {
         }
     }
 
+    /**
+     * Switches the event manager to asynchronous dispatch if asked by the settings.
+     */
+    private void configureEventManager() {
+        String async = settings.getVariable(EventManager.ASYNC_VARIABLE);
+        if (async != null) {
+            eventManager.setAsync(Boolean.valueOf(async.trim()).booleanValue());
+        }
+        String rate = settings.getVariable(EventManager.PROGRESS_RATE_VARIABLE);
+        if (rate != null) {
+            try {
+                eventManager.setProgressRate(Integer.parseInt(rate.trim()));
+            } catch (NumberFormatException e) {
+                Message.warn("invalid " + EventManager.PROGRESS_RATE_VARIABLE + ": " + rate);
+            }
+        }
+    }
+
     public String getVariable(String name) {
         pushContext();
         try {
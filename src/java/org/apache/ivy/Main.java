@@ -20,6 +20,7 @@ package org.apache.ivy;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -45,11 +46,13 @@ import org.apache.ivy.core.publish.PublishOptions;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.ResolveReport;
 import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.resolve.ResolveTrace;
 import org.apache.ivy.core.retrieve.RetrieveOptions;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
 import org.apache.ivy.plugins.report.XmlReportParser;
 import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
 import org.apache.ivy.util.Message;
 import org.apache.ivy.util.cli.CommandLine;
 import org.apache.ivy.util.cli.CommandLineParser;
@@ -103,6 +106,12 @@ public final class Main {
                 .description("the resolve mode to use").create())
             .addOption(new OptionBuilder("notransitive")
                 .description("do not resolve dependencies transitively").create())
+            .addOption(new OptionBuilder("metrics").arg("metricsfile")
+                .description("write the timings and counters of the resolve "
+                    + "to the given file, as json").create())
+            .addOption(new OptionBuilder("trace").arg("tracefile")
+                .description("write a trace of the resolve to the given file, "
+                    + "in the chrome trace event format").create())
                 
             .addCategory("retrieve options")
             .addOption(new OptionBuilder("retrieve").arg("retrievepattern")
@@ -154,6 +163,48 @@ public final class Main {
             .addOption(new OptionBuilder("cp").arg("cp")
                 .description("extra classpath to use when launching process").create())
 
+            .addCategory("daemon options")
+            .addOption(new OptionBuilder("daemon").arg("port")
+                .description("run as a daemon listening on the given local port, keeping "
+                    + "settings and caches loaded between the requests sent with -client")
+                .create())
+            .addOption(new OptionBuilder("client").arg("port")
+                .description("send the other arguments to the daemon listening on the given "
+                    + "local port instead of running them in this process").create())
+
+            .addCategory("batch options")
+            .addOption(new OptionBuilder("batch").arg("manifestfile")
+                .description("run each line of the given file as the resolve options of an "
+                    + "entry, sharing the settings and caches of a single Ivy instance")
+                .create())
+            .addOption(new OptionBuilder("batchthreads").arg("threads")
+                .description("the number of batch entries to run concurrently").create())
+
+            .addCategory("benchmark options")
+            .addOption(new OptionBuilder("benchmark").arg("resultfile")
+                .description("run the resolve and retrieve asked on the command line several "
+                    + "times, and write their timings and peak heap to the given file").create())
+            .addOption(new OptionBuilder("benchmarkivys").arg("ivyfiles").countArgs(false)
+                .description("use the given ivy files as benchmark workload instead of the "
+                    + "-ivy one").create())
+            .addOption(new OptionBuilder("benchmarkgenerate").arg("nbmodules")
+                .description("use a generated repository of the given number of modules as "
+                    + "benchmark workload").create())
+            .addOption(new OptionBuilder("benchmarkruns").arg("runs")
+                .description("the number of recorded benchmark runs").create())
+            .addOption(new OptionBuilder("benchmarkwarmup").arg("runs")
+                .description("the number of benchmark runs done before recording").create())
+            .addOption(new OptionBuilder("benchmarkcold")
+                .description("start each benchmark run with an empty cache").create())
+            .addOption(new OptionBuilder("benchmarkcompare")
+                .arg("baselinefile").arg("resultfile")
+                .description("compare two benchmark result files, and fail if the second one "
+                    + "is significantly slower than the first one").create())
+            .addOption(new OptionBuilder("benchmarkthreshold").arg("percent")
+                .description("the slow down above which the comparison fails").create())
+            .addOption(new OptionBuilder("benchmarkreport").arg("htmlfile")
+                .description("write the comparison to the given html file").create())
+
             .addCategory("message options")
             .addOption(new OptionBuilder("debug")
                 .description("set message level to debug").create())
@@ -176,8 +227,7 @@ public final class Main {
     public static void main(String[] args) throws Exception {
         CommandLineParser parser = getParser();
         try {
-            run(parser, args);
-            System.exit(0);
+            System.exit(run(parser, args));
         } catch (ParseException ex) {
             System.err.println(ex.getMessage());
             usage(parser, false);
@@ -185,43 +235,79 @@ public final class Main {
         }
     }
     
-    static void run(CommandLineParser parser, String[] args) throws Exception {
+    static int run(CommandLineParser parser, String[] args) throws Exception {
             // parse the command line arguments
             CommandLine line = parser.parse(args);
 
             if (line.hasOption("?")) {
                 usage(parser, line.hasOption("deprecated"));
-                return;
+                return 0;
             }
             
             if (line.hasOption("version")) {
                 System.out.println("Apache Ivy " + Ivy.getIvyVersion() + " - "
                     + Ivy.getIvyDate() + " :: " + Ivy.getIvyHomeURL());
-                return;
+                return 0;
             }
 
-
-            boolean validate = line.hasOption("novalidate") ? false : true;
+            if (line.hasOption("client")) {
+                return MainDaemon.forward(getInt(line, "client", 0), removeOption(args, "client"));
+            }
+            if (line.hasOption("daemon")) {
+                MainDaemon daemon = new MainDaemon(parser, getInt(line, "daemon", 0));
+                daemon.start(line);
+                daemon.join();
+                return 0;
+            }
 
             Ivy ivy = Ivy.newInstance();
-            initMessage(line, ivy);
-            IvySettings settings = initSettings(line, ivy);
+            initMessage(line, ivy, System.out);
+            initSettings(line, ivy, null);
             ivy.pushContext();
-
-            File cache = new File(settings.substitute(line.getOptionValue("cache", settings
-                    .getDefaultCache().getAbsolutePath())));
-
-            if (line.hasOption("cache")) {
-                //override default cache path with user supplied cache path
-                settings.setDefaultCache(cache);
+            try {
+                return execute(line, ivy, null, System.out);
+            } finally {
+                ivy.getLoggerEngine().popLogger();
+                ivy.popContext();
             }
+    }
+
+    /**
+     * Does the work asked on the command line: resolve, retrieve, cachepath, deliver, publish and
+     * main class launch, the same for each entry of a batch manifest, or the benchmark of the
+     * resolve and retrieve.
+     * 
+     * @param line
+     *            the parsed command line
+     * @param ivy
+     *            the Ivy instance to use, already configured
+     * @param baseDir
+     *            the directory against which relative files and patterns are resolved, null for
+     *            the current directory
+     * @param out
+     *            the stream to which the output is written
+     * @return the exit code: 0 when everything went fine, 1 if the resolve failed
+     */
+    static int execute(CommandLine line, Ivy ivy, File baseDir, PrintStream out)
+            throws Exception {
+            IvySettings settings = ivy.getSettings();
+            boolean validate = line.hasOption("novalidate") ? false : true;
 
+            File cache = settings.getDefaultCache();
             if (!cache.exists()) {
                 cache.mkdirs();
             } else if (!cache.isDirectory()) {
                 error(cache + " is not a directory");
             }
 
+            if (line.hasOption("batch")) {
+                return MainBatch.execute(getParser(), ivy, resolveFile(baseDir, line
+                        .getOptionValue("batch")), getInt(line, "batchthreads", 1), out);
+            }
+            if (line.hasOption("benchmark") || line.hasOption("benchmarkcompare")) {
+                return MainBenchmark.execute(line, baseDir, out);
+            }
+
             String[] confs;
             if (line.hasOption("confs")) {
                 confs = line.getOptionValues("confs");
@@ -246,7 +332,8 @@ public final class Main {
                 XmlModuleDescriptorWriter.write(md, ivyfile);
                 confs = new String[] {"default"};
             } else {
-                ivyfile = new File(settings.substitute(line.getOptionValue("ivy", "ivy.xml")));
+                ivyfile = resolveFile(baseDir, settings.substitute(line.getOptionValue("ivy",
+                    "ivy.xml")));
                 if (!ivyfile.exists()) {
                     error("ivy file not found: " + ivyfile);
                 } else if (ivyfile.isDirectory()) {
@@ -254,22 +341,23 @@ public final class Main {
                 }
             }
 
-            if (line.hasOption("useOrigin")) {
-                ivy.getSettings().useDeprecatedUseOrigin();
+            ResolveOptions resolveOptions = getResolveOptions(line, confs);
+            if (line.hasOption("trace")) {
+                resolveOptions.setTraceSize(ResolveTrace.DEFAULT_SIZE);
             }
-            ResolveOptions resolveOptions = new ResolveOptions().setConfs(confs)
-                .setValidate(validate)
-                .setResolveMode(line.getOptionValue("mode"))
-                .setArtifactFilter(FilterHelper.getArtifactTypeFilter(line.getOptionValues("types")));
-            if (line.hasOption("notransitive")) {
-                resolveOptions.setTransitive(false);
+            ResolveReport report = ivy.resolve(ivyfile.toURI().toURL(), resolveOptions);
+            if (line.hasOption("metrics")) {
+                File metricsFile = resolveFile(baseDir, line.getOptionValue("metrics"));
+                report.getMetrics().writeJson(metricsFile);
+                out.println("resolve metrics written to " + metricsFile);
             }
-            if (line.hasOption("refresh")) {
-                resolveOptions.setRefresh(true);
+            if (line.hasOption("trace") && report.getTrace() != null) {
+                File traceFile = resolveFile(baseDir, line.getOptionValue("trace"));
+                report.getTrace().writeJson(traceFile);
+                out.println("resolve trace written to " + traceFile);
             }
-            ResolveReport report = ivy.resolve(ivyfile.toURI().toURL(), resolveOptions);
             if (report.hasError()) {
-                System.exit(1);
+                return 1;
             }
             ModuleDescriptor md = report.getModuleDescriptor();
 
@@ -282,34 +370,37 @@ public final class Main {
                     retrievePattern = retrievePattern + "/lib/[conf]/[artifact].[ext]";
                 }
                 String ivyPattern = settings.substitute(line.getOptionValue("ivypattern"));
-                ivy.retrieve(md.getModuleRevisionId(), retrievePattern, new RetrieveOptions()
+                ivy.retrieve(md.getModuleRevisionId(), resolvePattern(baseDir, retrievePattern),
+                    new RetrieveOptions()
                         .setConfs(confs).setSync(line.hasOption("sync"))
                         .setUseOrigin(line.hasOption("useOrigin"))
-                        .setDestIvyPattern(ivyPattern)
+                        .setDestIvyPattern(resolvePattern(baseDir, ivyPattern))
                         .setArtifactFilter(FilterHelper.getArtifactTypeFilter(line.getOptionValues("types")))
                         .setMakeSymlinks(line.hasOption("symlink"))
                         .setMakeSymlinksInMass(line.hasOption("symlinkmass")));
             }
             if (line.hasOption("cachepath")) {
-                outputCachePath(ivy, cache, md, confs, line.getOptionValue("cachepath",
-                    "ivycachepath.txt"));
+                outputCachePath(ivy, cache, md, confs, resolveFile(baseDir,
+                    line.getOptionValue("cachepath", "ivycachepath.txt")).getPath(), out);
             }
 
             if (line.hasOption("revision")) {
+                String deliverPattern = resolvePattern(baseDir, settings.substitute(line
+                        .getOptionValue("deliverto", "ivy-[revision].xml")));
                 ivy.deliver(md.getResolvedModuleRevisionId(), settings.substitute(line
-                        .getOptionValue("revision")), settings.substitute(line.getOptionValue(
-                    "deliverto", "ivy-[revision].xml")), DeliverOptions.newInstance(settings)
+                        .getOptionValue("revision")), deliverPattern, DeliverOptions
+                        .newInstance(settings)
                         .setStatus(settings.substitute(line.getOptionValue("status", "release")))
                         .setValidate(validate));
                 if (line.hasOption("publish")) {
-                    ivy.publish(md.getResolvedModuleRevisionId(), Collections.singleton(settings
-                            .substitute(line.getOptionValue("publishpattern",
-                                "distrib/[type]s/[artifact]-[revision].[ext]"))), line
+                    ivy.publish(md.getResolvedModuleRevisionId(), Collections
+                            .singleton(resolvePattern(baseDir, settings.substitute(line
+                                .getOptionValue("publishpattern",
+                                    "distrib/[type]s/[artifact]-[revision].[ext]")))), line
                             .getOptionValue("publish"), new PublishOptions()
                             .setPubrevision(settings.substitute(line.getOptionValue("revision")))
-                            .setValidate(validate).setSrcIvyPattern(
-                                settings.substitute(line.getOptionValue("deliverto",
-                                    "ivy-[revision].xml"))).setOverwrite(line.hasOption("overwrite")));
+                            .setValidate(validate).setSrcIvyPattern(deliverPattern)
+                            .setOverwrite(line.hasOption("overwrite")));
                 }
             }
             if (line.hasOption("main")) {
@@ -331,8 +422,61 @@ public final class Main {
                 // invoke with given main class and merged params
                 invoke(ivy, cache, md, confs, fileList, line.getOptionValue("main"), params);
             }
-            ivy.getLoggerEngine().popLogger();
-            ivy.popContext();
+            return 0;
+    }
+
+    /**
+     * Returns the options of a resolve of the given configurations, as asked on the command line.
+     */
+    static ResolveOptions getResolveOptions(CommandLine line, String[] confs) {
+        ResolveOptions resolveOptions = new ResolveOptions().setConfs(confs)
+            .setValidate(!line.hasOption("novalidate"))
+            .setResolveMode(line.getOptionValue("mode"))
+            .setArtifactFilter(FilterHelper.getArtifactTypeFilter(line.getOptionValues("types")));
+        if (line.hasOption("notransitive")) {
+            resolveOptions.setTransitive(false);
+        }
+        if (line.hasOption("refresh")) {
+            resolveOptions.setRefresh(true);
+        }
+        return resolveOptions;
+    }
+
+    static File resolveFile(File baseDir, String path) {
+        return baseDir == null ? new File(path) : FileUtil.resolveFile(baseDir, path);
+    }
+
+    static String resolvePattern(File baseDir, String pattern) {
+        if (baseDir == null || pattern == null || new File(pattern).isAbsolute()) {
+            return pattern;
+        }
+        return new File(baseDir, pattern).getPath();
+    }
+
+    static int getInt(CommandLine line, String option, int defaultValue)
+            throws ParseException {
+        String value = line.getOptionValue(option);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("bad number for " + option + ": " + value);
+        }
+    }
+
+    /**
+     * Returns the given arguments without the given option and its argument.
+     */
+    private static String[] removeOption(String[] args, String option) {
+        List remaining = new ArrayList(Arrays.asList(args));
+        int index = remaining.indexOf("-" + option);
+        if (index != -1) {
+            remaining.remove(index);
+            remaining.remove(index);
+        }
+        return (String[]) remaining.toArray(new String[remaining.size()]);
     }
 
     /**
@@ -370,7 +514,14 @@ public final class Main {
         return fileList;
     }
 
-    private static IvySettings initSettings(CommandLine line, Ivy ivy) 
+    /**
+     * Configures the given Ivy instance with the settings options of the command line.
+     * 
+     * @param baseDir
+     *            the directory against which the relative settings and cache paths are resolved,
+     *            null for the current directory
+     */
+    static IvySettings initSettings(CommandLine line, Ivy ivy, File baseDir) 
             throws java.text.ParseException, IOException, ParseException {
         IvySettings settings = ivy.getSettings();
         settings.addAllVariables(System.getProperties());
@@ -378,20 +529,13 @@ public final class Main {
             settings.setVariable("ivy.default.configuration.m2compatible", "true");
         }
 
-        configureURLHandler(line.getOptionValue("realm", null), line.getOptionValue("host",
-            null), line.getOptionValue("username", null), line.getOptionValue("passwd", null));
+        configureURLHandler(line);
 
-        String settingsPath = line.getOptionValue("settings", "");
-        if ("".equals(settingsPath)) {
-            settingsPath = line.getOptionValue("conf", "");
-            if (!"".equals(settingsPath)) {
-                Message.deprecated("-conf is deprecated, use -settings instead");
-            }
-        }
+        String settingsPath = getSettingsPath(line);
         if ("".equals(settingsPath)) {
             ivy.configureDefault();
         } else {
-            File conffile = new File(settingsPath);
+            File conffile = resolveFile(baseDir, settingsPath);
             if (!conffile.exists()) {
                 error("ivy configuration file not found: " + conffile);
             } else if (conffile.isDirectory()) {
@@ -399,25 +543,48 @@ public final class Main {
             }
             ivy.configure(conffile);
         }
+
+        if (line.hasOption("cache")) {
+            //override default cache path with user supplied cache path
+            settings.setDefaultCache(resolveFile(baseDir, settings.substitute(line
+                    .getOptionValue("cache"))));
+        }
+        if (line.hasOption("useOrigin")) {
+            settings.useDeprecatedUseOrigin();
+        }
         return settings;
     }
 
-    private static void initMessage(CommandLine line, Ivy ivy) {
+    /**
+     * @return the path of the settings file given on the command line, an empty string if none
+     */
+    static String getSettingsPath(CommandLine line) {
+        String settingsPath = line.getOptionValue("settings", "");
+        if ("".equals(settingsPath)) {
+            settingsPath = line.getOptionValue("conf", "");
+            if (!"".equals(settingsPath)) {
+                Message.deprecated("-conf is deprecated, use -settings instead");
+            }
+        }
+        return settingsPath;
+    }
+
+    static void initMessage(CommandLine line, Ivy ivy, PrintStream out) {
         if (line.hasOption("debug")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_DEBUG));
+            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_DEBUG, out));
         } else if (line.hasOption("verbose")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_VERBOSE));
+            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_VERBOSE, out));
         } else if (line.hasOption("warn")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_WARN));
+            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_WARN, out));
         } else if (line.hasOption("error")) {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_ERR));
+            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_ERR, out));
         } else {
-            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_INFO));
+            ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_INFO, out));
         }
     }
 
     private static void outputCachePath(Ivy ivy, File cache, ModuleDescriptor md, String[] confs,
-            String outFile) {
+            String outFile, PrintStream out) {
         try {
             String pathSeparator = System.getProperty("path.separator");
             StringBuffer buf = new StringBuffer();
@@ -444,7 +611,7 @@ public final class Main {
                 writer.println(buf.substring(0, buf.length() - pathSeparator.length()));
             }
             writer.close();
-            System.out.println("cachepath output to " + outFile);
+            out.println("cachepath output to " + outFile);
 
         } catch (Exception ex) {
             throw new RuntimeException(
@@ -515,6 +682,14 @@ public final class Main {
         }
     }
 
+    /**
+     * Configures the url handler with the credentials given on the command line, if any.
+     */
+    static void configureURLHandler(CommandLine line) {
+        configureURLHandler(line.getOptionValue("realm", null), line.getOptionValue("host",
+            null), line.getOptionValue("username", null), line.getOptionValue("passwd", null));
+    }
+
     private static void configureURLHandler(String realm, String host, String username,
             String passwd) {
         CredentialsStore.INSTANCE.addCredentials(realm, host, username, passwd);
@@ -0,0 +1,268 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.cli.CommandLine;
+import org.apache.ivy.util.cli.CommandLineParser;
+import org.apache.ivy.util.cli.ParseException;
+
+/**
+ * Runs the entries of a batch manifest with the same Ivy instance.
+ * <p>
+ * Each non empty line of the manifest which doesn't start with '#' is an entry, made of Ivy
+ * command line arguments: the ivy file or dependency to resolve, and what to do with it
+ * (retrieve, cachepath, deliver, publish). Arguments are separated by spaces, and can be
+ * surrounded by double quotes. Relative paths are resolved against the directory of the
+ * manifest. The settings, messages and memory caches of the Ivy instance are shared by all the
+ * entries, which can be run concurrently.
+ * </p>
+ * <p>
+ * Concurrent entries shouldn't resolve the same module, since they would write the same reports
+ * in the resolution cache, and the repository cache should use a lock strategy such as
+ * artifact-lock.
+ * </p>
+ */
+final class MainBatch {
+    /**
+     * The options which apply to the whole batch, and thus can't be given in an entry.
+     */
+    private static final String[] BATCH_OPTIONS = new String[] {"settings", "conf", "cache",
+            "m2compatible", "useOrigin", "realm", "host", "username", "passwd", "main", "args",
+            "cp", "daemon", "client", "batch", "batchthreads", "benchmark", "benchmarkivys",
+            "benchmarkgenerate", "benchmarkruns", "benchmarkwarmup", "benchmarkcold",
+            "benchmarkcompare", "benchmarkthreshold", "benchmarkreport", "debug", "verbose",
+            "warn", "error", "?", "deprecated", "version"};
+
+    private final Ivy ivy;
+
+    private final File baseDir;
+
+    private final List/*<Entry>*/ entries = new ArrayList();
+
+    private MainBatch(Ivy ivy, File manifest) {
+        this.ivy = ivy;
+        this.baseDir = manifest.getAbsoluteFile().getParentFile();
+    }
+
+    /**
+     * Runs the entries of the given manifest.
+     *
+     * @param threads
+     *            the number of entries to run concurrently
+     * @return the exit code: 0 when all the entries succeeded, 1 otherwise
+     */
+    static int execute(CommandLineParser parser, Ivy ivy, File manifest, int threads,
+            PrintStream out) throws IOException, ParseException {
+        if (!manifest.isFile()) {
+            throw new ParseException("batch manifest not found: " + manifest);
+        }
+        MainBatch batch = new MainBatch(ivy, manifest);
+        batch.parse(parser, manifest);
+        batch.run(threads, out);
+        return batch.report(out);
+    }
+
+    private void parse(CommandLineParser parser, File manifest) throws IOException,
+            ParseException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(
+                manifest), "UTF-8"));
+        try {
+            int lineNumber = 0;
+            for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+                lineNumber++;
+                text = text.trim();
+                if (text.length() == 0 || text.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    CommandLine line = parser.parse(splitArgs(text));
+                    for (int i = 0; i < BATCH_OPTIONS.length; i++) {
+                        if (line.hasOption(BATCH_OPTIONS[i])) {
+                            throw new ParseException("-" + BATCH_OPTIONS[i]
+                                    + " can't be used in a batch entry");
+                        }
+                    }
+                    entries.add(new Entry(text, line));
+                } catch (ParseException e) {
+                    throw new ParseException(manifest + ":" + lineNumber + ": "
+                            + e.getMessage());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Splits the given manifest line in arguments, separated by spaces unless surrounded by
+     * double quotes.
+     */
+    static String[] splitArgs(String text) throws ParseException {
+        List args = new ArrayList();
+        StringBuffer arg = null;
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                if (arg == null) {
+                    arg = new StringBuffer();
+                }
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (arg != null) {
+                    args.add(arg.toString());
+                    arg = null;
+                }
+            } else {
+                if (arg == null) {
+                    arg = new StringBuffer();
+                }
+                arg.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ParseException("unbalanced quotes");
+        }
+        if (arg != null) {
+            args.add(arg.toString());
+        }
+        return (String[]) args.toArray(new String[args.size()]);
+    }
+
+    private void run(int threads, final PrintStream out) {
+        if (threads <= 1 || entries.size() < 2) {
+            for (int i = 0; i < entries.size(); i++) {
+                ((Entry) entries.get(i)).execute(ivy, baseDir, out);
+            }
+            return;
+        }
+
+        final int[] next = new int[1];
+        Runnable work = new Runnable() {
+            public void run() {
+                // each thread has its own context, the resolves don't share their data
+                ivy.pushContext();
+                try {
+                    while (true) {
+                        int index;
+                        synchronized (next) {
+                            if (next[0] >= entries.size()) {
+                                return;
+                            }
+                            index = next[0]++;
+                        }
+                        ((Entry) entries.get(index)).execute(ivy, baseDir, out);
+                    }
+                } finally {
+                    ivy.popContext();
+                }
+            }
+        };
+        Thread[] workers = new Thread[Math.min(threads, entries.size())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(work, "ivy-batch-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                workers[i].join();
+            }
+        } catch (InterruptedException e) {
+            synchronized (next) {
+                next[0] = entries.size();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int report(PrintStream out) {
+        int failed = 0;
+        out.println("==== batch results");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = (Entry) entries.get(i);
+            if (!entry.isSuccessful()) {
+                failed++;
+            }
+            out.println(entry);
+        }
+        out.println(entries.size() + " entries, " + failed + " failed");
+        return failed == 0 ? 0 : 1;
+    }
+
+    private static final class Entry {
+        private final String text;
+
+        private final CommandLine line;
+
+        private boolean done;
+
+        private int exitCode = 1;
+
+        private String failure;
+
+        private long duration;
+
+        Entry(String text, CommandLine line) {
+            this.text = text;
+            this.line = line;
+        }
+
+        void execute(Ivy ivy, File baseDir, PrintStream out) {
+            long start = System.currentTimeMillis();
+            int code = 1;
+            String msg = null;
+            try {
+                code = Main.execute(line, ivy, baseDir, out);
+            } catch (ParseException e) {
+                msg = e.getMessage();
+            } catch (Exception e) {
+                Message.debug(e);
+                msg = e.toString();
+            }
+            synchronized (this) {
+                done = true;
+                exitCode = code;
+                failure = msg;
+                duration = System.currentTimeMillis() - start;
+            }
+        }
+
+        synchronized boolean isSuccessful() {
+            return done && exitCode == 0;
+        }
+
+        public synchronized String toString() {
+            if (!done) {
+                return "[not run] " + text;
+            }
+            return (exitCode == 0 ? "[ok] " : "[failed] ") + text + " (" + duration + "ms)"
+                    + (failure == null ? "" : ": " + failure);
+        }
+    }
+}
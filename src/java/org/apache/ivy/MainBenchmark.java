@@ -0,0 +1,678 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.ivy.core.LogOptions;
+import org.apache.ivy.core.module.descriptor.Configuration;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.descriptor.MDArtifact;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.retrieve.RetrieveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
+import org.apache.ivy.plugins.report.XmlReportOutputter;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.MemoryUtil;
+import org.apache.ivy.util.XMLHelper;
+import org.apache.ivy.util.cli.CommandLine;
+import org.apache.ivy.util.cli.ParseException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Measures the resolves and retrieves asked on the command line, and compares the measures of two
+ * Ivy builds.
+ * <p>
+ * The workload is made of the given ivy files, or of the top module of a generated repository.
+ * It is run a few times to warm up the virtual machine, then the given number of times, each
+ * run with a new Ivy instance configured from the command line, so that only the caches on disk
+ * are shared between runs. The resolve and download times of the resolve reports, the retrieve
+ * time, the total time and the peak heap usage of each recorded run are written to a result
+ * file.
+ * </p>
+ * <p>
+ * Two result files are compared metric by metric with the 95% confidence interval of the
+ * difference of their means (Welch's t interval). A metric regresses when the whole interval is
+ * above zero and the mean slows down by more than the threshold, in which case the comparison
+ * fails.
+ * </p>
+ */
+final class MainBenchmark {
+    /**
+     * The measured metrics, in the order of the values of a {@link Run}.
+     */
+    static final String[] METRICS = new String[] {"resolve", "download", "retrieve", "total",
+            "heap"};
+
+    private static final String[] UNITS = new String[] {"ms", "ms", "ms", "ms", "MB"};
+
+    private static final int RESOLVE = 0;
+
+    private static final int DOWNLOAD = 1;
+
+    private static final int RETRIEVE = 2;
+
+    private static final int TOTAL = 3;
+
+    private static final int HEAP = 4;
+
+    private static final int DEFAULT_RUNS = 10;
+
+    private static final int DEFAULT_WARMUP = 2;
+
+    private static final int DEFAULT_THRESHOLD = 10;
+
+    private static final int PERCENT = 100;
+
+    private static final double MEGA = 1024 * 1024;
+
+    /**
+     * The seed of the generated repository, so that all the builds resolve the same one.
+     */
+    private static final long SEED = 1;
+
+    private static final int GENERATED_ARTIFACT_SIZE = 1024;
+
+    /**
+     * The 97.5% quantiles of the Student's t distribution for 1 to 30 degrees of freedom, which
+     * bound a two sided 95% confidence interval.
+     */
+    private static final double[] T_QUANTILES = new double[] {12.706, 4.303, 3.182, 2.776,
+            2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120,
+            2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048,
+            2.045, 2.042};
+
+    private static final String DATE_FORMAT = "yyyyMMddHHmmss";
+
+    private static final String REPORT_STYLE = "ivy-benchmark.xsl";
+
+    private static final String REPORT_CSS = "ivy-report.css";
+
+    private MainBenchmark() {
+    }
+
+    /**
+     * Records the workload asked on the command line with <code>-benchmark</code>, then compares
+     * the files given with <code>-benchmarkcompare</code>.
+     *
+     * @return the exit code: 0 when everything went fine, 1 if a run failed or the comparison
+     *         found a regression
+     */
+    static int execute(CommandLine line, File baseDir, PrintStream out) throws Exception {
+        if (line.hasOption("benchmark")) {
+            int code = record(line, baseDir, out);
+            if (code != 0) {
+                return code;
+            }
+        }
+        if (line.hasOption("benchmarkcompare")) {
+            String[] files = line.getOptionValues("benchmarkcompare");
+            File report = line.hasOption("benchmarkreport") ? Main.resolveFile(baseDir, line
+                    .getOptionValue("benchmarkreport")) : null;
+            return compare(Main.resolveFile(baseDir, files[0]), Main.resolveFile(baseDir,
+                files[1]), Main.getInt(line, "benchmarkthreshold", DEFAULT_THRESHOLD), report,
+                out);
+        }
+        return 0;
+    }
+
+    private static int record(CommandLine line, File baseDir, PrintStream out) throws Exception {
+        int runs = Main.getInt(line, "benchmarkruns", DEFAULT_RUNS);
+        int warmup = Main.getInt(line, "benchmarkwarmup", DEFAULT_WARMUP);
+        if (runs < 1 || warmup < 0) {
+            throw new ParseException("bad number of benchmark runs: " + runs + " runs, "
+                    + warmup + " warm up runs");
+        }
+        File resultFile = Main.resolveFile(baseDir, line.getOptionValue("benchmark"));
+
+        File workDir = File.createTempFile("ivy-benchmark", "");
+        workDir.delete();
+        workDir.mkdirs();
+        try {
+            Workload workload = new Workload(line, baseDir, workDir);
+            List/*<Run>*/ recorded = new ArrayList();
+            for (int i = 0; i < warmup + runs; i++) {
+                Run run = workload.run(out);
+                if (run == null) {
+                    return 1;
+                }
+                if (i >= warmup) {
+                    recorded.add(run);
+                }
+                out.println((i < warmup ? "warm up run " + (i + 1) : "run " + (i - warmup + 1))
+                        + ": " + run);
+            }
+            writeResults(resultFile, workload.getDescription(), warmup, recorded);
+            out.println("benchmark results written to " + resultFile);
+            return 0;
+        } finally {
+            FileUtil.forceDelete(workDir);
+        }
+    }
+
+    /**
+     * The resolves and retrieves run by each benchmark run.
+     */
+    private static final class Workload {
+        private final CommandLine line;
+
+        private final File baseDir;
+
+        private final File workDir;
+
+        private final File[] ivyFiles;
+
+        private final String description;
+
+        private final boolean generated;
+
+        Workload(CommandLine line, File baseDir, File workDir) throws Exception {
+            this.line = line;
+            this.baseDir = baseDir;
+            this.workDir = workDir;
+            if (line.hasOption("benchmarkgenerate")) {
+                int nbModules = Main.getInt(line, "benchmarkgenerate", 0);
+                if (nbModules < 1) {
+                    throw new ParseException("bad number of generated modules: " + nbModules);
+                }
+                generateModules(new File(workDir, "repository"), nbModules);
+                ivyFiles = new File[] {new File(workDir, "repository/mod0/ivy-1.0.xml")};
+                description = "generated repository of " + nbModules + " modules";
+                generated = true;
+            } else {
+                String[] paths = line.hasOption("benchmarkivys") ? line
+                        .getOptionValues("benchmarkivys") : new String[] {line.getOptionValue(
+                    "ivy", "ivy.xml")};
+                ivyFiles = new File[paths.length];
+                StringBuffer buf = new StringBuffer();
+                for (int i = 0; i < paths.length; i++) {
+                    ivyFiles[i] = Main.resolveFile(baseDir, paths[i]);
+                    if (!ivyFiles[i].isFile()) {
+                        throw new ParseException("ivy file not found: " + ivyFiles[i]);
+                    }
+                    buf.append(i == 0 ? "" : ", ").append(ivyFiles[i].getName());
+                }
+                description = buf.toString();
+                generated = false;
+            }
+        }
+
+        String getDescription() {
+            return description + (line.hasOption("benchmarkcold") ? ", cold cache" : "");
+        }
+
+        /**
+         * Runs the workload once with a new Ivy instance.
+         *
+         * @return the measures of the run, or null if a resolve failed
+         */
+        Run run(PrintStream out) throws Exception {
+            Ivy ivy = Ivy.newInstance();
+            Main.initMessage(line, ivy, out);
+            ivy.pushContext();
+            try {
+                configure(ivy);
+                String[] confs = line.hasOption("confs") ? line.getOptionValues("confs")
+                        : new String[] {"*"};
+                long[] values = new long[METRICS.length];
+                System.gc();
+                MemoryUtil.resetPeakHeapUsage();
+                long start = System.currentTimeMillis();
+                for (int i = 0; i < ivyFiles.length; i++) {
+                    ResolveOptions resolveOptions = Main.getResolveOptions(line, confs);
+                    resolveOptions.setLog(LogOptions.LOG_QUIET);
+                    ResolveReport report = ivy.resolve(ivyFiles[i].toURI().toURL(),
+                        resolveOptions);
+                    if (report.hasError()) {
+                        out.println("benchmark resolve of " + ivyFiles[i] + " failed: "
+                                + report.getAllProblemMessages());
+                        return null;
+                    }
+                    values[RESOLVE] += report.getResolveTime();
+                    values[DOWNLOAD] += report.getDownloadTime();
+                    if (line.hasOption("retrieve")) {
+                        values[RETRIEVE] += retrieve(ivy, report, confs);
+                    }
+                }
+                values[TOTAL] = System.currentTimeMillis() - start;
+                values[HEAP] = MemoryUtil.getPeakHeapUsage();
+                return new Run(values);
+            } finally {
+                ivy.getLoggerEngine().popLogger();
+                ivy.popContext();
+            }
+        }
+
+        /**
+         * Configures the given Ivy instance with the settings options of the command line, and
+         * the repository and cache of the workload.
+         */
+        private void configure(Ivy ivy) throws Exception {
+            IvySettings settings = Main.initSettings(line, ivy, baseDir);
+            if (generated) {
+                FileSystemResolver resolver = new FileSystemResolver();
+                resolver.setName("benchmark");
+                resolver.addIvyPattern(workDir.getAbsolutePath()
+                        + "/repository/[module]/ivy-[revision].xml");
+                resolver.addArtifactPattern(workDir.getAbsolutePath()
+                        + "/repository/[module]/[artifact]-[revision].[ext]");
+                settings.addResolver(resolver);
+                settings.setDefaultResolver("benchmark");
+            }
+            if (generated || line.hasOption("benchmarkcold")) {
+                File cache = new File(workDir, "cache");
+                if (line.hasOption("benchmarkcold")) {
+                    FileUtil.forceDelete(cache);
+                }
+                settings.setDefaultCache(cache);
+            }
+        }
+
+        private long retrieve(Ivy ivy, ResolveReport report, String[] confs) throws IOException {
+            IvySettings settings = ivy.getSettings();
+            ModuleDescriptor md = report.getModuleDescriptor();
+            if (confs.length == 1 && "*".equals(confs[0])) {
+                confs = md.getConfigurationsNames();
+            }
+            String retrievePattern = settings.substitute(line.getOptionValue("retrieve"));
+            if (retrievePattern.indexOf("[") == -1) {
+                retrievePattern = retrievePattern + "/lib/[conf]/[artifact].[ext]";
+            }
+            long start = System.currentTimeMillis();
+            ivy.retrieve(md.getModuleRevisionId(), Main.resolvePattern(baseDir,
+                retrievePattern), (RetrieveOptions) new RetrieveOptions().setConfs(confs)
+                    .setResolveId(report.getResolveId()).setSync(line.hasOption("sync"))
+                    .setLog(LogOptions.LOG_QUIET));
+            return System.currentTimeMillis() - start;
+        }
+    }
+
+    /**
+     * Generates a repository of modules depending on the latest integration revision of the
+     * following modules, with a fixed seed so that it is the same for all the compared builds.
+     */
+    static void generateModules(File repository, int nbModules) throws IOException {
+        final int minDependencies = 2;
+        final int maxDependencies = 5;
+        final int minVersions = 2;
+        final int maxVersions = 15;
+        Random r = new Random(SEED);
+        byte[] content = new byte[GENERATED_ARTIFACT_SIZE];
+        int curDep = 1;
+        for (int nb = 0; nb < nbModules; nb++) {
+            int deps = minDependencies + r.nextInt(maxDependencies - minDependencies + 1);
+            int versions = minVersions + r.nextInt(maxVersions - minVersions + 1);
+
+            int prevCurDep = curDep;
+            for (int ver = 0; ver < versions; ver++) {
+                DefaultModuleDescriptor md = new DefaultModuleDescriptor(ModuleRevisionId
+                        .newInstance("apache", "mod" + nb, "1." + ver), "integration",
+                        new Date(0));
+                md.addConfiguration(new Configuration("default"));
+                md.addArtifact("default", new MDArtifact(md, "mod" + nb, "jar", "jar"));
+                curDep = prevCurDep;
+                for (int i = 0; i < deps && curDep < nbModules; i++) {
+                    int d;
+                    if (i % 2 == 1) {
+                        d = nb + i;
+                        if (d >= prevCurDep) {
+                            d = curDep;
+                            curDep++;
+                        }
+                    } else {
+                        d = curDep;
+                        curDep++;
+                    }
+                    DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md,
+                            ModuleRevisionId.newInstance("apache", "mod" + d,
+                                "latest.integration"), false, false, true);
+                    dd.addDependencyConfiguration("default", "default");
+                    md.addDependency(dd);
+                }
+                File dir = new File(repository, "mod" + nb);
+                XmlModuleDescriptorWriter.write(md, new File(dir, "ivy-1." + ver + ".xml"));
+                OutputStream artifact = new FileOutputStream(new File(dir, "mod" + nb + "-1."
+                        + ver + ".jar"));
+                try {
+                    artifact.write(content);
+                } finally {
+                    artifact.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * The measures of a benchmark run, in the order of {@link MainBenchmark#METRICS}.
+     */
+    private static final class Run {
+        private final long[] values;
+
+        Run(long[] values) {
+            this.values = values;
+        }
+
+        long get(int metric) {
+            return values[metric];
+        }
+
+        public String toString() {
+            StringBuffer buf = new StringBuffer();
+            for (int i = 0; i < HEAP; i++) {
+                buf.append(i == 0 ? "" : ", ").append(METRICS[i]).append(" ").append(values[i])
+                        .append(" ms");
+            }
+            if (values[HEAP] != -1) {
+                buf.append(", peak heap ").append(values[HEAP] / (long) MEGA).append(" MB");
+            }
+            return buf.toString();
+        }
+    }
+
+    private static void writeResults(File file, String workload, int warmup, List runs)
+            throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file),
+                "UTF-8"));
+        try {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<ivy-benchmark version=\"1.0\" ivy-version=\""
+                    + XMLHelper.escape(Ivy.getIvyVersion()) + "\" java-version=\""
+                    + XMLHelper.escape(System.getProperty("java.version")) + "\" date=\""
+                    + new SimpleDateFormat(DATE_FORMAT).format(new Date()) + "\" workload=\""
+                    + XMLHelper.escape(workload) + "\" warmup=\"" + warmup + "\">");
+            for (int i = 0; i < runs.size(); i++) {
+                Run run = (Run) runs.get(i);
+                out.print("\t<run");
+                for (int j = 0; j < METRICS.length; j++) {
+                    out.print(" " + METRICS[j] + "=\"" + run.get(j) + "\"");
+                }
+                out.println("/>");
+            }
+            out.println("</ivy-benchmark>");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * The runs of a benchmark result file.
+     */
+    static final class Results {
+        private final File file;
+
+        private final Element root;
+
+        private final double[][] values;
+
+        Results(File file) throws Exception {
+            this.file = file;
+            if (!file.isFile()) {
+                throw new ParseException("benchmark result file not found: " + file);
+            }
+            Document doc = XMLHelper.getDocBuilder(null).parse(file);
+            root = doc.getDocumentElement();
+            if (!"ivy-benchmark".equals(root.getTagName())) {
+                throw new ParseException("not a benchmark result file: " + file);
+            }
+            NodeList runs = root.getElementsByTagName("run");
+            values = new double[METRICS.length][runs.getLength()];
+            for (int i = 0; i < runs.getLength(); i++) {
+                Element run = (Element) runs.item(i);
+                for (int j = 0; j < METRICS.length; j++) {
+                    try {
+                        values[j][i] = Double.parseDouble(run.getAttribute(METRICS[j]));
+                    } catch (NumberFormatException e) {
+                        throw new ParseException("bad " + METRICS[j] + " value in " + file
+                                + ": " + run.getAttribute(METRICS[j]));
+                    }
+                }
+            }
+        }
+
+        double[] getValues(int metric) {
+            return values[metric];
+        }
+
+        int getRuns() {
+            return values[RESOLVE].length;
+        }
+
+        void writeInfo(String name, StringBuffer xml) {
+            xml.append("\t<").append(name).append(" file=\"").append(
+                XMLHelper.escape(file.getPath())).append("\"");
+            String[] attributes = new String[] {"ivy-version", "java-version", "date",
+                    "workload"};
+            for (int i = 0; i < attributes.length; i++) {
+                xml.append(" ").append(attributes[i]).append("=\"").append(
+                    XMLHelper.escape(root.getAttribute(attributes[i]))).append("\"");
+            }
+            xml.append(" runs=\"").append(getRuns()).append("\"/>\n");
+        }
+    }
+
+    /**
+     * The mean of a sample, and the half width of its 95% confidence interval.
+     */
+    static final class Estimate {
+        private final int count;
+
+        private final double mean;
+
+        private final double variance;
+
+        Estimate(double[] sample) {
+            count = sample.length;
+            double sum = 0;
+            for (int i = 0; i < sample.length; i++) {
+                sum += sample[i];
+            }
+            mean = count == 0 ? 0 : sum / count;
+            double squares = 0;
+            for (int i = 0; i < sample.length; i++) {
+                squares += (sample[i] - mean) * (sample[i] - mean);
+            }
+            variance = count < 2 ? 0 : squares / (count - 1);
+        }
+
+        double getMean() {
+            return mean;
+        }
+
+        double getHalfWidth() {
+            return tQuantile(count - 1) * Math.sqrt(variance / count);
+        }
+
+        /**
+         * Returns the half width of the 95% confidence interval of the difference between the
+         * mean of the given estimate and this one, with the Welch-Satterthwaite approximation
+         * of the degrees of freedom.
+         */
+        double getDifferenceHalfWidth(Estimate other) {
+            double v1 = variance / count;
+            double v2 = other.variance / other.count;
+            if (v1 + v2 == 0) {
+                return 0;
+            }
+            double df = (v1 + v2) * (v1 + v2)
+                    / (v1 * v1 / (count - 1) + v2 * v2 / (other.count - 1));
+            return tQuantile((int) Math.floor(df)) * Math.sqrt(v1 + v2);
+        }
+    }
+
+    static double tQuantile(int degreesOfFreedom) {
+        if (degreesOfFreedom < 1) {
+            return Double.POSITIVE_INFINITY;
+        } else if (degreesOfFreedom <= T_QUANTILES.length) {
+            return T_QUANTILES[degreesOfFreedom - 1];
+        } else if (degreesOfFreedom <= 40) {
+            return 2.021;
+        } else if (degreesOfFreedom <= 60) {
+            return 2.000;
+        } else if (degreesOfFreedom <= 120) {
+            return 1.980;
+        } else {
+            return 1.960;
+        }
+    }
+
+    /**
+     * Compares the given benchmark result files, and writes the comparison to the given output
+     * and html report.
+     *
+     * @param threshold
+     *            the slow down, in percent of the baseline mean, above which a significant
+     *            difference is a regression
+     * @param report
+     *            the html file to which the comparison is written, null for none
+     * @return 1 if a metric regresses, 0 otherwise
+     */
+    static int compare(File baselineFile, File currentFile, int threshold, File report,
+            PrintStream out) throws Exception {
+        Results baseline = new Results(baselineFile);
+        Results current = new Results(currentFile);
+        if (baseline.getRuns() < 2 || current.getRuns() < 2) {
+            throw new ParseException("at least 2 runs are needed to compare benchmark results");
+        }
+        DecimalFormat format = new DecimalFormat("0.0", new DecimalFormatSymbols(Locale.US));
+
+        StringBuffer metrics = new StringBuffer();
+        int regressions = 0;
+        out.println("==== benchmark comparison (threshold " + threshold + "%)");
+        for (int i = 0; i < METRICS.length; i++) {
+            double scale = i == HEAP ? MEGA : 1;
+            Estimate before = new Estimate(scale(baseline.getValues(i), scale));
+            Estimate after = new Estimate(scale(current.getValues(i), scale));
+            if (before.getMean() <= 0 || after.getMean() < 0) {
+                // nothing measured, or the heap usage is not available
+                continue;
+            }
+            double change = (after.getMean() - before.getMean()) * PERCENT / before.getMean();
+            double changeHalfWidth = before.getDifferenceHalfWidth(after) * PERCENT
+                    / before.getMean();
+            String status;
+            if (change - changeHalfWidth > 0 && change > threshold) {
+                status = "regression";
+                regressions++;
+            } else if (change + changeHalfWidth < 0 && change < -threshold) {
+                status = "improvement";
+            } else {
+                status = "unchanged";
+            }
+
+            metrics.append("\t<metric name=\"").append(METRICS[i]).append("\" unit=\"").append(
+                UNITS[i]).append("\" status=\"").append(status).append("\"");
+            appendValue(metrics, "baseline-mean", before.getMean(), format);
+            appendValue(metrics, "baseline-ci", before.getHalfWidth(), format);
+            appendValue(metrics, "current-mean", after.getMean(), format);
+            appendValue(metrics, "current-ci", after.getHalfWidth(), format);
+            appendValue(metrics, "change", change, format);
+            appendValue(metrics, "change-low", change - changeHalfWidth, format);
+            appendValue(metrics, "change-high", change + changeHalfWidth, format);
+            metrics.append("/>\n");
+
+            out.println(METRICS[i] + ": " + format.format(before.getMean()) + " "
+                    + UNITS[i] + " -> " + format.format(after.getMean()) + " " + UNITS[i]
+                    + " (" + (change > 0 ? "+" : "") + format.format(change) + "%, 95% CI ["
+                    + format.format(change - changeHalfWidth) + "%, "
+                    + format.format(change + changeHalfWidth) + "%]) " + status);
+        }
+        out.println(regressions == 0 ? "no regression" : regressions + " regressions");
+
+        if (report != null) {
+            StringBuffer xml = new StringBuffer();
+            xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            xml.append("<ivy-benchmark-comparison date=\"").append(
+                new SimpleDateFormat(DATE_FORMAT).format(new Date())).append("\" threshold=\"")
+                    .append(threshold).append("\" regressions=\"").append(regressions).append(
+                        "\">\n");
+            baseline.writeInfo("baseline", xml);
+            current.writeInfo("current", xml);
+            xml.append(metrics);
+            xml.append("</ivy-benchmark-comparison>\n");
+            writeReport(xml.toString(), report);
+            out.println("benchmark comparison written to " + report);
+        }
+        return regressions == 0 ? 0 : 1;
+    }
+
+    private static double[] scale(double[] values, double scale) {
+        double[] scaled = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = values[i] / scale;
+        }
+        return scaled;
+    }
+
+    private static void appendValue(StringBuffer xml, String name, double value,
+            DecimalFormat format) {
+        xml.append(" ").append(name).append("=\"").append(format.format(value)).append("\"");
+    }
+
+    private static void writeReport(String xml, File report) throws IOException,
+            TransformerException {
+        File dir = report.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+        InputStream style = XmlReportOutputter.class.getResourceAsStream(REPORT_STYLE);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(report));
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer(
+                new StreamSource(style));
+            transformer.transform(new StreamSource(new StringReader(xml)), new StreamResult(
+                    out));
+        } finally {
+            out.close();
+            style.close();
+        }
+        FileUtil.copy(XmlReportOutputter.class.getResourceAsStream(REPORT_CSS), new File(dir,
+                REPORT_CSS), null);
+    }
+}
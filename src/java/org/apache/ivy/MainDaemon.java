@@ -0,0 +1,338 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.trigger.Trigger;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.cli.CommandLine;
+import org.apache.ivy.util.cli.CommandLineParser;
+import org.apache.ivy.util.cli.ParseException;
+
+/**
+ * A long running process doing the work of Ivy command line clients, so that they don't have to
+ * load the settings and start with empty caches each time.
+ * <p>
+ * The settings are loaded once for each distinct set of settings options (settings file, cache,
+ * ...), and loaded again only when the settings file is modified. The requests using the same
+ * settings share an immutable snapshot of them, and thus the same resolvers and caches. Each
+ * request runs in its own thread with its own Ivy instance, so that requests run concurrently
+ * with their own Ivy context, messages and events.
+ * </p>
+ * <p>
+ * Clients are Ivy command lines run with the -client option: the other arguments and the working
+ * directory of the client are sent to the daemon, which sends back the output and the exit code.
+ * Only connections from the local host are accepted.
+ * </p>
+ */
+final class MainDaemon {
+    private static final int PROTOCOL_VERSION = 1;
+
+    private static final int BACKLOG = 50;
+
+    // the kinds of frames sent back to the client
+    private static final int EXIT = 0;
+
+    private static final int OUT = 1;
+
+    private static final int ERR = 2;
+
+    private final CommandLineParser parser;
+
+    private final ServerSocket serverSocket;
+
+    // Map (String settingsKey -> LoadedSettings)
+    private final Map loadedSettings = new HashMap();
+
+    private Thread acceptThread;
+
+    MainDaemon(CommandLineParser parser, int port) throws IOException {
+        this.parser = parser;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getByName("127.0.0.1"));
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting requests.
+     *
+     * @param line
+     *            the command line of the daemon: the settings it gives are loaded right away
+     */
+    void start(CommandLine line) throws Exception {
+        if (line.hasOption("settings") || line.hasOption("conf") || line.hasOption("cache")) {
+            getSettings(line, new File(".").getAbsoluteFile(), System.out);
+        }
+        acceptThread = new Thread("ivy daemon") {
+            public void run() {
+                accept();
+            }
+        };
+        acceptThread.start();
+        System.out.println("ivy daemon listening on port " + getPort());
+    }
+
+    void join() throws InterruptedException {
+        acceptThread.join();
+    }
+
+    void stop() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("ivy daemon: unable to accept request: " + e);
+                }
+                continue;
+            }
+            Thread request = new Thread("ivy daemon request") {
+                public void run() {
+                    handle(socket);
+                }
+            };
+            request.setDaemon(true);
+            request.start();
+        }
+    }
+
+    private void handle(Socket socket) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket
+                    .getInputStream()));
+            DataOutputStream frames = new DataOutputStream(new BufferedOutputStream(socket
+                    .getOutputStream()));
+            PrintStream out = new PrintStream(new FrameOutputStream(frames, OUT), true);
+            PrintStream err = new PrintStream(new FrameOutputStream(frames, ERR), true);
+            int exitCode;
+            if (in.readInt() != PROTOCOL_VERSION) {
+                err.println("ivy daemon: unsupported client version");
+                exitCode = 1;
+            } else {
+                File baseDir = new File(in.readUTF());
+                String[] args = new String[in.readInt()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = in.readUTF();
+                }
+                exitCode = execute(args, baseDir, out, err);
+            }
+            out.flush();
+            err.flush();
+            synchronized (frames) {
+                frames.writeByte(EXIT);
+                frames.writeInt(exitCode);
+                frames.flush();
+            }
+        } catch (IOException e) {
+            // the client is gone, there is nobody to report to
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    private int execute(String[] args, File baseDir, PrintStream out, PrintStream err) {
+        try {
+            CommandLine line = parser.parse(args);
+            if (line.hasOption("main") || line.hasOption("daemon") || line.hasOption("client")) {
+                throw new ParseException(
+                        "-main, -daemon and -client can't be used in requests to a daemon");
+            }
+            LoadedSettings settings = getSettings(line, baseDir, out);
+            Ivy ivy = settings.newIvy();
+            Main.initMessage(line, ivy, out);
+            ivy.pushContext();
+            try {
+                return Main.execute(line, ivy, baseDir, out);
+            } finally {
+                ivy.getLoggerEngine().popLogger();
+                ivy.popContext();
+            }
+        } catch (ParseException e) {
+            err.println(e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            e.printStackTrace(err);
+            return 1;
+        }
+    }
+
+    private synchronized LoadedSettings getSettings(CommandLine line, File baseDir,
+            PrintStream out) throws Exception {
+        String settingsPath = line.getOptionValue("settings", line.getOptionValue("conf", ""));
+        File settingsFile = "".equals(settingsPath) ? null : FileUtil.resolveFile(baseDir,
+            settingsPath);
+        String cache = line.getOptionValue("cache");
+        String key = settingsFile + "|"
+                + (cache == null ? null : FileUtil.resolveFile(baseDir, cache)) + "|"
+                + line.hasOption("m2compatible") + "|" + line.hasOption("useOrigin") + "|"
+                + line.getOptionValue("realm") + "|" + line.getOptionValue("host") + "|"
+                + line.getOptionValue("username") + "|" + line.getOptionValue("passwd");
+
+        LoadedSettings settings = (LoadedSettings) loadedSettings.get(key);
+        if (settings == null || settings.isStale()) {
+            Ivy ivy = Ivy.newInstance();
+            Main.initMessage(line, ivy, out);
+            try {
+                Main.initSettings(line, ivy, baseDir);
+            } finally {
+                ivy.getLoggerEngine().popLogger();
+            }
+            settings = new LoadedSettings(ivy.getSettings().snapshot(), settingsFile);
+            loadedSettings.put(key, settings);
+        } else {
+            // the url handler and the credentials are global: the ones of the previous request
+            // may differ
+            Main.configureURLHandler(line);
+        }
+        return settings;
+    }
+
+    /**
+     * Sends the given arguments to the daemon listening on the given port, and copies its output
+     * to the standard output and error streams.
+     *
+     * @return the exit code of the request
+     */
+    static int forward(int port, String[] args) throws IOException {
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+        } catch (IOException e) {
+            throw new IOException("no ivy daemon listening on port " + port + ": "
+                    + e.getMessage());
+        }
+        try {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket
+                    .getOutputStream()));
+            request.writeInt(PROTOCOL_VERSION);
+            request.writeUTF(System.getProperty("user.dir"));
+            request.writeInt(args.length);
+            for (int i = 0; i < args.length; i++) {
+                request.writeUTF(args[i]);
+            }
+            request.flush();
+
+            DataInputStream frames = new DataInputStream(new BufferedInputStream(socket
+                    .getInputStream()));
+            while (true) {
+                int kind = frames.readByte();
+                if (kind == EXIT) {
+                    return frames.readInt();
+                }
+                byte[] bytes = new byte[frames.readInt()];
+                frames.readFully(bytes);
+                PrintStream out = kind == ERR ? System.err : System.out;
+                out.write(bytes, 0, bytes.length);
+                out.flush();
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Settings loaded for the requests using the same settings options.
+     */
+    private static final class LoadedSettings {
+        private final IvySettings settings;
+
+        private final File settingsFile;
+
+        private final long lastModified;
+
+        LoadedSettings(IvySettings settings, File settingsFile) {
+            this.settings = settings;
+            this.settingsFile = settingsFile;
+            this.lastModified = settingsFile == null ? 0 : settingsFile.lastModified();
+        }
+
+        boolean isStale() {
+            return settingsFile != null && settingsFile.lastModified() != lastModified;
+        }
+
+        Ivy newIvy() {
+            Ivy ivy = new Ivy();
+            ivy.setSettings(settings);
+            ivy.bind();
+            // like when settings are loaded, the triggers listen to the events of the instance
+            for (Iterator it = settings.getTriggers().iterator(); it.hasNext();) {
+                Trigger trigger = (Trigger) it.next();
+                ivy.getEventManager().addIvyListener(trigger, trigger.getEventFilter());
+            }
+            return ivy;
+        }
+    }
+
+    /**
+     * Sends what is written to it as frames of the given kind.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream frames;
+
+        private final int kind;
+
+        FrameOutputStream(DataOutputStream frames, int kind) {
+            this.frames = frames;
+            this.kind = kind;
+        }
+
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (frames) {
+                frames.writeByte(kind);
+                frames.writeInt(len);
+                frames.write(b, off, len);
+            }
+        }
+
+        public void flush() throws IOException {
+            synchronized (frames) {
+                frames.flush();
+            }
+        }
+    }
+}
@@ -17,12 +17,17 @@
  */
 package org.apache.ivy.ant;
 
+import java.lang.reflect.Field;
+import java.util.Iterator;
+
 import org.apache.ivy.Ivy;
 import org.apache.ivy.util.AbstractMessageLogger;
 import org.apache.ivy.util.Checks;
 import org.apache.ivy.util.MessageLogger;
 import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.Task;
 
@@ -61,42 +66,52 @@ public class AntMessageLogger extends AbstractMessageLogger {
         
         AntMessageLogger logger = new AntMessageLogger(task);
         ivy.getLoggerEngine().pushLogger(logger);
-        task.getProject().addBuildListener(new BuildListener() {
-            private int stackDepth = 0;
+        task.getProject().addBuildListener(new UnregisterListener(ivy));
+    }
 
-            public void buildFinished(BuildEvent event) {
-            }
+    /**
+     * Pops the logger from the Ivy instance when the task which registered it finishes.
+     */
+    private static final class UnregisterListener implements BuildListener {
+        private final Ivy ivy;
 
-            public void buildStarted(BuildEvent event) {
-            }
+        private int stackDepth = 0;
 
-            public void targetStarted(BuildEvent event) {
-            }
+        private UnregisterListener(Ivy ivy) {
+            this.ivy = ivy;
+        }
 
-            public void targetFinished(BuildEvent event) {
-            }
+        public void buildFinished(BuildEvent event) {
+        }
 
-            public void taskStarted(BuildEvent event) {
-                stackDepth++;
-            }
+        public void buildStarted(BuildEvent event) {
+        }
 
-            public void taskFinished(BuildEvent event) {
-                // NB: There is somtimes task created by an other task
-                // in that case, we should not uninit Message. The log should stay associated
-                // with the initial task, except if it was an antcall, ant or subant target
-                // NB2 : Testing the identity of the task is not enought, event.getTask() return
-                // an instance of UnknownElement is wrapping the concrete instance
-                stackDepth--;
-                if (stackDepth == -1) {
-                    ivy.getLoggerEngine().popLogger();
-                    event.getProject().removeBuildListener(this);
-                }
-            }
+        public void targetStarted(BuildEvent event) {
+        }
 
-            public void messageLogged(BuildEvent event) {
+        public void targetFinished(BuildEvent event) {
+        }
+
+        public void taskStarted(BuildEvent event) {
+            stackDepth++;
+        }
+
+        public void taskFinished(BuildEvent event) {
+            // NB: There is somtimes task created by an other task
+            // in that case, we should not uninit Message. The log should stay associated
+            // with the initial task, except if it was an antcall, ant or subant target
+            // NB2 : Testing the identity of the task is not enought, event.getTask() return
+            // an instance of UnknownElement is wrapping the concrete instance
+            stackDepth--;
+            if (stackDepth == -1) {
+                ivy.getLoggerEngine().popLogger();
+                event.getProject().removeBuildListener(this);
             }
-        });
-        
+        }
+
+        public void messageLogged(BuildEvent event) {
+        }
     }
 
     private ProjectComponent task;
@@ -105,6 +120,12 @@ public class AntMessageLogger extends AbstractMessageLogger {
 
     private StringBuffer buf = new StringBuffer();
 
+    /**
+     * The highest level logged by the listeners of the project, computed on the first call to
+     * {@link #isLoggable(int)}, -1 before.
+     */
+    private int outputLevel = -1;
+
     /**
      * Constructs a new AntMEssageImpl instance.
      * 
@@ -125,6 +146,42 @@ public class AntMessageLogger extends AbstractMessageLogger {
         task.getProject().log(msg, level);
     }
 
+    public boolean isLoggable(int level) {
+        if (outputLevel == -1) {
+            outputLevel = getOutputLevel(task.getProject());
+        }
+        return level <= outputLevel;
+    }
+
+    /**
+     * Returns the highest message output level of the loggers listening to the given project.
+     * <p>
+     * Ant doesn't give this level, so it is read from the msgOutputLevel field of
+     * {@link DefaultLogger} and its subclasses. Any other listener may log messages at every level,
+     * so {@link Project#MSG_DEBUG} is returned when one is found, or when the field can't be read.
+     * </p>
+     */
+    private static int getOutputLevel(Project project) {
+        int level = Project.MSG_ERR;
+        for (Iterator iter = project.getBuildListeners().iterator(); iter.hasNext();) {
+            BuildListener listener = (BuildListener) iter.next();
+            if (listener instanceof UnregisterListener) {
+                continue;
+            }
+            if (!(listener instanceof DefaultLogger)) {
+                return Project.MSG_DEBUG;
+            }
+            try {
+                Field field = DefaultLogger.class.getDeclaredField("msgOutputLevel");
+                field.setAccessible(true);
+                level = Math.max(level, field.getInt(listener));
+            } catch (Exception e) {
+                return Project.MSG_DEBUG;
+            }
+        }
+        return level;
+    }
+
     public void doProgress() {
         buf.append(".");
         if (lastProgressFlush == 0) {
@@ -21,9 +21,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
@@ -32,13 +34,29 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ivy.Ivy;
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.IvyThread;
+import org.apache.ivy.core.RelativeUrlResolver;
+import org.apache.ivy.core.cache.ParserSettingsMonitor;
+import org.apache.ivy.core.cache.ResolutionCacheManager;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.module.status.StatusManager;
 import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.core.settings.IvyVariableContainer;
 import org.apache.ivy.core.sort.SortOptions;
+import org.apache.ivy.plugins.conflict.ConflictManager;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.namespace.Namespace;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
+import org.apache.ivy.plugins.parser.ParserSettings;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.util.Message;
+import org.apache.ivy.util.PropertiesFile;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.types.FileSet;
@@ -61,7 +79,9 @@ public class IvyBuildList extends IvyTask {
     }
 
     public static final String DESCRIPTOR_REQUIRED = "required";
-    
+
+    private static final String DESCRIPTOR_CACHE_FILE = "buildlist-descriptors.properties";
+
     private List buildFileSets = new ArrayList(); // List (FileSet)
 
     private String reference;
@@ -87,6 +107,10 @@ public class IvyBuildList extends IvyTask {
     private boolean onlydirectdep = false;
 
     private String restartFrom = "*";
+
+    private int parseThreads = 1;
+
+    private boolean cacheDescriptors = false;
         
     public void addFileset(FileSet buildFiles) {
         buildFileSets.add(buildFiles);
@@ -193,6 +217,8 @@ public class IvyBuildList extends IvyTask {
             restartFromModuleNames.add(st.nextToken());
         }
         
+        List ivyFiles = new ArrayList(); // List (File ivyFile)
+        List ivyBuildFiles = new ArrayList(); // List (File buildFile)
         for (ListIterator iter = buildFileSets.listIterator(); iter.hasNext();) {
             FileSet fs = (FileSet) iter.next();
             DirectoryScanner ds = fs.getDirectoryScanner(getProject());
@@ -203,24 +229,32 @@ public class IvyBuildList extends IvyTask {
                 if (!ivyFile.exists()) {
                     onMissingDescriptor(buildFile, ivyFile, noDescriptor);
                 } else {
-                    try {
-                        ModuleDescriptor md = ModuleDescriptorParserRegistry.getInstance()
-                                .parseDescriptor(
-                                    settings, ivyFile.toURI().toURL(), doValidate(settings));
-                        buildFiles.put(md, buildFile);
-                        mds.add(md);
-                        Message.debug("Add " + md.getModuleRevisionId().getModuleId());
-                    } catch (Exception ex) {
-                        if (haltOnError) {
-                            throw new BuildException("impossible to parse ivy file for "
-                                    + buildFile + ": ivyfile=" + ivyFile + " exception=" + ex, ex);
-                        } else {
-                            Message.warn("impossible to parse ivy file for " + buildFile
-                                    + ": ivyfile=" + ivyFile + " exception=" + ex.getMessage());
-                            Message.info("\t=> adding it at the beginning of the path");
-                            independent.add(buildFile);
-                        }
-                    }
+                    ivyFiles.add(ivyFile);
+                    ivyBuildFiles.add(buildFile);
+                }
+            }
+        }
+
+        // descriptors may be parsed concurrently, but results are processed in the fileset order
+        Object[] parsed = parseDescriptors(settings, ivyFiles);
+        for (int i = 0; i < parsed.length; i++) {
+            File buildFile = (File) ivyBuildFiles.get(i);
+            File ivyFile = (File) ivyFiles.get(i);
+            if (parsed[i] instanceof ModuleDescriptor) {
+                ModuleDescriptor md = (ModuleDescriptor) parsed[i];
+                buildFiles.put(md, buildFile);
+                mds.add(md);
+                Message.debug("Add " + md.getModuleRevisionId().getModuleId());
+            } else {
+                Exception ex = (Exception) parsed[i];
+                if (haltOnError) {
+                    throw new BuildException("impossible to parse ivy file for "
+                            + buildFile + ": ivyfile=" + ivyFile + " exception=" + ex, ex);
+                } else {
+                    Message.warn("impossible to parse ivy file for " + buildFile
+                            + ": ivyfile=" + ivyFile + " exception=" + ex.getMessage());
+                    Message.info("\t=> adding it at the beginning of the path");
+                    independent.add(buildFile);
                 }
             }
         }
@@ -296,6 +330,94 @@ public class IvyBuildList extends IvyTask {
         getProject().setProperty("ivy.sorted.modules", order.toString());
     }
 
+    /**
+     * Parses the given ivy files, using several threads if parseThreads is greater than 1.
+     * 
+     * @return an array with, at the index of each ivy file, either its ModuleDescriptor or the
+     *         Exception raised when parsing it
+     */
+    private Object[] parseDescriptors(IvySettings settings, List ivyFiles) {
+        Object[] results = new Object[ivyFiles.size()];
+        boolean validate = doValidate(settings);
+        DescriptorCache cache = cacheDescriptors ? new DescriptorCache(new File(
+            settings.getResolutionCacheManager().getResolutionCacheRoot(),
+            DESCRIPTOR_CACHE_FILE)) : null;
+        if (parseThreads <= 1 || results.length < 2) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = parseDescriptor(settings, (File) ivyFiles.get(i), validate, cache);
+            }
+        } else {
+            parseDescriptors(new ParserSettingsSnapshot(settings), ivyFiles, validate, cache,
+                results);
+        }
+        if (cache != null) {
+            cache.save();
+        }
+        return results;
+    }
+
+    private void parseDescriptors(final ParserSettings snapshot, final List ivyFiles,
+            final boolean validate, final DescriptorCache cache, final Object[] results) {
+        final int[] next = new int[1];
+        Runnable parse = new Runnable() {
+            public void run() {
+                while (true) {
+                    int index;
+                    synchronized (next) {
+                        if (next[0] >= results.length) {
+                            return;
+                        }
+                        index = next[0]++;
+                    }
+                    results[index] = parseDescriptor(
+                        snapshot, (File) ivyFiles.get(index), validate, cache);
+                }
+            }
+        };
+        Thread[] threads = new Thread[Math.min(parseThreads, results.length)];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new IvyThread(parse, "ivy-buildlist-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        try {
+            for (int i = 0; i < threads.length; i++) {
+                threads[i].join();
+            }
+        } catch (InterruptedException ex) {
+            synchronized (next) {
+                next[0] = results.length;
+            }
+            Thread.currentThread().interrupt();
+            throw new BuildException("interrupted while parsing ivy files", ex);
+        }
+    }
+
+    private Object parseDescriptor(ParserSettings settings, File ivyFile, boolean validate,
+            DescriptorCache cache) {
+        try {
+            if (cache == null) {
+                return ModuleDescriptorParserRegistry.getInstance().parseDescriptor(
+                    settings, ivyFile.toURI().toURL(), validate);
+            }
+            long lastModified = ivyFile.lastModified();
+            long length = ivyFile.length();
+            ModuleDescriptor md = cache.get(ivyFile, lastModified, length, validate, settings);
+            if (md != null) {
+                Message.debug("descriptor of " + ivyFile + " found in build list cache");
+                return md;
+            }
+            ParserSettingsMonitor monitor = new ParserSettingsMonitor(settings);
+            md = ModuleDescriptorParserRegistry.getInstance().parseDescriptor(
+                monitor.getMonitoredSettings(), ivyFile.toURI().toURL(), validate);
+            monitor.endMonitoring();
+            cache.put(ivyFile, lastModified, length, validate, md, monitor);
+            return md;
+        } catch (Exception ex) {
+            return ex;
+        }
+    }
+
     private void onMissingDescriptor(File buildFile, File ivyFile, List noDescriptor) {
         if (OnMissingDescriptor.SKIP.equals(onMissingDescriptor)) {
             Message.debug("skipping " + buildFile + ": descriptor " + ivyFile
@@ -564,5 +686,207 @@ public class IvyBuildList extends IvyTask {
         this.restartFrom = restartFrom;
     }
 
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public boolean isCacheDescriptors() {
+        return cacheDescriptors;
+    }
+
+    public void setCacheDescriptors(boolean cacheDescriptors) {
+        this.cacheDescriptors = cacheDescriptors;
+    }
+
+    /**
+     * The modules and dependencies of the ivy files parsed by previous build lists, kept in a
+     * properties file of the resolution cache. An entry is reused as long as the ivy file and the
+     * settings variables it used have not changed. It only describes what the build list sorts
+     * and filters the modules with: the module revision id, status, publication date and
+     * dependency revision ids. Ivy files extending another descriptor are not cached, since
+     * their content also depends on their parents.
+     */
+    private static final class DescriptorCache {
+        private static final String SEPARATOR = "|";
+
+        private final PropertiesFile properties;
+
+        private boolean modified = false;
+
+        private DescriptorCache(File file) {
+            properties = new PropertiesFile(file, "ivy buildlist descriptors");
+        }
+
+        private synchronized ModuleDescriptor get(File ivyFile, long lastModified, long length,
+                boolean validate, ParserSettings settings) {
+            String prefix = ivyFile.getAbsolutePath() + SEPARATOR;
+            if (!String.valueOf(lastModified).equals(
+                        properties.getProperty(prefix + "lastModified"))
+                    || !String.valueOf(length).equals(properties.getProperty(prefix + "length"))
+                    || (validate && !"true".equals(properties.getProperty(prefix + "validated")))) {
+                return null;
+            }
+            try {
+                int variables = Integer.parseInt(properties.getProperty(prefix + "variables"));
+                for (int i = 0; i < variables; i++) {
+                    String name = properties.getProperty(prefix + "variable." + i + ".name");
+                    String value = properties.getProperty(prefix + "variable." + i + ".value");
+                    if (!value.equals(settings.substitute(name))) {
+                        Message.debug("settings variable has changed for : " + name);
+                        return null;
+                    }
+                }
+                String publication = properties.getProperty(prefix + "publication");
+                DefaultModuleDescriptor md = new DefaultModuleDescriptor(
+                    ModuleRevisionId.decode(properties.getProperty(prefix + "module")),
+                    properties.getProperty(prefix + "status"),
+                    publication == null ? null : new Date(Long.parseLong(publication)));
+                int dependencies = Integer.parseInt(
+                    properties.getProperty(prefix + "dependencies"));
+                for (int i = 0; i < dependencies; i++) {
+                    md.addDependency(new DefaultDependencyDescriptor(md, ModuleRevisionId.decode(
+                        properties.getProperty(prefix + "dependency." + i)), false, false, true));
+                }
+                return md;
+            } catch (RuntimeException ex) {
+                Message.debug("invalid build list cache entry for " + ivyFile + ": " + ex);
+                return null;
+            }
+        }
+
+        private synchronized void put(File ivyFile, long lastModified, long length,
+                boolean validated, ModuleDescriptor md, ParserSettingsMonitor monitor) {
+            String prefix = ivyFile.getAbsolutePath() + SEPARATOR;
+            for (Iterator it = new ArrayList(properties.keySet()).iterator(); it.hasNext();) {
+                String key = (String) it.next();
+                if (key.startsWith(prefix)) {
+                    properties.remove(key);
+                }
+            }
+            modified = true;
+            if (md.getInheritedDescriptors().length > 0) {
+                return;
+            }
+            properties.setProperty(prefix + "lastModified", String.valueOf(lastModified));
+            properties.setProperty(prefix + "length", String.valueOf(length));
+            properties.setProperty(prefix + "validated", String.valueOf(validated));
+            Map substitutes = monitor.getSubstitutes();
+            properties.setProperty(prefix + "variables", String.valueOf(substitutes.size()));
+            int i = 0;
+            for (Iterator it = substitutes.entrySet().iterator(); it.hasNext(); i++) {
+                Map.Entry entry = (Map.Entry) it.next();
+                properties.setProperty(prefix + "variable." + i + ".name",
+                    (String) entry.getKey());
+                properties.setProperty(prefix + "variable." + i + ".value",
+                    (String) entry.getValue());
+            }
+            properties.setProperty(prefix + "module", md.getModuleRevisionId().encodeToString());
+            properties.setProperty(prefix + "status", md.getStatus());
+            if (md.getPublicationDate() != null) {
+                properties.setProperty(prefix + "publication",
+                    String.valueOf(md.getPublicationDate().getTime()));
+            }
+            DependencyDescriptor[] dds = md.getDependencies();
+            properties.setProperty(prefix + "dependencies", String.valueOf(dds.length));
+            for (i = 0; i < dds.length; i++) {
+                properties.setProperty(prefix + "dependency." + i,
+                    dds[i].getDependencyRevisionId().encodeToString());
+            }
+        }
+
+        private synchronized void save() {
+            if (modified) {
+                properties.save();
+                modified = false;
+            }
+        }
+    }
+
+    /**
+     * ParserSettings which can be used by several threads parsing descriptors at the same time:
+     * the variables are copied and the settings lazily created by IvySettings are created
+     * beforehand. Other lookups are delegated to the settings, which must not be modified while
+     * the descriptors are parsed.
+     */
+    private static final class ParserSettingsSnapshot implements ParserSettings {
+        private final IvySettings settings;
+
+        private final IvyVariableContainer variables;
+
+        private final ResolutionCacheManager resolutionCacheManager;
+
+        private final StatusManager statusManager;
+
+        private final ConflictManager defaultConflictManager;
+
+        private ParserSettingsSnapshot(IvySettings settings) {
+            this.settings = settings;
+            this.variables = (IvyVariableContainer) settings.getVariables().clone();
+            this.resolutionCacheManager = settings.getResolutionCacheManager();
+            this.statusManager = settings.getStatusManager();
+            this.defaultConflictManager = settings.getDefaultConflictManager();
+        }
+
+        public String substitute(String value) {
+            return IvyPatternHelper.substituteVariables(value, variables);
+        }
+
+        public Map substitute(Map strings) {
+            Map substituted = new LinkedHashMap();
+            for (Iterator it = strings.entrySet().iterator(); it.hasNext();) {
+                Map.Entry entry = (Map.Entry) it.next();
+                substituted.put(entry.getKey(), substitute((String) entry.getValue()));
+            }
+            return substituted;
+        }
+
+        public ResolutionCacheManager getResolutionCacheManager() {
+            return resolutionCacheManager;
+        }
+
+        public ConflictManager getConflictManager(String name) {
+            if ("default".equals(name)) {
+                return defaultConflictManager;
+            }
+            return settings.getConflictManager(name);
+        }
+
+        public PatternMatcher getMatcher(String matcherName) {
+            return settings.getMatcher(matcherName);
+        }
+
+        public Namespace getNamespace(String namespace) {
+            return settings.getNamespace(namespace);
+        }
+
+        public StatusManager getStatusManager() {
+            return statusManager;
+        }
+
+        public RelativeUrlResolver getRelativeUrlResolver() {
+            return settings.getRelativeUrlResolver();
+        }
+
+        public DependencyResolver getResolver(ModuleRevisionId mRevId) {
+            return settings.getResolver(mRevId);
+        }
+
+        public File resolveFile(String filename) {
+            return settings.resolveFile(filename);
+        }
+
+        public String getDefaultBranch(ModuleId moduleId) {
+            return settings.getDefaultBranch(moduleId);
+        }
+
+        public Namespace getContextNamespace() {
+            return settings.getContextNamespace();
+        }
+    }
+
     
 }
@@ -93,6 +93,8 @@ public class IvyResolve extends IvyTask {
 
     private boolean checkIfChanged = true; //for backward compatibility
 
+    private boolean incrementalRestart = false;
+
     private List/* <IvyDependency> */dependencies = new ArrayList();
 
     private List/* <IvyExclude> */excludes = new ArrayList();
@@ -456,7 +458,8 @@ public class IvyResolve extends IvyTask {
                 .setResolveMode(resolveMode)
                 .setResolveId(resolveId)
                 .setCheckIfChanged(checkIfChanged)
-                .setUncompress(uncompress);
+                .setUncompress(uncompress)
+                .setIncrementalRestart(incrementalRestart);
     }
 
     public String getModule() {
@@ -530,4 +533,12 @@ public class IvyResolve extends IvyTask {
     public void setCheckIfChanged(boolean checkIfChanged) {
         this.checkIfChanged = checkIfChanged;
     }
+
+    public boolean isIncrementalRestart() {
+        return incrementalRestart;
+    }
+
+    public void setIncrementalRestart(boolean incrementalRestart) {
+        this.incrementalRestart = incrementalRestart;
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.ant;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.LatencyHistogram;
+import org.apache.ivy.core.resolve.ResolveMetrics;
+import org.apache.tools.ant.BuildException;
+
+/**
+ * Writes the timings and counters collected during the last resolve to a json file, or logs them
+ * when no file is given.
+ */
+public class IvyResolveMetrics extends IvyPostResolveTask {
+    private File tofile;
+
+    public File getTofile() {
+        return tofile;
+    }
+
+    public void setTofile(File tofile) {
+        this.tofile = tofile;
+    }
+
+    public void doExecute() throws BuildException {
+        prepareAndCheck();
+        ResolveReport report = getResolvedReport();
+        if (report == null) {
+            throw new BuildException("no resolve report found: the metrics are only available "
+                    + "in the build in which the resolve has been done");
+        }
+        ResolveMetrics metrics = report.getMetrics();
+        if (tofile != null) {
+            try {
+                metrics.writeJson(tofile);
+            } catch (IOException e) {
+                throw new BuildException("impossible to write resolve metrics to " + tofile
+                        + ": " + e, e);
+            }
+            log("resolve metrics of " + report.getResolveId() + " written to " + tofile);
+            return;
+        }
+
+        log("resolve metrics of " + report.getResolveId());
+        String[] phases = metrics.getPhases();
+        for (int i = 0; i < phases.length; i++) {
+            log("\t" + phases[i] + ": " + metrics.getTimings(phases[i]));
+            String[] sources = metrics.getSources(phases[i]);
+            for (int j = 0; j < sources.length; j++) {
+                LatencyHistogram timings = metrics.getTimings(phases[i], sources[j]);
+                log("\t\t" + sources[j] + ": " + timings);
+            }
+        }
+        String[] counters = metrics.getCounters();
+        for (int i = 0; i < counters.length; i++) {
+            log("\t" + counters[i] + ": " + metrics.getCount(counters[i]));
+            String[] sources = metrics.getCounterSources(counters[i]);
+            for (int j = 0; j < sources.length; j++) {
+                log("\t\t" + sources[j] + ": " + metrics.getCount(counters[i], sources[j]));
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.circular.CircularDependencyStrategy;
 import org.apache.ivy.util.Message;
 import org.apache.ivy.util.MessageLogger;
+import org.apache.ivy.util.ProblemStore;
 
 /**
  * This class represents an execution context of an Ivy action. It contains several getters to
@@ -54,6 +55,8 @@ public class IvyContext {
     private ResolveData resolveData;
 
     private DependencyDescriptor dd;
+
+    private ProblemStore problems;
     
     public IvyContext() {
     }
@@ -65,6 +68,7 @@ public class IvyContext {
         operatingThread = ctx.operatingThread;
         resolveData = ctx.resolveData;
         dd = ctx.dd;
+        problems = ctx.problems;
     }
 
     public static IvyContext getContext() {
@@ -384,4 +388,26 @@ public class IvyContext {
         return dd;
     }
 
+    /**
+     * Sets the store in which the problems reported in this context are kept, instead of the
+     * problems of the logger of the Ivy instance.
+     * 
+     * @param problems
+     *            the store of the problems of the operation in progress, <code>null</code> to
+     *            go back to the problems of the logger
+     */
+    public void setProblemStore(ProblemStore problems) {
+        this.problems = problems;
+    }
+
+    /**
+     * Returns the store in which the problems reported in this context are kept.
+     * 
+     * @return the store set with {@link #setProblemStore(ProblemStore)}, <code>null</code> if
+     *         the problems are kept by the logger
+     */
+    public ProblemStore getProblemStore() {
+        return problems;
+    }
+
 }
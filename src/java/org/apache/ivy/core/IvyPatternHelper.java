@@ -18,8 +18,11 @@
 package org.apache.ivy.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
@@ -69,6 +72,24 @@ public final class IvyPatternHelper {
 
     private static final Pattern VAR_PATTERN = Pattern.compile("\\$\\{(.*?)\\}");
 
+    private static final int MAX_COMPILED_PATTERNS = 500;
+
+    // the patterns in which variables have been substituted, split around their variables
+    private static final Map/*<String, VariableTemplate>*/ VARIABLE_TEMPLATES = new LinkedHashMap(
+            MAX_COMPILED_PATTERNS, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry eldest) {
+            return size() > MAX_COMPILED_PATTERNS;
+        }
+    };
+
+    // the compiled patterns, the least recently used being removed when there are too many
+    private static final Map/*<String, CompiledPattern>*/ COMPILED_PATTERNS = new LinkedHashMap(
+            MAX_COMPILED_PATTERNS, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry eldest) {
+            return size() > MAX_COMPILED_PATTERNS;
+        }
+    };
+
     public static String substitute(String pattern, ModuleRevisionId moduleRevision) {
         return substitute(pattern, moduleRevision.getOrganisation(), moduleRevision.getName(),
             moduleRevision.getBranch(), moduleRevision.getRevision(), "ivy", "ivy", "xml", null,
@@ -127,74 +148,77 @@ public final class IvyPatternHelper {
     public static String substitute(String pattern, String org, String module, String branch,
             String revision, String artifact, String type, String ext, String conf,
             ArtifactOrigin origin, Map extraModuleAttributes, Map extraArtifactAttributes) {
-        Map tokens = new HashMap();
-        if (extraModuleAttributes != null) {
-            for (Iterator entries = extraModuleAttributes.entrySet().iterator(); entries.hasNext(); ) {
-                Map.Entry entry = (Map.Entry) entries.next();
-                String token = (String) entry.getKey();
-                if (token.indexOf(':') > 0) {
-                    token = token.substring(token.indexOf(':') + 1);
-                }
-                tokens.put(token, entry.getValue());
-            }
-        }
-        if (extraArtifactAttributes != null) {
-            for (Iterator entries = extraArtifactAttributes.entrySet().iterator(); entries.hasNext(); ) {
-                Map.Entry entry = (Map.Entry) entries.next();
-                String token = (String) entry.getKey();
-                if (token.indexOf(':') > 0) {
-                    token = token.substring(token.indexOf(':') + 1);
-                }
-                tokens.put(token, entry.getValue());
-            }
-        }
-        tokens.put(ORGANISATION_KEY, org == null ? "" : org);
-        tokens.put(ORGANISATION_KEY2, org == null ? "" : org);
-        tokens.put(ORGANISATION_PATH_KEY, org == null ? "" : org.replace('.', '/'));
-        tokens.put(MODULE_KEY, module == null ? "" : module);
-        tokens.put(BRANCH_KEY, branch == null ? "" : branch);
-        tokens.put(REVISION_KEY, revision == null ? "" : revision);
-        tokens.put(ARTIFACT_KEY, artifact == null ? module : artifact);
-        tokens.put(TYPE_KEY, type == null ? "jar" : type);
-        tokens.put(EXT_KEY, ext == null ? "jar" : ext);
-        tokens.put(CONF_KEY, conf == null ? "default" : conf);
-        if (origin == null) {
-            tokens.put(ORIGINAL_ARTIFACTNAME_KEY, new OriginalArtifactNameValue(org,
-                module, branch, revision, artifact, type, ext, extraModuleAttributes, extraArtifactAttributes));
-        } else { 
-            tokens.put(ORIGINAL_ARTIFACTNAME_KEY, new OriginalArtifactNameValue(origin));
-        }
-                
-        return substituteTokens(pattern, tokens);
+        return getCompiledPattern(pattern).substitute(new ArtifactTokenValues(org, module,
+                branch, revision, artifact, type, ext, conf, origin, extraModuleAttributes,
+                extraArtifactAttributes));
     }
     // CheckStyle:ParameterNumber ON
 
     public static String substituteVariables(String pattern, Map variables) {
-        return substituteVariables(pattern, new IvyVariableContainerImpl(variables), new Stack());
+        return substituteVariables(pattern, new IvyVariableContainerImpl(variables), new Stack(),
+            null);
     }
 
     public static String substituteVariables(String pattern, IvyVariableContainer variables) {
-        return substituteVariables(pattern, variables, new Stack());
+        return substituteVariables(pattern, variables, new Stack(), null);
+    }
+
+    /**
+     * Substitutes the variables in the given pattern, recording the variables the result depends
+     * on.
+     * 
+     * @param pattern
+     *            the pattern in which variables should be substituted
+     * @param variables
+     *            the container giving the values of the variables
+     * @param usedVariables
+     *            a map in which each variable looked up during the substitution, including the
+     *            ones used in the values of other variables, is put with its value (null if the
+     *            variable is not defined). Can be null.
+     * @return the substituted pattern, the same object if it doesn't use any variable
+     */
+    public static String substituteVariables(String pattern, IvyVariableContainer variables,
+            Map/*<String, String>*/ usedVariables) {
+        return substituteVariables(pattern, variables, new Stack(), usedVariables);
+    }
+
+    /**
+     * Returns the names of the variables directly used in the given pattern, in the order in
+     * which they appear.
+     * 
+     * @param pattern
+     *            the pattern to analyse
+     * @return the list of variable names, empty if the pattern doesn't use any variable
+     */
+    public static List/*<String>*/ getVariableNames(String pattern) {
+        if (pattern == null || pattern.indexOf("${") == -1) {
+            return Collections.EMPTY_LIST;
+        }
+        return Collections.unmodifiableList(Arrays.asList(getVariableTemplate(pattern).names));
     }
 
-    private static String substituteVariables(
-            String pattern, IvyVariableContainer variables, Stack substituting) {
+    private static String substituteVariables(String pattern, IvyVariableContainer variables,
+            Stack substituting, Map usedVariables) {
         // if you supply null, null is what you get
         if (pattern == null) {
             return null;
         }
+        if (pattern.indexOf("${") == -1) {
+            return pattern;
+        }
 
-        Matcher m = VAR_PATTERN.matcher(pattern);
-
-        boolean useVariables = false;
-        StringBuffer sb = null;
-        while (m.find()) {
-            if (!useVariables) {
-                useVariables = true;
-                sb = new StringBuffer();
-            }
-            String var = m.group(1);
+        VariableTemplate template = getVariableTemplate(pattern);
+        if (template.names.length == 0) {
+            return pattern;
+        }
+        StringBuffer sb = new StringBuffer(pattern.length());
+        for (int i = 0; i < template.names.length; i++) {
+            sb.append(template.literals[i]);
+            String var = template.names[i];
             String val = (String) variables.getVariable(var);
+            if (usedVariables != null) {
+                usedVariables.put(var, val);
+            }
             if (val != null) {
                 int index = substituting.indexOf(var);
                 if (index != -1) {
@@ -204,132 +228,370 @@ public final class IvyPatternHelper {
                             + cycle);
                 }
                 substituting.push(var);
-                val = substituteVariables(val, variables, substituting);
+                val = substituteVariables(val, variables, substituting, usedVariables);
                 substituting.pop();
             } else {
-                val = m.group();
+                val = "${" + var + "}";
             }
-            m.appendReplacement(sb, val.replaceAll("\\\\", "\\\\\\\\")
-                .replaceAll("\\$", "\\\\\\$"));
+            sb.append(val);
         }
-        if (useVariables) {
-            m.appendTail(sb);
-            return sb.toString();
-        } else {
-            return pattern;
+        sb.append(template.literals[template.names.length]);
+        return sb.toString();
+    }
+
+    public static String substituteTokens(String pattern, final Map tokens) {
+        return getCompiledPattern(pattern).substitute(new TokenValues() {
+            Object getValue(String token) {
+                Object value = tokens.get(token);
+                if (value == null && !tokens.containsKey(token)) {
+                    // the organisation can also be used through its alias and path tokens
+                    if (ORGANISATION_KEY2.equals(token) && tokens.containsKey(ORGANISATION_KEY)) {
+                        value = tokens.get(ORGANISATION_KEY);
+                    } else if (ORGANISATION_PATH_KEY.equals(token)
+                            && tokens.containsKey(ORGANISATION_KEY)) {
+                        String org = (String) tokens.get(ORGANISATION_KEY);
+                        value = org == null ? "" : org.replace('.', '/');
+                    }
+                }
+                return value;
+            }
+        });
+    }
+
+    private static VariableTemplate getVariableTemplate(String pattern) {
+        synchronized (VARIABLE_TEMPLATES) {
+            VariableTemplate template = (VariableTemplate) VARIABLE_TEMPLATES.get(pattern);
+            if (template == null) {
+                template = new VariableTemplate(pattern);
+                VARIABLE_TEMPLATES.put(pattern, template);
+            }
+            return template;
         }
     }
 
-    public static String substituteTokens(String pattern, Map tokens) {
-        Map tokensCopy = new HashMap(tokens);
-        if (tokensCopy.containsKey(ORGANISATION_KEY) && !tokensCopy.containsKey(ORGANISATION_KEY2)) {
-            tokensCopy.put(ORGANISATION_KEY2, tokensCopy.get(ORGANISATION_KEY));
+    private static CompiledPattern getCompiledPattern(String pattern) {
+        synchronized (COMPILED_PATTERNS) {
+            CompiledPattern compiled = (CompiledPattern) COMPILED_PATTERNS.get(pattern);
+            if (compiled == null) {
+                compiled = new CompiledPattern(pattern);
+                COMPILED_PATTERNS.put(pattern, compiled);
+            }
+            return compiled;
         }
-        if (tokensCopy.containsKey(ORGANISATION_KEY) && !tokensCopy.containsKey(ORGANISATION_PATH_KEY)) {
-            String org = (String) tokensCopy.get(ORGANISATION_KEY);
-            tokensCopy.put(ORGANISATION_PATH_KEY, org == null ? "" : org.replace('.', '/'));
+    }
+
+    /**
+     * A pattern split around its variable references, so that it is scanned only once.
+     */
+    private static final class VariableTemplate {
+        // the names of the variables used, in order
+        private final String[] names;
+
+        // the text around the variables, one more than the names
+        private final String[] literals;
+
+        VariableTemplate(String pattern) {
+            List names = new ArrayList();
+            List literals = new ArrayList();
+            Matcher m = VAR_PATTERN.matcher(pattern);
+            int last = 0;
+            while (m.find()) {
+                literals.add(pattern.substring(last, m.start()));
+                names.add(m.group(1));
+                last = m.end();
+            }
+            literals.add(pattern.substring(last));
+            this.names = (String[]) names.toArray(new String[names.size()]);
+            this.literals = (String[]) literals.toArray(new String[literals.size()]);
         }
-        
-        StringBuffer buffer = new StringBuffer();
-
-        char[] chars = pattern.toCharArray();
-
-        StringBuffer optionalPart = null;
-        StringBuffer tokenBuffer = null;
-        boolean insideOptionalPart = false;
-        boolean insideToken = false;
-        boolean tokenSeen = false;
-        boolean tokenHadValue = false;
-
-        for (int i = 0; i < chars.length; i++) {
-            switch (chars[i]) {
-                case '(':
-                    if (insideOptionalPart) {
-                        throw new IllegalArgumentException(
-                                "invalid start of optional part at position " + i + " in pattern "
-                                        + pattern);
-                    }
+    }
 
-                    optionalPart = new StringBuffer();
-                    insideOptionalPart = true;
-                    tokenSeen = false;
-                    tokenHadValue = false;
-                    break;
-
-                case ')':
-                    if (!insideOptionalPart || insideToken) {
-                        throw new IllegalArgumentException(
-                                "invalid end of optional part at position " + i + " in pattern "
-                                        + pattern);
-                    }
+    /**
+     * Gives the values of the tokens of the pattern being substituted.
+     */
+    private abstract static class TokenValues {
+        /**
+         * @return the value of the token, whose toString() is used in the substituted pattern, or
+         *         <code>null</code> if the token is not set
+         */
+        abstract Object getValue(String token);
+    }
 
-                    if (tokenHadValue) {
-                        buffer.append(optionalPart.toString());
-                    } else if (!tokenSeen) {
-                        buffer.append('(').append(optionalPart.toString()).append(')');
-                    }
+    /**
+     * Token values taken from the fields of a module revision and an artifact.
+     */
+    private static final class ArtifactTokenValues extends TokenValues {
+        private static final Object NO_VALUE = new Object();
 
-                    insideOptionalPart = false;
-                    break;
+        private final String org;
 
-                case '[':
-                    if (insideToken) {
-                        throw new IllegalArgumentException("invalid start of token at position "
-                                + i + " in pattern " + pattern);
-                    }
+        private final String module;
 
-                    tokenBuffer = new StringBuffer();
-                    insideToken = true;
-                    break;
+        private final String branch;
 
-                case ']':
-                    if (!insideToken) {
-                        throw new IllegalArgumentException("invalid end of token at position " + i
-                                + " in pattern " + pattern);
-                    }
+        private final String revision;
 
-                    String token = tokenBuffer.toString();
-                    Object tokenValue = tokensCopy.get(token);
-                    String value = (tokenValue == null) ? null : tokenValue.toString();
+        private final String artifact;
 
-                    if (insideOptionalPart) {
-                        tokenHadValue = (value != null) && (value.length() > 0);
-                        optionalPart.append(value);
-                    } else {
-                        if (value == null) { // the token wasn't set, it's kept as is
-                            value = "[" + token + "]";
+        private final String type;
+
+        private final String ext;
+
+        private final String conf;
+
+        private final ArtifactOrigin origin;
+
+        private final Map extraModuleAttributes;
+
+        private final Map extraArtifactAttributes;
+
+        private OriginalArtifactNameValue originalArtifactName;
+
+        // CheckStyle:ParameterNumber OFF
+        ArtifactTokenValues(String org, String module, String branch, String revision,
+                String artifact, String type, String ext, String conf, ArtifactOrigin origin,
+                Map extraModuleAttributes, Map extraArtifactAttributes) {
+            this.org = org;
+            this.module = module;
+            this.branch = branch;
+            this.revision = revision;
+            this.artifact = artifact;
+            this.type = type;
+            this.ext = ext;
+            this.conf = conf;
+            this.origin = origin;
+            this.extraModuleAttributes = extraModuleAttributes;
+            this.extraArtifactAttributes = extraArtifactAttributes;
+        }
+        // CheckStyle:ParameterNumber ON
+
+        Object getValue(String token) {
+            if (ORGANISATION_KEY.equals(token) || ORGANISATION_KEY2.equals(token)) {
+                return org == null ? "" : org;
+            } else if (ORGANISATION_PATH_KEY.equals(token)) {
+                return org == null ? "" : org.replace('.', '/');
+            } else if (MODULE_KEY.equals(token)) {
+                return module == null ? "" : module;
+            } else if (BRANCH_KEY.equals(token)) {
+                return branch == null ? "" : branch;
+            } else if (REVISION_KEY.equals(token)) {
+                return revision == null ? "" : revision;
+            } else if (ARTIFACT_KEY.equals(token)) {
+                return artifact == null ? module : artifact;
+            } else if (TYPE_KEY.equals(token)) {
+                return type == null ? "jar" : type;
+            } else if (EXT_KEY.equals(token)) {
+                return ext == null ? "jar" : ext;
+            } else if (CONF_KEY.equals(token)) {
+                return conf == null ? "default" : conf;
+            } else if (ORIGINAL_ARTIFACTNAME_KEY.equals(token)) {
+                if (originalArtifactName == null) {
+                    originalArtifactName = origin == null ? new OriginalArtifactNameValue(org,
+                            module, branch, revision, artifact, type, ext,
+                            extraModuleAttributes, extraArtifactAttributes)
+                            : new OriginalArtifactNameValue(origin);
+                }
+                return originalArtifactName;
+            }
+            // extra attributes are used without their namespace prefix, artifact attributes
+            // taking precedence over module ones
+            Object value = getExtraAttribute(extraArtifactAttributes, token);
+            if (value == NO_VALUE) {
+                value = getExtraAttribute(extraModuleAttributes, token);
+            }
+            return value == NO_VALUE ? null : value;
+        }
+
+        private static Object getExtraAttribute(Map extraAttributes, String token) {
+            if (extraAttributes == null) {
+                return NO_VALUE;
+            }
+            Object value = NO_VALUE;
+            for (Iterator entries = extraAttributes.entrySet().iterator(); entries.hasNext();) {
+                Map.Entry entry = (Map.Entry) entries.next();
+                String key = (String) entry.getKey();
+                int colon = key.indexOf(':');
+                if (colon > 0 ? key.regionMatches(colon + 1, token, 0, token.length())
+                        && key.length() - colon - 1 == token.length() : key.equals(token)) {
+                    // the last matching attribute wins
+                    value = entry.getValue();
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * A pattern split into its literal parts, its tokens and its optional parts, so that it is
+     * parsed only once.
+     */
+    private static final class CompiledPattern {
+        // Object[]: String literal, Token or OptionalPart
+        private final Object[] parts;
+
+        private final int length;
+
+        CompiledPattern(String pattern) {
+            List parts = new ArrayList();
+            List optionalParts = null;
+            StringBuffer literal = new StringBuffer();
+            StringBuffer tokenBuffer = null;
+            boolean insideOptionalPart = false;
+            boolean insideToken = false;
+            boolean tokenSeen = false;
+
+            char[] chars = pattern.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                switch (chars[i]) {
+                    case '(':
+                        if (insideOptionalPart) {
+                            throw new IllegalArgumentException(
+                                    "invalid start of optional part at position " + i
+                                            + " in pattern " + pattern);
                         }
-                        buffer.append(value);
-                    }
+                        addLiteral(parts, literal);
+                        optionalParts = new ArrayList();
+                        insideOptionalPart = true;
+                        tokenSeen = false;
+                        break;
+
+                    case ')':
+                        if (!insideOptionalPart || insideToken) {
+                            throw new IllegalArgumentException(
+                                    "invalid end of optional part at position " + i
+                                            + " in pattern " + pattern);
+                        }
+                        addLiteral(optionalParts, literal);
+                        parts.add(new OptionalPart(optionalParts, tokenSeen));
+                        insideOptionalPart = false;
+                        break;
+
+                    case '[':
+                        if (insideToken) {
+                            throw new IllegalArgumentException(
+                                    "invalid start of token at position " + i + " in pattern "
+                                            + pattern);
+                        }
+                        tokenBuffer = new StringBuffer();
+                        insideToken = true;
+                        break;
+
+                    case ']':
+                        if (!insideToken) {
+                            throw new IllegalArgumentException("invalid end of token at position "
+                                    + i + " in pattern " + pattern);
+                        }
+                        List current = insideOptionalPart ? optionalParts : parts;
+                        addLiteral(current, literal);
+                        current.add(new Token(tokenBuffer.toString()));
+                        insideToken = false;
+                        tokenSeen = true;
+                        break;
+
+                    default:
+                        if (insideToken) {
+                            tokenBuffer.append(chars[i]);
+                        } else {
+                            literal.append(chars[i]);
+                        }
+                        break;
+                }
+            }
+
+            if (insideToken) {
+                throw new IllegalArgumentException("last token hasn't been closed in pattern "
+                        + pattern);
+            }
+            if (insideOptionalPart) {
+                throw new IllegalArgumentException("optional part hasn't been closed in pattern "
+                        + pattern);
+            }
+            addLiteral(parts, literal);
+            this.parts = parts.toArray();
+            this.length = pattern.length();
+        }
 
-                    insideToken = false;
-                    tokenSeen = true;
-                    break;
+        private static void addLiteral(List parts, StringBuffer literal) {
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+                literal.setLength(0);
+            }
+        }
 
-                default:
-                    if (insideToken) {
-                        tokenBuffer.append(chars[i]);
-                    } else if (insideOptionalPart) {
-                        optionalPart.append(chars[i]);
+        String substitute(TokenValues values) {
+            if (parts.length == 1 && parts[0] instanceof String) {
+                return (String) parts[0];
+            }
+            StringBuffer buffer = new StringBuffer(length + 32);
+            for (int i = 0; i < parts.length; i++) {
+                Object part = parts[i];
+                if (part instanceof String) {
+                    buffer.append((String) part);
+                } else if (part instanceof Token) {
+                    String token = ((Token) part).name;
+                    String value = getValue(values, token);
+                    if (value == null) {
+                        // the token wasn't set, it's kept as is
+                        buffer.append('[').append(token).append(']');
                     } else {
-                        buffer.append(chars[i]);
+                        buffer.append(value);
                     }
-
-                    break;
+                } else {
+                    ((OptionalPart) part).substitute(values, buffer);
+                }
             }
+            return buffer.toString();
         }
+    }
+
+    private static String getValue(TokenValues values, String token) {
+        Object tokenValue = values.getValue(token);
+        return tokenValue == null ? null : tokenValue.toString();
+    }
 
-        if (insideToken) {
-            throw new IllegalArgumentException("last token hasn't been closed in pattern "
-                    + pattern);
+    private static final class Token {
+        private final String name;
+
+        Token(String name) {
+            this.name = name;
         }
+    }
 
-        if (insideOptionalPart) {
-            throw new IllegalArgumentException("optional part hasn't been closed in pattern "
-                    + pattern);
+    /**
+     * A part of a pattern between parenthesis. It is kept only if its last token has a non empty
+     * value, or, when it has no token, with its parenthesis.
+     */
+    private static final class OptionalPart {
+        // Object[]: String literal or Token
+        private final Object[] parts;
+
+        private final boolean hasToken;
+
+        OptionalPart(List parts, boolean hasToken) {
+            this.parts = parts.toArray();
+            this.hasToken = hasToken;
         }
 
-        return buffer.toString();
+        void substitute(TokenValues values, StringBuffer buffer) {
+            int start = buffer.length();
+            if (!hasToken) {
+                buffer.append('(');
+            }
+            String value = null;
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i] instanceof String) {
+                    buffer.append((String) parts[i]);
+                } else {
+                    value = getValue(values, ((Token) parts[i]).name);
+                    buffer.append(value);
+                }
+            }
+            if (!hasToken) {
+                buffer.append(')');
+            } else if (value == null || value.length() == 0) {
+                buffer.setLength(start);
+            }
+        }
     }
 
     public static String substituteVariable(String pattern, String variable, String value) {
@@ -390,7 +652,7 @@ public final class IvyPatternHelper {
                     throw new IllegalArgumentException("cyclic param definition: cycle = " + cycle);
                 }
                 substituting.push(var);
-                val = substituteVariables(val, params, substituting);
+                val = substituteVariables(val, params, substituting, null);
                 substituting.pop();
             } else {
                 val = m.group();
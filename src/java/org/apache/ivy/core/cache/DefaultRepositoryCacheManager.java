@@ -28,6 +28,8 @@ import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -44,6 +46,7 @@ import org.apache.ivy.core.module.id.ModuleRules;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.MetadataArtifactDownloadReport;
+import org.apache.ivy.core.resolve.ResolveMetrics;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.IvySettingsAware;
@@ -79,6 +82,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
     private static final String DEFAULT_DATA_FILE_PATTERN = 
         "[organisation]/[module](/[branch])/ivydata-[revision].properties";
 
+    private static final String LISTING_FILE_PATTERN = 
+        "[organisation]/[module](/[branch])/ivylistings.properties";
+
     private static final String DEFAULT_IVY_PATTERN = 
         "[organisation]/[module](/[branch])/ivy-[revision].xml";
     
@@ -593,11 +599,15 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             CacheMetadataOptions options, String expectedResolver) {
         ModuleRevisionId mrid = requestedRevisionId;
         if (isCheckmodified(dd, requestedRevisionId, options)) {
-            Message.verbose("don't use cache for " + mrid + ": checkModified=true");
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("don't use cache for " + mrid + ": checkModified=true");
+            }
             return null;
         }
         if (isChanging(dd, requestedRevisionId, options)) {
-            Message.verbose("don't use cache for " + mrid + ": changing=true");
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("don't use cache for " + mrid + ": changing=true");
+            }
             return null;
         }
         return doFindModuleInCache(mrid, options, expectedResolver);
@@ -616,8 +626,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             if (settings.getVersionMatcher().isDynamic(mrid)) {
                 String resolvedRevision = getResolvedRevision(mrid, options);
                 if (resolvedRevision != null) {
-                    Message.verbose("found resolved revision in cache: " 
-                        + mrid + " => " + resolvedRevision);
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("found resolved revision in cache: " 
+                            + mrid + " => " + resolvedRevision);
+                    }
                     
                     // we have found another module in the cache, make sure we unlock
                     // the original module
@@ -647,13 +659,17 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                     String artResolverName = getSavedArtResolverName(depMD);
                     DependencyResolver resolver = settings.getResolver(resolverName);
                     if (resolver == null) {
-                        Message.debug("\tresolver not found: " + resolverName
-                            + " => trying to use the one configured for " + mrid);
+                        if (Message.isDebugEnabled()) {
+                            Message.debug("\tresolver not found: " + resolverName
+                                + " => trying to use the one configured for " + mrid);
+                        }
                         resolver = settings.getResolver(depMD.getResolvedModuleRevisionId());
                         if (resolver != null) {
-                            Message.debug("\tconfigured resolver found for "
-                                + depMD.getResolvedModuleRevisionId() + ": "
-                                + resolver.getName() + ": saving this data");
+                            if (Message.isDebugEnabled()) {
+                                Message.debug("\tconfigured resolver found for "
+                                    + depMD.getResolvedModuleRevisionId() + ": "
+                                    + resolver.getName() + ": saving this data");
+                            }
                             saveResolver(depMD, resolver.getName());
                         }
                     }
@@ -662,8 +678,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                         artResolver = resolver;
                     }
                     if (resolver != null) {
-                        Message.debug("\tfound ivy file in cache for " + mrid + " (resolved by "
-                            + resolver.getName() + "): " + ivyFile);
+                        if (Message.isDebugEnabled()) {
+                            Message.debug("\tfound ivy file in cache for " + mrid
+                                + " (resolved by " + resolver.getName() + "): " + ivyFile);
+                        }
                         if (expectedResolver == null 
                                 || expectedResolver.equals(resolver.getName())) {
                             MetadataArtifactDownloadReport madr 
@@ -677,14 +695,14 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                                 getSavedArtifactOrigin(depMD.getMetadataArtifact()));
                             return new ResolvedModuleRevision(
                                 resolver, artResolver, depMD, madr);
-                        } else {
+                        } else if (Message.isDebugEnabled()) {
                             Message.debug(
                                 "found module in cache but with a different resolver: "
                                 + "discarding: " + mrid 
                                 + "; expected resolver=" + expectedResolver 
                                 + "; resolver=" + resolver.getName());
                         }
-                    } else {
+                    } else if (Message.isDebugEnabled()) {
                         Message.debug("\tresolver not found: " + resolverName
                             + " => cannot use cached ivy file for " + mrid);
                     }
@@ -692,7 +710,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                     // will try with resolver
                     Message.debug("\tproblem while parsing cached ivy file for: " + mrid, e);
                 }
-            } else {
+            } else if (Message.isDebugEnabled()) {
                 Message.debug("\tno ivy file in cache for " + mrid + ": tried " + ivyFile);
             }
         } finally {
@@ -745,20 +763,27 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         try {
             String resolvedRevision = null;
             if (options.isForce()) {
-                Message.verbose("refresh mode: no check for cached resolved revision for " + mrid);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("refresh mode: no check for cached resolved revision for "
+                        + mrid);
+                }
                 return null;
             }
             PropertiesFile cachedResolvedRevision = getCachedDataFile(mrid);
             resolvedRevision = cachedResolvedRevision.getProperty("resolved.revision");
             if (resolvedRevision == null) {
-                Message.verbose(getName() + ": no cached resolved revision for " + mrid);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose(getName() + ": no cached resolved revision for " + mrid);
+                }
                 return null;
             }
             
             String resolvedTime = cachedResolvedRevision.getProperty("resolved.time");
             if (resolvedTime == null) {
-                Message.verbose(getName() 
-                    + ": inconsistent or old cache: no cached resolved time for " + mrid);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose(getName() 
+                        + ": inconsistent or old cache: no cached resolved time for " + mrid);
+                }
                 saveResolvedRevision(mrid, resolvedRevision);
                 return resolvedRevision;
             }
@@ -766,7 +791,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 long expiration = Long.parseLong(resolvedTime) + getTTL(mrid);
                 if (expiration > 0 // negative expiration means that Long.MAX_VALUE has been exceeded
                         && System.currentTimeMillis() > expiration) {
-                    Message.verbose(getName() + ": cached resolved revision expired for " + mrid);
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose(getName() + ": cached resolved revision expired for "
+                            + mrid);
+                    }
                     return null;
                 }
             }
@@ -792,6 +820,102 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         }
     }
 
+    public Map getRevisionListing(String resolverName, ModuleRevisionId dynamicMrid,
+            String pattern, CacheMetadataOptions options) {
+        if (options.isForce()) {
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("refresh mode: no check for cached revision listing of " 
+                    + dynamicMrid);
+            }
+            return null;
+        }
+        if (!lockMetadataArtifact(dynamicMrid)) {
+            Message.error("impossible to acquire lock for " + dynamicMrid);
+            return null;
+        }
+        try {
+            PropertiesFile listings = getListingFile(dynamicMrid);
+            String prefix = getListingKey(resolverName, pattern);
+            String listedTime = listings.getProperty(prefix + "|time");
+            String count = listings.getProperty(prefix + "|count");
+            if (listedTime == null || count == null) {
+                return null;
+            }
+            if (options.isCheckTTL()) {
+                long expiration = Long.parseLong(listedTime) + getTTL(dynamicMrid);
+                // negative expiration means that Long.MAX_VALUE has been exceeded
+                if (expiration > 0 && System.currentTimeMillis() > expiration) {
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose(getName() + ": cached revision listing expired for " 
+                            + dynamicMrid + " in " + resolverName);
+                    }
+                    return null;
+                }
+            }
+            Map revisions = new LinkedHashMap();
+            int nb = Integer.parseInt(count);
+            for (int i = 0; i < nb; i++) {
+                String revision = listings.getProperty(prefix + "|" + i + "|revision");
+                String resource = listings.getProperty(prefix + "|" + i + "|resource");
+                if (revision == null || resource == null) {
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose(getName() + ": inconsistent cached revision listing for " 
+                            + dynamicMrid + " in " + resolverName);
+                    }
+                    return null;
+                }
+                revisions.put(revision, resource);
+            }
+            return revisions;
+        } catch (NumberFormatException e) {
+            if (Message.isVerboseEnabled()) {
+                Message.verbose(getName() + ": inconsistent cached revision listing for " 
+                    + dynamicMrid + " in " + resolverName);
+            }
+            return null;
+        } finally {
+            unlockMetadataArtifact(dynamicMrid);
+        }
+    }
+
+    public void saveRevisionListing(String resolverName, ModuleRevisionId dynamicMrid,
+            String pattern, Map revisions) {
+        if (!lockMetadataArtifact(dynamicMrid)) {
+            Message.error("impossible to acquire lock for " + dynamicMrid);
+            return;
+        }
+        try {
+            PropertiesFile listings = getListingFile(dynamicMrid);
+            String prefix = getListingKey(resolverName, pattern);
+            for (Iterator iter = listings.keySet().iterator(); iter.hasNext();) {
+                if (((String) iter.next()).startsWith(prefix + "|")) {
+                    iter.remove();
+                }
+            }
+            listings.setProperty(prefix + "|time", String.valueOf(System.currentTimeMillis()));
+            listings.setProperty(prefix + "|count", String.valueOf(revisions.size()));
+            int i = 0;
+            for (Iterator iter = revisions.entrySet().iterator(); iter.hasNext(); i++) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                listings.setProperty(prefix + "|" + i + "|revision", (String) entry.getKey());
+                listings.setProperty(prefix + "|" + i + "|resource", (String) entry.getValue());
+            }
+            listings.save();
+        } finally {
+            unlockMetadataArtifact(dynamicMrid);
+        }
+    }
+
+    private PropertiesFile getListingFile(ModuleRevisionId mrid) {
+        return new PropertiesFile(new File(getRepositoryCacheRoot(), 
+            IvyPatternHelper.substitute(LISTING_FILE_PATTERN, mrid)), 
+            "ivy cached revision listings for " + mrid.getModuleId());
+    }
+
+    private String getListingKey(String resolverName, String pattern) {
+        return resolverName + "|" + pattern;
+    }
+
     public long getTTL(ModuleRevisionId mrid) {
         Long ttl = (Long) ttlRules.getRule(mrid);
         return ttl == null ? getDefaultTTL() : ttl.longValue();
@@ -943,7 +1067,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                     while (entries.hasMoreElements()) {
                         ZipEntry entry = (ZipEntry) entries.nextElement();
                         File f = new File(archiveFile, entry.getName());
-                        Message.verbose("\t\texpanding " + entry.getName() + " to " + f);
+                        if (Message.isVerboseEnabled()) {
+                            Message.verbose("\t\texpanding " + entry.getName() + " to " + f);
+                        }
 
                         // create intermediary directories - sometimes zip don't add them
                         File dirF = f.getParentFile();
@@ -1212,8 +1338,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                     File artFile = getArchiveFileInCache(transformedArtifact, origin, false);
                     if (artFile.exists() && repoLastModified > artFile.lastModified()) {
                         // artifacts have changed, they should be downloaded again
-                        Message.verbose(mrid + " has changed: deleting old artifacts");
-                        Message.debug("deleting " + artFile);
+                        if (Message.isVerboseEnabled()) {
+                            Message.verbose(mrid + " has changed: deleting old artifacts");
+                            Message.debug("deleting " + artFile);
+                        }
                         if (!artFile.delete()) {
                             Message.error("Couldn't delete outdated artifact from cache: " + artFile);
                             return null;
@@ -1228,25 +1356,33 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             ResolvedModuleRevision rmr = doFindModuleInCache(mrid, options, null);
             if (rmr != null) {
                 if (rmr.getDescriptor().isDefault() && rmr.getResolver() != resolver) {
-                    Message.verbose("\t" + getName() + ": found revision in cache: " + mrid
-                        + " (resolved by " + rmr.getResolver().getName()
-                        + "): but it's a default one, maybe we can find a better one");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": found revision in cache: " + mrid
+                            + " (resolved by " + rmr.getResolver().getName()
+                            + "): but it's a default one, maybe we can find a better one");
+                    }
                 } else {
                     if (!isCheckmodified(dd, mrid, options) && !isChanging(dd, mrid, options)) {
-                        Message.verbose("\t" + getName() + ": revision in cache: " + mrid);
+                        if (Message.isVerboseEnabled()) {
+                            Message.verbose("\t" + getName() + ": revision in cache: " + mrid);
+                        }
                         rmr.getReport().setSearched(true);
                         return rmr;
                     }
                     long repLastModified = mdRef.getLastModified();
                     long cacheLastModified = rmr.getDescriptor().getLastModified();
                     if (!rmr.getDescriptor().isDefault() && repLastModified <= cacheLastModified) {
-                        Message.verbose("\t" + getName() + ": revision in cache (not updated): "
-                            + mrid);
+                        if (Message.isVerboseEnabled()) {
+                            Message.verbose("\t" + getName()
+                                + ": revision in cache (not updated): " + mrid);
+                        }
                         rmr.getReport().setSearched(true);
                         return rmr;
                     } else {
-                        Message.verbose("\t" + getName() + ": revision in cache is not up to date: "
-                            + mrid);
+                        if (Message.isVerboseEnabled()) {
+                            Message.verbose("\t" + getName()
+                                + ": revision in cache is not up to date: " + mrid);
+                        }
                         if (isChanging(dd, mrid, options)) {
                             // ivy file has been updated, we should see if it has a new publication
                             // date to see if a new download is required (in case the dependency is
@@ -1268,7 +1404,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                     }
                 }, backupDownloader,
                 new CacheDownloadOptions().setListener(options.getListener()).setForce(true));
-            Message.verbose("\t" + report); 
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("\t" + report); 
+            }
 
             if (report.getDownloadStatus() == DownloadStatus.FAILED) {
                 Message.warn("problem while downloading module descriptor: " + mdRef.getResource() 
@@ -1284,7 +1422,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 if (resolver instanceof AbstractResolver) {
                     parserSettings = ((AbstractResolver) resolver).getParserSettings();
                 }
+                long start = System.currentTimeMillis();
                 ModuleDescriptor md = getStaledMd(parser, options, report.getLocalFile(), parserSettings); 
+                ResolveMetrics.record(ResolveMetrics.PARSE, resolver.getName(), start);
                 if (md == null) {
                     throw new IllegalStateException(
                         "module descriptor parser returned a null module descriptor, " 
@@ -1293,15 +1433,19 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                         + "; parser class=" + parser.getClass().getName()
                         + "; module descriptor resource=" + mdRef.getResource());
                 }
-                Message.debug("\t" + getName() + ": parsed downloaded md file for " + mrid 
-                    + "; parsed=" + md.getModuleRevisionId());
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t" + getName() + ": parsed downloaded md file for " + mrid 
+                        + "; parsed=" + md.getModuleRevisionId());
+                }
 
                 // check if we should delete old artifacts
                 boolean deleteOldArtifacts = false;
                 if (cachedPublicationDate != null
                         && !cachedPublicationDate.equals(md.getResolvedPublicationDate())) {
                     // artifacts have changed, they should be downloaded again
-                    Message.verbose(mrid + " has changed: deleting old artifacts");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose(mrid + " has changed: deleting old artifacts");
+                    }
                     deleteOldArtifacts = true;
                 }
                 if (deleteOldArtifacts) {
@@ -1316,7 +1460,9 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                             File artFile = getArchiveFileInCache(
                                 transformedArtifact, origin, false);
                             if (artFile.exists()) {
-                                Message.debug("deleting " + artFile);
+                                if (Message.isDebugEnabled()) {
+                                    Message.debug("deleting " + artFile);
+                                }
                                 if (!artFile.delete()) {
                                     // Old artifacts couldn't get deleted!
                                     // Restore the original ivy file so the next time we
@@ -1330,8 +1476,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                         }
                     }
                 } else if (isChanging(dd, mrid, options)) {
-                    Message.verbose(mrid
-                        + " is changing, but has not changed: will trust cached artifacts if any");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose(mrid + " is changing, but has not changed:"
+                            + " will trust cached artifacts if any");
+                    }
                 }
                 
                 MetadataArtifactDownloadReport madr 
@@ -79,19 +79,25 @@ class ModuleDescriptorMemoryCache {
         CacheEntry entry = (CacheEntry) valueMap.get(ivyFile);
         if (entry != null) {
             if (entry.isStale(validated, ivySettings)) {
-                Message.debug("Entry is found in the ModuleDescriptorCache but entry should be " 
-                    + "reevaluated : " + ivyFile);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("Entry is found in the ModuleDescriptorCache but entry should "
+                        + "be reevaluated : " + ivyFile);
+                }
                 valueMap.remove(ivyFile);
                 return null;
             } else {
                 //Move the entry at the end of the list
                 valueMap.remove(ivyFile);
                 valueMap.put(ivyFile, entry);
-                Message.debug("Entry is found in the ModuleDescriptorCache : " + ivyFile);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("Entry is found in the ModuleDescriptorCache : " + ivyFile);
+                }
                 return entry.md;
             }
         } else {
-            Message.debug("No entry is found in the ModuleDescriptorCache : " + ivyFile);
+            if (Message.isDebugEnabled()) {
+                Message.debug("No entry is found in the ModuleDescriptorCache : " + ivyFile);
+            }
             return null;
         }        
     }
@@ -18,12 +18,15 @@
 package org.apache.ivy.core.cache;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.RelativeUrlResolver;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
@@ -46,7 +49,7 @@ import org.apache.ivy.util.Message;
  * changed.
  * </p>
  */
-class ParserSettingsMonitor {
+public class ParserSettingsMonitor {
 
     private ParserSettings delegatedSettings;
     private final Map/*<String,String>*/ substitutes;
@@ -74,6 +77,14 @@ class ParserSettingsMonitor {
         delegatedSettings = null;
     }
     
+    /**
+     * @return the strings substituted while monitoring, with their value, which is what
+     *         {@link #hasChanged(ParserSettings)} compares with the new settings
+     */
+    public Map/*<String,String>*/ getSubstitutes() {
+        return Collections.unmodifiableMap(substitutes);
+    }
+
     /**
      * Check if the newSettings is compatible with the original settings that
      * has been monitored.  Only the info that was actually used is compared.
@@ -147,7 +158,18 @@ class ParserSettingsMonitor {
         public String substitute(String value) {
             String r = delegatedSettings.substitute(value);
             if (value != null && value != r) {
-                substitutes.put(value, r);
+                List names = IvyPatternHelper.getVariableNames(value);
+                if (names.isEmpty()) {
+                    substitutes.put(value, r);
+                }
+                // the string can only change if one of its variables changes, so only the
+                // variables are checked, once each whatever the number of strings using them
+                for (Iterator it = names.iterator(); it.hasNext();) {
+                    String reference = "${" + it.next() + "}";
+                    if (!substitutes.containsKey(reference)) {
+                        substitutes.put(reference, delegatedSettings.substitute(reference));
+                    }
+                }
             }
             return r;
         }
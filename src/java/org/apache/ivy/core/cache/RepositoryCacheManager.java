@@ -18,6 +18,7 @@
 package org.apache.ivy.core.cache;
 
 import java.text.ParseException;
+import java.util.Map;
 
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
@@ -189,5 +190,31 @@ public interface RepositoryCacheManager {
      * @param revision the resolved revision
      */
     public void saveResolvedRevision(ModuleRevisionId dynamicMrid, String revision);
+
+    /**
+     * Returns the revisions listed by a resolver for a dynamic revision constraint, as cached by
+     * {@link #saveRevisionListing(String, ModuleRevisionId, String, Map)}.
+     * 
+     * @param resolverName the name of the resolver which has listed the revisions
+     * @param dynamicMrid the dynamic module revision id
+     * @param pattern the pattern used to list the revisions, resolved except for the revision
+     * @param options the options to use to check the cached listing
+     * @return a Map of revision to the name of the corresponding resource in the repository, in
+     *         listing order, or <code>null</code> if no listing is cached or if it has expired
+     */
+    public Map/*<String, String>*/ getRevisionListing(String resolverName,
+            ModuleRevisionId dynamicMrid, String pattern, CacheMetadataOptions options);
+
+    /**
+     * Caches the revisions listed by a resolver for a dynamic revision constraint.
+     * 
+     * @param resolverName the name of the resolver which has listed the revisions
+     * @param dynamicMrid the dynamic module revision id
+     * @param pattern the pattern used to list the revisions, resolved except for the revision
+     * @param revisions a Map of revision to the name of the corresponding resource in the
+     *            repository, in listing order
+     */
+    public void saveRevisionListing(String resolverName, ModuleRevisionId dynamicMrid,
+            String pattern, Map/*<String, String>*/ revisions);
     
 }
@@ -0,0 +1,194 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.event;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.plugins.repository.TransferEvent;
+import org.apache.ivy.plugins.repository.TransferListener;
+import org.apache.ivy.util.Message;
+
+/**
+ * Delivers events to listeners from a dispatcher thread, in the order in which they have been
+ * queued.
+ * <p>
+ * The queue is bounded: threads firing events wait when it is full, so that slow listeners can't
+ * make it grow without limit. Listeners are called with the context of the thread which has fired
+ * the event. The dispatcher thread stops when it has been idle for a while, and is started again
+ * when events are queued.
+ * </p>
+ */
+final class EventDispatcher implements Runnable {
+    private static final long IDLE_TIMEOUT = 1000;
+
+    private static int threadCount = 0;
+
+    private final int capacity;
+
+    // List (Delivery)
+    private final LinkedList queue = new LinkedList();
+
+    private Thread thread;
+
+    private boolean delivering;
+
+    private static final class Delivery {
+        private final List transferListeners;
+
+        private final List ivyListeners;
+
+        private final IvyEvent event;
+
+        private final IvyContext context;
+
+        private Delivery(List transferListeners, List ivyListeners, IvyEvent event,
+                IvyContext context) {
+            this.transferListeners = transferListeners;
+            this.ivyListeners = ivyListeners;
+            this.event = event;
+            this.context = context;
+        }
+
+        private void deliver() {
+            IvyContext.pushContext(context);
+            try {
+                if (transferListeners != null) {
+                    for (Iterator it = transferListeners.iterator(); it.hasNext();) {
+                        TransferListener listener = (TransferListener) it.next();
+                        try {
+                            listener.transferProgress((TransferEvent) event);
+                        } catch (RuntimeException e) {
+                            Message.warn("transfer listener " + listener + " failed on " + event
+                                    + ": " + e);
+                        }
+                    }
+                }
+                if (ivyListeners != null) {
+                    for (Iterator it = ivyListeners.iterator(); it.hasNext();) {
+                        IvyListener listener = (IvyListener) it.next();
+                        try {
+                            listener.progress(event);
+                        } catch (RuntimeException e) {
+                            Message.warn("ivy listener " + listener + " failed on " + event + ": "
+                                    + e);
+                        }
+                    }
+                }
+            } finally {
+                IvyContext.popContext();
+            }
+        }
+    }
+
+    EventDispatcher(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues the given event for the given listeners, waiting for room in the queue if it is full.
+     */
+    synchronized void dispatch(List transferListeners, List ivyListeners, IvyEvent event) {
+        // the dispatcher thread itself mustn't wait for the queue to be drained
+        while (queue.size() >= capacity && Thread.currentThread() != thread) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // the listeners see a copy of the context of the firing thread, which keeps using its own
+        queue.addLast(new Delivery(transferListeners, ivyListeners, event, new IvyContext(
+                IvyContext.getContext())));
+        if (thread == null) {
+            startThread();
+        }
+        notifyAll();
+    }
+
+    private void startThread() {
+        thread = new Thread(this, "ivy-events-" + nextThreadNumber());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static synchronized int nextThreadNumber() {
+        return ++threadCount;
+    }
+
+    /**
+     * Waits until all the queued events have been delivered.
+     */
+    synchronized void flush() {
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        while (!queue.isEmpty() || delivering) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public void run() {
+        while (true) {
+            Delivery delivery;
+            synchronized (this) {
+                delivering = false;
+                notifyAll();
+                long idleStart = System.currentTimeMillis();
+                while (queue.isEmpty()) {
+                    long remaining = IDLE_TIMEOUT - (System.currentTimeMillis() - idleStart);
+                    if (remaining <= 0) {
+                        thread = null;
+                        return;
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        thread = null;
+                        return;
+                    }
+                }
+                delivery = (Delivery) queue.removeFirst();
+                delivering = true;
+                notifyAll();
+            }
+            try {
+                delivery.deliver();
+            } catch (Error e) {
+                // let another thread deliver the remaining events
+                synchronized (this) {
+                    delivering = false;
+                    thread = null;
+                    if (!queue.isEmpty()) {
+                        startThread();
+                    }
+                    notifyAll();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -17,7 +17,11 @@
  */
 package org.apache.ivy.core.event;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.event.EventListenerList;
 
@@ -25,10 +29,46 @@ import org.apache.ivy.plugins.repository.TransferEvent;
 import org.apache.ivy.plugins.repository.TransferListener;
 import org.apache.ivy.util.filter.Filter;
 
+/**
+ * Sends the events fired during Ivy operations to the registered {@link IvyListener}s and
+ * {@link TransferListener}s.
+ * <p>
+ * By default listeners are called in the thread firing the event. In asynchronous mode, events are
+ * queued and delivered by a dispatcher thread, so that slow listeners don't hold the work up: each
+ * listener still receives the events in the order in which they have been fired, but progress
+ * events of a transfer are coalesced so that at most {@link #getProgressRate()} of them are
+ * delivered per second. Listeners implementing {@link SynchronousListener} are always called in
+ * the thread firing the event and receive all the events.
+ * </p>
+ */
 public class EventManager implements TransferListener {
+    /**
+     * The variable telling if the events of an Ivy instance should be dispatched asynchronously.
+     */
+    public static final String ASYNC_VARIABLE = "ivy.events.async";
+
+    /**
+     * The variable giving the maximum number of progress events delivered per second for each
+     * transfer, when events are dispatched asynchronously.
+     */
+    public static final String PROGRESS_RATE_VARIABLE = "ivy.events.progress.rate";
+
+    public static final int DEFAULT_PROGRESS_RATE = 10;
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private static final long MILLIS_PER_SECOND = 1000;
 
     private EventListenerList listeners = new EventListenerList();
 
+    // null when events are dispatched synchronously
+    private volatile EventDispatcher dispatcher;
+
+    private int progressRate = DEFAULT_PROGRESS_RATE;
+
+    // Map (Object transfer -> long[] time of the last progress event dispatched)
+    private Map progressTimes = new HashMap();
+
     public void addIvyListener(IvyListener listener) {
         listeners.add(IvyListener.class, listener);
     }
@@ -58,11 +98,10 @@ public class EventManager implements TransferListener {
     }
 
     public void fireIvyEvent(IvyEvent evt) {
-        Object[] listeners = this.listeners.getListenerList();
-        for (int i = listeners.length - 2; i >= 0; i -= 2) {
-            if (listeners[i] == IvyListener.class) {
-                ((IvyListener) listeners[i + 1]).progress(evt);
-            }
+        EventDispatcher dispatcher = this.dispatcher;
+        List ivyListeners = fire(IvyListener.class, evt, dispatcher, true);
+        if (ivyListeners != null) {
+            dispatcher.dispatch(null, ivyListeners, evt);
         }
     }
 
@@ -79,17 +118,156 @@ public class EventManager implements TransferListener {
     }
 
     protected void fireTransferEvent(TransferEvent evt) {
+        EventDispatcher dispatcher = this.dispatcher;
+        List transferListeners = fire(TransferListener.class, evt, dispatcher,
+            dispatcher != null && isDispatched(evt));
+        if (transferListeners != null) {
+            dispatcher.dispatch(transferListeners, null, new TransferEvent(evt));
+        }
+    }
+
+    public void transferProgress(TransferEvent evt) {
+        EventDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            fireTransferEvent(evt);
+            fireIvyEvent(evt);
+            return;
+        }
+        boolean dispatched = isDispatched(evt);
+        List transferListeners = fire(TransferListener.class, evt, dispatcher, dispatched);
+        List ivyListeners = fire(IvyListener.class, evt, dispatcher, dispatched);
+        if (transferListeners != null || ivyListeners != null) {
+            // repositories update the same event during the whole transfer
+            dispatcher.dispatch(transferListeners, ivyListeners, new TransferEvent(evt));
+        }
+    }
+
+    /**
+     * Calls the listeners of the given type which must be called in the current thread, and
+     * returns the other ones.
+     * 
+     * @param type
+     *            the type of listeners to which the event should be sent
+     * @param evt
+     *            the event to send
+     * @param dispatcher
+     *            the dispatcher of the asynchronous events, <code>null</code> to call all the
+     *            listeners in the current thread
+     * @param dispatched
+     *            true if the event should be dispatched asynchronously to the listeners which
+     *            haven't asked to be called synchronously
+     * @return the listeners to which the event should be dispatched asynchronously,
+     *         <code>null</code> if there is none
+     */
+    private List fire(Class type, IvyEvent evt, EventDispatcher dispatcher, boolean dispatched) {
+        List pending = null;
         Object[] listeners = this.listeners.getListenerList();
         for (int i = listeners.length - 2; i >= 0; i -= 2) {
-            if (listeners[i] == TransferListener.class) {
-                ((TransferListener) listeners[i + 1]).transferProgress(evt);
+            if (listeners[i] != type) {
+                continue;
+            }
+            Object listener = listeners[i + 1];
+            if (dispatcher == null || isSynchronous(listener)) {
+                if (type == IvyListener.class) {
+                    ((IvyListener) listener).progress(evt);
+                } else {
+                    ((TransferListener) listener).transferProgress((TransferEvent) evt);
+                }
+            } else if (dispatched && accepts(listener, evt)) {
+                if (pending == null) {
+                    pending = new ArrayList();
+                }
+                pending.add(listener);
             }
         }
+        return pending;
     }
 
-    public void transferProgress(TransferEvent evt) {
-        fireTransferEvent(evt);
-        fireIvyEvent(evt);
+    private static boolean isSynchronous(Object listener) {
+        if (listener instanceof FilteredIvyListener) {
+            listener = ((FilteredIvyListener) listener).getIvyListener();
+        }
+        return listener instanceof SynchronousListener;
+    }
+
+    private static boolean accepts(Object listener, IvyEvent evt) {
+        // filters are cheap, there's no need to queue the events they reject
+        return !(listener instanceof FilteredIvyListener)
+                || ((FilteredIvyListener) listener).getFilter().accept(evt);
+    }
+
+    /**
+     * Tells if the given transfer event should be dispatched to the asynchronous listeners, which
+     * receive at most {@link #getProgressRate()} progress events per second for each transfer.
+     */
+    private boolean isDispatched(TransferEvent evt) {
+        Object transfer = evt.getResource() == null ? (Object) evt : evt.getResource();
+        int type = evt.getEventType();
+        synchronized (progressTimes) {
+            if (type != TransferEvent.TRANSFER_PROGRESS) {
+                if (type == TransferEvent.TRANSFER_COMPLETED
+                        || type == TransferEvent.TRANSFER_ERROR) {
+                    progressTimes.remove(transfer);
+                }
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            long[] last = (long[]) progressTimes.get(transfer);
+            if (last == null) {
+                progressTimes.put(transfer, new long[] {now});
+                return true;
+            }
+            if (progressRate > 0 && now - last[0] >= MILLIS_PER_SECOND / progressRate) {
+                last[0] = now;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sets whether events should be dispatched asynchronously. When switching back to synchronous
+     * dispatch, the events already queued are delivered before this method returns.
+     */
+    public synchronized void setAsync(boolean async) {
+        if (async && dispatcher == null) {
+            dispatcher = new EventDispatcher(QUEUE_CAPACITY);
+        } else if (!async && dispatcher != null) {
+            EventDispatcher old = dispatcher;
+            dispatcher = null;
+            old.flush();
+        }
+    }
+
+    public boolean isAsync() {
+        return dispatcher != null;
+    }
+
+    /**
+     * Returns the maximum number of progress events delivered per second for each transfer to the
+     * listeners called asynchronously.
+     */
+    public int getProgressRate() {
+        return progressRate;
+    }
+
+    /**
+     * Sets the maximum number of progress events delivered per second for each transfer to the
+     * listeners called asynchronously, 0 to deliver none of them.
+     */
+    public void setProgressRate(int progressRate) {
+        this.progressRate = progressRate;
+    }
+
+    /**
+     * Waits until all the events dispatched asynchronously have been delivered. Does nothing when
+     * events are dispatched synchronously.
+     */
+    public void flush() {
+        EventDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.flush();
+        }
     }
 
 }
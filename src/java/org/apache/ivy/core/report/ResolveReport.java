@@ -39,6 +39,8 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.ResolveMetrics;
+import org.apache.ivy.core.resolve.ResolveTrace;
 import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.report.ReportOutputter;
@@ -66,10 +68,18 @@ public class ResolveReport {
 
     private long downloadTime;
 
+    private int restartCount;
+
+    private long restartTime;
+
     private String resolveId;
 
     private long downloadSize;
 
+    private ResolveMetrics metrics = new ResolveMetrics();
+
+    private ResolveTrace trace;
+
     public ResolveReport(ModuleDescriptor md) {
         this(md, ResolveOptions.getDefaultResolveId(md));
     }
@@ -305,6 +315,34 @@ public class ResolveReport {
         return downloadTime;
     }
 
+    public void setRestartCount(int restartCount) {
+        this.restartCount = restartCount;
+    }
+
+    /**
+     * The number of times the resolve process has been restarted, usually by a conflict manager
+     * blacklisting some modules, like the latest-compatible one.
+     * 
+     * @return the number of restarts of the resolve process, in all configurations
+     */
+    public int getRestartCount() {
+        return restartCount;
+    }
+
+    public void setRestartTime(long elapsedTime) {
+        restartTime = elapsedTime;
+    }
+
+    /**
+     * The time spent fetching dependencies again after restarts of the resolve process, in
+     * milliseconds. This time is included in the resolve time.
+     * 
+     * @return the time spent fetching dependencies again after restarts
+     */
+    public long getRestartTime() {
+        return restartTime;
+    }
+
     public void setDownloadSize(long size) {
         this.downloadSize = size;
     }
@@ -322,6 +360,29 @@ public class ResolveReport {
         return downloadSize;
     }
 
+    public void setMetrics(ResolveMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * The timings and counters collected during the resolve, for each phase of the resolve and
+     * each resolver, repository or lock strategy involved.
+     */
+    public ResolveMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setTrace(ResolveTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * The trace of the resolve, or <code>null</code> if it hasn't been traced.
+     */
+    public ResolveTrace getTrace() {
+        return trace;
+    }
+
     public String getResolveId() {
         return resolveId;
     }
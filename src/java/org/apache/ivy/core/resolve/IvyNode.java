@@ -20,6 +20,7 @@ package org.apache.ivy.core.resolve;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -80,7 +81,9 @@ public class IvyNode implements Comparable {
 
     // set only when node has been built or updated from a DependencyDescriptor
     // Map(IvyNode parent -> DependencyDescriptor)
-    private Map dds = new HashMap();
+    // most nodes have a single parent, so this starts as an empty or singleton map and is only
+    // promoted to a HashMap when a second parent is added
+    private Map dds = Collections.EMPTY_MAP;
 
     // Set when data has been loaded only, or when constructed from a module descriptor
     private ModuleDescriptor md;
@@ -94,22 +97,24 @@ public class IvyNode implements Comparable {
 
     private boolean searched = false;
     
-    private Collection confsToFetch = new HashSet();
+    // the following collections are allocated on first write, leaf nodes usually never need them
 
-    private Collection fetchedConfigurations = new HashSet();
+    private Collection confsToFetch = Collections.EMPTY_SET;
 
-    private Collection loadedRootModuleConfs = new HashSet();
+    private Collection fetchedConfigurations = Collections.EMPTY_SET;
+
+    private Collection loadedRootModuleConfs = Collections.EMPTY_SET;
 
     // //////// USAGE DATA
 
     private IvyNodeUsage usage = new IvyNodeUsage(this);
     
     // usage information merged from evicted nodes this node is "replacing"
-    private Map/*<ModuleRevisionId, IvyNodeUsage>*/ mergedUsages = new LinkedHashMap();
+    private Map/*<ModuleRevisionId, IvyNodeUsage>*/ mergedUsages = Collections.EMPTY_MAP;
 
     public IvyNode(ResolveData data, IvyNode parent, DependencyDescriptor dd) {
         id = dd.getDependencyRevisionId();
-        dds.put(parent, dd);
+        dds = Collections.singletonMap(parent, dd);
         root = parent.getRoot();
         init(data);
     }
@@ -134,7 +139,9 @@ public class IvyNode implements Comparable {
      */
     public boolean loadData(String rootModuleConf, IvyNode parent, String parentConf, String conf,
             boolean shouldBePublic, IvyNodeUsage usage) {
-        Message.debug("loadData of " + this.toString() + " of rootConf=" + rootModuleConf);
+        if (Message.isDebugEnabled()) {
+            Message.debug("loadData of " + this.toString() + " of rootConf=" + rootModuleConf);
+        }
         if (!isRoot() && (data.getReport() != null)) {
             data.getReport().addDependency(this);
         }
@@ -143,9 +150,13 @@ public class IvyNode implements Comparable {
         if (hasProblem()) {
             Message.debug("Node has problem.  Skip loading");
         } else if (isEvicted(rootModuleConf)) {
-            Message.debug(rootModuleConf + " is evicted.  Skip loading");
+            if (Message.isDebugEnabled()) {
+                Message.debug(rootModuleConf + " is evicted.  Skip loading");
+            }
         } else if (!hasConfigurationsToLoad() && isRootModuleConfLoaded(rootModuleConf)) {
-            Message.debug(rootModuleConf + " is loaded and no conf to load.  Skip loading");
+            if (Message.isDebugEnabled()) {
+                Message.debug(rootModuleConf + " is loaded and no conf to load.  Skip loading");
+            }
         } else {
             markRootModuleConfLoaded(rootModuleConf);
             if (md == null) {
@@ -158,7 +169,9 @@ public class IvyNode implements Comparable {
                     return false;
                 }
                 try {
-                    Message.debug("\tusing " + resolver + " to resolve " + getId());
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\tusing " + resolver + " to resolve " + getId());
+                    }
                     DependencyDescriptor dependencyDescriptor = getDependencyDescriptor(parent);
                     long start = System.currentTimeMillis();
                     ModuleRevisionId requestedRevisionId 
@@ -181,7 +194,7 @@ public class IvyNode implements Comparable {
                                 && LogOptions.LOG_DEFAULT.equals(getData().getOptions().getLog())) {
                             Message.info("\tfound " + module.getId() + " in "
                                     + module.getResolver().getName());
-                        } else {
+                        } else if (Message.isVerboseEnabled()) {
                             Message.verbose("\tfound " + module.getId() + " in "
                                     + module.getResolver().getName());
                         }
@@ -272,7 +285,11 @@ public class IvyNode implements Comparable {
         }
         resolved.downloaded |= module.getReport().isDownloaded();
         resolved.searched |= module.getReport().isSearched();
-        resolved.dds.putAll(dds);
+        for (Iterator iter = dds.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            resolved.addDependencyDescriptor(
+                (IvyNode) entry.getKey(), (DependencyDescriptor) entry.getValue());
+        }
         resolved.updateDataFrom(this, rootModuleConf, true);
         resolved.loadData(rootModuleConf, parent, parentConf, conf, shouldBePublic, usage);
         resolved.usage.updateDataFrom(getAllUsages(), rootModuleConf);
@@ -283,7 +300,7 @@ public class IvyNode implements Comparable {
         if (settings.logResolvedRevision()
                 && LogOptions.LOG_DEFAULT.equals(getData().getOptions().getLog())) {
             Message.info("\t[" + module.getId().getRevision() + "] " + getId());
-        } else {
+        } else if (Message.isVerboseEnabled()) {
             Message.verbose("\t[" + module.getId().getRevision() + "] " + getId());
         }
     }
@@ -339,7 +356,9 @@ public class IvyNode implements Comparable {
             if (isDependencyModuleExcluded(dd, rootModuleConf, requestedDependencyRevisionId, conf)) {
                 // the whole module is excluded, it is considered as not being part of dependencies
                 // at all
-                Message.verbose("excluding " + dd + " in " + conf);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("excluding " + dd + " in " + conf);
+                }
                 continue;
             }
 
@@ -373,7 +392,14 @@ public class IvyNode implements Comparable {
     }
 
     private void addDependencyDescriptor(IvyNode parent, DependencyDescriptor dd) {
-        dds.put(parent, dd);
+        if (dds.isEmpty() || (dds.size() == 1 && dds.containsKey(parent))) {
+            dds = Collections.singletonMap(parent, dd);
+        } else {
+            if (!(dds instanceof HashMap)) {
+                dds = new HashMap(dds);
+            }
+            dds.put(parent, dd);
+        }
     }
 
     public DependencyDescriptor getDependencyDescriptor(IvyNode parent) {
@@ -421,6 +447,12 @@ public class IvyNode implements Comparable {
     }
 
     private boolean markRootModuleConfLoaded(String rootModuleConf) {
+        if (loadedRootModuleConfs.contains(rootModuleConf)) {
+            return false;
+        }
+        if (loadedRootModuleConfs.isEmpty()) {
+            loadedRootModuleConfs = new HashSet(2);
+        }
         return loadedRootModuleConfs.add(rootModuleConf);
     }
 
@@ -466,7 +498,10 @@ public class IvyNode implements Comparable {
                 }
             }
             if (loaded) {
-                fetchedConfigurations.add(conf);
+                if (fetchedConfigurations.isEmpty()) {
+                    fetchedConfigurations = new HashSet(2);
+                }
+                fetchedConfigurations.add(internConf(conf));
                 confsToFetch.removeAll(Arrays.asList(confs));
                 confsToFetch.remove(conf);
             }
@@ -493,10 +528,30 @@ public class IvyNode implements Comparable {
     }
 
     public void updateConfsToFetch(Collection confs) {
-        confsToFetch.addAll(confs);
+        for (Iterator iter = confs.iterator(); iter.hasNext();) {
+            String conf = (String) iter.next();
+            if (!fetchedConfigurations.contains(conf) && !confsToFetch.contains(conf)) {
+                if (confsToFetch.isEmpty()) {
+                    confsToFetch = new HashSet(2);
+                }
+                confsToFetch.add(internConf(conf));
+            }
+        }
         confsToFetch.removeAll(fetchedConfigurations);
     }
 
+    /**
+     * Returns the canonical instance of the given configuration name.
+     * <p>
+     * Configuration names are often computed (split, trimmed, extracted from fallback patterns),
+     * and are kept by every node of the graph. Interning them avoids retaining one copy of the same
+     * few names per node.
+     * </p>
+     */
+    static String internConf(String conf) {
+        return conf == null ? null : conf.intern();
+    }
+
     /**
      * resolve the '*' special configurations if necessary and possible
      */
@@ -739,6 +794,9 @@ public class IvyNode implements Comparable {
             IvyNodeUsage mergedUsage = (IvyNodeUsage) mergedUsages.get(node.getId());
             if (mergedUsage == null) {
                 mergedUsage = new IvyNodeUsage(node);
+                if (mergedUsages.isEmpty()) {
+                    mergedUsages = new LinkedHashMap(2);
+                }
                 mergedUsages.put(node.getId(), mergedUsage);
             }
             mergedUsage.updateDataFrom(node.getAllUsages(), rootModuleConf);
@@ -750,7 +808,7 @@ public class IvyNode implements Comparable {
     }
     
     private Collection/*<IvyNodeUsage>*/ getAllUsages() {
-        Collection usages = new ArrayList();
+        Collection usages = new ArrayList(mergedUsages.size() + 1);
         usages.add(usage);
         usages.addAll(mergedUsages.values());
         return usages;
@@ -864,7 +922,9 @@ public class IvyNode implements Comparable {
                         // than once
                         it.remove();
                     } else {
-                        Message.debug(this + " in " + rootModuleConf + ": including " + arts);
+                        if (Message.isDebugEnabled()) {
+                            Message.debug(this + " in " + rootModuleConf + ": including " + arts);
+                        }
                         artifacts.addAll(arts);
                     }
                 }
@@ -876,7 +936,9 @@ public class IvyNode implements Comparable {
             Artifact artifact = (Artifact) iter.next();
             boolean excluded = callers.doesCallersExclude(rootModuleConf, artifact);
             if (excluded) {
-                Message.debug(this + " in " + rootModuleConf + ": excluding " + artifact);
+                if (Message.isDebugEnabled()) {
+                    Message.debug(this + " in " + rootModuleConf + ": excluding " + artifact);
+                }
                 iter.remove();
             }
         }
@@ -1034,7 +1096,7 @@ public class IvyNode implements Comparable {
      * Clean data related to one root module configuration only
      */
     public void clean() {
-        confsToFetch.clear();
+        confsToFetch = Collections.EMPTY_SET;
     }
 
     // /////////////////////////////////////////////////////////////////////////////
@@ -1235,7 +1297,7 @@ public class IvyNode implements Comparable {
     public void blacklist(IvyNodeBlacklist bdata) {
         if (data.getSettings().logResolvedRevision()) {
             Message.info("BLACKLISTING " + bdata);
-        } else {
+        } else if (Message.isVerboseEnabled()) {
             Message.verbose("BLACKLISTING " + bdata);
         }
         
@@ -1330,9 +1392,6 @@ public class IvyNode implements Comparable {
      * @return true if there is any merged usage with transitive dd, false otherwise.
      */
     public boolean hasAnyMergedUsageWithTransitiveDependency(String rootModuleConf) {
-        if (mergedUsages == null) {
-            return false;
-        }
         for (Iterator iterator = mergedUsages.values().iterator(); iterator.hasNext();) {
             IvyNodeUsage usage = (IvyNodeUsage) iterator.next();
             if (usage.hasTransitiveDepender(rootModuleConf)) {
@@ -19,6 +19,7 @@ package org.apache.ivy.core.resolve;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -39,7 +40,9 @@ public class IvyNodeCallers {
 
         private ModuleRevisionId mrid;
 
-        private Map confs = new HashMap(); // Map (String callerConf -> String[] dependencyConfs)
+        // Map (String callerConf -> String[] dependencyConfs)
+        // callers usually use only a few configurations: keep the table small
+        private Map confs = new HashMap(4);
 
         private DependencyDescriptor dd;
 
@@ -136,13 +139,14 @@ public class IvyNodeCallers {
 
     // Map (String rootModuleConf -> Map (ModuleRevisionId -> Caller)): key in second map is used to
     // easily get a caller by its mrid
-    private Map callersByRootConf = new HashMap();
+    // allocated on first caller, the root node never gets any
+    private Map callersByRootConf = Collections.EMPTY_MAP;
 
     // this map contains all the module ids calling this one (including transitively) as keys.
     // the mapped nodes (values) correspond to a direct caller from which the transitive caller
     // comes
 
-    private Map allCallers = new HashMap(); // Map (ModuleId -> IvyNode)
+    private Map allCallers = Collections.EMPTY_MAP; // Map (ModuleId -> IvyNode)
 
     private IvyNode node;
 
@@ -169,7 +173,10 @@ public class IvyNodeCallers {
         }
         Map callers = (Map) callersByRootConf.get(rootModuleConf);
         if (callers == null) {
-            callers = new HashMap();
+            callers = new HashMap(4);
+            if (callersByRootConf.isEmpty()) {
+                callersByRootConf = new HashMap(4);
+            }
             callersByRootConf.put(rootModuleConf, callers);
         }
         Caller caller = (Caller) callers.get(mrid);
@@ -180,6 +187,9 @@ public class IvyNodeCallers {
         caller.addConfiguration(requestedConf, dependencyConfs);
 
         IvyNode parent = callerNode.getRealNode();
+        if (allCallers.isEmpty()) {
+            allCallers = new HashMap();
+        }
         for (Iterator iter = parent.getAllCallersModuleIds().iterator(); iter.hasNext();) {
             ModuleId mid = (ModuleId) iter.next();
             allCallers.put(mid, parent);
@@ -235,7 +245,10 @@ public class IvyNodeCallers {
         if (nodecallers != null) {
             Map thiscallers = (Map) callersByRootConf.get(rootModuleConf);
             if (thiscallers == null) {
-                thiscallers = new HashMap();
+                thiscallers = new HashMap(4);
+                if (callersByRootConf.isEmpty()) {
+                    callersByRootConf = new HashMap(4);
+                }
                 callersByRootConf.put(rootModuleConf, thiscallers);
             }
             for (Iterator iter = nodecallers.values().iterator(); iter.hasNext();) {
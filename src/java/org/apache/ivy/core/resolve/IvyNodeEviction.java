@@ -18,6 +18,7 @@
 package org.apache.ivy.core.resolve;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -175,28 +176,27 @@ public class IvyNodeEviction {
 
     private IvyNode node;
 
-    private Map selectedDeps = new HashMap(); // Map (ModuleIdConf -> Set(Node)) // map indicating
+    // maps are allocated on first write, see allocate(Map)
 
-    // for each dependency which node has been selected
+    // Map (ModuleIdConf -> Set(Node)) // map indicating for each dependency which node has been
+    // selected
+    private Map selectedDeps = Collections.EMPTY_MAP;
 
-    private Map pendingConflicts = new HashMap(); // Map (ModuleIdConf -> Set(Node)) // map
+    // Map (ModuleIdConf -> Set(Node)) // map indicating for each dependency which nodes are in
+    // pending conflict (conflict detected but not yet resolved)
+    private Map pendingConflicts = Collections.EMPTY_MAP;
 
-    // indicating for each dependency which nodes
-    // are in pending conflict (conflict detected
-    // but not yet resolved)
+    // Map (ModuleIdConf -> Set(Node)) // map indicating for each dependency which node has been
+    // evicted
+    private Map evictedDeps = Collections.EMPTY_MAP;
 
-    private Map evictedDeps = new HashMap(); // Map (ModuleIdConf -> Set(Node)) // map indicating
+    // Map (ModuleIdConf -> Set(ModuleRevisionId)) // map indicating for each dependency which
+    // revision has been evicted
+    private Map evictedRevs = Collections.EMPTY_MAP;
 
-    // for each dependency which node has been evicted
-
-    private Map evictedRevs = new HashMap(); // Map (ModuleIdConf -> Set(ModuleRevisionId)) //
-
-    // map indicating for each dependency which revision
-    // has been evicted
-
-    private Map evicted = new HashMap(); // Map (root module conf -> EvictionData) // indicates
-
-    // if the node is evicted in each root module conf
+    // Map (root module conf -> EvictionData) // indicates if the node is evicted in each root
+    // module conf
+    private Map evicted = Collections.EMPTY_MAP;
 
     public IvyNodeEviction(IvyNode node) {
         if (node == null) {
@@ -245,7 +245,8 @@ public class IvyNodeEviction {
 
     public void setResolvedNodes(ModuleId moduleId, String rootModuleConf, Collection resolved) {
         ModuleIdConf moduleIdConf = new ModuleIdConf(moduleId, rootModuleConf);
-        selectedDeps.put(moduleIdConf, new HashSet(resolved));
+        selectedDeps = allocate(selectedDeps);
+        selectedDeps.put(moduleIdConf, compactSet(resolved));
     }
 
     public Collection getEvictedNodes(ModuleId mid, String rootModuleConf) {
@@ -271,6 +272,13 @@ public class IvyNodeEviction {
 
     public void setEvictedNodes(ModuleId moduleId, String rootModuleConf, Collection evicted) {
         ModuleIdConf moduleIdConf = new ModuleIdConf(moduleId, rootModuleConf);
+        if (evicted.isEmpty()) {
+            // this is by far the most common case: an absent entry means no eviction
+            evictedDeps.remove(moduleIdConf);
+            this.evictedRevs.remove(moduleIdConf);
+            return;
+        }
+        evictedDeps = allocate(evictedDeps);
         evictedDeps.put(moduleIdConf, new HashSet(evicted));
         Collection evictedRevs = new HashSet();
         for (Iterator iter = evicted.iterator(); iter.hasNext();) {
@@ -278,6 +286,7 @@ public class IvyNodeEviction {
             evictedRevs.add(node.getId());
             evictedRevs.add(node.getResolvedId());
         }
+        this.evictedRevs = allocate(this.evictedRevs);
         this.evictedRevs.put(moduleIdConf, evictedRevs);
     }
 
@@ -331,6 +340,7 @@ public class IvyNodeEviction {
     }
 
     public void markEvicted(EvictionData evictionData) {
+        evicted = allocate(evicted);
         evicted.put(evictionData.getRootModuleConf(), evictionData);
     }
 
@@ -436,7 +446,31 @@ public class IvyNodeEviction {
     public void setPendingConflicts(ModuleId moduleId, String rootModuleConf, 
             Collection conflicts) {
         ModuleIdConf moduleIdConf = new ModuleIdConf(moduleId, rootModuleConf);
+        if (conflicts.isEmpty()) {
+            pendingConflicts.remove(moduleIdConf);
+            return;
+        }
+        pendingConflicts = allocate(pendingConflicts);
         pendingConflicts.put(moduleIdConf, new HashSet(conflicts));
     }
 
+    /**
+     * Returns a mutable map to use instead of the given one, allocating it if the given map is the
+     * shared empty placeholder.
+     */
+    private static Map allocate(Map map) {
+        return map == Collections.EMPTY_MAP ? new HashMap() : map;
+    }
+
+    /**
+     * Returns a copy of the given collection of nodes, using an immutable singleton set in the
+     * usual case of a single node.
+     */
+    private static Set compactSet(Collection nodes) {
+        if (nodes.size() == 1) {
+            return Collections.singleton(nodes.iterator().next());
+        }
+        return new HashSet(nodes);
+    }
+
 }
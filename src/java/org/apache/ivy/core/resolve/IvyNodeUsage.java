@@ -19,6 +19,7 @@ package org.apache.ivy.core.resolve;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -116,18 +117,22 @@ public class IvyNodeUsage {
     
     private IvyNode node;
 
+    // all the maps below are allocated on first write: usage objects are created for every node
+    // and every merged usage, most of them never get any blacklisted data for instance
+
     // Map (String rootConfName -> Set(String confName))
     // used to know which configurations of the dependency are required
     // for each root module configuration
-    private Map rootModuleConfs = new HashMap();
+    private Map rootModuleConfs = Collections.EMPTY_MAP;
 
     // Map (NodeConf in -> Set(String conf))
-    private Map requiredConfs = new HashMap();
+    // values holding a single conf are stored as immutable singleton sets
+    private Map requiredConfs = Collections.EMPTY_MAP;
     
-    private Map /*<String, Set<Depender>>*/ dependers = new HashMap();
+    private Map /*<String, Set<Depender>>*/ dependers = Collections.EMPTY_MAP;
     
     // Map (String rootModuleConf -> IvyNodeBlacklist)
-    private Map blacklisted = new HashMap();
+    private Map blacklisted = Collections.EMPTY_MAP;
     
     public IvyNodeUsage(IvyNode node) {
         this.node = node;
@@ -138,7 +143,8 @@ public class IvyNodeUsage {
     }
 
     protected void setRequiredConfs(IvyNode parent, String parentConf, Collection confs) {
-        requiredConfs.put(new NodeConf(parent, parentConf), new HashSet(confs));
+        requiredConfs = allocate(requiredConfs);
+        requiredConfs.put(new NodeConf(parent, parentConf), compactSet(confs));
     }
     
     /**
@@ -155,7 +161,8 @@ public class IvyNodeUsage {
         Set depConfs = (Set) rootModuleConfs.get(rootModuleConf);
         if (depConfs == null) {
             depConfs = new HashSet();
-            rootModuleConfs.put(rootModuleConf, depConfs);
+            rootModuleConfs = allocate(rootModuleConfs);
+            rootModuleConfs.put(IvyNode.internConf(rootModuleConf), depConfs);
         }
         return depConfs;
     }
@@ -174,32 +181,60 @@ public class IvyNodeUsage {
     
     private void updateDataFrom(IvyNodeUsage usage, String rootModuleConf) {
         // update requiredConfs
-        updateMapOfSet(usage.requiredConfs, requiredConfs);
+        requiredConfs = updateMapOfSet(usage.requiredConfs, requiredConfs);
 
         // update rootModuleConfs
-        updateMapOfSetForKey(usage.rootModuleConfs, rootModuleConfs, rootModuleConf);
+        rootModuleConfs = updateMapOfSetForKey(usage.rootModuleConfs, rootModuleConfs,
+            rootModuleConf);
 
         // update dependencyArtifacts
-        updateMapOfSetForKey(usage.dependers, dependers, rootModuleConf);
+        dependers = updateMapOfSetForKey(usage.dependers, dependers, rootModuleConf);
     }
 
-    private void updateMapOfSet(Map from, Map to) {
+    private Map updateMapOfSet(Map from, Map to) {
         for (Iterator iter = from.keySet().iterator(); iter.hasNext();) {
             Object key = iter.next();
-            updateMapOfSetForKey(from, to, key);
+            to = updateMapOfSetForKey(from, to, key);
         }
+        return to;
     }
 
-    private void updateMapOfSetForKey(Map from, Map to, Object key) {
+    /**
+     * Adds the set mapped to the given key in <code>from</code> to the one in <code>to</code>, and
+     * returns the updated <code>to</code> map, which may be a newly allocated one.
+     */
+    private Map updateMapOfSetForKey(Map from, Map to, Object key) {
         Set set = (Set) from.get(key);
         if (set != null) {
             Set toupdate = (Set) to.get(key);
-            if (toupdate != null) {
-                toupdate.addAll(set);
-            } else {
+            if (toupdate == null) {
+                to = allocate(to);
                 to.put(key, new HashSet(set));
+            } else if (!toupdate.containsAll(set)) {
+                if (!(toupdate instanceof HashSet)) {
+                    // compact immutable set, replace it with a mutable one
+                    toupdate = new HashSet(toupdate);
+                    to.put(key, toupdate);
+                }
+                toupdate.addAll(set);
             }
         }
+        return to;
+    }
+
+    private static Map allocate(Map map) {
+        return map == Collections.EMPTY_MAP ? new HashMap() : map;
+    }
+
+    private static Set compactSet(Collection confs) {
+        if (confs.size() == 1) {
+            return Collections.singleton(IvyNode.internConf((String) confs.iterator().next()));
+        }
+        Set set = new HashSet();
+        for (Iterator iter = confs.iterator(); iter.hasNext();) {
+            set.add(IvyNode.internConf((String) iter.next()));
+        }
+        return set;
     }
 
 //    protected void addDependencyArtifacts(String rootModuleConf,
@@ -212,17 +247,19 @@ public class IvyNodeUsage {
 //        addObjectsForConf(rootModuleConf, Arrays.asList(rules), dependencyIncludes);
 //    }
 //
-    private void addObjectsForConf(String rootModuleConf, Object objectToAdd, Map map) {
+    private Map addObjectsForConf(String rootModuleConf, Object objectToAdd, Map map) {
         Set set = (Set) map.get(rootModuleConf);
         if (set == null) {
             set = new HashSet();
+            map = allocate(map);
             map.put(rootModuleConf, set);
         }
         set.add(objectToAdd);
+        return map;
     }
 
     public void addUsage(String rootModuleConf, DependencyDescriptor dd, String parentConf) {
-        addObjectsForConf(rootModuleConf, new Depender(dd, parentConf), dependers);
+        dependers = addObjectsForConf(rootModuleConf, new Depender(dd, parentConf), dependers);
     }
 
     protected Set getDependencyArtifactsSet(String rootModuleConf) {
@@ -265,6 +302,7 @@ public class IvyNodeUsage {
     }
 
     protected void blacklist(IvyNodeBlacklist bdata) {
+        blacklisted = allocate(blacklisted);
         blacklisted.put(bdata.getRootModuleConf(), bdata);
     }
     
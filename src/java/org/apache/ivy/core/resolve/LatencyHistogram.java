@@ -0,0 +1,145 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+/**
+ * Distribution of durations, in milliseconds, counted in buckets of increasing width.
+ * <p>
+ * This class isn't thread safe, {@link ResolveMetrics} takes care of synchronizing access to its
+ * histograms and only gives copies of them.
+ * </p>
+ */
+public class LatencyHistogram {
+    /**
+     * The inclusive upper bound of each bucket, the last bucket counting the durations greater
+     * than the last bound.
+     */
+    private static final long[] BOUNDS = new long[] {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000,
+            2000, 5000, 10000, 30000, 60000};
+
+    private final long[] counts = new long[BOUNDS.length + 1];
+
+    private long count;
+
+    private long total;
+
+    private long min;
+
+    private long max;
+
+    public LatencyHistogram() {
+    }
+
+    public LatencyHistogram(LatencyHistogram histogram) {
+        System.arraycopy(histogram.counts, 0, counts, 0, counts.length);
+        count = histogram.count;
+        total = histogram.total;
+        min = histogram.min;
+        max = histogram.max;
+    }
+
+    public void record(long duration) {
+        if (duration < 0) {
+            duration = 0;
+        }
+        int bucket = 0;
+        while (bucket < BOUNDS.length && duration > BOUNDS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        if (count == 0 || duration < min) {
+            min = duration;
+        }
+        if (duration > max) {
+            max = duration;
+        }
+        count++;
+        total += duration;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns an estimate of the given percentile of the recorded durations: the upper bound of
+     * the bucket in which it falls, or the maximum duration if it is lower.
+     *
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the estimated duration, 0 if no duration has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * count / 100);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the inclusive upper bounds of the buckets, there is one more bucket for the
+     * durations greater than the last bound.
+     */
+    public static long[] getBucketBounds() {
+        long[] bounds = new long[BOUNDS.length];
+        System.arraycopy(BOUNDS, 0, bounds, 0, bounds.length);
+        return bounds;
+    }
+
+    /**
+     * Returns the number of durations in each bucket.
+     *
+     * @see #getBucketBounds()
+     */
+    public long[] getBucketCounts() {
+        long[] result = new long[counts.length];
+        System.arraycopy(counts, 0, result, 0, result.length);
+        return result;
+    }
+
+    public String toString() {
+        return "count=" + count + " total=" + total + "ms min=" + min + "ms max=" + max + "ms";
+    }
+}
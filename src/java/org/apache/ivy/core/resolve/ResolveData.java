@@ -21,17 +21,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ConfigurationResolveReport;
+import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.util.Message;
 
 public class ResolveData {
@@ -47,11 +51,30 @@ public class ResolveData {
 
     private ResolvedModuleRevision currentResolvedModuleRevision;
 
+    // shared map of the revisions listed during this resolve: Map (String -> ResolvedResource[])
+    private Map revisionListings = new HashMap();
+
+    // shared map of the metadata computed by parsers from other modules, such as parent poms
+    private Map parsedMetadata = new HashMap();
+
+    // keys of the nodes and confs whose dependencies have been fetched in the current conf of the
+    // resolve: Set (String)
+    private Set fetchedSet = new HashSet();
+
+    private ResolveMetrics metrics = new ResolveMetrics();
+
+    private ResolveTrace trace;
+
     public ResolveData(ResolveData data, boolean validate) {
         this(data.engine, new ResolveOptions(data.options).setValidate(validate), 
             data.report, data.visitData);
         setCurrentVisitNode(data.currentVisitNode);
         setCurrentResolvedModuleRevision(data.currentResolvedModuleRevision);
+        revisionListings = data.revisionListings;
+        parsedMetadata = data.parsedMetadata;
+        fetchedSet = data.fetchedSet;
+        metrics = data.metrics;
+        trace = data.trace;
     }
 
     public ResolveData(ResolveEngine engine, ResolveOptions options) {
@@ -71,6 +94,77 @@ public class ResolveData {
         this.options = options;
     }
 
+    /**
+     * Indicates if revisions have already been listed during this resolve with the given key.
+     * 
+     * @param key
+     *            the key identifying the listing, usually the resolver and the listed pattern
+     * @return true if a listing, possibly <code>null</code>, has been stored with this key
+     */
+    public boolean hasRevisionListing(String key) {
+        return revisionListings.containsKey(key);
+    }
+
+    /**
+     * Returns the revisions listed during this resolve with the given key, so that a module
+     * required by several callers is listed only once.
+     * 
+     * @param key
+     *            the key identifying the listing
+     * @return the listed resources, <code>null</code> if none is stored or if the listing failed
+     */
+    public ResolvedResource[] getRevisionListing(String key) {
+        return (ResolvedResource[]) revisionListings.get(key);
+    }
+
+    public void setRevisionListing(String key, ResolvedResource[] listing) {
+        revisionListings.put(key, listing);
+    }
+
+    /**
+     * Returns the metadata a parser has computed during this resolve from another module, so that
+     * a module used by the descriptors of several others, like a parent pom, is processed only
+     * once.
+     * 
+     * @param key
+     *            the key under which the parser stored the metadata
+     * @return the stored metadata, <code>null</code> if none is stored with this key
+     */
+    public Object getParsedMetadata(Object key) {
+        return parsedMetadata.get(key);
+    }
+
+    public void setParsedMetadata(Object key, Object metadata) {
+        parsedMetadata.put(key, metadata);
+    }
+
+    /**
+     * Returns the keys of the nodes and configurations whose dependencies have already been
+     * fetched, maintained by the {@link ResolveEngine}. Each resolve has its own set, so that
+     * concurrent resolves with the same engine don't skip each other's dependencies.
+     */
+    Set/*<String>*/ getFetchedSet() {
+        return fetchedSet;
+    }
+
+    /**
+     * Returns the timings and counters collected during this resolve.
+     */
+    public ResolveMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the trace of this resolve, or <code>null</code> if it isn't traced.
+     */
+    public ResolveTrace getTrace() {
+        return trace;
+    }
+
+    public void setTrace(ResolveTrace trace) {
+        this.trace = trace;
+    }
+
     public ConfigurationResolveReport getReport() {
         return report;
     }
@@ -315,8 +409,10 @@ public class ResolveData {
         }
         
         if (originalDD != dd) {
-            Message.verbose("dependency descriptor has been mediated: " 
-                + originalDD + " => " + dd);
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("dependency descriptor has been mediated: " 
+                    + originalDD + " => " + dd);
+            }
         }
 
         return dd;
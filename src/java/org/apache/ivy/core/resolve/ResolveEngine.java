@@ -30,7 +30,9 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -61,7 +63,6 @@ import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.ResolveReport;
 import org.apache.ivy.core.resolve.IvyNodeEviction.EvictionData;
 import org.apache.ivy.core.sort.SortEngine;
-import org.apache.ivy.core.sort.SortOptions;
 import org.apache.ivy.plugins.conflict.ConflictManager;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
@@ -69,6 +70,7 @@ import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.plugins.version.VersionMatcher;
 import org.apache.ivy.util.Message;
+import org.apache.ivy.util.ProblemStore;
 import org.apache.ivy.util.filter.Filter;
 
 /**
@@ -87,8 +89,6 @@ public class ResolveEngine {
 
     private SortEngine sortEngine;
 
-    private Set fetchedSet = new HashSet();
-
     private DependencyResolver dictatorResolver;
 
     /**
@@ -108,6 +108,9 @@ public class ResolveEngine {
         this.settings = settings;
         this.eventManager = eventManager;
         this.sortEngine = sortEngine;
+        if (eventManager != null && !eventManager.hasIvyListener(ResolveMetricsListener.INSTANCE)) {
+            eventManager.addIvyListener(ResolveMetricsListener.INSTANCE);
+        }
     }
 
     /**
@@ -202,6 +205,9 @@ public class ResolveEngine {
             throws ParseException, IOException {
         DependencyResolver oldDictator = getDictatorResolver();
         IvyContext context = IvyContext.getContext();
+        ProblemStore oldProblems = context.getProblemStore();
+        // the problems of the resolve are dropped with it, even if they aren't summed up
+        context.setProblemStore(new ProblemStore());
         try {
             String[] confs = options.getConfs(md);
             options.setConfs(confs);
@@ -227,7 +233,7 @@ public class ResolveEngine {
             
             ResolveReport report = new ResolveReport(md, options.getResolveId());
 
-            ResolveData data = new ResolveData(this, options);
+            ResolveData data = newResolveData(options);
             context.setResolveData(data);
             
             // resolve dependencies
@@ -312,7 +318,9 @@ public class ResolveEngine {
                             
                             // The evicted modules have no description, so we can't put the status
                             String status = depDescriptor == null ? "?" : depDescriptor.getStatus();
-                            Message.debug("storing dependency " + depResolvedId + " in props");
+                            if (Message.isDebugEnabled()) {
+                                Message.debug("storing dependency " + depResolvedId + " in props");
+                            }
                             props.put(depRevisionId.encodeToString(), rev + " " + status + " " + forcedRev + " " + depResolvedId.getBranch());
                         }
                     }
@@ -324,6 +332,7 @@ public class ResolveEngine {
             Message.verbose("\tresolved ivy file produced in cache");
 
             report.setResolveTime(System.currentTimeMillis() - start);
+            data.getMetrics().addTiming(ResolveMetrics.RESOLVE, null, report.getResolveTime());
 
             if (options.isDownload()) {
                 Message.verbose(":: downloading artifacts ::");
@@ -335,7 +344,10 @@ public class ResolveEngine {
             }
 
             if (options.isOutputReport()) {
+                long outputStart = System.currentTimeMillis();
                 outputReport(report, cacheManager, options);
+                data.getMetrics().addTiming(ResolveMetrics.REPORT, null,
+                    System.currentTimeMillis() - outputStart);
             }
 
             Message.verbose("\tresolve done (" + report.getResolveTime() + "ms resolve - "
@@ -343,6 +355,7 @@ public class ResolveEngine {
             Message.sumupProblems();
 
             eventManager.fireIvyEvent(new EndResolveEvent(md, confs, report));
+            eventManager.flush();
             return report;
         } catch (RuntimeException ex) {
             Message.debug(ex);
@@ -351,7 +364,12 @@ public class ResolveEngine {
             throw ex;
         } finally {
             context.setResolveData(null);
-            setDictatorResolver(oldDictator);
+            context.setProblemStore(oldProblems);
+            if (getDictatorResolver() != oldDictator) {
+                // only write the dictator when it has changed: concurrent resolves with the same
+                // engine, like the entries of a batch, mustn't restore each other's dictator
+                setDictatorResolver(oldDictator);
+            }
         }
     }
 
@@ -563,15 +581,17 @@ public class ResolveEngine {
             Date reportDate = new Date();
             ResolveData data = context.getResolveData();
             if (data == null) {
-                data = new ResolveData(this, options);
+                data = newResolveData(options);
                 context.setResolveData(data);
             }
             IvyNode rootNode = new IvyNode(data, md);
+            int restarts = 0;
+            long restartTime = 0;
             
             for (int i = 0; i < confs.length; i++) {
                 Message.verbose("resolving dependencies for configuration '" + confs[i] + "'");
                 // for each configuration we clear the cache of what's been fetched
-                fetchedSet.clear();
+                data.getFetchedSet().clear();
     
                 ConfigurationResolveReport confReport = null;
                 if (report != null) {
@@ -592,6 +612,7 @@ public class ResolveEngine {
 
                 // go fetch !
                 boolean fetched = false;
+                long restartStart = -1;
                 while (!fetched) {
                     try {
                         fetchDependencies(root, confs[i], false);
@@ -601,9 +622,20 @@ public class ResolveEngine {
                         Message.verbose("=           RESTARTING RESOLVE PROCESS");
                         Message.verbose("= " + restart.getMessage());
                         Message.verbose("====================================================");
-                        fetchedSet.clear();
+                        if (restartStart == -1) {
+                            restartStart = System.currentTimeMillis();
+                        }
+                        restarts++;
+                        if (options.isIncrementalRestart() && restart.getBlacklisted() != null) {
+                            unmarkDependenciesFetched(data, restart.getBlacklisted());
+                        } else {
+                            data.getFetchedSet().clear();
+                        }
                     }
                 }
+                if (restartStart != -1) {
+                    restartTime += System.currentTimeMillis() - restartStart;
+                }
 
                 // clean data
                 for (Iterator iter = data.getNodes().iterator(); iter.hasNext();) {
@@ -622,10 +654,20 @@ public class ResolveEngine {
                     dependencies.add(node);
                 }
             }
-            List sortedDependencies = sortEngine.sortNodes(dependencies, SortOptions.SILENT);
-            Collections.reverse(sortedDependencies);
+            List sortedDependencies = sortNodesByCallers(dependencies, data);
     
             handleTransiviteEviction(md, confs, data, sortedDependencies);    
+
+            if (restarts > 0) {
+                Message.verbose("\tresolve process restarted " + restarts + " time(s) ("
+                        + restartTime + "ms)");
+            }
+            if (report != null) {
+                report.setRestartCount(restarts);
+                report.setRestartTime(restartTime);
+                report.setMetrics(data.getMetrics());
+                report.setTrace(data.getTrace());
+            }
             
             return (IvyNode[]) dependencies.toArray(new IvyNode[dependencies.size()]);
         } finally {
@@ -633,12 +675,122 @@ public class ResolveEngine {
         }
     }
 
+    /**
+     * Creates the data of a new resolve, traced if asked in the options or in the settings.
+     */
+    private ResolveData newResolveData(ResolveOptions options) {
+        ResolveData data = new ResolveData(this, options);
+        int traceSize = options.getTraceSize();
+        if (traceSize <= 0) {
+            String size = settings.getVariable(ResolveTrace.SIZE_VARIABLE);
+            if (size != null) {
+                try {
+                    traceSize = Integer.parseInt(size.trim());
+                } catch (NumberFormatException e) {
+                    Message.warn("invalid " + ResolveTrace.SIZE_VARIABLE + ": " + size
+                            + ": resolve not traced");
+                }
+            }
+        }
+        if (traceSize > 0) {
+            data.setTrace(new ResolveTrace(traceSize));
+        }
+        return data;
+    }
+
+    /**
+     * Sorts the given nodes so that each node comes after all the nodes calling it, i.e. from the
+     * more dependent to the less one.
+     * <p>
+     * The callers recorded on each node during the traversal already form the dependency graph, so
+     * nodes are sorted with a single topological pass over them, instead of going through the
+     * module descriptors sort of the {@link SortEngine}. Nodes part of a circular dependency are
+     * appended in their original order when no other node can be processed.
+     * </p>
+     * 
+     * @param nodes
+     *            the nodes to sort
+     * @param data
+     *            the resolve data in which callers should be looked up
+     * @return the sorted list of nodes
+     */
+    private List/*<IvyNode>*/ sortNodesByCallers(Collection/*<IvyNode>*/ nodes, ResolveData data) {
+        // Map (IvyNode caller -> List<IvyNode> called)
+        Map called = new HashMap();
+        // Map (IvyNode -> int[] number of callers not yet sorted)
+        Map pendingCallers = new HashMap();
+        for (Iterator iter = nodes.iterator(); iter.hasNext();) {
+            IvyNode node = (IvyNode) iter.next();
+            IvyNodeCallers.Caller[] callers = node.getAllCallers();
+            Set callerNodes = new HashSet();
+            for (int i = 0; i < callers.length; i++) {
+                IvyNode callerNode = data.getNode(callers[i].getModuleRevisionId());
+                if (callerNode != null && callerNode != node && nodes.contains(callerNode)
+                        && callerNodes.add(callerNode)) {
+                    List l = (List) called.get(callerNode);
+                    if (l == null) {
+                        l = new ArrayList();
+                        called.put(callerNode, l);
+                    }
+                    l.add(node);
+                }
+            }
+            pendingCallers.put(node, new int[] {callerNodes.size()});
+        }
+
+        List sorted = new ArrayList(nodes.size());
+        LinkedList ready = new LinkedList();
+        Set done = new HashSet();
+        Iterator remaining = nodes.iterator();
+        for (Iterator iter = nodes.iterator(); iter.hasNext();) {
+            IvyNode node = (IvyNode) iter.next();
+            if (((int[]) pendingCallers.get(node))[0] == 0) {
+                ready.add(node);
+            }
+        }
+        while (sorted.size() < nodes.size()) {
+            if (ready.isEmpty()) {
+                // circular dependency: break it with the first node not sorted yet
+                while (remaining.hasNext()) {
+                    IvyNode node = (IvyNode) remaining.next();
+                    if (!done.contains(node)) {
+                        ready.add(node);
+                        break;
+                    }
+                }
+            }
+            IvyNode node = (IvyNode) ready.removeFirst();
+            if (!done.add(node)) {
+                continue;
+            }
+            sorted.add(node);
+            List l = (List) called.get(node);
+            if (l != null) {
+                for (Iterator iter = l.iterator(); iter.hasNext();) {
+                    IvyNode dep = (IvyNode) iter.next();
+                    int[] pending = (int[]) pendingCallers.get(dep);
+                    pending[0]--;
+                    if (pending[0] == 0 && !done.contains(dep)) {
+                        ready.add(dep);
+                    }
+                }
+            }
+        }
+        return sorted;
+    }
+
     private void handleTransiviteEviction(
             ModuleDescriptor md, String[] confs, ResolveData data, List sortedDependencies) {
         // handle transitive eviction now:
         // if a module has been evicted then all its dependencies required only by it should be
         // evicted too. Since nodes are now sorted from the more dependent to the less one, we
-        // can traverse the list and check only the direct parent and not all the ancestors
+        // can traverse the list and check only the direct parent and not all the ancestors.
+        // The eviction state of each caller is final when it is checked, so it is computed
+        // only once per node and conf
+        Map[] evictedByConf = new Map[confs.length]; // Map (IvyNode -> Boolean)
+        for (int i = 0; i < confs.length; i++) {
+            evictedByConf[i] = new HashMap();
+        }
         for (ListIterator iter = sortedDependencies.listIterator(); iter.hasNext();) {
             IvyNode node = (IvyNode) iter.next();
             if (!node.isCompletelyEvicted()) {
@@ -661,7 +813,7 @@ public class ResolveEngine {
                                         + callers[j].getModuleRevisionId() + ": looked in "
                                         + data.getNodeIds() + " and root module id was "
                                         + md.getModuleRevisionId());
-                            } else if (!callerNode.isEvicted(confs[i])) {
+                            } else if (!isEvicted(callerNode, confs[i], evictedByConf[i])) {
                                 allEvicted = false;
                                 break;
                             } else {
@@ -673,9 +825,12 @@ public class ResolveEngine {
                         }
                     }
                     if (allEvicted) {
-                        Message.verbose("all callers are evicted for " 
-                            + node + ": evicting too");
+                        if (Message.isVerboseEnabled()) {
+                            Message.verbose("all callers are evicted for " 
+                                + node + ": evicting too");
+                        }
                         node.markEvicted(confs[i], null, null, null);
+                        evictedByConf[i].put(node, Boolean.TRUE);
                     } else {
                         if (settings.debugConflictResolution()) {
                             Message.debug(node.getId()
@@ -688,76 +843,96 @@ public class ResolveEngine {
         }
     }
 
+    private boolean isEvicted(IvyNode node, String rootModuleConf, Map evicted) {
+        Boolean b = (Boolean) evicted.get(node);
+        if (b == null) {
+            b = Boolean.valueOf(node.isEvicted(rootModuleConf));
+            evicted.put(node, b);
+        }
+        return b.booleanValue();
+    }
+
     private void fetchDependencies(VisitNode node, String conf, boolean shouldBePublic) {
         checkInterrupted();
         long start = System.currentTimeMillis();
-        if (node.getParent() != null) {
-            Message.verbose("== resolving dependencies " + node.getParent().getId() + "->"
-                    + node.getId() + " [" + node.getParentConf() + "->" + conf + "]");
-        } else {
-            Message.verbose("== resolving dependencies for " + node.getId() + " [" + conf + "]");
+        if (Message.isVerboseEnabled()) {
+            if (node.getParent() != null) {
+                Message.verbose("== resolving dependencies " + node.getParent().getId() + "->"
+                        + node.getId() + " [" + node.getParentConf() + "->" + conf + "]");
+            } else {
+                Message.verbose("== resolving dependencies for " + node.getId() + " [" + conf
+                        + "]");
+            }
         }
         ResolveData data = node.getNode().getData();
-        VisitNode parentVisitNode = data.getCurrentVisitNode();
-        
-        data.setCurrentVisitNode(node);
-        DependencyDescriptor dd = node.getDependencyDescriptor();
-        VersionMatcher versionMatcher = node.getNode().getData().getSettings().getVersionMatcher();
-        if (dd != null 
-                && !(node.getRoot() == node.getParent() 
-                        && versionMatcher.isDynamic(dd.getDependencyRevisionId()))) {
-            /*
-             * we don't resolve conflicts before loading data for direct dependencies on dynamic
-             * revisions, so that direct dynamic revisions are always resolved, which is mandatory
-             * for proper replacement of dynamic revisions during 'deliver'
-             */
-            resolveConflict(node, conf);
-        }
+        ResolveTrace trace = data.getTrace();
+        ResolveTrace.Span span = trace == null ? null : trace.beginSpan(ResolveTrace.FETCH,
+            node.getId(), null);
+        try {
+            VisitNode parentVisitNode = data.getCurrentVisitNode();
+
+            data.setCurrentVisitNode(node);
+            DependencyDescriptor dd = node.getDependencyDescriptor();
+            VersionMatcher versionMatcher = node.getNode().getData().getSettings()
+                    .getVersionMatcher();
+            if (dd != null 
+                    && !(node.getRoot() == node.getParent() 
+                            && versionMatcher.isDynamic(dd.getDependencyRevisionId()))) {
+                /*
+                 * we don't resolve conflicts before loading data for direct dependencies on
+                 * dynamic revisions, so that direct dynamic revisions are always resolved, which is
+                 * mandatory for proper replacement of dynamic revisions during 'deliver'
+                 */
+                resolveConflict(node, conf);
+            }
 
-        if (node.loadData(conf, shouldBePublic)) {
-            // we resolve conflict again now that we have all information loaded
-            // indeed in some cases conflict manager need more information than just asked
-            // dependency to take the decision
-            resolveConflict(node, conf); 
-            if (!node.isEvicted() && !node.isCircular()) {
-                String[] confs = node.getRealConfs(conf);
-                for (int i = 0; i < confs.length; i++) {
-                    doFetchDependencies(node, confs[i]);
+            if (node.loadData(conf, shouldBePublic)) {
+                // we resolve conflict again now that we have all information loaded
+                // indeed in some cases conflict manager need more information than just asked
+                // dependency to take the decision
+                resolveConflict(node, conf); 
+                if (!node.isEvicted() && !node.isCircular()) {
+                    String[] confs = node.getRealConfs(conf);
+                    for (int i = 0; i < confs.length; i++) {
+                        doFetchDependencies(node, confs[i]);
+                    }
                 }
-            }
-        } else if (!node.hasProblem()) {
-            // the node has not been loaded but hasn't problem: it was already loaded
-            // => we just have to update its dependencies data
-            if (!node.isEvicted() && !node.isCircular()) {
-                String[] confs = node.getRealConfs(conf);
-                for (int i = 0; i < confs.length; i++) {
-                    doFetchDependencies(node, confs[i]);
+            } else if (!node.hasProblem()) {
+                // the node has not been loaded but hasn't problem: it was already loaded
+                // => we just have to update its dependencies data
+                if (!node.isEvicted() && !node.isCircular()) {
+                    String[] confs = node.getRealConfs(conf);
+                    for (int i = 0; i < confs.length; i++) {
+                        doFetchDependencies(node, confs[i]);
+                    }
                 }
             }
-        }
-        if (node.isEvicted()) {
-            // update selected nodes with confs asked in evicted one
-            EvictionData ed = node.getEvictedData();
-            if (ed.getSelected() != null) {
-                for (Iterator iter = ed.getSelected().iterator(); iter.hasNext();) {
-                    IvyNode selected = (IvyNode) iter.next();
-                    if (!selected.isLoaded()) {
-                        // the node is not yet loaded, we can simply update its set of
-                        // configurations to fetch
-                        selected.updateConfsToFetch(Collections.singleton(conf));
-                    } else {
-                        // the node has already been loaded, we must fetch its dependencies in the
-                        // required conf
-                        fetchDependencies(node.gotoNode(selected), conf, true);
+            if (node.isEvicted()) {
+                // update selected nodes with confs asked in evicted one
+                EvictionData ed = node.getEvictedData();
+                if (ed.getSelected() != null) {
+                    for (Iterator iter = ed.getSelected().iterator(); iter.hasNext();) {
+                        IvyNode selected = (IvyNode) iter.next();
+                        if (!selected.isLoaded()) {
+                            // the node is not yet loaded, we can simply update its set of
+                            // configurations to fetch
+                            selected.updateConfsToFetch(Collections.singleton(conf));
+                        } else {
+                            // the node has already been loaded, we must fetch its dependencies in
+                            // the required conf
+                            fetchDependencies(node.gotoNode(selected), conf, true);
+                        }
                     }
                 }
             }
+            if (settings.debugConflictResolution()) {
+                Message.debug(node.getId() + " => dependencies resolved in " + conf + " ("
+                        + (System.currentTimeMillis() - start) + "ms)");
+            }
+            data.setCurrentVisitNode(parentVisitNode);
+        } finally {
+            ResolveTrace.end(span);
         }
-        if (settings.debugConflictResolution()) {
-            Message.debug(node.getId() + " => dependencies resolved in " + conf + " ("
-                    + (System.currentTimeMillis() - start) + "ms)");
-        }
-        data.setCurrentVisitNode(parentVisitNode);
     }
 
     private void doFetchDependencies(VisitNode node, String conf) {
@@ -793,6 +968,7 @@ public class ResolveEngine {
         // now we can actually resolve this configuration dependencies
         if (!isDependenciesFetched(node.getNode(), conf) && node.isTransitive()) {
             Collection/*<VisitNode>*/ dependencies = node.getDependencies(conf);
+            prefetchDependencies(node.getNode().getData(), dependencies);
             for (Iterator iter = dependencies.iterator(); iter.hasNext();) {
                 VisitNode dep = (VisitNode) iter.next();
                 dep.useRealNode(); // the node may have been resolved to another real one while
@@ -825,6 +1001,43 @@ public class ResolveEngine {
 
     }
 
+    /**
+     * Gives the resolvers of the given dependencies which are not loaded yet a chance to look up
+     * their metadata in one batch, before they are resolved one by one.
+     */
+    private void prefetchDependencies(ResolveData data, Collection/*<VisitNode>*/ dependencies) {
+        if (dependencies.size() < 2) {
+            return;
+        }
+        Map/*<DependencyResolver, List<DependencyDescriptor>>*/ ddsByResolver = new LinkedHashMap();
+        for (Iterator iter = dependencies.iterator(); iter.hasNext();) {
+            VisitNode dep = (VisitNode) iter.next();
+            IvyNode node = dep.getNode();
+            if (node.isLoaded() || node.hasProblem()) {
+                continue;
+            }
+            DependencyResolver resolver = data.getSettings().getResolver(node.getId());
+            if (resolver == null) {
+                continue;
+            }
+            List dds = (List) ddsByResolver.get(resolver);
+            if (dds == null) {
+                dds = new ArrayList();
+                ddsByResolver.put(resolver, dds);
+            }
+            dds.add(dep.getDependencyDescriptor());
+        }
+        for (Iterator iter = ddsByResolver.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry entry = (Map.Entry) iter.next();
+            DependencyResolver resolver = (DependencyResolver) entry.getKey();
+            try {
+                resolver.prefetch((List) entry.getValue(), data);
+            } catch (RuntimeException ex) {
+                Message.verbose("prefetch failed with " + resolver.getName() + ": " + ex);
+            }
+        }
+    }
+
     /**
      * Returns true if we've already fetched the dependencies for this node and configuration
      * 
@@ -836,12 +1049,51 @@ public class ResolveEngine {
      */
     private boolean isDependenciesFetched(IvyNode node, String conf) {
         String key = getDependenciesFetchedKey(node, conf);
-        return fetchedSet.contains(key);
+        return node.getData().getFetchedSet().contains(key);
     }
     
     private void markDependenciesFetched(IvyNode node, String conf) {
         String key = getDependenciesFetchedKey(node, conf);
-        fetchedSet.add(key);
+        node.getData().getFetchedSet().add(key);
+    }
+
+    /**
+     * Forgets that dependencies have been fetched for the callers of the given blacklisted nodes,
+     * and for all their own callers up to the root, in all configurations.
+     * <p>
+     * These are the nodes for which eviction data has been cleared when blacklisting, so they are
+     * the only ones which need to be traversed again. Restarting the traversal from the root then
+     * goes down to them only, other dependencies being already marked as fetched.
+     * </p>
+     */
+    private void unmarkDependenciesFetched(ResolveData data,
+            Collection/*<IvyNodeBlacklist>*/ blacklisted) {
+        Set prefixes = new HashSet();
+        Set affected = new HashSet();
+        LinkedList toVisit = new LinkedList();
+        for (Iterator iter = blacklisted.iterator(); iter.hasNext();) {
+            IvyNodeBlacklist bdata = (IvyNodeBlacklist) iter.next();
+            String rootModuleConf = bdata.getRootModuleConf();
+            toVisit.add(bdata.getBlacklistedNode());
+            while (!toVisit.isEmpty()) {
+                IvyNode node = (IvyNode) toVisit.removeFirst();
+                IvyNodeCallers.Caller[] callers = node.getCallers(rootModuleConf);
+                for (int i = 0; i < callers.length; i++) {
+                    IvyNode callerNode = node.findNode(callers[i].getModuleRevisionId());
+                    if (callerNode != null && affected.add(callerNode)) {
+                        prefixes.add(getDependenciesFetchedKey(callerNode, ""));
+                        toVisit.add(callerNode);
+                    }
+                }
+            }
+        }
+        for (Iterator iter = data.getFetchedSet().iterator(); iter.hasNext();) {
+            String key = (String) iter.next();
+            if (prefixes.contains(key.substring(0, key.lastIndexOf('|') + 1))) {
+                iter.remove();
+            }
+        }
+        Message.verbose("\t" + affected.size() + " callers of blacklisted modules to fetch again");
     }
 
     private String getDependenciesFetchedKey(IvyNode node, String conf) {
@@ -852,7 +1104,13 @@ public class ResolveEngine {
     }
 
     private void resolveConflict(VisitNode node, String conf) {
-        resolveConflict(node, node.getParent(), conf, Collections.EMPTY_SET);
+        long start = System.currentTimeMillis();
+        try {
+            resolveConflict(node, node.getParent(), conf, Collections.EMPTY_SET);
+        } finally {
+            node.getNode().getData().getMetrics().addTiming(ResolveMetrics.CONFLICTS, null,
+                System.currentTimeMillis() - start);
+        }
     }
 
     /**
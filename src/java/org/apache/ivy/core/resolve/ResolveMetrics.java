@@ -0,0 +1,428 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.ivy.core.IvyContext;
+
+/**
+ * Timings and counters collected during a resolve, for each phase of the resolve and each
+ * resolver, repository or lock strategy involved in it.
+ * <p>
+ * The metrics of a resolve are shared by its {@link ResolveData}, and can be queried from the
+ * resolve report once it is done. Code running during a resolve feeds them with the static
+ * {@link #record(String, String, long)} and {@link #count(String, String, long)} methods, which do
+ * nothing outside of a resolve. The resolve engine also feeds them from the events sent by the
+ * resolvers and the repositories.
+ * </p>
+ * <p>
+ * All the methods are thread safe, so that concurrent work done for a resolve can record its
+ * metrics.
+ * </p>
+ */
+public class ResolveMetrics {
+    /**
+     * Phase: the resolution of the dependency graph, without the download of the artifacts.
+     */
+    public static final String RESOLVE = "resolve";
+
+    /**
+     * Phase: the resolution of a dependency by a resolver, including the cache and metadata
+     * lookups, per resolver.
+     */
+    public static final String DEPENDENCY = "dependency";
+
+    /**
+     * Phase: the lookup of a module in the repository cache, per resolver.
+     */
+    public static final String CACHE_LOOKUP = "cache-lookup";
+
+    /**
+     * Phase: the lookup of the metadata of a module in a repository, per resolver.
+     */
+    public static final String METADATA_LOOKUP = "metadata-lookup";
+
+    /**
+     * Phase: the parsing of a downloaded module descriptor, per resolver.
+     */
+    public static final String PARSE = "parse";
+
+    /**
+     * Phase: the conflict resolution done when a dependency is visited.
+     */
+    public static final String CONFLICTS = "conflicts";
+
+    /**
+     * Phase: the time spent acquiring a cache lock, per lock strategy.
+     */
+    public static final String LOCK = "lock";
+
+    /**
+     * Phase: a transfer from a repository, per repository.
+     */
+    public static final String TRANSFER = "transfer";
+
+    /**
+     * Phase: the download of an artifact, per resolver.
+     */
+    public static final String DOWNLOAD = "download";
+
+    /**
+     * Phase: the output of the resolve reports.
+     */
+    public static final String REPORT = "report";
+
+    /**
+     * Counter: the modules found in the repository cache, per resolver.
+     */
+    public static final String CACHE_HITS = "cache-hits";
+
+    /**
+     * Counter: the modules not found in the repository cache, per resolver.
+     */
+    public static final String CACHE_MISSES = "cache-misses";
+
+    /**
+     * Counter: the dependencies a resolver couldn't resolve, per resolver.
+     */
+    public static final String UNRESOLVED = "unresolved";
+
+    /**
+     * Counter: the bytes transferred from repositories, per repository.
+     */
+    public static final String TRANSFERRED_BYTES = "transferred-bytes";
+
+    /**
+     * Counter: the failed transfers, per repository.
+     */
+    public static final String TRANSFER_ERRORS = "transfer-errors";
+
+    /**
+     * Counter: the size of the downloaded artifacts, per resolver.
+     */
+    public static final String DOWNLOADED_BYTES = "downloaded-bytes";
+
+    /**
+     * Counter: the artifacts which failed to download, per resolver.
+     */
+    public static final String DOWNLOAD_FAILURES = "download-failures";
+
+    /**
+     * Counter: the cache locks which couldn't be acquired in time, per lock strategy.
+     */
+    public static final String LOCK_TIMEOUTS = "lock-timeouts";
+
+    // Map (String phase -> Metric of LatencyHistogram)
+    private final Map phases = new TreeMap();
+
+    // Map (String counter -> Metric of long[1])
+    private final Map counters = new TreeMap();
+
+    /**
+     * Returns the metrics of the resolve in progress in the current context.
+     *
+     * @return the metrics, <code>null</code> when no resolve is in progress
+     */
+    public static ResolveMetrics getCurrent() {
+        ResolveData data = IvyContext.getContext().getResolveData();
+        return data == null ? null : data.getMetrics();
+    }
+
+    /**
+     * Records in the metrics of the current resolve, if any, the time elapsed since the given
+     * start time.
+     *
+     * @param phase
+     *            the phase in which time has been spent
+     * @param source
+     *            the resolver, repository, ... in which time has been spent, <code>null</code> if
+     *            the duration only counts for the phase
+     * @param start
+     *            the start time, as given by {@link System#currentTimeMillis()}
+     */
+    public static void record(String phase, String source, long start) {
+        ResolveMetrics metrics = getCurrent();
+        if (metrics != null) {
+            metrics.addTiming(phase, source, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Increments a counter of the current resolve, if any.
+     *
+     * @param counter
+     *            the counter to increment
+     * @param source
+     *            the resolver, repository, ... concerned, <code>null</code> if the increment only
+     *            counts for the whole resolve
+     * @param delta
+     *            the increment
+     */
+    public static void count(String counter, String source, long delta) {
+        ResolveMetrics metrics = getCurrent();
+        if (metrics != null) {
+            metrics.addCount(counter, source, delta);
+        }
+    }
+
+    public synchronized void addTiming(String phase, String source, long duration) {
+        Metric metric = (Metric) phases.get(phase);
+        if (metric == null) {
+            metric = new Metric(new LatencyHistogram());
+            phases.put(phase, metric);
+        }
+        ((LatencyHistogram) metric.total).record(duration);
+        if (source != null) {
+            LatencyHistogram histogram = (LatencyHistogram) metric.sources.get(source);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                metric.sources.put(source, histogram);
+            }
+            histogram.record(duration);
+        }
+    }
+
+    public synchronized void addCount(String counter, String source, long delta) {
+        Metric metric = (Metric) counters.get(counter);
+        if (metric == null) {
+            metric = new Metric(new long[1]);
+            counters.put(counter, metric);
+        }
+        ((long[]) metric.total)[0] += delta;
+        if (source != null) {
+            long[] value = (long[]) metric.sources.get(source);
+            if (value == null) {
+                value = new long[1];
+                metric.sources.put(source, value);
+            }
+            value[0] += delta;
+        }
+    }
+
+    /**
+     * Returns the phases for which timings have been recorded, in alphabetical order.
+     */
+    public synchronized String[] getPhases() {
+        return (String[]) phases.keySet().toArray(new String[phases.size()]);
+    }
+
+    /**
+     * Returns the resolvers, repositories, ... for which timings have been recorded in the given
+     * phase, in alphabetical order.
+     */
+    public synchronized String[] getSources(String phase) {
+        return getSources(phases, phase);
+    }
+
+    /**
+     * Returns a copy of the timings recorded for the given phase.
+     *
+     * @return the timings, or an empty histogram if none has been recorded
+     */
+    public synchronized LatencyHistogram getTimings(String phase) {
+        Metric metric = (Metric) phases.get(phase);
+        return metric == null ? new LatencyHistogram() : new LatencyHistogram(
+                (LatencyHistogram) metric.total);
+    }
+
+    /**
+     * Returns a copy of the timings recorded for the given phase and source.
+     *
+     * @return the timings, or an empty histogram if none has been recorded
+     */
+    public synchronized LatencyHistogram getTimings(String phase, String source) {
+        Metric metric = (Metric) phases.get(phase);
+        LatencyHistogram histogram = metric == null ? null : (LatencyHistogram) metric.sources
+                .get(source);
+        return histogram == null ? new LatencyHistogram() : new LatencyHistogram(histogram);
+    }
+
+    /**
+     * Returns the counters which have been incremented, in alphabetical order.
+     */
+    public synchronized String[] getCounters() {
+        return (String[]) counters.keySet().toArray(new String[counters.size()]);
+    }
+
+    /**
+     * Returns the resolvers, repositories, ... for which the given counter has been incremented,
+     * in alphabetical order.
+     */
+    public synchronized String[] getCounterSources(String counter) {
+        return getSources(counters, counter);
+    }
+
+    public synchronized long getCount(String counter) {
+        Metric metric = (Metric) counters.get(counter);
+        return metric == null ? 0 : ((long[]) metric.total)[0];
+    }
+
+    public synchronized long getCount(String counter, String source) {
+        Metric metric = (Metric) counters.get(counter);
+        long[] value = metric == null ? null : (long[]) metric.sources.get(source);
+        return value == null ? 0 : value[0];
+    }
+
+    private static String[] getSources(Map metrics, String name) {
+        Metric metric = (Metric) metrics.get(name);
+        if (metric == null) {
+            return new String[0];
+        }
+        return (String[]) metric.sources.keySet().toArray(new String[metric.sources.size()]);
+    }
+
+    /**
+     * Writes these metrics as a JSON document to the given file.
+     */
+    public void writeJson(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writeJson(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes these metrics as a JSON document.
+     * <p>
+     * The document has a <code>phases</code> object giving the timings of each phase, and a
+     * <code>counters</code> object giving the value of each counter. Each of them has the total
+     * for the phase or counter, and a <code>sources</code> object with the values of each
+     * resolver, repository or lock strategy. Durations are in milliseconds.
+     * </p>
+     */
+    public synchronized void writeJson(Writer writer) throws IOException {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("{");
+        out.println("  \"phases\": {");
+        for (Iterator it = phases.entrySet().iterator(); it.hasNext();) {
+            Entry entry = (Entry) it.next();
+            Metric metric = (Metric) entry.getValue();
+            out.print("    " + quote((String) entry.getKey()) + ": {");
+            writeHistogram(out, (LatencyHistogram) metric.total);
+            out.println(",");
+            out.print("      \"sources\": {");
+            for (Iterator sources = metric.sources.entrySet().iterator(); sources.hasNext();) {
+                Entry source = (Entry) sources.next();
+                out.println();
+                out.print("        " + quote((String) source.getKey()) + ": {");
+                writeHistogram(out, (LatencyHistogram) source.getValue());
+                out.print("}" + (sources.hasNext() ? "," : ""));
+            }
+            out.println(metric.sources.isEmpty() ? "}" : "\n      }");
+            out.println("    }" + (it.hasNext() ? "," : ""));
+        }
+        out.println("  },");
+        out.println("  \"counters\": {");
+        for (Iterator it = counters.entrySet().iterator(); it.hasNext();) {
+            Entry entry = (Entry) it.next();
+            Metric metric = (Metric) entry.getValue();
+            out.print("    " + quote((String) entry.getKey()) + ": {\"total\": "
+                    + ((long[]) metric.total)[0] + ", \"sources\": {");
+            for (Iterator sources = metric.sources.entrySet().iterator(); sources.hasNext();) {
+                Entry source = (Entry) sources.next();
+                out.print(quote((String) source.getKey()) + ": " + ((long[]) source.getValue())[0]
+                        + (sources.hasNext() ? ", " : ""));
+            }
+            out.println("}}" + (it.hasNext() ? "," : ""));
+        }
+        out.println("  }");
+        out.println("}");
+        out.flush();
+    }
+
+    private static void writeHistogram(PrintWriter out, LatencyHistogram histogram) {
+        out.print("\"count\": " + histogram.getCount() + ", \"total\": " + histogram.getTotal()
+                + ", \"min\": " + histogram.getMin() + ", \"max\": " + histogram.getMax()
+                + ", \"p50\": " + histogram.getPercentile(50) + ", \"p90\": "
+                + histogram.getPercentile(90) + ", \"p99\": " + histogram.getPercentile(99)
+                + ", \"buckets\": {");
+        long[] bounds = LatencyHistogram.getBucketBounds();
+        long[] counts = histogram.getBucketCounts();
+        boolean first = true;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                out.print((first ? "" : ", ") + "\""
+                        + (i < bounds.length ? String.valueOf(bounds[i]) : "more") + "\": "
+                        + counts[i]);
+                first = false;
+            }
+        }
+        out.print("}");
+    }
+
+    static String quote(String value) {
+        StringBuffer buf = new StringBuffer(value.length() + 2);
+        buf.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.append('\\').append(c);
+            } else if (c < ' ') {
+                String hex = Integer.toHexString(c);
+                buf.append("\\u");
+                for (int j = hex.length(); j < 4; j++) {
+                    buf.append('0');
+                }
+                buf.append(hex);
+            } else {
+                buf.append(c);
+            }
+        }
+        return buf.append('"').toString();
+    }
+
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException e) {
+            // can't happen with a StringWriter
+        }
+        return writer.toString();
+    }
+
+    /**
+     * The value of a phase or counter for the whole resolve and for each source.
+     */
+    private static final class Metric {
+        private final Object total;
+
+        // Map (String source -> same type as total)
+        private final Map sources = new TreeMap();
+
+        Metric(Object total) {
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.SynchronousListener;
+import org.apache.ivy.core.event.download.EndArtifactDownloadEvent;
+import org.apache.ivy.core.event.resolve.EndResolveDependencyEvent;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
+import org.apache.ivy.plugins.repository.TransferEvent;
+
+/**
+ * Feeds the metrics of the resolve in progress in the current context with the events sent by
+ * the resolvers and the repositories.
+ * <p>
+ * A single instance listens to all the events of an event manager: events are sent in the thread
+ * doing the work, so the context tells to which resolve they belong, even when several resolves
+ * are run concurrently. This is why it is always called synchronously.
+ * </p>
+ */
+final class ResolveMetricsListener implements IvyListener, SynchronousListener {
+    static final ResolveMetricsListener INSTANCE = new ResolveMetricsListener();
+
+    private ResolveMetricsListener() {
+    }
+
+    public void progress(IvyEvent event) {
+        if (event instanceof TransferEvent) {
+            transferProgress((TransferEvent) event);
+        } else if (event instanceof EndResolveDependencyEvent) {
+            EndResolveDependencyEvent end = (EndResolveDependencyEvent) event;
+            ResolveMetrics metrics = ResolveMetrics.getCurrent();
+            if (metrics != null) {
+                String resolver = end.getResolver().getName();
+                metrics.addTiming(ResolveMetrics.DEPENDENCY, resolver, end.getDuration());
+                if (end.getModule() == null) {
+                    metrics.addCount(ResolveMetrics.UNRESOLVED, resolver, 1);
+                }
+            }
+        } else if (event instanceof EndArtifactDownloadEvent) {
+            EndArtifactDownloadEvent end = (EndArtifactDownloadEvent) event;
+            ResolveMetrics metrics = ResolveMetrics.getCurrent();
+            if (metrics != null) {
+                String resolver = end.getResolver().getName();
+                ArtifactDownloadReport report = end.getReport();
+                if (report.getDownloadStatus() == DownloadStatus.SUCCESSFUL) {
+                    metrics.addTiming(ResolveMetrics.DOWNLOAD, resolver, report
+                            .getDownloadTimeMillis());
+                    metrics.addCount(ResolveMetrics.DOWNLOADED_BYTES, resolver, report.getSize());
+                } else if (report.getDownloadStatus() == DownloadStatus.FAILED) {
+                    metrics.addCount(ResolveMetrics.DOWNLOAD_FAILURES, resolver, 1);
+                }
+            }
+        }
+    }
+
+    private void transferProgress(TransferEvent event) {
+        int type = event.getEventType();
+        if (type != TransferEvent.TRANSFER_COMPLETED && type != TransferEvent.TRANSFER_ERROR) {
+            return;
+        }
+        ResolveMetrics metrics = ResolveMetrics.getCurrent();
+        if (metrics == null) {
+            return;
+        }
+        String repository = event.getRepository() == null ? null : event.getRepository()
+                .getName();
+        if (type == TransferEvent.TRANSFER_COMPLETED) {
+            long elapsed = event.getElapsedTime(TransferEvent.TRANSFER_INITIATED,
+                TransferEvent.TRANSFER_COMPLETED);
+            if (elapsed >= 0) {
+                metrics.addTiming(ResolveMetrics.TRANSFER, repository, elapsed);
+            }
+            metrics.addCount(ResolveMetrics.TRANSFERRED_BYTES, repository, event
+                    .getTotalLength());
+        } else {
+            metrics.addCount(ResolveMetrics.TRANSFER_ERRORS, repository, 1);
+        }
+    }
+}
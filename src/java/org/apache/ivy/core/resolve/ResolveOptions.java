@@ -119,6 +119,18 @@ public class ResolveOptions extends LogOptions {
     private boolean checkIfChanged = false;
     private boolean uncompress;
 
+    /**
+     * True if a restart of the resolve process asked by a conflict manager should only fetch again
+     * the dependencies affected by the blacklisted nodes, false to restart from scratch.
+     */
+    private boolean incrementalRestart = false;
+
+    /**
+     * The maximum number of spans kept in the trace of the resolve, 0 to use the size given by
+     * the settings.
+     */
+    private int traceSize = 0;
+
     public ResolveOptions() {
     }
 
@@ -137,6 +149,8 @@ public class ResolveOptions extends LogOptions {
         artifactFilter = options.artifactFilter;
         resolveId = options.resolveId;
         checkIfChanged = options.checkIfChanged;
+        incrementalRestart = options.incrementalRestart;
+        traceSize = options.traceSize;
     }
 
     public Filter getArtifactFilter() {
@@ -316,4 +330,39 @@ public class ResolveOptions extends LogOptions {
         return uncompress;
     }
 
+    /**
+     * Indicates if restarts of the resolve process should be incremental.
+     * <p>
+     * Some conflict managers (like the latest-compatible one) blacklist nodes and ask the engine to
+     * restart the resolve process. By default the whole dependency graph is then traversed again.
+     * In incremental mode, only the callers of the blacklisted nodes and their own callers are
+     * traversed again, the rest of the graph keeps the state of the previous traversal.
+     * </p>
+     * 
+     * @return true if restarts should be incremental
+     */
+    public boolean isIncrementalRestart() {
+        return incrementalRestart;
+    }
+
+    public ResolveOptions setIncrementalRestart(boolean incrementalRestart) {
+        this.incrementalRestart = incrementalRestart;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of spans to keep in the trace of the resolve, or 0 if the size
+     * given by the {@link ResolveTrace#SIZE_VARIABLE} variable should be used.
+     * 
+     * @return the size of the resolve trace
+     */
+    public int getTraceSize() {
+        return traceSize;
+    }
+
+    public ResolveOptions setTraceSize(int traceSize) {
+        this.traceSize = traceSize;
+        return this;
+    }
+
 }
@@ -0,0 +1,347 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+
+/**
+ * Spans of work done during a resolve, kept in a bounded ring buffer and exported in the Chrome
+ * trace event format, which can be loaded in chrome://tracing.
+ * <p>
+ * A trace is only created for a resolve when asked in its options or with the
+ * {@link #SIZE_VARIABLE} variable. Code running during a resolve records its spans with the
+ * static {@link #begin(String, Object, String)} and {@link #end(Span)} methods, which only look
+ * up the current context and do nothing when the resolve isn't traced:
+ *
+ * <pre>
+ * ResolveTrace.Span span = ResolveTrace.begin(ResolveTrace.DEPENDENCY, mrid, getName());
+ * try {
+ *     ...
+ * } finally {
+ *     ResolveTrace.end(span);
+ * }
+ * </pre>
+ *
+ * Once the buffer is full the oldest spans are dropped. Timestamps have the precision of
+ * {@link System#currentTimeMillis()}.
+ * </p>
+ */
+public class ResolveTrace {
+    /**
+     * The variable giving the maximum number of spans kept for each resolve. Resolves are traced
+     * only when it is set to a positive number.
+     */
+    public static final String SIZE_VARIABLE = "ivy.resolve.trace.size";
+
+    public static final int DEFAULT_SIZE = 10000;
+
+    /**
+     * Category: the fetch of the dependencies of a node by the resolve engine.
+     */
+    public static final String FETCH = "fetch";
+
+    /**
+     * Category: the resolution of a dependency by a chain of resolvers.
+     */
+    public static final String CHAIN = "chain";
+
+    /**
+     * Category: the resolution of a dependency by a resolver.
+     */
+    public static final String DEPENDENCY = "dependency";
+
+    /**
+     * Category: the download of an artifact by a resolver.
+     */
+    public static final String DOWNLOAD = "download";
+
+    /**
+     * Category: the wait for a cache lock.
+     */
+    public static final String LOCK = "lock";
+
+    /**
+     * A span of work, from its begin to its end.
+     */
+    public static final class Span {
+        private final ResolveTrace trace;
+
+        private final String category;
+
+        private final Object subject;
+
+        private final String resolver;
+
+        private final int thread;
+
+        private final long start;
+
+        private long duration;
+
+        private Span(ResolveTrace trace, String category, Object subject, String resolver,
+                int thread) {
+            this.trace = trace;
+            this.category = category;
+            this.subject = subject;
+            this.resolver = resolver;
+            this.thread = thread;
+            this.start = System.currentTimeMillis();
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * Returns what the work was done on: a module revision id, an artifact or a file.
+         */
+        public Object getSubject() {
+            return subject;
+        }
+
+        /**
+         * Returns the name of the resolver or lock strategy which did the work, if any.
+         */
+        public String getResolver() {
+            return resolver;
+        }
+
+        public String getThreadName() {
+            return trace.getThreadName(thread);
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+    }
+
+    private final Span[] spans;
+
+    // index of the next span to write in the ring buffer
+    private int next;
+
+    private int size;
+
+    private long dropped;
+
+    private final long origin = System.currentTimeMillis();
+
+    // Map (Thread -> Integer): the id of each thread, in the order in which they were seen
+    private final Map threadIds = new WeakHashMap();
+
+    private final List threadNames = new ArrayList();
+
+    /**
+     * Creates a trace keeping at most the given number of spans.
+     */
+    public ResolveTrace(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("trace capacity must be positive: " + capacity);
+        }
+        spans = new Span[capacity];
+    }
+
+    /**
+     * Returns the trace of the resolve in progress in the current context.
+     *
+     * @return the trace, <code>null</code> when no resolve is in progress or when it isn't
+     *         traced
+     */
+    public static ResolveTrace getCurrent() {
+        ResolveData data = IvyContext.getContext().getResolveData();
+        return data == null ? null : data.getTrace();
+    }
+
+    /**
+     * Begins a span in the trace of the resolve in progress in the current context, if any.
+     *
+     * @param category
+     *            the kind of work done in the span
+     * @param subject
+     *            what the work is done on, may be <code>null</code>
+     * @param resolver
+     *            the name of the resolver or lock strategy doing the work, may be
+     *            <code>null</code>
+     * @return the span to give to {@link #end(Span)}, <code>null</code> if the resolve isn't
+     *         traced
+     */
+    public static Span begin(String category, Object subject, String resolver) {
+        ResolveTrace trace = getCurrent();
+        return trace == null ? null : trace.beginSpan(category, subject, resolver);
+    }
+
+    /**
+     * Ends the given span and records it in its trace.
+     *
+     * @param span
+     *            the span returned by {@link #begin(String, Object, String)}, may be
+     *            <code>null</code>
+     */
+    public static void end(Span span) {
+        if (span != null) {
+            span.duration = System.currentTimeMillis() - span.start;
+            span.trace.record(span);
+        }
+    }
+
+    public Span beginSpan(String category, Object subject, String resolver) {
+        return new Span(this, category, subject, resolver, getThreadId(Thread.currentThread()));
+    }
+
+    private synchronized int getThreadId(Thread thread) {
+        Integer id = (Integer) threadIds.get(thread);
+        if (id == null) {
+            id = new Integer(threadNames.size() + 1);
+            threadIds.put(thread, id);
+            threadNames.add(thread.getName());
+        }
+        return id.intValue();
+    }
+
+    private synchronized String getThreadName(int id) {
+        return (String) threadNames.get(id - 1);
+    }
+
+    private synchronized void record(Span span) {
+        if (spans[next] != null) {
+            dropped++;
+        } else {
+            size++;
+        }
+        spans[next] = span;
+        next = (next + 1) % spans.length;
+    }
+
+    public int getCapacity() {
+        return spans.length;
+    }
+
+    /**
+     * Returns the number of spans dropped because the buffer was full.
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns the spans recorded in this trace, in the order in which they ended.
+     */
+    public synchronized Span[] getSpans() {
+        Span[] result = new Span[size];
+        int first = size < spans.length ? 0 : next;
+        for (int i = 0; i < size; i++) {
+            result[i] = spans[(first + i) % spans.length];
+        }
+        return result;
+    }
+
+    /**
+     * Writes this trace in the Chrome trace event format to the given file.
+     */
+    public void writeJson(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writeJson(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes this trace in the Chrome trace event format.
+     * <p>
+     * Each span is written as a complete event, with the module, artifact or file it is about and
+     * the resolver which did the work as arguments. Timestamps are in microseconds since the
+     * creation of the trace, and a metadata event gives the name of each thread.
+     * </p>
+     */
+    public void writeJson(Writer writer) throws IOException {
+        Span[] recorded;
+        String[] names;
+        long droppedSpans;
+        synchronized (this) {
+            recorded = getSpans();
+            names = (String[]) threadNames.toArray(new String[threadNames.size()]);
+            droppedSpans = dropped;
+        }
+        PrintWriter out = new PrintWriter(writer);
+        out.println("{\"traceEvents\": [");
+        for (int i = 0; i < names.length; i++) {
+            out.print("  {\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": 1, \"tid\": " + (i + 1)
+                    + ", \"args\": {\"name\": " + ResolveMetrics.quote(names[i]) + "}}");
+            out.println(i + 1 < names.length || recorded.length > 0 ? "," : "");
+        }
+        for (int i = 0; i < recorded.length; i++) {
+            Span span = recorded[i];
+            String name = span.subject == null ? span.category : span.category + " "
+                    + span.subject;
+            out.print("  {\"name\": " + ResolveMetrics.quote(name) + ", \"cat\": "
+                    + ResolveMetrics.quote(span.category) + ", \"ph\": \"X\", \"ts\": "
+                    + (span.start - origin) * 1000 + ", \"dur\": " + span.duration * 1000
+                    + ", \"pid\": 1, \"tid\": " + span.thread + ", \"args\": {");
+            boolean first = true;
+            if (span.subject != null) {
+                out.print(ResolveMetrics.quote(getSubjectKind(span.subject)) + ": "
+                        + ResolveMetrics.quote(span.subject.toString()));
+                first = false;
+            }
+            if (span.resolver != null) {
+                out.print((first ? "" : ", ")
+                        + (LOCK.equals(span.category) ? "\"strategy\": " : "\"resolver\": ")
+                        + ResolveMetrics.quote(span.resolver));
+            }
+            out.println("}}" + (i + 1 < recorded.length ? "," : ""));
+        }
+        out.println("],");
+        out.println("\"displayTimeUnit\": \"ms\",");
+        out.println("\"otherData\": {\"capacity\": " + spans.length + ", \"dropped\": "
+                + droppedSpans + "}}");
+        out.flush();
+    }
+
+    private static String getSubjectKind(Object subject) {
+        if (subject instanceof ModuleRevisionId) {
+            return "module";
+        } else if (subject instanceof Artifact) {
+            return "artifact";
+        } else if (subject instanceof File) {
+            return "file";
+        }
+        return "subject";
+    }
+}
@@ -17,6 +17,8 @@
  */
 package org.apache.ivy.core.resolve;
 
+import java.util.Collection;
+
 /**
  * This RuntimeException is used during the resolve process to ask the engine to restart the resolve
  * process.
@@ -27,8 +29,35 @@ package org.apache.ivy.core.resolve;
  */
 public class RestartResolveProcess extends ResolveProcessException {
 
+    private Collection/*<IvyNodeBlacklist>*/ blacklisted;
+
     public RestartResolveProcess(String message) {
+        this(message, null);
+    }
+
+    /**
+     * Creates a restart request caused by the blacklisting of some nodes.
+     * <p>
+     * Giving the blacklist data allows the engine to restart only the part of the resolve process
+     * affected by the blacklisting, when {@link ResolveOptions#isIncrementalRestart()} is set.
+     * </p>
+     * 
+     * @param message
+     *            the reason of the restart
+     * @param blacklisted
+     *            the {@link IvyNodeBlacklist} which caused the restart, may be <code>null</code>
+     */
+    public RestartResolveProcess(String message, Collection/*<IvyNodeBlacklist>*/ blacklisted) {
         super(message);
+        this.blacklisted = blacklisted;
     }
 
+    /**
+     * Returns the blacklist data which caused this restart, or <code>null</code> if unknown.
+     * 
+     * @return the blacklist data which caused this restart, or <code>null</code> if unknown.
+     */
+    public Collection/*<IvyNodeBlacklist>*/ getBlacklisted() {
+        return blacklisted;
+    }
 }
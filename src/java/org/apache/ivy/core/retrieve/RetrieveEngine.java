@@ -236,6 +236,7 @@ public class RetrieveEngine {
                 this.eventManager.fireIvyEvent(new EndRetrieveEvent(
                     mrid, confs, elapsedTime, report.getNbrArtifactsCopied(), report.getNbrArtifactsUpToDate(), totalCopiedSize,
                     options));
+                this.eventManager.flush();
             }
 
             return report;
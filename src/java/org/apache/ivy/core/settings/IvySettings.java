@@ -30,10 +30,12 @@ import java.security.AccessControlException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Properties;
 
@@ -87,8 +89,10 @@ import org.apache.ivy.plugins.namespace.Namespace;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
 import org.apache.ivy.plugins.parser.ParserSettings;
+import org.apache.ivy.plugins.report.BinaryReportOutputter;
 import org.apache.ivy.plugins.report.LogReportOutputter;
 import org.apache.ivy.plugins.report.ReportOutputter;
+import org.apache.ivy.plugins.report.TraceReportOutputter;
 import org.apache.ivy.plugins.report.XmlReportOutputter;
 import org.apache.ivy.plugins.resolver.ChainResolver;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
@@ -112,6 +116,9 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         DeliverEngineSettings, CheckEngineSettings, InstallEngineSettings, 
         ResolverSettings, ResolveEngineSettings, RetrieveEngineSettings, 
         RepositoryManagementEngineSettings {
+
+    private static final int MAX_SUBSTITUTED_VALUES = 1000;
+
     private static final long INTERUPT_TIMEOUT = 2000;
 
     private Map typeDefs = new HashMap();
@@ -147,8 +154,8 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     // Map (String matcherName -> Matcher)
     private Map matchers = new HashMap(); 
 
-    // Map (String outputterName -> ReportOutputter)
-    private Map reportOutputters = new HashMap(); 
+    // Map (String outputterName -> ReportOutputter), in the order in which they are run
+    private Map reportOutputters = new LinkedHashMap();
 
     // Map (String matcherName -> VersionMatcher)
     private Map versionMatchers = new HashMap(); 
@@ -167,6 +174,13 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     private IvyVariableContainer variableContainer = new IvyVariableContainerImpl();
 
+    // Map (String -> SubstitutedValue), the least recently used being removed when too many
+    private Map substitutedValues = new LinkedHashMap(MAX_SUBSTITUTED_VALUES, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry eldest) {
+            return size() > MAX_SUBSTITUTED_VALUES;
+        }
+    };
+
     private boolean validate = true;
 
     private LatestStrategy defaultLatestStrategy = null;
@@ -215,11 +229,19 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     private String defaultResolveMode = ResolveOptions.RESOLVEMODE_DEFAULT;
 
+    // true for the immutable copies made by snapshot()
+    private final boolean snapshot;
+
+    // the settings a snapshot has been taken from, to which its plugins are bound, null if none
+    private final IvySettings snapshotSource;
+
     public IvySettings() {
         this(new IvyVariableContainerImpl());
     }
 
     public IvySettings(IvyVariableContainer variableContainer) {
+        snapshot = false;
+        snapshotSource = null;
         setVariableContainer(variableContainer);
         setVariable("ivy.default.settings.dir", getDefaultSettingsDir(), true);
         setVariable("ivy.basedir", getBaseDir().getAbsolutePath());
@@ -286,6 +308,8 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
         addReportOutputter(new LogReportOutputter());
         addReportOutputter(new XmlReportOutputter());
+        addReportOutputter(new BinaryReportOutputter());
+        addReportOutputter(new TraceReportOutputter());
 
         configureDefaultCircularDependencyStrategies();
 
@@ -299,6 +323,134 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         addSystemProperties();
     }
 
+    private IvySettings(IvySettings settings) {
+        snapshot = true;
+        snapshotSource = settings;
+        // the defaults registered on first use must be in the maps copied below
+        VersionMatcher sourceVersionMatcher = settings.getVersionMatcher();
+        RepositoryCacheManager sourceRepositoryCacheManager = 
+            settings.getDefaultRepositoryCacheManager();
+        typeDefs = Collections.unmodifiableMap(new HashMap(settings.typeDefs));
+        resolversMap = Collections.unmodifiableMap(new HashMap(settings.resolversMap));
+        dictatorResolver = settings.dictatorResolver;
+        defaultResolverName = settings.defaultResolverName;
+        defaultResolver = (DependencyResolver) resolversMap.get(defaultResolverName);
+        defaultCache = settings.getDefaultCache();
+        defaultBranch = settings.defaultBranch;
+        checkUpToDate = settings.checkUpToDate;
+        moduleSettings = (ModuleRules) settings.moduleSettings.clone();
+        conflictsManager = Collections.unmodifiableMap(new HashMap(settings.conflictsManager));
+        latestStrategies = Collections.unmodifiableMap(new HashMap(settings.latestStrategies));
+        lockStrategies = Collections.unmodifiableMap(new HashMap(settings.lockStrategies));
+        namespaces = Collections.unmodifiableMap(new HashMap(settings.namespaces));
+        matchers = Collections.unmodifiableMap(new HashMap(settings.matchers));
+        reportOutputters = Collections.unmodifiableMap(new LinkedHashMap(
+                settings.reportOutputters));
+        versionMatchers = Collections.unmodifiableMap(new HashMap(settings.versionMatchers));
+        circularDependencyStrategies = Collections.unmodifiableMap(new HashMap(
+                settings.circularDependencyStrategies));
+        repositoryCacheManagers = Collections.unmodifiableMap(new HashMap(
+                settings.repositoryCacheManagers));
+        signatureGenerators = Collections.unmodifiableMap(new HashMap(
+                settings.signatureGenerators));
+        triggers = Collections.unmodifiableList(new ArrayList(settings.triggers));
+        variableContainer = new SnapshotVariableContainer(
+                (IvyVariableContainer) settings.variableContainer.clone());
+        validate = settings.validate;
+        defaultLatestStrategy = settings.getDefaultLatestStrategy();
+        defaultLockStrategy = settings.getDefaultLockStrategy();
+        defaultConflictManager = settings.getDefaultConflictManager();
+        circularDependencyStrategy = settings.getCircularDependencyStrategy();
+        defaultRepositoryCacheManager = sourceRepositoryCacheManager;
+        resolutionCacheManager = settings.getResolutionCacheManager();
+        listingIgnore = Collections.unmodifiableList(new ArrayList(settings.listingIgnore));
+        repositoriesConfigured = settings.repositoriesConfigured;
+        useRemoteConfig = settings.useRemoteConfig;
+        defaultUserDir = settings.getDefaultIvyUserDir();
+        baseDir = settings.baseDir;
+        classpathURLs = Collections.unmodifiableList(new ArrayList(settings.classpathURLs));
+        classloader = settings.getClassLoader();
+        debugConflictResolution = Boolean.valueOf(settings.debugConflictResolution());
+        logNotConvertedExclusionRule = settings.logNotConvertedExclusionRule;
+        versionMatcher = sourceVersionMatcher;
+        if (versionMatcher instanceof ChainVersionMatcher) {
+            // the chain is copied, adding matchers to the original settings modifies it
+            ChainVersionMatcher chain = new ChainVersionMatcher();
+            List chained = ((ChainVersionMatcher) versionMatcher).getMatchers();
+            for (ListIterator it = chained.listIterator(chained.size()); it.hasPrevious();) {
+                chain.add((VersionMatcher) it.previous());
+            }
+            versionMatcher = chain;
+        }
+        statusManager = settings.getStatusManager();
+        debugLocking = Boolean.valueOf(settings.debugLocking());
+        dumpMemoryUsage = Boolean.valueOf(settings.dumpMemoryUsage());
+        defaultCacheIvyPattern = settings.defaultCacheIvyPattern;
+        defaultCacheArtifactPattern = settings.defaultCacheArtifactPattern;
+        defaultUseOrigin = settings.defaultUseOrigin;
+        defaultResolveMode = settings.defaultResolveMode;
+        // the variables of the snapshot never change: the substitutions already made with the
+        // same values stay valid, and the map is read without synchronization
+        Map substituted = new HashMap();
+        synchronized (settings.substitutedValues) {
+            for (Iterator it = settings.substitutedValues.entrySet().iterator(); it.hasNext();) {
+                Map.Entry entry = (Map.Entry) it.next();
+                if (((SubstitutedValue) entry.getValue()).isUpToDate(variableContainer)) {
+                    substituted.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        substitutedValues = Collections.unmodifiableMap(substituted);
+    }
+
+    /**
+     * Returns an immutable copy of these settings, which can be shared by concurrent resolves.
+     * <p>
+     * Everything which is otherwise computed on first use (default cache, default conflict
+     * manager, version matcher, ...) is computed when the snapshot is taken, so that reading the
+     * snapshot never modifies it. Any attempt to modify the snapshot raises an
+     * {@link IllegalStateException}: to change the settings, modify the settings the snapshot has
+     * been taken from and take a new snapshot. Snapshots already taken are not affected.
+     * </p>
+     * <p>
+     * The plugins (resolvers, cache managers, conflict managers, ...) are not copied, they are
+     * shared with the original settings to which they remain bound.
+     * </p>
+     * 
+     * @return an immutable copy of these settings
+     */
+    public IvySettings snapshot() {
+        return snapshot ? this : new IvySettings(this);
+    }
+
+    /**
+     * @return true if these settings are an immutable snapshot
+     * @see #snapshot()
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns true if these settings are the given settings or a snapshot taken from them, that is
+     * if the plugins bound to the given settings are the plugins of these settings.
+     * 
+     * @param settings
+     *            the settings to compare with
+     * @return true if these settings are or have been taken from the given settings
+     * @see #snapshot()
+     */
+    public boolean isSnapshotOf(Object settings) {
+        return this == settings || (snapshotSource != null && snapshotSource == settings);
+    }
+
+    private void checkMutable() {
+        if (snapshot) {
+            throw new IllegalStateException("settings snapshots can't be modified: modify the"
+                    + " settings it has been taken from and take a new snapshot");
+        }
+    }
+
     private void addSystemProperties() {
         try {
             addAllVariables((Map) System.getProperties().clone());
@@ -314,6 +466,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
      * properties file
      */
     public void configureRepositories(boolean remote) {
+        checkMutable();
         if (!repositoriesConfigured) {
             Properties props = new Properties();
             boolean configured = false;
@@ -583,6 +736,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setVariable(String varName, String value, boolean overwrite, String ifSetVar, String unlessSetVar) {
+        checkMutable();
         if (ifSetVar != null && variableContainer.getVariable(ifSetVar) == null) {
             Message.verbose("Not setting '" + varName + "' to '" + value + "' since '" + ifSetVar
                 + "' is not set.");
@@ -617,7 +771,31 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
      *         If the input str doesn't use any variable, the same object is returned
      */
     public String substitute(String str) {
-        return IvyPatternHelper.substituteVariables(str, variableContainer);
+        if (str == null || str.indexOf("${") == -1) {
+            return str;
+        }
+        if (snapshot) {
+            SubstitutedValue substituted = (SubstitutedValue) substitutedValues.get(str);
+            if (substituted == null) {
+                return IvyPatternHelper.substituteVariables(str, variableContainer);
+            }
+            return substituted.value == null ? str : substituted.value;
+        }
+        // the last substitution of the same string is reused if none of the variables it was
+        // made with has changed since
+        SubstitutedValue substituted;
+        synchronized (substitutedValues) {
+            substituted = (SubstitutedValue) substitutedValues.get(str);
+        }
+        if (substituted == null || !substituted.isUpToDate(variableContainer)) {
+            Map used = new HashMap();
+            String value = IvyPatternHelper.substituteVariables(str, variableContainer, used);
+            substituted = new SubstitutedValue(value == str ? null : value, used);
+            synchronized (substitutedValues) {
+                substitutedValues.put(str, substituted);
+            }
+        }
+        return substituted.value == null ? str : substituted.value;
     }
 
     /**
@@ -653,6 +831,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public Class typeDef(String name, String className, boolean silentFail) {
+        checkMutable();
         Class clazz = classForName(className, silentFail);
         if (clazz != null) {
             typeDefs.put(name, clazz);
@@ -688,6 +867,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addClasspathURL(URL url) {
+        checkMutable();
         classpathURLs.add(url);
         classloader = null;
     }
@@ -714,6 +894,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
     
     public void addSignatureGenerator(SignatureGenerator generator) {
+        checkMutable();
         init(generator);
         signatureGenerators.put(generator.getName(), generator);
     }
@@ -723,6 +904,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addResolver(DependencyResolver resolver) {
+        checkMutable();
         if (resolver == null) {
             throw new NullPointerException("null resolver");
         }
@@ -747,6 +929,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultCache(File cacheDirectory) {
+        checkMutable();
         setVariable("ivy.cache.dir", cacheDirectory.getAbsolutePath(), false);
         defaultCache = cacheDirectory;
         if (defaultRepositoryCacheManager != null) {
@@ -759,6 +942,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultResolver(String resolverName) {
+        checkMutable();
         checkResolverName(resolverName);
         if (resolverName != null && !resolverName.equals(defaultResolverName)) {
             defaultResolver = null;
@@ -778,6 +962,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
      */
     public void addModuleConfiguration(Map attributes, PatternMatcher matcher, 
             String resolverName, String branch, String conflictManager, String resolveMode) {
+        checkMutable();
         checkResolverName(resolverName);
         moduleSettings.defineRule(
             new MapMatcher(attributes, matcher), 
@@ -801,6 +986,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
     
     public void setBaseDir(File baseDir) {
+        checkMutable();
         this.baseDir = baseDir.getAbsoluteFile();
         setVariable("ivy.basedir", this.baseDir.getAbsolutePath());
         setVariable("basedir", this.baseDir.getAbsolutePath(), false);
@@ -825,6 +1011,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultIvyUserDir(File defaultUserDir) {
+        checkMutable();
         this.defaultUserDir = defaultUserDir;
         setVariable("ivy.default.ivy.user.dir", this.defaultUserDir.getAbsolutePath());
         setVariable("ivy.home", this.defaultUserDir.getAbsolutePath());
@@ -844,6 +1031,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
     
     public void setDefaultRepositoryCacheBasedir(String repositoryCacheRoot) {
+        checkMutable();
         setVariable("ivy.cache.repository", repositoryCacheRoot, true);
         if (defaultRepositoryCacheManager != null
                 && "default-cache".equals(defaultRepositoryCacheManager.getName())
@@ -854,6 +1042,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
     
     public void setDefaultResolutionCacheBasedir(String resolutionCacheRoot) {
+        checkMutable();
         setVariable("ivy.cache.resolution", resolutionCacheRoot, true);
         if (resolutionCacheManager != null
                 && resolutionCacheManager instanceof DefaultResolutionCacheManager) {
@@ -881,6 +1070,10 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDictatorResolver(DependencyResolver resolver) {
+        if (resolver != dictatorResolver) {
+            // resolves restore the dictator they started with, which must work on snapshots
+            checkMutable();
+        }
         dictatorResolver = resolver;
     }
 
@@ -940,6 +1133,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultBranch(String defaultBranch) {
+        checkMutable();
         this.defaultBranch = defaultBranch;
     }
 
@@ -976,6 +1170,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
     
     public void setDefaultResolveMode(String defaultResolveMode) {
+        checkMutable();
         this.defaultResolveMode = defaultResolveMode;
     }
 
@@ -991,6 +1186,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addConflictManager(String name, ConflictManager cm) {
+        checkMutable();
         init(cm);
         conflictsManager.put(name, cm);
     }
@@ -1007,6 +1203,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addLatestStrategy(String name, LatestStrategy latest) {
+        checkMutable();
         init(latest);
         latestStrategies.put(name, latest);
     }
@@ -1023,6 +1220,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addLockStrategy(String name, LockStrategy lockStrategy) {
+        checkMutable();
         init(lockStrategy);
         lockStrategies.put(name, lockStrategy);
     }
@@ -1043,6 +1241,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addNamespace(Namespace ns) {
+        checkMutable();
         init(ns);
         namespaces.put(ns.getName(), ns);
     }
@@ -1056,6 +1255,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addMatcher(PatternMatcher m) {
+        checkMutable();
         init(m);
         matchers.put(m.getName(), m);
     }
@@ -1069,6 +1269,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addRepositoryCacheManager(RepositoryCacheManager c) {
+        checkMutable();
         init(c);
         repositoryCacheManagers.put(c.getName(), c);
     }
@@ -1087,6 +1288,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addReportOutputter(ReportOutputter outputter) {
+        checkMutable();
         init(outputter);
         reportOutputters.put(outputter.getName(), outputter);
     }
@@ -1105,6 +1307,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void addVersionMatcher(VersionMatcher vmatcher) {
+        checkMutable();
         init(vmatcher);
         versionMatchers.put(vmatcher.getName(), vmatcher);
 
@@ -1151,6 +1354,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setCircularDependencyStrategy(CircularDependencyStrategy strategy) {
+        checkMutable();
         circularDependencyStrategy = strategy;
     }
 
@@ -1159,6 +1363,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     private void addCircularDependencyStrategy(CircularDependencyStrategy strategy) {
+        checkMutable();
         circularDependencyStrategies.put(strategy.getName(), strategy);
     }
 
@@ -1176,6 +1381,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setStatusManager(StatusManager statusManager) {
+        checkMutable();
         this.statusManager = statusManager;
     }
 
@@ -1202,6 +1408,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setCheckUpToDate(boolean checkUpToDate) {
+        checkMutable();
         this.checkUpToDate = checkUpToDate;
     }
     
@@ -1210,6 +1417,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setValidate(boolean validate) {
+        checkMutable();
         this.validate = validate;
     }
 
@@ -1226,6 +1434,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultConflictManager(ConflictManager defaultConflictManager) {
+        checkMutable();
         this.defaultConflictManager = defaultConflictManager;
     }
 
@@ -1237,6 +1446,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultLatestStrategy(LatestStrategy defaultLatestStrategy) {
+        checkMutable();
         this.defaultLatestStrategy = defaultLatestStrategy;
     }
 
@@ -1248,6 +1458,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultLockStrategy(LockStrategy defaultLockStrategy) {
+        checkMutable();
         this.defaultLockStrategy = defaultLockStrategy;
     }
 
@@ -1262,6 +1473,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultRepositoryCacheManager(RepositoryCacheManager cache) {
+        checkMutable();
         this.defaultRepositoryCacheManager = cache;
     }
 
@@ -1275,10 +1487,12 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
     
     public void setResolutionCacheManager(ResolutionCacheManager resolutionCacheManager) {
+        checkMutable();
         this.resolutionCacheManager = resolutionCacheManager;
     }
 
     public void addTrigger(Trigger trigger) {
+        checkMutable();
         init(trigger);
         triggers.add(trigger);
     }
@@ -1296,6 +1510,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setUseRemoteConfig(boolean useRemoteConfig) {
+        checkMutable();
         this.useRemoteConfig = useRemoteConfig;
     }
 
@@ -1347,6 +1562,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setLogNotConvertedExclusionRule(boolean logNotConvertedExclusionRule) {
+        checkMutable();
         this.logNotConvertedExclusionRule = logNotConvertedExclusionRule;
     }
 
@@ -1358,6 +1574,56 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         }
     }
 
+    private static final class SnapshotVariableContainer implements IvyVariableContainer {
+        private final IvyVariableContainer variables;
+
+        SnapshotVariableContainer(IvyVariableContainer variables) {
+            this.variables = variables;
+        }
+
+        public String getVariable(String name) {
+            return variables.getVariable(name);
+        }
+
+        public void setVariable(String varName, String value, boolean overwrite) {
+            throw new IllegalStateException("variables of settings snapshots can't be modified");
+        }
+
+        public void setEnvironmentPrefix(String prefix) {
+            throw new IllegalStateException("variables of settings snapshots can't be modified");
+        }
+
+        public Object clone() {
+            // a copy is meant to be modified
+            return variables.clone();
+        }
+    }
+
+    private static final class SubstitutedValue {
+        // null when the string was left unchanged
+        private final String value;
+
+        // Map (String variableName -> String value), the value being null for undefined ones
+        private final Map usedVariables;
+
+        SubstitutedValue(String value, Map usedVariables) {
+            this.value = value;
+            this.usedVariables = usedVariables;
+        }
+
+        boolean isUpToDate(IvyVariableContainer variables) {
+            for (Iterator it = usedVariables.entrySet().iterator(); it.hasNext();) {
+                Map.Entry entry = (Map.Entry) it.next();
+                Object current = variables.getVariable((String) entry.getKey());
+                if (current == null ? entry.getValue() != null : !current.equals(entry
+                        .getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private static class ModuleSettings {
         private String resolverName;
 
@@ -1425,7 +1691,11 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
      * @param variables
      */
     public void setVariableContainer(IvyVariableContainer variables) {
+        checkMutable();
         variableContainer = variables;
+        synchronized (substitutedValues) {
+            substitutedValues.clear();
+        }
     }
 
     
@@ -1434,6 +1704,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultCacheIvyPattern(String defaultCacheIvyPattern) {
+        checkMutable();
         CacheUtil.checkCachePattern(defaultCacheIvyPattern);
         this.defaultCacheIvyPattern = defaultCacheIvyPattern;
     }
@@ -1443,6 +1714,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultCacheArtifactPattern(String defaultCacheArtifactPattern) {
+        checkMutable();
         CacheUtil.checkCachePattern(defaultCacheArtifactPattern);
         this.defaultCacheArtifactPattern = defaultCacheArtifactPattern;
     }
@@ -1452,6 +1724,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public void setDefaultUseOrigin(boolean useOrigin) {
+        checkMutable();
         defaultUseOrigin = useOrigin;
     }
     
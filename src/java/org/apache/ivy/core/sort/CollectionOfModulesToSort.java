@@ -19,6 +19,7 @@ package org.apache.ivy.core.sort;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -28,6 +29,7 @@ import java.util.Map;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.version.VersionMatcher;
 
 /**
@@ -45,6 +47,8 @@ class CollectionOfModulesToSort {
 
     private final NonMatchingVersionReporter nonMatchingVersionReporter;
 
+    private final Map matchResults = new HashMap(); // Map<ModuleRevisionId, MatchResult>
+
     /**
      * @param modulesToSort
      *            The collection of ModuleDescriptor to sort
@@ -86,28 +90,59 @@ class CollectionOfModulesToSort {
     }
 
     /**
-     * Find a matching module descriptor in the list of module to sort.
+     * Find a matching module descriptor in the list of module to sort. The modules matching or not
+     * a dependency revision id are computed once, and reused for the other dependencies asking
+     * for the same revision.
      * 
      * @param descriptor
      * @return a ModuleDescriptor from the collection of module descriptors to sort. If none exists
      *         returns null.
      */
     public ModuleInSort getModuleDescriptorDependency(DependencyDescriptor descriptor) {
+        ModuleRevisionId askedMrid = descriptor.getDependencyRevisionId();
+        MatchResult result = (MatchResult) matchResults.get(askedMrid);
+        if (result == null) {
+            result = match(descriptor);
+            matchResults.put(askedMrid, result);
+        }
+        for (Iterator it = result.nonMatching.iterator(); it.hasNext();) {
+            ModuleInSort mdInSort = (ModuleInSort) it.next();
+            nonMatchingVersionReporter.reportNonMatchingVersion(descriptor, mdInSort
+                    .getSortedModuleDescriptor());
+        }
+        return result.matching;
+    }
+
+    private MatchResult match(DependencyDescriptor descriptor) {
+        MatchResult result = new MatchResult();
         Collection modulesOfSameId = (Collection) modulesByModuleId.get(descriptor
                 .getDependencyId());
         if (modulesOfSameId == null) {
-            return null;
+            return result;
         }
         for (Iterator it = modulesOfSameId.iterator(); it.hasNext();) {
             ModuleInSort mdInSort = (ModuleInSort) it.next();
             if (mdInSort.match(descriptor, versionMatcher)) {
-                return mdInSort;
+                result.matching = mdInSort;
+                return result;
             } else {
-                nonMatchingVersionReporter.reportNonMatchingVersion(descriptor, mdInSort
-                        .getSortedModuleDescriptor());
+                if (result.nonMatching.isEmpty()) {
+                    result.nonMatching = new ArrayList();
+                }
+                result.nonMatching.add(mdInSort);
             }
         }
-        return null;
+        return result;
+    }
+
+    /**
+     * The module matching a dependency revision id, and the modules with the same module id
+     * checked before it which do not match.
+     */
+    private static final class MatchResult {
+        private ModuleInSort matching;
+
+        private List/*<ModuleInSort>*/ nonMatching = Collections.EMPTY_LIST;
     }
 
 }
@@ -17,12 +17,15 @@
  */
 package org.apache.ivy.core.sort;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.circular.CircularDependencyException;
 import org.apache.ivy.plugins.circular.CircularDependencyStrategy;
 import org.apache.ivy.plugins.version.VersionMatcher;
@@ -32,6 +35,12 @@ import org.apache.ivy.util.Message;
  * Inner helper class for sorting ModuleDescriptors.<br>
  * ModuleDescriptorSorter use CollectionOfModulesToSort to find the dependencies of the modules, and
  * use ModuleInSort to store some temporary values attached to the modules to sort.
+ * <p>
+ * The modules are sorted with Tarjan's strongly connected components algorithm, run without
+ * recursion so that long dependency chains can be sorted: each module and each dependency is
+ * traversed once. The modules depending on each other are added together to the sorted list, and
+ * each of these groups is reported once to the circular dependency strategy.
+ * </p>
  * 
  * @see ModuleInSort
  * @see CollectionOfModulesToSort
@@ -40,16 +49,22 @@ public class ModuleDescriptorSorter {
 
     private final CollectionOfModulesToSort moduleDescriptors;
 
-    private final List sorted = new LinkedList();
+    private final List sorted;
 
     private final CircularDependencyStrategy circularDepStrategy;
 
+    // modules visited and not yet sorted, in the order of their visit
+    private final List/*<ModuleInSort>*/ stack = new ArrayList();
+
+    private int visitIndex = 0;
+
     public ModuleDescriptorSorter(Collection modulesDescriptorsToSort, VersionMatcher matcher,
             NonMatchingVersionReporter nonMatchingVersionReporter,
             CircularDependencyStrategy circularDepStrategy) {
         this.circularDepStrategy = circularDepStrategy;
         moduleDescriptors = new CollectionOfModulesToSort(modulesDescriptorsToSort, matcher,
                 nonMatchingVersionReporter);
+        sorted = new ArrayList(moduleDescriptors.size());
     }
 
     /**
@@ -63,45 +78,110 @@ public class ModuleDescriptorSorter {
         Iterator moduleDescriptorsIterator = moduleDescriptors.iterator();
         while (moduleDescriptorsIterator.hasNext()) {
             ModuleInSort next = (ModuleInSort) moduleDescriptorsIterator.next();
-            sortModuleDescriptorsHelp(next, next);
+            if (!next.isVisited()) {
+                sortModuleDescriptorsHelp(next);
+            }
         }
         return sorted;
     }
 
     /**
-     * If current module has already been added to list, returns, Otherwise invokes
-     * sortModuleDescriptorsHelp for all dependencies contained within set of moduleDescriptors.
-     * Then finally adds self to list of sorted.<br/> When a loop is detected by a recursive call,
-     * the moduleDescriptors are not added immediately added to the sorted list. They are added as
-     * loop dependencies of the root, and will be added to the sorted list only when the root itself
-     * will be added.
+     * Traverses the dependencies of the given module depth first, and adds each module to the
+     * sorted list after the modules it depends on.<br/> When a module is the root of a group of
+     * modules depending on each other, the whole group is added to the sorted list when the
+     * traversal of the root ends.
      * 
-     * @param current
-     *            Current module to add to sorted list.
+     * @param root
+     *            module from which the traversal starts
      * @throws CircularDependencyException
      */
-    private void sortModuleDescriptorsHelp(ModuleInSort current, ModuleInSort caller)
+    private void sortModuleDescriptorsHelp(ModuleInSort root)
+            throws CircularDependencyException {
+        List path = new ArrayList();
+        visit(root);
+        path.add(root);
+        while (!path.isEmpty()) {
+            ModuleInSort current = (ModuleInSort) path.get(path.size() - 1);
+            ModuleInSort child = current.nextDependency();
+            if (child != null) {
+                if (!child.isVisited()) {
+                    visit(child);
+                    path.add(child);
+                } else if (child.isOnStack()) {
+                    current.updateLowLink(child.getIndex());
+                }
+            } else {
+                path.remove(path.size() - 1);
+                if (!path.isEmpty()) {
+                    ((ModuleInSort) path.get(path.size() - 1)).updateLowLink(current
+                            .getLowLink());
+                }
+                if (current.getLowLink() == current.getIndex()) {
+                    addComponentToSortedList(current);
+                }
+            }
+        }
+    }
+
+    private void visit(ModuleInSort module) {
+        module.visit(visitIndex++, moduleDescriptors);
+        stack.add(module);
+    }
+
+    /**
+     * Adds to the sorted list the given module and the modules visited after it which are not
+     * sorted yet, which all depend on each other.
+     */
+    private void addComponentToSortedList(ModuleInSort root) 
             throws CircularDependencyException {
-        // if already sorted return
-        if (current.isProcessed()) {
-            return;
+        int start = stack.size() - 1;
+        while (stack.get(start) != root) {
+            start--;
         }
-        if (current.checkLoop(caller, circularDepStrategy)) {
-            return;
+        List component = stack.subList(start, stack.size());
+        for (int i = component.size() - 1; i >= 0; i--) {
+            ModuleInSort module = (ModuleInSort) component.get(i);
+            module.setSorted(root);
+            sorted.add(module.getSortedModuleDescriptor());
         }
-        DependencyDescriptor[] descriptors = current.getDependencies();
-        Message.debug("Sort dependencies of : " + current.toString()
-                + " / Number of dependencies = " + descriptors.length);
-        current.setCaller(caller);
-        for (int i = 0; i < descriptors.length; i++) {
-            ModuleInSort child = moduleDescriptors.getModuleDescriptorDependency(descriptors[i]);
-            if (child != null) {
-                sortModuleDescriptorsHelp(child, current);
+        boolean loop = component.size() > 1 || root.dependsOnItself();
+        component.clear();
+        if (loop) {
+            circularDepStrategy.handleCircularDependency(getLoop(root));
+        }
+    }
+
+    /**
+     * Returns a loop going through the given module, whose component has just been sorted. The
+     * first element is the given module, each following element depends on the previous one, and
+     * the last element is the given module again.
+     */
+    private ModuleRevisionId[] getLoop(ModuleInSort root) {
+        // breadth first search of the shortest path from root to itself in its component
+        Map/*<ModuleInSort, ModuleInSort>*/ reachedFrom = new HashMap();
+        LinkedList toVisit = new LinkedList();
+        toVisit.add(root);
+        ModuleInSort last = root.dependsOnItself() ? root : null;
+        while (last == null && !toVisit.isEmpty()) {
+            ModuleInSort current = (ModuleInSort) toVisit.removeFirst();
+            ModuleInSort[] deps = current.getDependencyModules();
+            for (int i = 0; i < deps.length && last == null; i++) {
+                if (deps[i] == root) {
+                    last = current;
+                } else if (deps[i].getComponentRoot() == root 
+                        && !reachedFrom.containsKey(deps[i])) {
+                    reachedFrom.put(deps[i], current);
+                    toVisit.add(deps[i]);
+                }
             }
         }
-        current.endOfCall();
-        Message.debug("Sort done for : " + current.toString());
-        current.addToSortedListIfRequired(sorted);
+        LinkedList loop = new LinkedList();
+        loop.add(root.getSortedModuleDescriptor().getModuleRevisionId());
+        for (ModuleInSort m = last; m != root; m = (ModuleInSort) reachedFrom.get(m)) {
+            loop.add(m.getSortedModuleDescriptor().getModuleRevisionId());
+        }
+        loop.add(root.getSortedModuleDescriptor().getModuleRevisionId());
+        return (ModuleRevisionId[]) loop.toArray(new ModuleRevisionId[loop.size()]);
     }
 
 }
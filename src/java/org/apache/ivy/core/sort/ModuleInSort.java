@@ -17,16 +17,13 @@
  */
 package org.apache.ivy.core.sort;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
-import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.circular.CircularDependencyHelper;
-import org.apache.ivy.plugins.circular.CircularDependencyStrategy;
 import org.apache.ivy.plugins.version.VersionMatcher;
 import org.apache.ivy.util.Message;
 
@@ -35,126 +32,112 @@ import org.apache.ivy.util.Message;
  * ModuleInSort can be used in only one ModuleDescriptorSorter at a time.<br>
  * The added fields are : <br>
  * <ul>
- * <li><code>isSorted</code> : is true iff this module has already been added to the sorted list.
- * </li>
- * <li><code>loopElements</code> : When the module is the root of a loop (=the first element of a
- * loop met during the sort), <code>loopElements</code> contains all ModuleInSort of the loop
- * (excluding the root itself.</li>
- * <li><code>isLoopIntermediateElement</code> : When a loop is detected, all modules included in
- * the loop (except the root) have <code>isLoopIntermediateElement</code> set to true.</li>
- * <li><code>caller</code> : During the sort, we traverse recursively the graph. When doing that,
- * caller point to the parent element.
+ * <li><code>dependencies</code> : the modules to sort on which this module depends, computed once
+ * when the module is first visited.</li>
+ * <li><code>index</code> and <code>lowLink</code> : the order in which the module has been
+ * visited, and the lowest index of the visited modules reachable from it which are not yet
+ * sorted. When both are equal, the module is the root of a group of modules depending on each
+ * other (a strongly connected component of the dependency graph).</li>
+ * <li><code>onStack</code> : is true while the module has been visited but not yet added to the
+ * sorted list.</li>
+ * </ul>
  */
 class ModuleInSort {
 
+    private static final int NOT_VISITED = -1;
+
     private final ModuleDescriptor module;
 
-    private boolean isSorted = false;
+    private ModuleInSort[] dependencies;
+
+    private int nextDependency = 0;
+
+    private boolean dependsOnItself = false;
+
+    private int index = NOT_VISITED;
 
-    private List loopElements = new LinkedList();
+    private int lowLink;
 
-    private boolean isLoopIntermediateElement = false;
+    private boolean onStack = false;
 
-    private ModuleInSort caller;
+    private ModuleInSort componentRoot;
 
     public ModuleInSort(ModuleDescriptor moduleToSort) {
         module = moduleToSort;
     }
 
-    public boolean isInLoop() {
-        return isLoopIntermediateElement;
+    public boolean isVisited() {
+        return index != NOT_VISITED;
     }
 
-    /** This ModuleInSort has been placed on the sorted list */
-    public boolean isSorted() {
-        if (isSorted) {
-            Message.debug("Module descriptor already sorted : "
-                    + module.getModuleRevisionId().toString());
-            return true;
-        } else {
-            return false;
+    /**
+     * Marks this module as visited, and computes the modules to sort on which it depends.
+     * 
+     * @param visitIndex
+     *            the order in which this module is visited
+     * @param modules
+     *            the collection of modules to sort
+     */
+    public void visit(int visitIndex, CollectionOfModulesToSort modules) {
+        index = visitIndex;
+        lowLink = visitIndex;
+        onStack = true;
+        DependencyDescriptor[] descriptors = module.getDependencies();
+        List deps = new ArrayList(descriptors.length);
+        for (int i = 0; i < descriptors.length; i++) {
+            ModuleInSort dep = modules.getModuleDescriptorDependency(descriptors[i]);
+            if (dep == this) {
+                dependsOnItself = true;
+            } else if (dep != null) {
+                deps.add(dep);
+            }
         }
+        dependencies = (ModuleInSort[]) deps.toArray(new ModuleInSort[deps.size()]);
     }
 
-    /** This ModuleInSort has already been analyzed.  It is either already added
-     * to the sorted list, either it is included in a loop and will be added
-     * when the root of the loop will be added to the list. 
+    /**
+     * @return the next dependency to traverse, or <code>null</code> if all have been traversed
      */
-    public boolean isProcessed() {
-        if (isSorted || isLoopIntermediateElement) {
-            Message.debug("Module descriptor is processed : "
-                    + module.getModuleRevisionId().toString());
-            return true;
-        } else {
-            return false;
-        }
+    public ModuleInSort nextDependency() {
+        return nextDependency < dependencies.length ? dependencies[nextDependency++] : null;
     }
 
-    
-    public void setCaller(ModuleInSort caller) {
-        this.caller = caller;
+    public ModuleInSort[] getDependencyModules() {
+        return dependencies;
     }
 
-    public void endOfCall() {
-        caller = null;
+    public boolean dependsOnItself() {
+        return dependsOnItself;
     }
 
-    /**
-     * Check if a adding this element as a dependency of caller will introduce a circular
-     * dependency. If it is, all the elements of the loop are flaged as 'loopIntermediateElement',
-     * and the loopElements of this module (which is the root of the loop) is updated. The
-     * depStrategy is invoked on order to report a correct circular loop message.
-     * 
-     * @param futurCaller
-     * @param depStrategy
-     * @return true if a loop is detected.
-     */
-    public boolean checkLoop(ModuleInSort futurCaller, CircularDependencyStrategy depStrategy) {
-        if (caller != null) {
-            LinkedList elemOfLoop = new LinkedList();
-            elemOfLoop.add(this.module.getModuleRevisionId());
-            for (ModuleInSort stackEl = futurCaller; stackEl != this; stackEl = stackEl.caller) {
-                elemOfLoop.add(stackEl.module.getModuleRevisionId());
-                stackEl.isLoopIntermediateElement = true;
-                loopElements.add(stackEl);
-            }
-            elemOfLoop.add(this.module.getModuleRevisionId());
-            ModuleRevisionId[] mrids = (ModuleRevisionId[]) elemOfLoop
-                    .toArray(new ModuleRevisionId[elemOfLoop.size()]);
-            depStrategy.handleCircularDependency(mrids);
-            return true;
-        } else {
-            return false;
-        }
+    public int getIndex() {
+        return index;
     }
 
-    /**
-     * Add this module to the sorted list except if this module is an intermediary element of a
-     * loop. If this module is the 'root' of a loop, then all elements of that loops are added
-     * before.
-     * 
-     * @param sorted
-     *            The list of sorted elements on which this module will be added
-     */
-    public void addToSortedListIfRequired(List sorted) {
-        if (!isLoopIntermediateElement) {
-            addToSortList(sorted);
+    public int getLowLink() {
+        return lowLink;
+    }
+
+    public void updateLowLink(int link) {
+        if (link < lowLink) {
+            lowLink = link;
         }
     }
 
+    public boolean isOnStack() {
+        return onStack;
+    }
+
     /**
-     * Add this module to the sorted list. If current is the 'root' of a loop, then all elements of
-     * that loops are added before.
+     * Marks this module as sorted, as a member of the group of modules whose root is given.
      */
-    private void addToSortList(List sortedList) {
-        for (Iterator it = loopElements.iterator(); it.hasNext();) {
-            ModuleInSort moduleInLoop = (ModuleInSort) it.next();
-            moduleInLoop.addToSortList(sortedList);
-        }
-        if (!this.isSorted()) {
-            sortedList.add(module);
-            this.isSorted = true;
-        }
+    public void setSorted(ModuleInSort root) {
+        onStack = false;
+        componentRoot = root;
+    }
+
+    public ModuleInSort getComponentRoot() {
+        return componentRoot;
     }
 
     public String toString() {
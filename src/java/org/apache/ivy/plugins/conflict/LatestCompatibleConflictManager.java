@@ -211,7 +211,7 @@ public class LatestCompatibleConflictManager extends LatestConflictManager {
                     + evicted.getEvictedData(rootModuleConf));
             }
             throw new RestartResolveProcess("trying to handle incompatibilities between "
-                + selected + " and " + evicted);
+                + selected + " and " + evicted, toBlacklist);
         }
     }
 
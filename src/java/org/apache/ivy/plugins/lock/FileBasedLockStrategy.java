@@ -24,6 +24,8 @@ import java.nio.channels.FileLock;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.ivy.core.resolve.ResolveMetrics;
+import org.apache.ivy.core.resolve.ResolveTrace;
 import org.apache.ivy.util.Message;
 
 public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
@@ -38,7 +40,11 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
     
     private long timeout = DEFAULT_TIMEOUT;
     
-    private Map/*<File, Integer>*/ currentLockCounters = new HashMap();
+    /**
+     * The number of locks held on each file by each thread: a lock is reentrant for the thread
+     * which holds it only, other threads have to wait for its release.
+     */
+    private Map/*<File, Map<Thread, Integer>>*/ currentLockHolders = new HashMap();
     
     protected FileBasedLockStrategy() {
         this(new CreateFileLocker(false), false);
@@ -59,29 +65,37 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
             debugLocking("acquiring lock on " + file);
         }
         long start = System.currentTimeMillis();
-        do {
-            synchronized (this) {
-                if (hasLock(file)) {
-                    int holdLocks = incrementLock(file);
-                    if (isDebugLocking()) {
-                        debugLocking("reentrant lock acquired on " + file 
-                            + " in " + (System.currentTimeMillis() - start) + "ms"
-                            + " - hold locks = " + holdLocks);
+        ResolveTrace.Span span = ResolveTrace.begin(ResolveTrace.LOCK, file, getName());
+        try {
+            do {
+                synchronized (this) {
+                    if (hasLock(file)) {
+                        int holdLocks = incrementLock(file);
+                        if (isDebugLocking()) {
+                            debugLocking("reentrant lock acquired on " + file 
+                                + " in " + (System.currentTimeMillis() - start) + "ms"
+                                + " - hold locks = " + holdLocks);
+                        }
+                        return true;
                     }
-                    return true;
-                }
-                if (locker.tryLock(file)) {
-                    if (isDebugLocking()) {
-                        debugLocking("lock acquired on " + file 
-                            + " in " + (System.currentTimeMillis() - start) + "ms");
+                    if (locker.tryLock(file)) {
+                        ResolveMetrics.record(ResolveMetrics.LOCK, getName(), start);
+                        if (isDebugLocking()) {
+                            debugLocking("lock acquired on " + file 
+                                + " in " + (System.currentTimeMillis() - start) + "ms");
+                        }
+                        incrementLock(file);
+                        return true;
                     }
-                    incrementLock(file);
-                    return true;
                 }
-            }
-            Thread.sleep(SLEEP_TIME);
-        } while (System.currentTimeMillis() - start < timeout);
-        return false;
+                Thread.sleep(SLEEP_TIME);
+            } while (System.currentTimeMillis() - start < timeout);
+            ResolveMetrics.record(ResolveMetrics.LOCK, getName(), start);
+            ResolveMetrics.count(ResolveMetrics.LOCK_TIMEOUTS, getName(), 1);
+            return false;
+        } finally {
+            ResolveTrace.end(span);
+        }
     }
 
     protected void releaseLock(File file) {
@@ -107,21 +121,34 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
     }
 
     private boolean hasLock(File file) {
-        Integer c = (Integer) currentLockCounters.get(file);
-        return c != null && c.intValue() > 0;
+        Map holders = (Map) currentLockHolders.get(file);
+        return holders != null && holders.containsKey(Thread.currentThread());
     }
     
     private int incrementLock(File file) {
-        Integer c = (Integer) currentLockCounters.get(file);
+        Map holders = (Map) currentLockHolders.get(file);
+        if (holders == null) {
+            holders = new HashMap();
+            currentLockHolders.put(file, holders);
+        }
+        Integer c = (Integer) holders.get(Thread.currentThread());
         int holdLocks = c == null ? 1 : c.intValue() + 1;
-        currentLockCounters.put(file, new Integer(holdLocks));
+        holders.put(Thread.currentThread(), new Integer(holdLocks));
         return holdLocks;
     }
 
     private int decrementLock(File file) {
-        Integer c = (Integer) currentLockCounters.get(file);
+        Map holders = (Map) currentLockHolders.get(file);
+        Integer c = holders == null ? null : (Integer) holders.get(Thread.currentThread());
         int dc = c == null ? 0 : c.intValue() - 1;
-        currentLockCounters.put(file, new Integer(dc));
+        if (dc > 0) {
+            holders.put(Thread.currentThread(), new Integer(dc));
+        } else if (holders != null) {
+            holders.remove(Thread.currentThread());
+            if (holders.isEmpty()) {
+                currentLockHolders.remove(file);
+            }
+        }
         return dc;
     }
 
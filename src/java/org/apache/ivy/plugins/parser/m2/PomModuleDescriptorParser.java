@@ -69,6 +69,8 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
 
     private static final PomModuleDescriptorParser INSTANCE = new PomModuleDescriptorParser();
 
+    private static final String OTHER_POM_KEY_PREFIX = "pom:";
+
     public static PomModuleDescriptorParser getInstance() {
         return INSTANCE;
     }
@@ -132,6 +134,7 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
             }
             
             ModuleDescriptor parentDescr = null;
+            OtherPom parentPom = null;
             if (domReader.hasParent()) {
                 //Is there any other parent properties?
                 
@@ -139,17 +142,15 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                     domReader.getParentGroupId(), 
                     domReader.getParentArtifactId(), 
                     domReader.getParentVersion());
-                ResolvedModuleRevision parentModule = parseOtherPom(ivySettings, 
-                    parentModRevID);
-                if (parentModule != null) {
-                    parentDescr = parentModule.getDescriptor();
+                parentPom = parseOtherPom(ivySettings, parentModRevID);
+                if (parentPom != null) {
+                    parentDescr = parentPom.getDescriptor();
                 } else {
                     throw new IOException("Impossible to load parent for " + res.getName() + "."
                        + " Parent=" + parentModRevID);
                 }
                 if (parentDescr != null) {
-                    Map parentPomProps = PomModuleDescriptorBuilder.extractPomProperties(
-                        parentDescr.getExtraInfo());
+                    Map parentPomProps = parentPom.getProperties();
                     for (Iterator iter = parentPomProps.entrySet().iterator(); iter.hasNext();) {
                         Map.Entry prop = (Map.Entry) iter.next();
                         domReader.setProperty((String) prop.getKey(), (String) prop.getValue());
@@ -178,7 +179,7 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                             + ". Please update your dependency to directly use the right version.");
                     Message.warn("Resolution will only pick dependencies of the relocated element."
                             + "  Artefact and other metadata will be ignored.");
-                    ResolvedModuleRevision relocatedModule = parseOtherPom(ivySettings, relocation);
+                    OtherPom relocatedModule = parseOtherPom(ivySettings, relocation);
                     if (relocatedModule == null) {
                         throw new ParseException("impossible to load module "
                             + relocation + " to which " 
@@ -220,7 +221,7 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                     mdBuilder.addExtraInfos(parentDescr.getExtraInfo());
                     
                     // add dependency management info from parent
-                    List depMgt = PomModuleDescriptorBuilder.getDependencyManagements(parentDescr);
+                    List depMgt = parentPom.getDependencyManagements();
                     for (Iterator it = depMgt.iterator(); it.hasNext();) {
                         PomDependencyMgt dep = (PomDependencyMgt) it.next();
                         if (dep instanceof PomDependencyMgtElement) {
@@ -230,8 +231,7 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                     }
                     
                     // add plugins from parent
-                    List /*<PomDependencyMgt>*/ plugins = 
-                                    PomModuleDescriptorBuilder.getPlugins(parentDescr);
+                    List /*<PomDependencyMgt>*/ plugins = parentPom.getPlugins();
                     for (Iterator it = plugins.iterator(); it.hasNext();) {
                         mdBuilder.addPlugin((PomDependencyMgt) it.next());
                     }
@@ -244,13 +244,10 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                             dep.getGroupId(), 
                             dep.getArtifactId(), 
                             dep.getVersion());
-                        ResolvedModuleRevision importModule = parseOtherPom(ivySettings, 
-                            importModRevID);
+                        OtherPom importModule = parseOtherPom(ivySettings, importModRevID);
                         if (importModule != null) {
-                            ModuleDescriptor importDescr = importModule.getDescriptor();
-                            
                             // add dependency management info from imported module
-                            List depMgt = PomModuleDescriptorBuilder.getDependencyManagements(importDescr);
+                            List depMgt = importModule.getDependencyManagements();
                             for (Iterator it2 = depMgt.iterator(); it2.hasNext();) {
                                 PomDependencyMgt importedDepMgt = (PomDependencyMgt) it2.next();
                                 mdBuilder.addDependencyMgt(new DefaultPomDependencyMgt(
@@ -353,15 +350,26 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
         }
     }
 
-    private ResolvedModuleRevision parseOtherPom(ParserSettings ivySettings,
+    /**
+     * Loads a pom used by the one being parsed, as parent, import or relocation. Within a resolve
+     * each of these poms is loaded once, and the data extracted from it is shared by all the poms
+     * using it.
+     */
+    private OtherPom parseOtherPom(ParserSettings ivySettings,
             ModuleRevisionId parentModRevID) throws ParseException {
         DependencyDescriptor dd = new DefaultDependencyDescriptor(parentModRevID, true);
         ResolveData data = IvyContext.getContext().getResolveData();
+        String cacheKey = OTHER_POM_KEY_PREFIX + parentModRevID;
         if (data == null) {
             ResolveEngine engine = IvyContext.getContext().getIvy().getResolveEngine();
             ResolveOptions options = new ResolveOptions();
             options.setDownload(false);
             data = new ResolveData(engine, options);
+        } else {
+            OtherPom otherPom = (OtherPom) data.getParsedMetadata(cacheKey);
+            if (otherPom != null) {
+                return otherPom;
+            }
         }
         
         DependencyResolver resolver = ivySettings.getResolver(parentModRevID);
@@ -371,7 +379,57 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
         } else {
             dd = NameSpaceHelper.toSystem(dd, ivySettings.getContextNamespace());
             ResolvedModuleRevision otherModule = resolver.getDependency(dd, data);
-            return otherModule;
+            if (otherModule == null) {
+                return null;
+            }
+            OtherPom otherPom = new OtherPom(otherModule.getDescriptor());
+            data.setParsedMetadata(cacheKey, otherPom);
+            return otherPom;
+        }
+    }
+
+    /**
+     * A pom loaded while parsing another one, with the data extracted from its descriptor computed
+     * on first use.
+     */
+    private static final class OtherPom {
+        private final ModuleDescriptor descriptor;
+
+        private Map/*<String,String>*/ properties;
+
+        private List/*<PomDependencyMgt>*/ dependencyManagements;
+
+        private List/*<PomDependencyMgt>*/ plugins;
+
+        private OtherPom(ModuleDescriptor descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        public ModuleDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        public Map getProperties() {
+            if (properties == null) {
+                properties = PomModuleDescriptorBuilder.extractPomProperties(
+                    descriptor.getExtraInfo());
+            }
+            return properties;
+        }
+
+        public List getDependencyManagements() {
+            if (dependencyManagements == null) {
+                dependencyManagements = PomModuleDescriptorBuilder
+                        .getDependencyManagements(descriptor);
+            }
+            return dependencyManagements;
+        }
+
+        public List getPlugins() {
+            if (plugins == null) {
+                plugins = PomModuleDescriptorBuilder.getPlugins(descriptor);
+            }
+            return plugins;
         }
     }
 
@@ -27,10 +27,14 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.module.descriptor.License;
@@ -39,18 +43,17 @@ import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.util.XMLHelper;
 import org.apache.ivy.util.url.URLHandlerRegistry;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.EntityResolver;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
- * Provides the method to read some data out of the DOM tree of a pom 
- * file.
+ * Provides the method to read some data out of a pom file.
+ * <p>
+ * The pom is read in one pass, only the elements used to build the module descriptor are kept.
+ * </p>
  */
 public class PomReader {
     
@@ -81,33 +84,66 @@ public class PomReader {
     private static final String PLUGINS = "plugins";
     private static final String PLUGIN = "plugin";
     private static final String TYPE = "type";
+    private static final String BUILD = "build";
+
+    /**
+     * Paths, relative to the project element, of the elements read from the pom. Other elements
+     * are skipped while parsing, except the children of the properties element which are all
+     * read.
+     */
+    private static final Set/*<String>*/ READ_PATHS = new HashSet();
+    static {
+        String[] coordinates = new String[] {GROUP_ID, ARTIFACT_ID, VERSION};
+        String[] dependency = new String[] {GROUP_ID, ARTIFACT_ID, VERSION, SCOPE, CLASSIFIER,
+                TYPE, OPTIONAL, EXCLUSIONS, EXCLUSIONS + "/" + EXCLUSION,
+                EXCLUSIONS + "/" + EXCLUSION + "/" + GROUP_ID,
+                EXCLUSIONS + "/" + EXCLUSION + "/" + ARTIFACT_ID};
+        addReadPaths("", new String[] {GROUP_ID, ARTIFACT_ID, VERSION, PACKAGING, HOMEPAGE,
+                DESCRIPTION, PARENT, LICENSES, DISTRIBUTION_MGT, DEPENDENCIES, DEPENDENCY_MGT,
+                PROPERTIES, BUILD});
+        addReadPaths(PARENT + "/", coordinates);
+        addReadPaths(LICENSES + "/", new String[] {LICENSE});
+        addReadPaths(LICENSES + "/" + LICENSE + "/", new String[] {LICENSE_NAME, LICENSE_URL});
+        addReadPaths(DISTRIBUTION_MGT + "/", new String[] {RELOCATION});
+        addReadPaths(DISTRIBUTION_MGT + "/" + RELOCATION + "/", coordinates);
+        addReadPaths(DEPENDENCIES + "/", new String[] {DEPENDENCY});
+        addReadPaths(DEPENDENCIES + "/" + DEPENDENCY + "/", dependency);
+        addReadPaths(DEPENDENCY_MGT + "/", new String[] {DEPENDENCIES});
+        addReadPaths(DEPENDENCY_MGT + "/" + DEPENDENCIES + "/", new String[] {DEPENDENCY});
+        addReadPaths(DEPENDENCY_MGT + "/" + DEPENDENCIES + "/" + DEPENDENCY + "/", dependency);
+        addReadPaths(BUILD + "/", new String[] {PLUGINS});
+        addReadPaths(BUILD + "/" + PLUGINS + "/", new String[] {PLUGIN});
+        addReadPaths(BUILD + "/" + PLUGINS + "/" + PLUGIN + "/", coordinates);
+    }
+
+    private static void addReadPaths(String parentPath, String[] names) {
+        for (int i = 0; i < names.length; i++) {
+            READ_PATHS.add(parentPath + names[i]);
+        }
+    }
 
     private HashMap properties = new HashMap();
     
-    private final Element projectElement;
-    private final Element parentElement;
+    private final PomElement projectElement;
+    private final PomElement parentElement;
     
     public PomReader(URL descriptorURL, Resource res) throws IOException, SAXException {
         InputStream stream = new AddDTDFilterInputStream(URLHandlerRegistry.getDefault().openStream(descriptorURL));
         InputSource source = new InputSource(stream);
         source.setSystemId(XMLHelper.toSystemId(descriptorURL));
         try {
-            Document pomDomDoc = XMLHelper.parseToDom(source, new EntityResolver() {
-                public InputSource resolveEntity(String publicId, String systemId) 
-                                throws SAXException, IOException {
-                    if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
-                        return new InputSource(
-                                        PomReader.class.getResourceAsStream("m2-entities.ent"));
-                    }
-                    return null;
-                }
-            });
-            projectElement = pomDomDoc.getDocumentElement();
-            if (!PROJECT.equals(projectElement.getNodeName()) && !MODEL.equals(projectElement.getNodeName())) {
+            PomHandler handler = new PomHandler(res);
+            XMLHelper.parse(source, null, handler, null);
+            projectElement = handler.root;
+            if (projectElement == null) {
                 throw new SAXParseException("project must be the root tag" , res.getName() , 
                                             res.getName(), 0, 0);
             }
             parentElement = getFirstChildElement(projectElement , PARENT);
+        } catch (ParserConfigurationException e) {
+            SAXException ex = new SAXException(e);
+            ex.initCause(e);
+            throw ex;
         } finally {
             try {
                 stream.close();
@@ -117,7 +153,6 @@ public class PomReader {
         }
     }
 
-
     public boolean hasParent() {
         return parentElement != null;
     }
@@ -212,15 +247,14 @@ public class PomReader {
     }
 
     public License[] getLicenses() {
-        Element licenses = getFirstChildElement(projectElement, LICENSES);
+        PomElement licenses = getFirstChildElement(projectElement, LICENSES);
         if (licenses == null) {
             return new License[0];
         }
-        licenses.normalize();
         List/*<License>*/ lics = new ArrayList();
         for (Iterator it = getAllChilds(licenses).iterator(); it.hasNext();) {
-            Element license = (Element) it.next();
-            if (LICENSE.equals(license.getNodeName())) {
+            PomElement license = (PomElement) it.next();
+            if (LICENSE.equals(license.name)) {
                 String name = getFirstChildText(license, LICENSE_NAME);
                 String url = getFirstChildText(license, LICENSE_URL);
                 
@@ -242,8 +276,8 @@ public class PomReader {
 
     
     public ModuleRevisionId getRelocation() {
-        Element distrMgt = getFirstChildElement(projectElement, DISTRIBUTION_MGT);
-        Element relocation = getFirstChildElement(distrMgt , RELOCATION);
+        PomElement distrMgt = getFirstChildElement(projectElement, DISTRIBUTION_MGT);
+        PomElement relocation = getFirstChildElement(distrMgt , RELOCATION);
         if (relocation == null) {
             return null;
         } else {
@@ -258,15 +292,12 @@ public class PomReader {
     }
     
     public List /* <PomDependencyData> */ getDependencies() {
-        Element dependenciesElement = getFirstChildElement(projectElement, DEPENDENCIES);
+        PomElement dependenciesElement = getFirstChildElement(projectElement, DEPENDENCIES);
         LinkedList dependencies = new LinkedList();
-        if (dependenciesElement != null) {
-            NodeList childs = dependenciesElement.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                    dependencies.add(new PomDependencyData((Element) node));
-                }
+        for (Iterator it = getAllChilds(dependenciesElement).iterator(); it.hasNext();) {
+            PomElement node = (PomElement) it.next();
+            if (DEPENDENCY.equals(node.name)) {
+                dependencies.add(new PomDependencyData(node));
             }
         }
         return dependencies;
@@ -274,29 +305,26 @@ public class PomReader {
     
 
     public List /* <PomDependencyMgt> */ getDependencyMgt() {
-        Element dependenciesElement = getFirstChildElement(projectElement, DEPENDENCY_MGT);
+        PomElement dependenciesElement = getFirstChildElement(projectElement, DEPENDENCY_MGT);
         dependenciesElement = getFirstChildElement(dependenciesElement, DEPENDENCIES);
         LinkedList dependencies = new LinkedList();
-        if (dependenciesElement != null) {
-            NodeList childs = dependenciesElement.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                    dependencies.add(new PomDependencyMgtElement((Element) node));
-                }
+        for (Iterator it = getAllChilds(dependenciesElement).iterator(); it.hasNext();) {
+            PomElement node = (PomElement) it.next();
+            if (DEPENDENCY.equals(node.name)) {
+                dependencies.add(new PomDependencyMgtElement(node));
             }
         }
         return dependencies;
     }
 
     public class PomDependencyMgtElement implements PomDependencyMgt {
-        private final Element depElement;
+        private final PomElement depElement;
         
         public PomDependencyMgtElement(PomDependencyMgtElement copyFrom) {
             this(copyFrom.depElement);
         }
 
-        PomDependencyMgtElement(Element depElement) {
+        PomDependencyMgtElement(PomElement depElement) {
             this.depElement = depElement; 
         }
         
@@ -330,18 +358,15 @@ public class PomReader {
         }
         
         public List /*<ModuleId>*/ getExcludedModules() {
-            Element exclusionsElement = getFirstChildElement(depElement, EXCLUSIONS);
+            PomElement exclusionsElement = getFirstChildElement(depElement, EXCLUSIONS);
             LinkedList exclusions = new LinkedList();
-            if (exclusionsElement != null) {
-                NodeList childs = exclusionsElement.getChildNodes();
-                for (int i = 0; i < childs.getLength(); i++) {
-                    Node node = childs.item(i);
-                    if (node instanceof Element && EXCLUSION.equals(node.getNodeName())) {
-                        String groupId = getFirstChildText((Element) node, GROUP_ID);
-                        String artifactId = getFirstChildText((Element) node, ARTIFACT_ID);
-                        if ((groupId != null) && (artifactId != null)) {
-                            exclusions.add(ModuleId.newInstance(groupId, artifactId));
-                        }
+            for (Iterator it = getAllChilds(exclusionsElement).iterator(); it.hasNext();) {
+                PomElement node = (PomElement) it.next();
+                if (EXCLUSION.equals(node.name)) {
+                    String groupId = getFirstChildText(node, GROUP_ID);
+                    String artifactId = getFirstChildText(node, ARTIFACT_ID);
+                    if ((groupId != null) && (artifactId != null)) {
+                        exclusions.add(ModuleId.newInstance(groupId, artifactId));
                     }
                 }
             }
@@ -352,28 +377,25 @@ public class PomReader {
     public List /* <PomPluginElement> */ getPlugins() {
         LinkedList plugins = new LinkedList();
 
-        Element buildElement = getFirstChildElement(projectElement, "build");
+        PomElement buildElement = getFirstChildElement(projectElement, BUILD);
         if (buildElement == null) {
             return plugins;
         }
         
-        Element pluginsElement = getFirstChildElement(buildElement, PLUGINS);
-        if (pluginsElement != null) {
-            NodeList childs = pluginsElement.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element && PLUGIN.equals(node.getNodeName())) {
-                    plugins.add(new PomPluginElement((Element) node));
-                }
+        PomElement pluginsElement = getFirstChildElement(buildElement, PLUGINS);
+        for (Iterator it = getAllChilds(pluginsElement).iterator(); it.hasNext();) {
+            PomElement node = (PomElement) it.next();
+            if (PLUGIN.equals(node.name)) {
+                plugins.add(new PomPluginElement(node));
             }
         }
         return plugins;
     }
 
     public class PomPluginElement implements PomDependencyMgt {
-        private Element pluginElement;
+        private PomElement pluginElement;
         
-        PomPluginElement(Element pluginElement) {
+        PomPluginElement(PomElement pluginElement) {
             this.pluginElement = pluginElement; 
         }
         
@@ -403,13 +425,13 @@ public class PomReader {
     
     
     public class PomDependencyData extends PomDependencyMgtElement {
-        private final Element depElement;
+        private final PomElement depElement;
 
         public PomDependencyData(PomDependencyData copyFrom) {
             this(copyFrom.depElement);
         }
 
-        PomDependencyData(Element depElement) {
+        PomDependencyData(PomElement depElement) {
             super(depElement);
             this.depElement = depElement;
         }
@@ -430,7 +452,7 @@ public class PomReader {
         }
 
         public boolean isOptional() {
-            Element e = getFirstChildElement(depElement, OPTIONAL); 
+            PomElement e = getFirstChildElement(depElement, OPTIONAL); 
             return (e != null) && "true".equalsIgnoreCase(getTextContent(e));
         }
 
@@ -441,13 +463,10 @@ public class PomReader {
      */
     public Map/* <String,String> */getPomProperties() {
         Map pomProperties = new HashMap();
-        Element propsEl = getFirstChildElement(projectElement, PROPERTIES);
-        if (propsEl != null) {
-            propsEl.normalize();
-        }
+        PomElement propsEl = getFirstChildElement(projectElement, PROPERTIES);
         for (Iterator it = getAllChilds(propsEl).iterator(); it.hasNext();) {
-            Element prop = (Element) it.next();
-            pomProperties.put(prop.getNodeName(), getTextContent(prop));
+            PomElement prop = (PomElement) it.next();
+            pomProperties.put(prop.name, getTextContent(prop));
         }
         return pomProperties;
     }
@@ -460,28 +479,12 @@ public class PomReader {
         }
     }
 
-    private static String getTextContent(Element element) {
-        StringBuffer result = new StringBuffer();
-        
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
-            
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
-                    break;
-                default:
-                    break;
-            }
-        }
-        
-        return result.toString();
+    private static String getTextContent(PomElement element) {
+        return element.text == null ? "" : element.text.toString();
     }
     
-    private static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    private static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
             return getTextContent(node);
         } else {
@@ -489,32 +492,127 @@ public class PomReader {
         }
     }
 
-    private static Element getFirstChildElement(Element parentElem, String name) {
+    private static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
+        for (Iterator it = parentElem.children.iterator(); it.hasNext();) {
+            PomElement node = (PomElement) it.next();
+            if (name.equals(node.name)) {
+                return node;
             }
         }
         return null;
     }
     
-    private static List/* <Element> */getAllChilds(Element parent) {
-        List r = new LinkedList();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add(node);
+    private static List/* <PomElement> */getAllChilds(PomElement parent) {
+        return parent == null ? Collections.EMPTY_LIST : parent.children;
+    }
+
+    /**
+     * An element read from the pom, with its direct text content and the child elements which
+     * have been read.
+     */
+    private static final class PomElement {
+        private final String name;
+
+        private StringBuffer text;
+
+        private List/*<PomElement>*/ children = Collections.EMPTY_LIST;
+
+        private PomElement(String name) {
+            this.name = name;
+        }
+
+        private void addChild(PomElement child) {
+            if (children.isEmpty()) {
+                children = new ArrayList();
+            }
+            children.add(child);
+        }
+    }
+
+    /**
+     * Reads the pom in one pass, keeping only the elements needed to build the module descriptor.
+     */
+    private static final class PomHandler extends DefaultHandler {
+        private final Resource res;
+
+        private PomElement root;
+
+        // the elements being read, from the root: the path of an element is the list of the names
+        // of the elements below root up to it
+        private LinkedList/*<PomElement>*/ stack = new LinkedList();
+
+        private StringBuffer path = new StringBuffer();
+
+        // depth of the elements which are being skipped, 0 if none
+        private int skipped = 0;
+
+        private PomHandler(Resource res) {
+            this.res = res;
+        }
+
+        public InputSource resolveEntity(String publicId, String systemId) 
+                throws SAXException {
+            if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
+                return new InputSource(PomReader.class.getResourceAsStream("m2-entities.ent"));
+            }
+            return null;
+        }
+
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) throws SAXException {
+            if (skipped > 0) {
+                skipped++;
+                return;
+            }
+            if (root == null) {
+                if (!PROJECT.equals(qName) && !MODEL.equals(qName)) {
+                    throw new SAXParseException("project must be the root tag" , res.getName() , 
+                        res.getName(), 0, 0);
                 }
+                root = new PomElement(qName);
+                stack.addLast(root);
+                return;
+            }
+            int pathLength = path.length();
+            if (pathLength > 0) {
+                path.append('/');
+            }
+            path.append(qName);
+            boolean property = stack.size() == 2 
+                    && PROPERTIES.equals(((PomElement) stack.getLast()).name);
+            if (!property && !READ_PATHS.contains(path.toString())) {
+                path.setLength(pathLength);
+                skipped = 1;
+                return;
+            }
+            PomElement element = new PomElement(qName);
+            ((PomElement) stack.getLast()).addChild(element);
+            stack.addLast(element);
+        }
+
+        public void endElement(String uri, String localName, String qName) {
+            if (skipped > 0) {
+                skipped--;
+                return;
+            }
+            stack.removeLast();
+            int index = path.lastIndexOf("/");
+            path.setLength(index == -1 ? 0 : index);
+        }
+
+        public void characters(char[] ch, int start, int length) {
+            if (skipped > 0 || stack.isEmpty()) {
+                return;
+            }
+            PomElement current = (PomElement) stack.getLast();
+            if (current.text == null) {
+                current.text = new StringBuffer(length);
             }
+            current.text.append(ch, start, length);
         }
-        return r;
     }
 
     private static final class AddDTDFilterInputStream extends FilterInputStream {
@@ -0,0 +1,70 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.report;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.ivy.core.cache.ResolutionCacheManager;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+
+/**
+ * A Report outputter writing, next to each xml report of the resolution cache, a compact binary
+ * form of what {@link XmlReportParser} reads from it.
+ * <p>
+ * The post resolve tasks parse these reports again and again, so {@link XmlReportParser} reads
+ * the binary form instead as long as the xml report is unchanged. The binary form is built from
+ * the configuration reports, without parsing the xml reports, but is bound to the xml report
+ * files: this outputter must thus come after the {@link XmlReportOutputter}.
+ * </p>
+ */
+public class BinaryReportOutputter implements ReportOutputter {
+    private static final String XML_EXTENSION = ".xml";
+
+    private static final String BINARY_EXTENSION = ".bin";
+
+    public String getName() {
+        return BINARY;
+    }
+
+    public void output(final ResolveReport report, final ResolutionCacheManager cacheMgr,
+            ResolveOptions options) throws IOException {
+        new PerConfigurationOutput() {
+            protected void output(String conf) throws IOException {
+                File reportFile = cacheMgr.getConfigurationResolveReportInCache(
+                    report.getResolveId(), conf);
+                if (reportFile.exists()) {
+                    XmlReportParser.writeBinary(report.getConfigurationReport(conf), reportFile,
+                        getBinaryReportFile(reportFile));
+                }
+            }
+        }.run(report);
+    }
+
+    /**
+     * Returns the file in which the binary form of the given xml report is written.
+     */
+    public static File getBinaryReportFile(File xmlReport) {
+        String name = xmlReport.getName();
+        if (name.endsWith(XML_EXTENSION)) {
+            name = name.substring(0, name.length() - XML_EXTENSION.length());
+        }
+        return new File(xmlReport.getParentFile(), name + BINARY_EXTENSION);
+    }
+}
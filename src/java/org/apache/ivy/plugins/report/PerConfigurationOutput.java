@@ -0,0 +1,120 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.report;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.IvyThread;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
+
+/**
+ * Outputs each configuration of a resolve report, with several threads when the
+ * <code>ivy.report.output.threads</code> variable is greater than 1.
+ */
+abstract class PerConfigurationOutput {
+    static final String THREADS_VARIABLE = "ivy.report.output.threads";
+
+    protected abstract void output(String conf) throws IOException;
+
+    void run(ResolveReport report) throws IOException {
+        final String[] confs = report.getConfigurations();
+        int threads = getThreads();
+        if (threads <= 1 || confs.length < 2) {
+            for (int i = 0; i < confs.length; i++) {
+                output(confs[i]);
+            }
+            return;
+        }
+
+        // the eviction data of the nodes is cleaned up when first read, it must be done before
+        // the nodes are read concurrently
+        List nodes = report.getDependencies();
+        if (nodes != null) {
+            for (Iterator it = nodes.iterator(); it.hasNext();) {
+                ((IvyNode) it.next()).getEvictedConfs();
+            }
+        }
+
+        final int[] next = new int[1];
+        final Throwable[] failure = new Throwable[1];
+        Runnable work = new Runnable() {
+            public void run() {
+                while (true) {
+                    int index;
+                    synchronized (next) {
+                        if (next[0] >= confs.length || failure[0] != null) {
+                            return;
+                        }
+                        index = next[0]++;
+                    }
+                    try {
+                        output(confs[index]);
+                    } catch (Throwable t) {
+                        synchronized (next) {
+                            if (failure[0] == null) {
+                                failure[0] = t;
+                            }
+                        }
+                    }
+                }
+            }
+        };
+        Thread[] workers = new Thread[Math.min(threads, confs.length)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new IvyThread(work, "ivy-report-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                workers[i].join();
+            }
+        } catch (InterruptedException e) {
+            synchronized (next) {
+                next[0] = confs.length;
+            }
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while writing reports");
+        }
+        if (failure[0] instanceof IOException) {
+            throw (IOException) failure[0];
+        } else if (failure[0] instanceof RuntimeException) {
+            throw (RuntimeException) failure[0];
+        } else if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        }
+    }
+
+    private static int getThreads() {
+        Ivy ivy = IvyContext.getContext().peekIvy();
+        String threads = ivy == null ? null : ivy.getSettings().getVariable(THREADS_VARIABLE);
+        if (threads == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
@@ -31,6 +31,10 @@ public interface ReportOutputter {
 
     public static final String XML = "xml";
 
+    public static final String BINARY = "binary";
+
+    public static final String TRACE = "trace";
+
     public abstract void output(
             ResolveReport report, ResolutionCacheManager cacheMgr, ResolveOptions options) 
             throws IOException;
@@ -0,0 +1,59 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.report;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.ivy.core.cache.ResolutionCacheManager;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.resolve.ResolveTrace;
+import org.apache.ivy.util.Message;
+
+/**
+ * A Report outputter writing the trace of a traced resolve in the resolution cache, in the Chrome
+ * trace event format. It does nothing for resolves which haven't been traced.
+ *
+ * @see ResolveTrace
+ */
+public class TraceReportOutputter implements ReportOutputter {
+    private static final String TRACE_SUFFIX = "-trace.json";
+
+    public String getName() {
+        return TRACE;
+    }
+
+    public void output(ResolveReport report, ResolutionCacheManager cacheMgr,
+            ResolveOptions options) throws IOException {
+        ResolveTrace trace = report.getTrace();
+        if (trace == null) {
+            return;
+        }
+        File traceFile = getTraceFile(cacheMgr, report.getResolveId());
+        trace.writeJson(traceFile);
+        Message.verbose("\tresolve trace written to " + traceFile);
+    }
+
+    /**
+     * Returns the file in which the trace of the given resolve is written.
+     */
+    public static File getTraceFile(ResolutionCacheManager cacheMgr, String resolveId) {
+        return new File(cacheMgr.getResolutionCacheRoot(), resolveId + TRACE_SUFFIX);
+    }
+}
@@ -17,10 +17,18 @@
  */
 package org.apache.ivy.plugins.report;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.ivy.core.cache.ResolutionCacheManager;
 import org.apache.ivy.core.report.ConfigurationResolveReport;
@@ -34,44 +42,126 @@ import org.apache.ivy.util.Message;
  * resolution cache.
  */
 public class XmlReportOutputter implements ReportOutputter {
-    private XmlReportWriter writer = new XmlReportWriter();
-    
+    private static final String[] STATIC_RESOURCES = new String[] {"ivy-report.xsl",
+            "ivy-report.css"};
+
+    // Map (String resource name -> byte[] content)
+    private static final Map RESOURCE_CONTENTS = new HashMap();
+
+    // Map (String absolute path -> Long last modified) of the copied resources known up to date
+    private static final Map UP_TO_DATE_RESOURCES = new HashMap();
+
     public String getName() {
         return XML;
     }
 
     public void output(
-            ResolveReport report, ResolutionCacheManager cacheMgr, ResolveOptions options) 
-            throws IOException {
-        String[] confs = report.getConfigurations();
+            final ResolveReport report, final ResolutionCacheManager cacheMgr,
+            ResolveOptions options) throws IOException {
+        // the same writer is used for all the confs, to share what they have in common
+        final XmlReportWriter writer = new XmlReportWriter();
+        final String[] confs = report.getConfigurations();
+        new PerConfigurationOutput() {
+            protected void output(String conf) throws IOException {
+                writeReport(writer, report.getConfigurationReport(conf), report.getResolveId(),
+                    confs, cacheMgr);
+            }
+        }.run(report);
+
+        Set dirs = new HashSet();
         for (int i = 0; i < confs.length; i++) {
-            output(report.getConfigurationReport(confs[i]), report.getResolveId(), confs, cacheMgr);
+            File dir = cacheMgr.getConfigurationResolveReportInCache(report.getResolveId(),
+                confs[i]).getParentFile();
+            if (dirs.add(dir)) {
+                copyStaticResources(dir);
+            }
         }
     }
 
     public void output(ConfigurationResolveReport report, String resolveId, 
             String[] confs, ResolutionCacheManager cacheMgr) 
             throws IOException {
+        File reportFile = writeReport(new XmlReportWriter(), report, resolveId, confs, cacheMgr);
+        copyStaticResources(reportFile.getParentFile());
+    }
+
+    private File writeReport(XmlReportWriter writer, ConfigurationResolveReport report,
+            String resolveId, String[] confs, ResolutionCacheManager cacheMgr)
+            throws IOException {
         File reportFile = cacheMgr.getConfigurationResolveReportInCache(
             resolveId, report.getConfiguration());
         File reportParentDir = reportFile.getParentFile();
         reportParentDir.mkdirs();
+        // the binary form of the previous report must not be read for this one
+        BinaryReportOutputter.getBinaryReportFile(reportFile).delete();
         OutputStream stream = new FileOutputStream(reportFile);
-        writer.output(report, confs, stream);
-        stream.close();
+        try {
+            writer.output(report, confs, stream);
+        } finally {
+            stream.close();
+        }
 
         Message.verbose("\treport for " + report.getModuleDescriptor().getModuleRevisionId()
             + " " + report.getConfiguration() + " produced in " + reportFile);
+        return reportFile;
+    }
 
-        File reportXsl = new File(reportParentDir, "ivy-report.xsl");
-        File reportCss = new File(reportParentDir, "ivy-report.css");
-        if (!reportXsl.exists()) {
-            FileUtil.copy(XmlReportOutputter.class.getResourceAsStream("ivy-report.xsl"), reportXsl,
-                null);
+    /**
+     * Copies the stylesheets of the reports to the given directory, unless they are already
+     * there and up to date.
+     */
+    private static void copyStaticResources(File dir) throws IOException {
+        for (int i = 0; i < STATIC_RESOURCES.length; i++) {
+            byte[] content = getResourceContent(STATIC_RESOURCES[i]);
+            File file = new File(dir, STATIC_RESOURCES[i]);
+            if (!isUpToDate(file, content)) {
+                FileUtil.copy(new ByteArrayInputStream(content), file, null);
+                setUpToDate(file);
+            }
         }
-        if (!reportCss.exists()) {
-            FileUtil.copy(XmlReportOutputter.class.getResourceAsStream("ivy-report.css"), reportCss,
-                null);
+    }
+
+    private static byte[] getResourceContent(String name) throws IOException {
+        synchronized (RESOURCE_CONTENTS) {
+            byte[] content = (byte[]) RESOURCE_CONTENTS.get(name);
+            if (content == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                FileUtil.copy(XmlReportOutputter.class.getResourceAsStream(name), out, null);
+                content = out.toByteArray();
+                RESOURCE_CONTENTS.put(name, content);
+            }
+            return content;
+        }
+    }
+
+    /**
+     * Tells if the given file has the given content. Its content is only read when its length
+     * matches but its last modification date is not the one recorded when it was last copied or
+     * checked, so that resolves running against an up to date cache only check its attributes.
+     */
+    private static boolean isUpToDate(File file, byte[] content) throws IOException {
+        long lastModified = file.lastModified();
+        if (lastModified == 0 || file.length() != content.length) {
+            return false;
+        }
+        synchronized (UP_TO_DATE_RESOURCES) {
+            Long upToDate = (Long) UP_TO_DATE_RESOURCES.get(file.getAbsolutePath());
+            if (upToDate != null && upToDate.longValue() == lastModified) {
+                return true;
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length);
+        FileUtil.copy(new FileInputStream(file), out, null);
+        if (!Arrays.equals(content, out.toByteArray())) {
+            return false;
+        }
+        setUpToDate(file);
+        return true;
+    }
+
+    private static void setUpToDate(File file) {
+        synchronized (UP_TO_DATE_RESOURCES) {
+            UP_TO_DATE_RESOURCES.put(file.getAbsolutePath(), new Long(file.lastModified()));
         }
     }
 }
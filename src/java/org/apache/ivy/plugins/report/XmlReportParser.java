@@ -17,7 +17,14 @@
  */
 package org.apache.ivy.plugins.report;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
@@ -25,26 +32,44 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
 import org.apache.ivy.core.cache.ArtifactOrigin;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.ConfigurationResolveReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.MetadataArtifactDownloadReport;
+import org.apache.ivy.core.resolve.IvyNode;
 import org.apache.ivy.util.DateUtil;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.XMLHelper;
 import org.apache.ivy.util.extendable.ExtendableItemHelper;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+/**
+ * Parses the xml report of a configuration written in the resolution cache.
+ * <p>
+ * When the report has an up to date binary form written by {@link BinaryReportOutputter}, this
+ * binary form is read instead of the xml report, giving the same results faster.
+ * </p>
+ */
 public class XmlReportParser {
+    /**
+     * The header of binary reports, followed by the version of their format.
+     */
+    private static final int BINARY_MAGIC = 0x49565952;
+
+    private static final int BINARY_VERSION = 1;
+
     private static class SaxXmlReportParser {
         private final class XmlReportParserHandler extends DefaultHandler {
             private String organisation;
@@ -262,8 +287,312 @@ public class XmlReportParser {
         }
 
         public void parse() throws Exception {
-            SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-            saxParser.parse(report, new XmlReportParserHandler());
+            XMLHelper.parse(report.toURI().toURL(), null, new XmlReportParserHandler());
+        }
+
+        /**
+         * Reads the result of the parse of the xml report from its binary form.
+         * 
+         * @return false if the binary form doesn't match the current xml report
+         */
+        boolean readBinary(File binary) throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(binary)));
+            try {
+                if (in.readInt() != BINARY_MAGIC || in.readInt() != BINARY_VERSION
+                        || in.readLong() != report.length()
+                        || in.readLong() != report.lastModified()) {
+                    return false;
+                }
+                hasError = in.readBoolean();
+                mRevisionId = in.readBoolean() ? readModuleRevisionId(in) : null;
+
+                ModuleRevisionId[] ids = new ModuleRevisionId[in.readInt()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = readModuleRevisionId(in);
+                    mrids.add(ids[i]);
+                    if (in.readBoolean()) {
+                        defaultMrids.add(ids[i]);
+                    } else {
+                        MetadataArtifactDownloadReport madr = new MetadataArtifactDownloadReport(
+                                DefaultArtifact.newIvyArtifact(ids[i], new Date(in.readLong())));
+                        readDownloadReport(in, madr);
+                        madr.setSearched(in.readBoolean());
+                        madr.setOriginalLocalFile(readFile(in));
+                        metadataReports.put(ids[i], madr);
+                        realMrids.add(ids[i]);
+                    }
+                }
+
+                int nbArtifacts = in.readInt();
+                for (int i = 0; i < nbArtifacts; i++) {
+                    ModuleRevisionId mrid = ids[in.readInt()];
+                    Date pubdate = new Date(in.readLong());
+                    String name = readString(in);
+                    String type = readString(in);
+                    String ext = readString(in);
+                    Artifact artifact = new DefaultArtifact(mrid, pubdate, name, type, ext,
+                            readMap(in));
+                    ArtifactDownloadReport aReport = new ArtifactDownloadReport(artifact);
+                    readDownloadReport(in, aReport);
+                    aReport.setUncompressedLocalDir(readFile(in));
+                    artifactReports.add(aReport);
+                    if (aReport.getDownloadStatus() != DownloadStatus.FAILED) {
+                        artifacts.add(artifact);
+                    }
+                }
+                return true;
+            } finally {
+                in.close();
+            }
+        }
+
+        /**
+         * Reads from the configuration report the xml report has been written from what parsing
+         * the xml report gives, without parsing it.
+         */
+        void read(ConfigurationResolveReport confReport) {
+            String conf = confReport.getConfiguration();
+            ModuleRevisionId resolved = confReport.getModuleDescriptor().getModuleRevisionId();
+            mRevisionId = ModuleRevisionId.newInstance(resolved.getOrganisation(),
+                resolved.getName(), resolved.getBranch(), resolved.getRevision(),
+                resolved.getExtraAttributes());
+
+            // the artifacts are added in the order of the positions of their revisions
+            List positions = new ArrayList(confReport.getModuleRevisionIds());
+            SortedMap revisionsMap = new TreeMap();
+            Date pubdate = null;
+            for (Iterator it = confReport.getModuleIds().iterator(); it.hasNext();) {
+                ModuleId mid = (ModuleId) it.next();
+                for (Iterator it2 = confReport.getNodes(mid).iterator(); it2.hasNext();) {
+                    IvyNode dep = (IvyNode) it2.next();
+                    if (dep.hasProblem()) {
+                        hasError = true;
+                        continue;
+                    }
+                    if (dep.isEvicted(conf)) {
+                        continue;
+                    }
+                    ModuleDescriptor md = dep.getModuleRevision() == null ? null : dep
+                            .getModuleRevision().getDescriptor();
+                    ModuleRevisionId resolvedId = dep.getResolvedId();
+                    ModuleRevisionId mrid = ModuleRevisionId.newInstance(mid.getOrganisation(),
+                        mid.getName(), resolvedId.getBranch(), resolvedId.getRevision(),
+                        md != null ? md.getExtraAttributes() : resolvedId.getExtraAttributes());
+                    mrids.add(mrid);
+                    if (dep.getDescriptor() != null && dep.getDescriptor().isDefault()) {
+                        defaultMrids.add(mrid);
+                    } else {
+                        MetadataArtifactDownloadReport madr = new MetadataArtifactDownloadReport(
+                                DefaultArtifact.newIvyArtifact(mrid, pubdate));
+                        if (dep.getModuleRevision() != null) {
+                            MetadataArtifactDownloadReport written = dep.getModuleRevision()
+                                    .getReport();
+                            copyDownloadReport(written, madr);
+                            madr.setSearched(written.isSearched());
+                            madr.setOriginalLocalFile(getAbsoluteFile(written
+                                    .getOriginalLocalFile()));
+                        }
+                        metadataReports.put(mrid, madr);
+                        realMrids.add(mrid);
+                    }
+                    if (dep.isLoaded()) {
+                        // the xml report keeps the publication date to the second
+                        pubdate = new Date(dep.getPublication() / 1000 * 1000);
+                    }
+
+                    List revisionArtifacts = new ArrayList();
+                    ArtifactDownloadReport[] adrs = confReport.getDownloadReports(resolvedId);
+                    for (int i = 0; i < adrs.length; i++) {
+                        Artifact artifact = new DefaultArtifact(mrid, pubdate, adrs[i].getName(),
+                                adrs[i].getType(), adrs[i].getExt(), adrs[i].getArtifact()
+                                        .getExtraAttributes());
+                        ArtifactDownloadReport aReport = new ArtifactDownloadReport(artifact);
+                        copyDownloadReport(adrs[i], aReport);
+                        aReport.setUncompressedLocalDir(getAbsoluteFile(adrs[i]
+                                .getUncompressedLocalDir()));
+                        revisionArtifacts.add(aReport);
+                    }
+                    revisionsMap.put(new Integer(positions.indexOf(resolvedId)),
+                        revisionArtifacts);
+                }
+            }
+            for (Iterator it = revisionsMap.values().iterator(); it.hasNext();) {
+                List revisionArtifacts = (List) it.next();
+                artifactReports.addAll(revisionArtifacts);
+                for (Iterator iter = revisionArtifacts.iterator(); iter.hasNext();) {
+                    ArtifactDownloadReport aReport = (ArtifactDownloadReport) iter.next();
+                    if (aReport.getDownloadStatus() != DownloadStatus.FAILED) {
+                        artifacts.add(aReport.getArtifact());
+                    }
+                }
+            }
+        }
+
+        private static void copyDownloadReport(ArtifactDownloadReport from,
+                ArtifactDownloadReport to) {
+            to.setDownloadStatus(from.getDownloadStatus());
+            to.setDownloadDetails(from.getDownloadDetails());
+            to.setSize(from.getSize());
+            to.setDownloadTimeMillis(from.getDownloadTimeMillis());
+            to.setLocalFile(getAbsoluteFile(from.getLocalFile()));
+            ArtifactOrigin origin = from.getArtifactOrigin();
+            if (origin != null) {
+                to.setArtifactOrigin(new ArtifactOrigin(to.getArtifact(), origin.isLocal(),
+                        origin.getLocation()));
+            }
+        }
+
+        private static File getAbsoluteFile(File file) {
+            return file == null ? null : file.getAbsoluteFile();
+        }
+
+        /**
+         * Writes the result of the parse of the xml report in a binary form.
+         */
+        void writeBinary(File binary) throws IOException {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(binary)));
+            try {
+                out.writeInt(BINARY_MAGIC);
+                out.writeInt(BINARY_VERSION);
+                out.writeLong(report.length());
+                out.writeLong(report.lastModified());
+                out.writeBoolean(hasError);
+                out.writeBoolean(mRevisionId != null);
+                if (mRevisionId != null) {
+                    writeModuleRevisionId(out, mRevisionId);
+                }
+
+                Map indexes = new HashMap();
+                out.writeInt(mrids.size());
+                for (int i = 0; i < mrids.size(); i++) {
+                    ModuleRevisionId mrid = (ModuleRevisionId) mrids.get(i);
+                    indexes.put(mrid, new Integer(i));
+                    writeModuleRevisionId(out, mrid);
+                    MetadataArtifactDownloadReport madr = getMetadataArtifactReport(mrid);
+                    out.writeBoolean(madr == null);
+                    if (madr != null) {
+                        out.writeLong(madr.getArtifact().getPublicationDate().getTime());
+                        writeDownloadReport(out, madr);
+                        out.writeBoolean(madr.isSearched());
+                        writeFile(out, madr.getOriginalLocalFile());
+                    }
+                }
+
+                out.writeInt(artifactReports.size());
+                for (Iterator it = artifactReports.iterator(); it.hasNext();) {
+                    ArtifactDownloadReport aReport = (ArtifactDownloadReport) it.next();
+                    Artifact artifact = aReport.getArtifact();
+                    out.writeInt(((Integer) indexes.get(artifact.getModuleRevisionId()))
+                            .intValue());
+                    out.writeLong(artifact.getPublicationDate().getTime());
+                    writeString(out, artifact.getName());
+                    writeString(out, artifact.getType());
+                    writeString(out, artifact.getExt());
+                    writeMap(out, artifact.getQualifiedExtraAttributes());
+                    writeDownloadReport(out, aReport);
+                    writeFile(out, aReport.getUncompressedLocalDir());
+                }
+            } finally {
+                out.close();
+            }
+        }
+
+        private static void writeDownloadReport(DataOutputStream out,
+                ArtifactDownloadReport aReport) throws IOException {
+            writeString(out, aReport.getDownloadStatus().toString());
+            writeString(out, aReport.getDownloadDetails());
+            out.writeLong(aReport.getSize());
+            out.writeLong(aReport.getDownloadTimeMillis());
+            writeFile(out, aReport.getLocalFile());
+            ArtifactOrigin origin = aReport.getArtifactOrigin();
+            out.writeBoolean(origin != null);
+            if (origin != null) {
+                out.writeBoolean(origin.isLocal());
+                writeString(out, origin.getLocation());
+            }
+        }
+
+        private static void readDownloadReport(DataInputStream in,
+                ArtifactDownloadReport aReport) throws IOException {
+            aReport.setDownloadStatus(DownloadStatus.fromString(readString(in)));
+            aReport.setDownloadDetails(readString(in));
+            aReport.setSize(in.readLong());
+            aReport.setDownloadTimeMillis(in.readLong());
+            aReport.setLocalFile(readFile(in));
+            if (in.readBoolean()) {
+                boolean isLocal = in.readBoolean();
+                aReport.setArtifactOrigin(new ArtifactOrigin(aReport.getArtifact(), isLocal,
+                        readString(in)));
+            }
+        }
+
+        private static void writeModuleRevisionId(DataOutputStream out, ModuleRevisionId mrid)
+                throws IOException {
+            writeString(out, mrid.getOrganisation());
+            writeString(out, mrid.getName());
+            writeString(out, mrid.getBranch());
+            writeString(out, mrid.getRevision());
+            writeMap(out, mrid.getQualifiedExtraAttributes());
+        }
+
+        private static ModuleRevisionId readModuleRevisionId(DataInputStream in)
+                throws IOException {
+            String organisation = readString(in);
+            String name = readString(in);
+            String branch = readString(in);
+            String revision = readString(in);
+            return ModuleRevisionId.newInstance(organisation, name, branch, revision,
+                readMap(in));
+        }
+
+        private static void writeMap(DataOutputStream out, Map map) throws IOException {
+            out.writeInt(map.size());
+            for (Iterator it = map.entrySet().iterator(); it.hasNext();) {
+                Entry entry = (Entry) it.next();
+                writeString(out, (String) entry.getKey());
+                writeString(out, (String) entry.getValue());
+            }
+        }
+
+        private static Map readMap(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            Map map = new HashMap();
+            for (int i = 0; i < size; i++) {
+                String key = readString(in);
+                map.put(key, readString(in));
+            }
+            return map;
+        }
+
+        private static void writeFile(DataOutputStream out, File file) throws IOException {
+            writeString(out, file == null ? null : file.getPath());
+        }
+
+        private static File readFile(DataInputStream in) throws IOException {
+            String path = readString(in);
+            return path == null ? null : new File(path);
+        }
+
+        private static void writeString(DataOutputStream out, String str) throws IOException {
+            if (str == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = str.getBytes("UTF-8");
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, "UTF-8");
         }
         
         private static boolean parseBoolean(String str) {
@@ -303,6 +632,24 @@ public class XmlReportParser {
                     + "' does not exist.");
         }
 
+        File binary = BinaryReportOutputter.getBinaryReportFile(report);
+        if (binary.exists()) {
+            parser = new SaxXmlReportParser(report);
+            try {
+                if (parser.readBinary(binary)) {
+                    return;
+                }
+                Message.debug("binary report " + binary + " is out of date");
+            } catch (IOException e) {
+                Message.debug("failed to read binary report " + binary + ": " + e);
+            } catch (RuntimeException e) {
+                Message.debug("failed to read binary report " + binary + ": " + e);
+            }
+        }
+        parseXml(report);
+    }
+
+    void parseXml(File report) throws ParseException {
         parser = new SaxXmlReportParser(report);
         try {
             parser.parse();
@@ -348,4 +695,16 @@ public class XmlReportParser {
     public boolean hasError() {
         return parser.hasError;
     }
+
+    /**
+     * Writes the binary form of the given xml report, which is read instead of this report as
+     * long as it is not modified. The binary form is built from the configuration report the xml
+     * report has been written from, and holds what parsing the xml report would give.
+     */
+    static void writeBinary(ConfigurationResolveReport confReport, File report, File binary)
+            throws IOException {
+        SaxXmlReportParser parser = new SaxXmlReportParser(report);
+        parser.read(confReport);
+        parser.writeBinary(binary);
+    }
 }
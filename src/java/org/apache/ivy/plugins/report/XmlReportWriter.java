@@ -21,16 +21,19 @@ import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.ivy.core.cache.ArtifactOrigin;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.License;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
@@ -47,11 +50,26 @@ import org.apache.ivy.util.XMLHelper;
 
 /**
  * XmlReportWriter allows to write ResolveReport in an xml format. 
+ * <p>
+ * The parts of the report which don't depend on the configuration (the attributes of each
+ * revision, its metadata artifact and licenses, the artifacts) are computed once per writer and
+ * reused for each configuration report it writes. A writer can write several reports
+ * concurrently, as long as the resolve they come from is over.
+ * </p>
  */
 public class XmlReportWriter {
     
     static final String REPORT_ENCODING = "UTF-8";
 
+    // Map (IvyNode -> NodeFragments), the parts of the revision elements shared by confs
+    private final Map nodeFragments = new IdentityHashMap();
+
+    // Map (ArtifactDownloadReport -> String), the artifact elements shared by confs
+    private final Map artifactFragments = new IdentityHashMap();
+
+    // Map (DependencyDescriptor -> String), the dependency attributes of caller elements
+    private final Map callerFragments = new IdentityHashMap();
+
     public void output(ConfigurationResolveReport report, OutputStream stream) {
         output(report, new String[] {report.getConfiguration()}, stream);
     }
@@ -110,65 +128,104 @@ public class XmlReportWriter {
 
     private void ouputRevision(ConfigurationResolveReport report, PrintWriter out,
             List dependencies, IvyNode dep) {
-        Map extraAttributes;
-        ModuleDescriptor md = null;
-        if (dep.getModuleRevision() != null) {
-            md = dep.getModuleRevision().getDescriptor();
-        }
-        StringBuffer details = new StringBuffer();
-        if (dep.isLoaded()) {
-            details.append(" status=\"");
-            details.append(XMLHelper.escape(dep.getDescriptor().getStatus()));
-            details.append("\" pubdate=\"");
-            details.append(DateUtil.format(new Date(dep.getPublication())));
-            details.append("\" resolver=\"");
-            details.append(XMLHelper.escape(
-                dep.getModuleRevision().getResolver().getName()));
-            details.append("\" artresolver=\"");
-            details.append(XMLHelper.escape(
-                dep.getModuleRevision().getArtifactResolver().getName()));
-            details.append("\"");
-        }
+        NodeFragments fragments = getNodeFragments(dep);
+        StringBuffer eviction = new StringBuffer();
         if (dep.isEvicted(report.getConfiguration())) {
             EvictionData ed = dep.getEvictedData(report.getConfiguration());
             if (ed.getConflictManager() != null) {
-                details.append(" evicted=\"").append(
+                eviction.append(" evicted=\"").append(
                     XMLHelper.escape(ed.getConflictManager().toString())).append("\"");
             } else {
-                details.append(" evicted=\"transitive\"");
+                eviction.append(" evicted=\"transitive\"");
             }
-            details.append(" evicted-reason=\"")
+            eviction.append(" evicted-reason=\"")
                 .append(XMLHelper.escape(ed.getDetail() == null ? "" : ed.getDetail()))
                 .append("\"");
         }
+        int position = dependencies.indexOf(dep.getResolvedId());
+        out.println(fragments.start + eviction + fragments.end + " conf=\""
+                + toString(dep.getConfigurations(report.getConfiguration())) + "\""
+                + " position=\"" + position + "\">");
+        out.print(fragments.body);
+        outputEvictionInformation(report, out, dep);
+        outputCallers(report, out, dep);
+        outputArtifacts(report, out, dep);
+        out.println("\t\t\t</revision>");
+    }
+
+    /**
+     * The parts of the revision element of a node which are the same in all confs.
+     */
+    private static final class NodeFragments {
+        // the start of the revision tag, up to the eviction attributes
+        private String start;
+
+        // the end of the revision tag, from the eviction attributes to the conf attribute
+        private String end;
+
+        // the licenses and metadata artifact elements
+        private String body;
+    }
+
+    private NodeFragments getNodeFragments(IvyNode dep) {
+        synchronized (nodeFragments) {
+            NodeFragments fragments = (NodeFragments) nodeFragments.get(dep);
+            if (fragments != null) {
+                return fragments;
+            }
+        }
+        NodeFragments fragments = new NodeFragments();
+        ModuleDescriptor md = null;
+        if (dep.getModuleRevision() != null) {
+            md = dep.getModuleRevision().getDescriptor();
+        }
+        StringBuffer start = new StringBuffer();
+        start.append("\t\t\t<revision name=\"")
+                .append(XMLHelper.escape(dep.getResolvedId().getRevision())).append("\"");
+        if (dep.getResolvedId().getBranch() != null) {
+            start.append(" branch=\"").append(XMLHelper.escape(dep.getResolvedId().getBranch()))
+                    .append("\"");
+        }
+        if (dep.isLoaded()) {
+            start.append(" status=\"");
+            start.append(XMLHelper.escape(dep.getDescriptor().getStatus()));
+            start.append("\" pubdate=\"");
+            start.append(DateUtil.format(new Date(dep.getPublication())));
+            start.append("\" resolver=\"");
+            start.append(XMLHelper.escape(
+                dep.getModuleRevision().getResolver().getName()));
+            start.append("\" artresolver=\"");
+            start.append(XMLHelper.escape(
+                dep.getModuleRevision().getArtifactResolver().getName()));
+            start.append("\"");
+        }
+        fragments.start = start.toString();
+
+        StringBuffer end = new StringBuffer();
         if (dep.hasProblem()) {
-            details.append(" error=\"").append(
+            end.append(" error=\"").append(
                 XMLHelper.escape(dep.getProblem().getMessage())).append("\"");
         }
         if (md != null && md.getHomePage() != null) {
-            details.append(" homepage=\"").append(
+            end.append(" homepage=\"").append(
                 XMLHelper.escape(md.getHomePage())).append("\"");
         }
-        extraAttributes = md != null ? md.getExtraAttributes() : dep.getResolvedId()
+        Map extraAttributes = md != null ? md.getExtraAttributes() : dep.getResolvedId()
                 .getExtraAttributes();
         for (Iterator iterator = extraAttributes.keySet().iterator(); iterator.hasNext();) {
             String attName = (String) iterator.next();
-            details.append(" extra-").append(attName).append("=\"").append(
+            end.append(" extra-").append(attName).append("=\"").append(
                 XMLHelper.escape(extraAttributes.get(attName).toString())).append("\"");
         }
-        String defaultValue = dep.getDescriptor() != null ? " default=\""
-                + dep.getDescriptor().isDefault() + "\"" : "";
-        int position = dependencies.indexOf(dep.getResolvedId());
-        out.println("\t\t\t<revision name=\""
-                + XMLHelper.escape(dep.getResolvedId().getRevision())
-                + "\""
-                + (dep.getResolvedId().getBranch() == null ? "" : " branch=\""
-                        + XMLHelper.escape(
-                            dep.getResolvedId().getBranch()) + "\"") + details
-                + " downloaded=\"" + dep.isDownloaded() + "\"" + " searched=\""
-                + dep.isSearched() + "\"" + defaultValue + " conf=\""
-                + toString(dep.getConfigurations(report.getConfiguration())) + "\""
-                + " position=\"" + position + "\">");
+        end.append(" downloaded=\"").append(dep.isDownloaded()).append("\"")
+                .append(" searched=\"").append(dep.isSearched()).append("\"");
+        if (dep.getDescriptor() != null) {
+            end.append(" default=\"").append(dep.getDescriptor().isDefault()).append("\"");
+        }
+        fragments.end = end.toString();
+
+        StringWriter body = new StringWriter();
+        PrintWriter bodyOut = new PrintWriter(body);
         if (md != null) {
             License[] licenses = md.getLicenses();
             for (int i = 0; i < licenses.length; i++) {
@@ -178,16 +235,19 @@ public class XmlReportWriter {
                 } else {
                     lurl = "";
                 }
-                out.println("\t\t\t\t<license name=\"" 
+                bodyOut.println("\t\t\t\t<license name=\"" 
                     + XMLHelper.escape(licenses[i].getName()) + "\""
                         + lurl + "/>");
             }
         }
-        outputMetadataArtifact(out, dep);
-        outputEvictionInformation(report, out, dep);
-        outputCallers(report, out, dep);
-        outputArtifacts(report, out, dep);
-        out.println("\t\t\t</revision>");
+        outputMetadataArtifact(bodyOut, dep);
+        bodyOut.flush();
+        fragments.body = body.toString();
+
+        synchronized (nodeFragments) {
+            nodeFragments.put(dep, fragments);
+        }
+        return fragments;
     }
 
     private void outputEvictionInformation(ConfigurationResolveReport report, PrintWriter out,
@@ -238,17 +298,6 @@ public class XmlReportWriter {
     private void outputCallers(ConfigurationResolveReport report, PrintWriter out, IvyNode dep) {
         Caller[] callers = dep.getCallers(report.getConfiguration());
         for (int i = 0; i < callers.length; i++) {
-            StringBuffer callerDetails = new StringBuffer();
-            Map callerExtraAttributes = callers[i].getDependencyDescriptor()
-                    .getExtraAttributes();
-            for (Iterator iterator = callerExtraAttributes.keySet().iterator(); iterator
-                    .hasNext();) {
-                String attName = (String) iterator.next();
-                callerDetails.append(" extra-").append(attName).append("=\"").append(
-                    XMLHelper.escape(
-                        callerExtraAttributes.get(attName).toString())).append("\"");
-            }
-
             out.println("\t\t\t\t<caller organisation=\""
                     + XMLHelper.escape(
                         callers[i].getModuleRevisionId().getOrganisation()) + "\""
@@ -261,65 +310,105 @@ public class XmlReportWriter {
                     + " rev=\"" 
                     + XMLHelper.escape(
                         callers[i].getAskedDependencyId(dep.getData()).getRevision()) + "\""
-                    + " rev-constraint-default=\"" 
-                    + XMLHelper.escape(
-                        callers[i].getDependencyDescriptor()
-                            .getDependencyRevisionId().getRevision()) + "\""
-                    + " rev-constraint-dynamic=\"" 
-                    + XMLHelper.escape(
-                        callers[i].getDependencyDescriptor()
-                            .getDynamicConstraintDependencyRevisionId().getRevision()) + "\""
+                    + getCallerFragment(callers[i].getDependencyDescriptor())
                     + " callerrev=\"" 
                     + XMLHelper.escape(
                         callers[i].getModuleRevisionId().getRevision()) + "\""
-                    + callerDetails + "/>");
+                    + getCallerExtraAttributes(callers[i].getDependencyDescriptor()) + "/>");
+        }
+    }
+
+    private String getCallerFragment(DependencyDescriptor dd) {
+        synchronized (callerFragments) {
+            String fragment = (String) callerFragments.get(dd);
+            if (fragment == null) {
+                fragment = " rev-constraint-default=\""
+                        + XMLHelper.escape(dd.getDependencyRevisionId().getRevision()) + "\""
+                        + " rev-constraint-dynamic=\""
+                        + XMLHelper.escape(dd.getDynamicConstraintDependencyRevisionId()
+                                .getRevision()) + "\"";
+                callerFragments.put(dd, fragment);
+            }
+            return fragment;
+        }
+    }
+
+    private String getCallerExtraAttributes(DependencyDescriptor dd) {
+        Map callerExtraAttributes = dd.getExtraAttributes();
+        if (callerExtraAttributes.isEmpty()) {
+            return "";
+        }
+        StringBuffer callerDetails = new StringBuffer();
+        for (Iterator iterator = callerExtraAttributes.keySet().iterator(); iterator
+                .hasNext();) {
+            String attName = (String) iterator.next();
+            callerDetails.append(" extra-").append(attName).append("=\"").append(
+                XMLHelper.escape(
+                    callerExtraAttributes.get(attName).toString())).append("\"");
         }
+        return callerDetails.toString();
     }
 
     private void outputArtifacts(ConfigurationResolveReport report, PrintWriter out, IvyNode dep) {
-        Map extraAttributes;
         ArtifactDownloadReport[] adr = report.getDownloadReports(dep.getResolvedId());
         out.println("\t\t\t\t<artifacts>");
         for (int i = 0; i < adr.length; i++) {
-            out.print("\t\t\t\t\t<artifact name=\"" 
-                + XMLHelper.escape(adr[i].getName()) 
-                + "\" type=\"" + XMLHelper.escape(adr[i].getType()) 
-                + "\" ext=\"" + XMLHelper.escape(adr[i].getExt()) + "\"");
-            extraAttributes = adr[i].getArtifact().getExtraAttributes();
-            for (Iterator iterator = extraAttributes.keySet().iterator(); iterator
-                    .hasNext();) {
-                String attName = (String) iterator.next();
-                out.print(" extra-" + attName + "=\"" 
-                    + XMLHelper.escape(extraAttributes.get(attName).toString())
-                                + "\"");
-            }
-            out.print(" status=\"" 
-                + XMLHelper.escape(adr[i].getDownloadStatus().toString()) + "\"");
-            out.print(" details=\"" + XMLHelper.escape(adr[i].getDownloadDetails()) + "\"");
-            out.print(" size=\"" + adr[i].getSize() + "\"");
-            out.print(" time=\"" + adr[i].getDownloadTimeMillis() + "\"");
-            if (adr[i].getLocalFile() != null) {
-                out.print(" location=\"" 
-                    + XMLHelper.escape(adr[i].getLocalFile().getAbsolutePath()) + "\"");
-            }
-            if (adr[i].getUncompressedLocalDir() != null) {
-                out.print(" uncompressedDir=\""
-                        + XMLHelper.escape(adr[i].getUncompressedLocalDir().getAbsolutePath())
-                        + "\"");
-            }
+            out.print(getArtifactFragment(adr[i]));
+        }
+        out.println("\t\t\t\t</artifacts>");
+    }
 
-            ArtifactOrigin origin = adr[i].getArtifactOrigin();
-            if (origin != null) {
-                out.println(">");
-                out.println("\t\t\t\t\t\t<origin-location is-local=\""
-                        + String.valueOf(origin.isLocal()) + "\"" + " location=\""
-                        + XMLHelper.escape(origin.getLocation()) + "\"/>");
-                out.println("\t\t\t\t\t</artifact>");
-            } else {
-                out.println("/>");
+    private String getArtifactFragment(ArtifactDownloadReport adr) {
+        synchronized (artifactFragments) {
+            String fragment = (String) artifactFragments.get(adr);
+            if (fragment != null) {
+                return fragment;
             }
         }
-        out.println("\t\t\t\t</artifacts>");
+        StringWriter fragment = new StringWriter();
+        PrintWriter out = new PrintWriter(fragment);
+        out.print("\t\t\t\t\t<artifact name=\"" 
+            + XMLHelper.escape(adr.getName()) 
+            + "\" type=\"" + XMLHelper.escape(adr.getType()) 
+            + "\" ext=\"" + XMLHelper.escape(adr.getExt()) + "\"");
+        Map extraAttributes = adr.getArtifact().getExtraAttributes();
+        for (Iterator iterator = extraAttributes.keySet().iterator(); iterator
+                .hasNext();) {
+            String attName = (String) iterator.next();
+            out.print(" extra-" + attName + "=\"" 
+                + XMLHelper.escape(extraAttributes.get(attName).toString())
+                            + "\"");
+        }
+        out.print(" status=\"" 
+            + XMLHelper.escape(adr.getDownloadStatus().toString()) + "\"");
+        out.print(" details=\"" + XMLHelper.escape(adr.getDownloadDetails()) + "\"");
+        out.print(" size=\"" + adr.getSize() + "\"");
+        out.print(" time=\"" + adr.getDownloadTimeMillis() + "\"");
+        if (adr.getLocalFile() != null) {
+            out.print(" location=\"" 
+                + XMLHelper.escape(adr.getLocalFile().getAbsolutePath()) + "\"");
+        }
+        if (adr.getUncompressedLocalDir() != null) {
+            out.print(" uncompressedDir=\""
+                    + XMLHelper.escape(adr.getUncompressedLocalDir().getAbsolutePath())
+                    + "\"");
+        }
+
+        ArtifactOrigin origin = adr.getArtifactOrigin();
+        if (origin != null) {
+            out.println(">");
+            out.println("\t\t\t\t\t\t<origin-location is-local=\""
+                    + String.valueOf(origin.isLocal()) + "\"" + " location=\""
+                    + XMLHelper.escape(origin.getLocation()) + "\"/>");
+            out.println("\t\t\t\t\t</artifact>");
+        } else {
+            out.println("/>");
+        }
+        out.flush();
+        synchronized (artifactFragments) {
+            artifactFragments.put(adr, fragment.toString());
+        }
+        return fragment.toString();
     }
 
     private String toString(String[] strs) {
@@ -0,0 +1,123 @@
+<?xml version="1.0" encoding="ISO-8859-1"?>
+<!--
+   Licensed to the Apache Software Foundation (ASF) under one
+   or more contributor license agreements.  See the NOTICE file
+   distributed with this work for additional information
+   regarding copyright ownership.  The ASF licenses this file
+   to you under the Apache License, Version 2.0 (the
+   "License"); you may not use this file except in compliance
+   with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing,
+   software distributed under the License is distributed on an
+   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+   KIND, either express or implied.  See the License for the
+   specific language governing permissions and limitations
+   under the License.
+-->
+<xsl:stylesheet version="1.0"
+  xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+
+<xsl:template name="date">
+    <xsl:param name="date"/>
+
+    <xsl:value-of select="substring($date,1,4)"/>-<xsl:value-of select="substring($date,5,2)"/>-<xsl:value-of select="substring($date,7,2)"/>
+    <xsl:value-of select="' '"/>
+    <xsl:value-of select="substring($date,9,2)"/>:<xsl:value-of select="substring($date,11,2)"/>:<xsl:value-of select="substring($date,13)"/>
+</xsl:template>
+
+<xsl:template name="build">
+    <xsl:param name="build"/>
+    <xsl:param name="title"/>
+
+    <tr><td class="title"><xsl:value-of select="$title"/></td><td class="value">
+      Ivy <xsl:value-of select="$build/@ivy-version"/>
+      on java <xsl:value-of select="$build/@java-version"/>,
+      <xsl:value-of select="$build/@runs"/> runs on
+      <xsl:call-template name="date">
+        <xsl:with-param name="date" select="$build/@date"/>
+      </xsl:call-template>
+      (<xsl:value-of select="$build/@file"/>)</td></tr>
+</xsl:template>
+
+<xsl:template match="/ivy-benchmark-comparison">
+
+  <html>
+  <head>
+    <title>Ivy benchmark :: <xsl:value-of select="current/@workload"/></title>
+    <meta http-equiv="content-type" content="text/html; charset=ISO-8859-1" />
+    <meta http-equiv="content-language" content="en" />
+    <meta name="robots" content="index,follow" />
+    <link rel="stylesheet" type="text/css" href="ivy-report.css" />
+    <style type="text/css">
+      tr.regression td { color: #CC0000; font-weight: bold; }
+      tr.improvement td { color: #7A9437; font-weight: bold; }
+    </style>
+  </head>
+  <body>
+    <div id="logo"><a href="http://ant.apache.org/ivy/"><img src="http://ant.apache.org/ivy/images/logo.png"/></a></div>
+    <h1>
+        <span id="module">
+    	        <xsl:value-of select="current/@workload"/>
+        </span>
+        benchmark
+    </h1>
+    <div id="date">
+    compared on
+      <xsl:call-template name="date">
+        <xsl:with-param name="date" select="@date"/>
+      </xsl:call-template>
+    </div>
+
+    <div id="content">
+    <h2>Benchmark Comparison</h2>
+        <table class="header">
+          <xsl:call-template name="build">
+            <xsl:with-param name="build" select="baseline"/>
+            <xsl:with-param name="title" select="'Baseline'"/>
+          </xsl:call-template>
+          <xsl:call-template name="build">
+            <xsl:with-param name="build" select="current"/>
+            <xsl:with-param name="title" select="'Current'"/>
+          </xsl:call-template>
+          <tr><td class="title">Threshold</td><td class="value"><xsl:value-of select="@threshold"/>%</td></tr>
+          <tr><td class="title">Result</td><td class="value">
+            <xsl:choose>
+              <xsl:when test="@regressions > 0"><xsl:value-of select="@regressions"/> regressions</xsl:when>
+              <xsl:otherwise>no regression</xsl:otherwise>
+            </xsl:choose></td></tr>
+        </table>
+
+    <h2>Metrics</h2>
+    <table class="metrics">
+      <thead>
+      <tr>
+        <th>Metric</th>
+        <th>Baseline</th>
+        <th>Current</th>
+        <th>Change</th>
+        <th>95% confidence interval</th>
+        <th>Status</th>
+      </tr>
+      </thead>
+      <tbody>
+      <xsl:for-each select="metric">
+        <tr class="{@status}">
+          <td><xsl:value-of select="@name"/></td>
+          <td><xsl:value-of select="concat(@baseline-mean, ' &#177; ', @baseline-ci, ' ', @unit)"/></td>
+          <td><xsl:value-of select="concat(@current-mean, ' &#177; ', @current-ci, ' ', @unit)"/></td>
+          <td><xsl:if test="@change > 0">+</xsl:if><xsl:value-of select="@change"/>%</td>
+          <td>[<xsl:value-of select="@change-low"/>%, <xsl:value-of select="@change-high"/>%]</td>
+          <td><xsl:value-of select="@status"/></td>
+        </tr>
+      </xsl:for-each>
+      </tbody>
+    </table>
+    </div>
+  </body>
+  </html>
+</xsl:template>
+
+</xsl:stylesheet>
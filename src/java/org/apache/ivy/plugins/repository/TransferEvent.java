@@ -151,6 +151,25 @@ public class TransferEvent extends IvyEvent {
         this.totalLength = length;
     }
 
+    /**
+     * Creates a copy of the given event as it is at the time of the call, repositories updating the
+     * same event during a whole transfer.
+     */
+    public TransferEvent(TransferEvent event) {
+        super(event.getName());
+        repository = event.repository;
+        resource = event.resource;
+        eventType = event.eventType;
+        requestType = event.requestType;
+        exception = event.exception;
+        localFile = event.localFile;
+        length = event.length;
+        totalLength = event.totalLength;
+        isTotalLengthSet = event.isTotalLengthSet;
+        System.arraycopy(event.timeTracking, 0, timeTracking, 0, timeTracking.length);
+        addAttributes(event.getAttributes());
+    }
+
     private static String getName(int eventType) {
         switch (eventType) {
             case TRANSFER_INITIATED:
@@ -41,7 +41,7 @@ public class URLRepository extends AbstractRepository {
 
     private Map resourcesCache = new HashMap();
 
-    public Resource getResource(String source) throws IOException {
+    public synchronized Resource getResource(String source) throws IOException {
         Resource res = (Resource) resourcesCache.get(source);
         if (res == null) {
             res = new URLResource(new URL(source));
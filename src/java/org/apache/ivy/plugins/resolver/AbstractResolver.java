@@ -20,9 +20,11 @@ package org.apache.ivy.plugins.resolver;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
 
+import org.apache.ivy.Ivy;
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.LogOptions;
 import org.apache.ivy.core.RelativeUrlResolver;
@@ -162,6 +164,12 @@ public abstract class AbstractResolver
         IvyContext.getContext().getIvy().checkInterrupted();
     }
 
+    /**
+     * Default implementation does not prefetch anything
+     */
+    public void prefetch(Collection dds, ResolveData data) {
+    }
+
     public void reportFailure() {
         Message.verbose("no failure report implemented by " + getName());
     }
@@ -357,8 +365,10 @@ public abstract class AbstractResolver
         }
         if (data.getReport() != null 
                 && data.isBlacklisted(data.getReport().getConfiguration(), rmr.getId())) {
-            Message.verbose("\t" + getName() + ": found revision in cache: " 
-                        + rmr.getId() + " for " + dd + ", but it is blacklisted");
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("\t" + getName() + ": found revision in cache: " 
+                            + rmr.getId() + " for " + dd + ", but it is blacklisted");
+            }
             return null;
         }
         return rmr;
@@ -422,7 +432,18 @@ public abstract class AbstractResolver
         this.eventManager = eventManager;
     }
     
+    /**
+     * Returns the event manager of the Ivy instance of the current context if it uses the settings
+     * of this resolver or a snapshot of them, the event manager set on this resolver otherwise.
+     * Ivy instances sharing settings, like the requests of the daemon, thus each receive the
+     * events of their own resolves.
+     */
     public EventManager getEventManager() {
+        Ivy ivy = IvyContext.getContext().peekIvy();
+        if (ivy != null && ivy.getEventManager() != null && ivy.getSettings() != null
+                && ivy.getSettings().isSnapshotOf(getSettings())) {
+            return ivy.getEventManager();
+        }
         return eventManager;
     }
     
@@ -471,8 +492,9 @@ public abstract class AbstractResolver
     private DownloadListener getDownloadListener(final DownloadOptions options) {
         return new DownloadListener() {
             public void needArtifact(RepositoryCacheManager cache, Artifact artifact) {
-                if (eventManager != null) {
-                    eventManager.fireIvyEvent(
+                EventManager manager = getEventManager();
+                if (manager != null) {
+                    manager.fireIvyEvent(
                         new NeedArtifactEvent(AbstractResolver.this, artifact));
                 }
             }
@@ -480,12 +502,15 @@ public abstract class AbstractResolver
                     RepositoryCacheManager cache, ResolvedResource rres, 
                     Artifact artifact, ArtifactOrigin origin) {
                 if (artifact.isMetadata() || LogOptions.LOG_QUIET.equals(options.getLog())) {
-                    Message.verbose("downloading " + rres.getResource() + " ...");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("downloading " + rres.getResource() + " ...");
+                    }
                 } else {
                     Message.info("downloading " + rres.getResource() + " ...");
                 }
-                if (eventManager != null) {
-                    eventManager.fireIvyEvent(
+                EventManager manager = getEventManager();
+                if (manager != null) {
+                    manager.fireIvyEvent(
                         new StartArtifactDownloadEvent(
                             AbstractResolver.this, artifact, origin));
                 }            
@@ -493,8 +518,9 @@ public abstract class AbstractResolver
             public void endArtifactDownload(
                     RepositoryCacheManager cache, Artifact artifact, 
                     ArtifactDownloadReport adr, File archiveFile) {
-                if (eventManager != null) {
-                    eventManager.fireIvyEvent(
+                EventManager manager = getEventManager();
+                if (manager != null) {
+                    manager.fireIvyEvent(
                         new EndArtifactDownloadEvent(
                             AbstractResolver.this, artifact, adr, archiveFile));
                 }
@@ -528,22 +554,33 @@ public abstract class AbstractResolver
         // check if latest is asked and compare to return the most recent
         ResolvedModuleRevision previousModuleFound = data.getCurrentResolvedModuleRevision();
         String newModuleDesc = describe(newModuleFound);
-        Message.debug("\tchecking " + newModuleDesc + " against " + describe(previousModuleFound));
+        if (Message.isDebugEnabled()) {
+            Message.debug("\tchecking " + newModuleDesc + " against "
+                    + describe(previousModuleFound));
+        }
         if (previousModuleFound == null) {
-            Message.debug("\tmodule revision kept as first found: " + newModuleDesc);
+            if (Message.isDebugEnabled()) {
+                Message.debug("\tmodule revision kept as first found: " + newModuleDesc);
+            }
             saveModuleRevisionIfNeeded(dd, newModuleFound);
             return newModuleFound;
         } else if (isAfter(newModuleFound, previousModuleFound, data.getDate())) {
-            Message.debug("\tmodule revision kept as younger: " + newModuleDesc);
+            if (Message.isDebugEnabled()) {
+                Message.debug("\tmodule revision kept as younger: " + newModuleDesc);
+            }
             saveModuleRevisionIfNeeded(dd, newModuleFound);
             return newModuleFound;
         } else if (!newModuleFound.getDescriptor().isDefault() 
                 && previousModuleFound.getDescriptor().isDefault()) {
-            Message.debug("\tmodule revision kept as better (not default): " + newModuleDesc);
+            if (Message.isDebugEnabled()) {
+                Message.debug("\tmodule revision kept as better (not default): " + newModuleDesc);
+            }
             saveModuleRevisionIfNeeded(dd, newModuleFound);
             return newModuleFound;
         } else {
-            Message.debug("\tmodule revision discarded as older: " + newModuleDesc);
+            if (Message.isDebugEnabled()) {
+                Message.debug("\tmodule revision discarded as older: " + newModuleDesc);
+            }
             return previousModuleFound;
         }
     }
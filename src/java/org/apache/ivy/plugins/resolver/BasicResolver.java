@@ -56,6 +56,8 @@ import org.apache.ivy.core.report.MetadataArtifactDownloadReport;
 import org.apache.ivy.core.resolve.DownloadOptions;
 import org.apache.ivy.core.resolve.IvyNode;
 import org.apache.ivy.core.resolve.ResolveData;
+import org.apache.ivy.core.resolve.ResolveMetrics;
+import org.apache.ivy.core.resolve.ResolveTrace;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.search.ModuleEntry;
 import org.apache.ivy.core.search.OrganisationEntry;
@@ -176,6 +178,18 @@ public abstract class BasicResolver extends AbstractResolver {
 
     public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
             throws ParseException {
+        ResolveTrace trace = data.getTrace();
+        ResolveTrace.Span span = trace == null ? null : trace.beginSpan(ResolveTrace.DEPENDENCY,
+            dd.getDependencyRevisionId(), getName());
+        try {
+            return resolveDependency(dd, data);
+        } finally {
+            ResolveTrace.end(span);
+        }
+    }
+
+    private ResolvedModuleRevision resolveDependency(DependencyDescriptor dd, ResolveData data)
+            throws ParseException {
         IvyContext context = IvyContext.pushNewCopyContext();
         try {
             ResolvedModuleRevision mr = data.getCurrentResolvedModuleRevision();
@@ -205,18 +219,29 @@ public abstract class BasicResolver extends AbstractResolver {
 
             // we first search for the dependency in cache
             ResolvedModuleRevision rmr = null;
+            long start = System.currentTimeMillis();
             rmr = findModuleInCache(systemDd, data);
+            data.getMetrics().addTiming(ResolveMetrics.CACHE_LOOKUP, getName(),
+                System.currentTimeMillis() - start);
+            data.getMetrics().addCount(rmr == null ? ResolveMetrics.CACHE_MISSES
+                    : ResolveMetrics.CACHE_HITS, getName(), 1);
             if (rmr != null) {
                 if (rmr.getDescriptor().isDefault() && rmr.getResolver() != this) {
-                    Message.verbose("\t" + getName() + ": found revision in cache: " + systemMrid
-                            + " (resolved by " + rmr.getResolver().getName()
-                            + "): but it's a default one, maybe we can find a better one");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": found revision in cache: "
+                                + systemMrid + " (resolved by " + rmr.getResolver().getName()
+                                + "): but it's a default one, maybe we can find a better one");
+                    }
                 } else if (isForce() && rmr.getResolver() != this) {
-                    Message.verbose("\t" + getName() + ": found revision in cache: " + systemMrid
-                            + " (resolved by " + rmr.getResolver().getName()
-                            + "): but we are in force mode, let's try to find one ourself");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": found revision in cache: "
+                                + systemMrid + " (resolved by " + rmr.getResolver().getName()
+                                + "): but we are in force mode, let's try to find one ourself");
+                    }
                 } else {
-                    Message.verbose("\t" + getName() + ": revision in cache: " + systemMrid);
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": revision in cache: " + systemMrid);
+                    }
                     return checkLatest(systemDd, checkForcedResolvedModuleRevision(rmr), data);
                 }
             }
@@ -227,7 +252,10 @@ public abstract class BasicResolver extends AbstractResolver {
 
             checkInterrupted();
 
+            start = System.currentTimeMillis();
             ResolvedResource ivyRef = findIvyFileRef(nsDd, data);
+            data.getMetrics().addTiming(ResolveMetrics.METADATA_LOOKUP, getName(),
+                System.currentTimeMillis() - start);
             checkInterrupted();
 
             // get module descriptor
@@ -250,8 +278,10 @@ public abstract class BasicResolver extends AbstractResolver {
                     if (lastModified != 0 && nsMd instanceof DefaultModuleDescriptor) {
                         ((DefaultModuleDescriptor) nsMd).setLastModified(lastModified);
                     }
-                    Message.verbose("\t" + getName() + ": no ivy file found for " + systemMrid
-                            + ": using default data");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": no ivy file found for " + systemMrid
+                                + ": using default data");
+                    }
                     if (isDynamic) {
                         nsMd.setResolvedModuleRevisionId(ModuleRevisionId.newInstance(nsMrid,
                             artifactRef.getRevision()));
@@ -462,7 +492,7 @@ public abstract class BasicResolver extends AbstractResolver {
                 resolvedMrid = ModuleRevisionId.newInstance(resolvedMrid, ivyRef.getRevision());
             }
         }
-        if (isDynamic) {
+        if (isDynamic && Message.isVerboseEnabled()) {
             Message.verbose("\t\t[" + toSystem(resolvedMrid).getRevision() + "] "
                     + dependencyConstraint.getModuleId());
         }
@@ -478,16 +508,22 @@ public abstract class BasicResolver extends AbstractResolver {
 
         String revision = ivyRef.getRevision();
         if (revision == null) {
-            Message.debug("no revision found in reference for " + askedMrid);
+            if (Message.isDebugEnabled()) {
+                Message.debug("no revision found in reference for " + askedMrid);
+            }
             if (getSettings().getVersionMatcher().isDynamic(askedMrid)) {
                 if (md.getModuleRevisionId().getRevision() == null) {
                     revision = "working@" + getName();
                 } else {
-                    Message.debug("using " + askedMrid);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("using " + askedMrid);
+                    }
                     revision = askedMrid.getRevision();
                 }
             } else {
-                Message.debug("using " + askedMrid);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("using " + askedMrid);
+                }
                 revision = askedMrid.getRevision();
             }
         }
@@ -509,9 +545,11 @@ public abstract class BasicResolver extends AbstractResolver {
             Message.warn("no module descriptor parser available for " + mdRef.getResource());
             return null;
         }
-        Message.verbose("\t" + getName() + ": found md file for " + mrid);
-        Message.verbose("\t\t=> " + mdRef);
-        Message.debug("\tparser = " + parser);
+        if (Message.isVerboseEnabled()) {
+            Message.verbose("\t" + getName() + ": found md file for " + mrid);
+            Message.verbose("\t\t=> " + mdRef);
+            Message.debug("\tparser = " + parser);
+        }
 
         ModuleRevisionId resolvedMrid = mrid;
 
@@ -522,12 +560,16 @@ public abstract class BasicResolver extends AbstractResolver {
             if (node != null && node.getModuleRevision() != null) {
                 // this revision has already be resolved : return it
                 if (node.getDescriptor() != null && node.getDescriptor().isDefault()) {
-                    Message.verbose("\t" + getName() + ": found already resolved revision: "
-                            + resolvedMrid
-                            + ": but it's a default one, maybe we can find a better one");
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": found already resolved revision: "
+                                + resolvedMrid
+                                + ": but it's a default one, maybe we can find a better one");
+                    }
                 } else {
-                    Message.verbose("\t" + getName() + ": revision already resolved: "
-                            + resolvedMrid);
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose("\t" + getName() + ": revision already resolved: "
+                                + resolvedMrid);
+                    }
                     node.getModuleRevision().getReport().setSearched(true);
                     return node.getModuleRevision();
                 }
@@ -675,7 +717,9 @@ public abstract class BasicResolver extends AbstractResolver {
             // But checking for existence is most of the time more costly than checking
             // name, blacklisting and first level version matching
             if (filterNames(new ArrayList(Collections.singleton(rres.getRevision()))).isEmpty()) {
-                Message.debug("\t" + name + ": filtered by name: " + rres);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t" + name + ": filtered by name: " + rres);
+                }
                 continue;
             }
             ModuleRevisionId foundMrid = ModuleRevisionId.newInstance(mrid, rres.getRevision());
@@ -683,45 +727,59 @@ public abstract class BasicResolver extends AbstractResolver {
             ResolveData data = context.getResolveData();
             if (data != null && data.getReport() != null
                     && data.isBlacklisted(data.getReport().getConfiguration(), foundMrid)) {
-                Message.debug("\t" + name + ": blacklisted: " + rres);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t" + name + ": blacklisted: " + rres);
+                }
                 rejected.add(rres.getRevision() + " (blacklisted)");
                 foundBlacklisted.add(foundMrid);
                 continue;
             }
 
             if (!versionMatcher.accept(mrid, foundMrid)) {
-                Message.debug("\t" + name + ": rejected by version matcher: " + rres);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t" + name + ": rejected by version matcher: " + rres);
+                }
                 rejected.add(rres.getRevision());
                 continue;
             }
             if (rres.getResource() != null && !rres.getResource().exists()) {
-                Message.debug("\t" + name + ": unreachable: " + rres + "; res="
-                        + rres.getResource());
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t" + name + ": unreachable: " + rres + "; res="
+                            + rres.getResource());
+                }
                 rejected.add(rres.getRevision() + " (unreachable)");
                 continue;
             }
             if ((date != null && rres.getLastModified() > date.getTime())) {
-                Message.verbose("\t" + name + ": too young: " + rres);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("\t" + name + ": too young: " + rres);
+                }
                 rejected.add(rres.getRevision() + " (" + rres.getLastModified() + ")");
                 continue;
             }
             if (versionMatcher.needModuleDescriptor(mrid, foundMrid)) {
                 ResolvedResource r = rmdparser.parse(rres.getResource(), rres.getRevision());
                 if (r == null) {
-                    Message.debug("\t" + name + ": impossible to get module descriptor resource: "
-                            + rres);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t" + name
+                                + ": impossible to get module descriptor resource: " + rres);
+                    }
                     rejected.add(rres.getRevision() + " (no or bad MD)");
                     continue;
                 }
                 ModuleDescriptor md = ((MDResolvedResource) r).getResolvedModuleRevision()
                         .getDescriptor();
                 if (md.isDefault()) {
-                    Message.debug("\t" + name + ": default md rejected by version matcher"
-                            + "requiring module descriptor: " + rres);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t" + name + ": default md rejected by version matcher"
+                                + "requiring module descriptor: " + rres);
+                    }
                     rejected.add(rres.getRevision() + " (MD)");
                     continue;
                 } else if (!versionMatcher.accept(mrid, md)) {
-                    Message.debug("\t" + name + ": md rejected by version matcher: " + rres);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t" + name + ": md rejected by version matcher: " + rres);
+                    }
                     rejected.add(rres.getRevision() + " (MD)");
                     continue;
                 } else {
@@ -772,7 +830,9 @@ public abstract class BasicResolver extends AbstractResolver {
 
     protected void logIvyAttempt(String attempt) {
         ivyattempts.add(attempt);
-        Message.verbose("\t\ttried " + attempt);
+        if (Message.isVerboseEnabled()) {
+            Message.verbose("\t\ttried " + attempt);
+        }
     }
 
     protected void logArtifactAttempt(Artifact art, String attempt) {
@@ -782,7 +842,9 @@ public abstract class BasicResolver extends AbstractResolver {
             artattempts.put(art, attempts);
         }
         attempts.add(attempt);
-        Message.verbose("\t\ttried " + attempt);
+        if (Message.isVerboseEnabled()) {
+            Message.verbose("\t\ttried " + attempt);
+        }
     }
 
     protected void logAttempt(String attempt) {
@@ -833,17 +895,29 @@ public abstract class BasicResolver extends AbstractResolver {
 
         clearArtifactAttempts();
         DownloadReport dr = new DownloadReport();
+        ResolveTrace trace = ResolveTrace.getCurrent();
         for (int i = 0; i < artifacts.length; i++) {
-            ArtifactDownloadReport adr = cacheManager.download(artifacts[i],
-                artifactResourceResolver, downloader, getCacheDownloadOptions(options));
+            ResolveTrace.Span span = trace == null ? null : trace.beginSpan(
+                ResolveTrace.DOWNLOAD, artifacts[i], getName());
+            ArtifactDownloadReport adr;
+            try {
+                adr = cacheManager.download(artifacts[i], artifactResourceResolver, downloader,
+                    getCacheDownloadOptions(options));
+            } finally {
+                ResolveTrace.end(span);
+            }
             if (DownloadStatus.FAILED == adr.getDownloadStatus()) {
                 if (!ArtifactDownloadReport.MISSING_ARTIFACT.equals(adr.getDownloadDetails())) {
                     Message.warn("\t" + adr);
                 }
             } else if (DownloadStatus.NO == adr.getDownloadStatus()) {
-                Message.verbose("\t" + adr);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("\t" + adr);
+                }
             } else if (LogOptions.LOG_QUIET.equals(options.getLog())) {
-                Message.verbose("\t" + adr);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("\t" + adr);
+                }
             } else {
                 Message.info("\t" + adr);
             }
@@ -1008,13 +1082,17 @@ public abstract class BasicResolver extends AbstractResolver {
 
         Resource csRes = resource.clone(resource.getName() + "." + algorithm);
         if (csRes.exists()) {
-            Message.debug(algorithm + " file found for " + resource + ": checking...");
+            if (Message.isDebugEnabled()) {
+                Message.debug(algorithm + " file found for " + resource + ": checking...");
+            }
             File csFile = File.createTempFile("ivytmp", algorithm);
             try {
                 get(csRes, csFile);
                 try {
                     ChecksumHelper.check(dest, csFile, algorithm);
-                    Message.verbose(algorithm + " OK for " + resource);
+                    if (Message.isVerboseEnabled()) {
+                        Message.verbose(algorithm + " OK for " + resource);
+                    }
                     return true;
                 } catch (IOException ex) {
                     dest.delete();
@@ -1034,7 +1112,9 @@ public abstract class BasicResolver extends AbstractResolver {
             ResolvedResource ret = findArtifactRef(artifact, date);
             if (ret == null && artifact.getUrl() != null) {
                 URL url = artifact.getUrl();
-                Message.verbose("\tusing url for " + artifact + ": " + url);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("\tusing url for " + artifact + ": " + url);
+                }
                 logArtifactAttempt(artifact, url.toExternalForm());
                 Resource resource;
                 if ("file".equals(url.getProtocol())) {
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -38,6 +39,8 @@ import org.apache.ivy.core.report.DownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.resolve.DownloadOptions;
 import org.apache.ivy.core.resolve.ResolveData;
+import org.apache.ivy.core.resolve.ResolveMetrics;
+import org.apache.ivy.core.resolve.ResolveTrace;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.plugins.latest.ArtifactInfo;
 import org.apache.ivy.plugins.latest.LatestStrategy;
@@ -79,6 +82,18 @@ public class ChainResolver extends AbstractResolver {
 
     public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
             throws ParseException {
+        ResolveTrace trace = data.getTrace();
+        ResolveTrace.Span span = trace == null ? null : trace.beginSpan(ResolveTrace.CHAIN,
+            dd.getDependencyRevisionId(), getName());
+        try {
+            return resolveDependency(dd, data);
+        } finally {
+            ResolveTrace.end(span);
+        }
+    }
+
+    private ResolvedModuleRevision resolveDependency(DependencyDescriptor dd, ResolveData data)
+            throws ParseException {
         data = new ResolveData(data, doValidate(data));
 
         List errors = new ArrayList();
@@ -87,10 +102,20 @@ public class ChainResolver extends AbstractResolver {
         ResolvedModuleRevision mr = resolved;
 
         if (mr == null) {
-            Message.verbose(getName() + ": Checking cache for: " + dd);
+            if (Message.isVerboseEnabled()) {
+                Message.verbose(getName() + ": Checking cache for: " + dd);
+            }
+            long start = System.currentTimeMillis();
             mr = findModuleInCache(dd, data, true);
+            data.getMetrics().addTiming(ResolveMetrics.CACHE_LOOKUP, getName(),
+                System.currentTimeMillis() - start);
+            data.getMetrics().addCount(mr == null ? ResolveMetrics.CACHE_MISSES
+                    : ResolveMetrics.CACHE_HITS, getName(), 1);
             if (mr != null) {
-                Message.verbose(getName() + ": module revision found in cache: " + mr.getId());
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose(getName() + ": module revision found in cache: "
+                        + mr.getId());
+                }
                 mr = forcedRevision(mr);
             }
         }
@@ -173,6 +198,17 @@ public class ChainResolver extends AbstractResolver {
         }
     }
 
+    /**
+     * Only the first resolver of the chain is given the batch to prefetch: it isn't known yet which
+     * resolver will provide each dependency, and the following resolvers are only asked for the
+     * dependencies the first one misses.
+     */
+    public void prefetch(Collection dds, ResolveData data) {
+        if (!chain.isEmpty()) {
+            ((DependencyResolver) chain.get(0)).prefetch(dds, data);
+        }
+    }
+
     public ResolvedResource findIvyFileRef(DependencyDescriptor dd, ResolveData data) {
         for (Iterator iter = chain.iterator(); iter.hasNext();) {
             DependencyResolver resolver = (DependencyResolver) iter.next();
@@ -20,6 +20,7 @@ package org.apache.ivy.plugins.resolver;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.Collection;
 import java.util.Map;
 
 import org.apache.ivy.core.cache.ArtifactOrigin;
@@ -63,6 +64,22 @@ public interface DependencyResolver {
     ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
             throws ParseException;
     
+    /**
+     * Gives this resolver a chance to look up the metadata of several dependencies at once, before
+     * {@link #getDependency(DependencyDescriptor, ResolveData)} is called for each of them.
+     * <p>
+     * This is only a hint: implementations may warm their caches, issue the lookups concurrently,
+     * or do nothing at all. It must not fail because of a missing or broken dependency, such
+     * problems are reported when the dependency is actually resolved.
+     * </p>
+     * 
+     * @param dds
+     *            the dependency descriptors which are about to be resolved
+     * @param data
+     *            the resolve data
+     */
+    void prefetch(Collection/*<DependencyDescriptor>*/ dds, ResolveData data);
+
     /**
      * Finds the module descriptor for the specified <tt>DependencyDescriptor</tt>.
      * If this resolver can't find the module descriptor, <tt>null</tt> is returned.
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.apache.ivy.core.cache.ArtifactOrigin;
 import org.apache.ivy.core.module.descriptor.Artifact;
@@ -98,6 +99,10 @@ public class DualResolver extends AbstractResolver {
         return ivyResolver.findIvyFileRef(dd, data);
     }
 
+    public void prefetch(Collection dds, ResolveData data) {
+        ivyResolver.prefetch(dds, data);
+    }
+
     public void reportFailure() {
         ivyResolver.reportFailure();
         artifactResolver.reportFailure();
@@ -155,7 +155,9 @@ public class IBiblioResolver extends URLResolver {
             // here it would be nice to be able to store the resolved snapshot version, to avoid
             // having to follow the same process to download artifacts
             
-            Message.verbose("[" + md.rev + "] " + mrid);
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("[" + md.rev + "] " + mrid);
+            }
 
             // replace the revision token in file name with the resolved revision
             String pattern = getWholePattern().replaceFirst("\\-\\[revision\\]", "-" + md.rev);
@@ -448,7 +450,9 @@ public class IBiblioResolver extends URLResolver {
             List revs = listRevisionsWithMavenMetadata(
                 repository, mrid.getModuleId().getAttributes());
             if (revs != null) {
-                Message.debug("\tfound revs: " + revs);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\tfound revs: " + revs);
+                }
                 List rres = new ArrayList();
                 for (Iterator iter = revs.iterator(); iter.hasNext();) {
                     String rev = (String) iter.next();
@@ -500,7 +504,9 @@ public class IBiblioResolver extends URLResolver {
         try {
             Resource metadata = repository.getResource(metadataLocation);
             if (metadata.exists()) {
-                Message.verbose("\tlisting revisions from maven-metadata: " + metadata);
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("\tlisting revisions from maven-metadata: " + metadata);
+                }
                 final List metadataRevs = new ArrayList();
                 metadataStream = metadata.openStream();
                 XMLHelper.parse(metadataStream, null, new ContextualSAXHandler() {
@@ -513,7 +519,7 @@ public class IBiblioResolver extends URLResolver {
                     }
                 }, null);
                 revs = metadataRevs;
-            } else {
+            } else if (Message.isVerboseEnabled()) {
                 Message.verbose("\tmaven-metadata not available: " + metadata);
             }
         } catch (IOException e) {
@@ -26,22 +26,30 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.DownloadReport;
 import org.apache.ivy.core.resolve.DownloadOptions;
+import org.apache.ivy.core.resolve.ResolveData;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
 import org.apache.ivy.plugins.repository.AbstractRepository;
 import org.apache.ivy.plugins.repository.Repository;
 import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.plugins.repository.TransferEvent;
+import org.apache.ivy.plugins.repository.TransferListener;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.plugins.resolver.util.ResolverHelper;
 import org.apache.ivy.plugins.resolver.util.ResourceMDParser;
@@ -62,6 +70,10 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
     
     private String signerName = null;
 
+    private int prefetchThreads = 0;
+
+    private PrefetchPool prefetchPool;
+
     public RepositoryResolver() {
     }
 
@@ -84,6 +96,182 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
         this.signerName = signerName;
     }
 
+    /**
+     * Looks up the ivy files of the given dependencies concurrently, so that their resources are
+     * already known by the repository when the dependencies are then resolved one by one.
+     * <p>
+     * Only dependencies on static revisions which are not in cache are looked up, dynamic
+     * revisions require a listing which is done when they are actually resolved. Nothing is done
+     * unless prefetch threads have been configured, which must only be done if the repository
+     * supports concurrent lookups and keeps the resources it has looked up.
+     * </p>
+     */
+    public void prefetch(Collection dds, ResolveData data) {
+        if (prefetchThreads <= 0 || isForce() || data.getOptions().isUseCacheOnly()) {
+            return;
+        }
+        VersionMatcher versionMatcher = getSettings().getVersionMatcher();
+        List/*<String>*/ names = new ArrayList();
+        for (Iterator iter = dds.iterator(); iter.hasNext();) {
+            DependencyDescriptor dd = (DependencyDescriptor) iter.next();
+            if (versionMatcher.isDynamic(dd.getDependencyRevisionId())
+                    || findModuleInCache(dd, data) != null) {
+                continue;
+            }
+            ModuleRevisionId mrid = fromSystem(dd).getDependencyRevisionId();
+            if (isM2compatible()) {
+                mrid = convertM2IdForResourceSearch(mrid);
+            }
+            Artifact artifact = DefaultArtifact.newIvyArtifact(mrid, data.getDate());
+            for (Iterator patterns = getIvyPatterns().iterator(); patterns.hasNext();) {
+                String name = IvyPatternHelper.substitute((String) patterns.next(), mrid,
+                    artifact);
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        if (names.size() < 2) {
+            // nothing to gain from a concurrent lookup
+            return;
+        }
+        Message.verbose("\t" + getName() + ": prefetching " + names.size() + " resources");
+        PrefetchPool pool;
+        synchronized (this) {
+            if (prefetchPool == null) {
+                prefetchPool = new PrefetchPool();
+            }
+            pool = prefetchPool;
+        }
+        try {
+            pool.lookup(names);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Looks up resources of the repository on at most prefetchThreads threads. The threads are
+     * kept between the prefetches of a resolve, and stop when they have been idle for a while.
+     */
+    private final class PrefetchPool implements Runnable {
+        private static final long IDLE_TIMEOUT = 5000;
+
+        // List (Lookup)
+        private final LinkedList queue = new LinkedList();
+
+        private int threads = 0;
+
+        private int threadCount = 0;
+
+        /**
+         * A resource to look up, with the batch it belongs to and the context of the thread which
+         * has asked for it.
+         */
+        private final class Lookup {
+            private final String name;
+
+            private final int[] remaining;
+
+            private final IvyContext context;
+
+            private Lookup(String name, int[] remaining, IvyContext context) {
+                this.name = name;
+                this.remaining = remaining;
+                this.context = context;
+            }
+
+            private void run() {
+                IvyContext.pushContext(context);
+                try {
+                    repository.getResource(name).exists();
+                } catch (IOException ex) {
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t" + getName() + ": prefetch of " + name + " failed: "
+                                + ex);
+                    }
+                } catch (RuntimeException ex) {
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t" + getName() + ": prefetch of " + name + " failed: "
+                                + ex);
+                    }
+                } finally {
+                    IvyContext.popContext();
+                }
+            }
+        }
+
+        /**
+         * Looks up the resources with the given names, and waits until they have all been looked
+         * up.
+         */
+        synchronized void lookup(List/*<String>*/ names) throws InterruptedException {
+            int[] remaining = new int[] {names.size()};
+            IvyContext context = new IvyContext(IvyContext.getContext());
+            for (Iterator iter = names.iterator(); iter.hasNext();) {
+                queue.addLast(new Lookup((String) iter.next(), remaining, context));
+            }
+            startThreads();
+            notifyAll();
+            try {
+                while (remaining[0] > 0) {
+                    wait();
+                }
+            } finally {
+                for (Iterator iter = queue.iterator(); iter.hasNext();) {
+                    if (((Lookup) iter.next()).remaining == remaining) {
+                        iter.remove();
+                    }
+                }
+            }
+        }
+
+        private void startThreads() {
+            while (threads < Math.min(prefetchThreads, queue.size())) {
+                Thread thread = new Thread(this, getName() + "-prefetch-" + (++threadCount));
+                thread.setDaemon(true);
+                thread.start();
+                threads++;
+            }
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    Lookup lookup;
+                    synchronized (this) {
+                        long idleStart = System.currentTimeMillis();
+                        while (queue.isEmpty()) {
+                            long idle = IDLE_TIMEOUT - (System.currentTimeMillis() - idleStart);
+                            if (idle <= 0) {
+                                return;
+                            }
+                            wait(idle);
+                        }
+                        lookup = (Lookup) queue.removeFirst();
+                    }
+                    try {
+                        lookup.run();
+                    } finally {
+                        synchronized (this) {
+                            lookup.remaining[0]--;
+                            notifyAll();
+                        }
+                    }
+                }
+            } catch (InterruptedException ex) {
+                // the thread stops, the remaining lookups are done by the other threads
+            } finally {
+                synchronized (this) {
+                    threads--;
+                    // replace a thread stopped by an error
+                    startThreads();
+                    notifyAll();
+                }
+            }
+        }
+    }
+
     protected ResolvedResource findResourceUsingPattern(ModuleRevisionId mrid, String pattern,
             Artifact artifact, ResourceMDParser rmdparser, Date date) {
         String name = getName();
@@ -91,7 +279,9 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
         try {
             if (!versionMatcher.isDynamic(mrid) || isAlwaysCheckExactRevision()) {
                 String resourceName = IvyPatternHelper.substitute(pattern, mrid, artifact);
-                Message.debug("\t trying " + resourceName);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t trying " + resourceName);
+                }
                 logAttempt(resourceName);
                 Resource res = repository.getResource(resourceName);
                 boolean reachable = res.exists();
@@ -124,8 +314,10 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
                     return findDynamicResourceUsingPattern(
                         rmdparser, mrid, pattern, artifact, date);
                 } else {
-                    Message.debug("\t" + name + ": resource not reachable for " + mrid + ": res="
-                            + res);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t" + name + ": resource not reachable for " + mrid
+                                + ": res=" + res);
+                    }
                     return null;
                 }
             } else {
@@ -144,23 +336,92 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
             ResourceMDParser rmdparser, ModuleRevisionId mrid, String pattern, Artifact artifact,
             Date date) {
         String name = getName();
-        logAttempt(IvyPatternHelper.substitute(pattern, ModuleRevisionId.newInstance(mrid,
-            IvyPatternHelper.getTokenString(IvyPatternHelper.REVISION_KEY)), artifact));
-        ResolvedResource[] rress = listResources(repository, mrid, pattern, artifact);
+        String partiallyResolvedPattern = IvyPatternHelper.substitute(pattern, 
+            ModuleRevisionId.newInstance(mrid,
+                IvyPatternHelper.getTokenString(IvyPatternHelper.REVISION_KEY)), artifact);
+        logAttempt(partiallyResolvedPattern);
+        ResolvedResource[] rress = listCachedResources(mrid, pattern, partiallyResolvedPattern,
+            artifact);
         if (rress == null) {
-            Message.debug("\t" + name + ": unable to list resources for " + mrid + ": pattern="
-                    + pattern);
+            if (Message.isDebugEnabled()) {
+                Message.debug("\t" + name + ": unable to list resources for " + mrid
+                        + ": pattern=" + pattern);
+            }
             return null;
         } else {
             ResolvedResource found = findResource(rress, rmdparser, mrid, date);
             if (found == null) {
-                Message.debug("\t" + name + ": no resource found for " + mrid + ": pattern="
-                        + pattern);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t" + name + ": no resource found for " + mrid + ": pattern="
+                            + pattern);
+                }
             }
             return found;
         }
     }
     
+    /**
+     * Lists the revisions matching the given pattern like
+     * {@link #listResources(Repository, ModuleRevisionId, String, Artifact)}, reusing the revisions
+     * already listed during the current resolve, or cached in the repository cache and not expired
+     * according to the ttl rules.
+     */
+    private ResolvedResource[] listCachedResources(ModuleRevisionId mrid, String pattern,
+            String partiallyResolvedPattern, Artifact artifact) {
+        ResolveData data = IvyContext.getContext().getResolveData();
+        if (data == null) {
+            // not resolving, nothing to share the listing with
+            return listResources(repository, mrid, pattern, artifact);
+        }
+        String key = getName() + "|" + partiallyResolvedPattern;
+        if (data.hasRevisionListing(key)) {
+            if (Message.isDebugEnabled()) {
+                Message.debug("\t" + getName() + ": revisions already listed in " 
+                    + partiallyResolvedPattern);
+            }
+            return data.getRevisionListing(key);
+        }
+
+        RepositoryCacheManager cacheManager = getRepositoryCacheManager();
+        ResolvedResource[] rress = null;
+        Map cached = cacheManager.getRevisionListing(getName(), mrid, partiallyResolvedPattern,
+            getCacheOptions(data));
+        if (cached != null) {
+            if (Message.isDebugEnabled()) {
+                Message.debug("\t" + getName() + ": found cached revision listing for " 
+                    + partiallyResolvedPattern);
+            }
+            List rres = new ArrayList(cached.size());
+            try {
+                for (Iterator iter = cached.entrySet().iterator(); iter.hasNext();) {
+                    Map.Entry entry = (Map.Entry) iter.next();
+                    rres.add(new ResolvedResource(
+                        repository.getResource((String) entry.getValue()), 
+                        (String) entry.getKey()));
+                }
+                rress = (ResolvedResource[]) rres.toArray(new ResolvedResource[rres.size()]);
+            } catch (IOException e) {
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("\t" + getName() + ": unusable cached revision listing for " 
+                        + partiallyResolvedPattern + ": " + e);
+                }
+            }
+        }
+        if (rress == null) {
+            rress = listResources(repository, mrid, pattern, artifact);
+            if (rress != null) {
+                Map revisions = new LinkedHashMap();
+                for (int i = 0; i < rress.length; i++) {
+                    revisions.put(rress[i].getRevision(), rress[i].getResource().getName());
+                }
+                cacheManager.saveRevisionListing(getName(), mrid, partiallyResolvedPattern,
+                    revisions);
+            }
+        }
+        data.setRevisionListing(key, rress);
+        return rress;
+    }
+
     protected Resource getResource(String source) throws IOException {
         return repository.getResource(source);
     }
@@ -186,8 +447,10 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
     }
 
     protected long get(Resource resource, File dest) throws IOException {
-        Message.verbose("\t" + getName() + ": downloading " + resource.getName());
-        Message.debug("\t\tto " + dest);
+        if (Message.isVerboseEnabled()) {
+            Message.verbose("\t" + getName() + ": downloading " + resource.getName());
+            Message.debug("\t\tto " + dest);
+        }
         if (dest.getParentFile() != null) {
             dest.getParentFile().mkdirs();
         }
@@ -275,14 +538,37 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
 
     public DownloadReport download(Artifact[] artifacts, DownloadOptions options) {
         EventManager eventManager = getEventManager();
+        TransferListener listener = eventManager == null ? null : new ThreadTransferListener(
+                eventManager);
         try {
-            if (eventManager != null) {
-                repository.addTransferListener(eventManager);
+            if (listener != null) {
+                repository.addTransferListener(listener);
             }
             return super.download(artifacts, options);
         } finally {
-            if (eventManager != null) {
-                repository.removeTransferListener(eventManager);
+            if (listener != null) {
+                repository.removeTransferListener(listener);
+            }
+        }
+    }
+
+    /**
+     * Forwards the transfer events fired by the thread which has created it only: threads
+     * downloading concurrently from the same repository, for different Ivy instances, mustn't get
+     * the events of each other.
+     */
+    private static final class ThreadTransferListener implements TransferListener {
+        private final Thread thread = Thread.currentThread();
+
+        private final TransferListener target;
+
+        private ThreadTransferListener(TransferListener target) {
+            this.target = target;
+        }
+
+        public void transferProgress(TransferEvent evt) {
+            if (Thread.currentThread() == thread) {
+                target.transferProgress(evt);
             }
         }
     }
@@ -321,6 +607,7 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
     public void dumpSettings() {
         super.dumpSettings();
         Message.debug("\t\trepository: " + getRepository());
+        Message.debug("\t\tprefetch threads: " + getPrefetchThreads());
     }
 
     public void setSettings(ResolverSettings settings) {
@@ -333,6 +620,18 @@ public class RepositoryResolver extends AbstractPatternsBasedResolver {
         }
     }
 
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    /**
+     * Sets the number of threads used to look up the metadata of dependencies concurrently, 0 to
+     * disable prefetching.
+     */
+    public void setPrefetchThreads(int prefetchThreads) {
+        this.prefetchThreads = prefetchThreads;
+    }
+
     public boolean isAlwaysCheckExactRevision() {
         return alwaysCheckExactRevision == null ? true : alwaysCheckExactRevision.booleanValue();
     }
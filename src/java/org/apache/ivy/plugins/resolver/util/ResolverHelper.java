@@ -45,8 +45,10 @@ public final class ResolverHelper {
         String tokenString = IvyPatternHelper.getTokenString(token);
         int index = pattern.indexOf(tokenString);
         if (index == -1) {
-            Message.verbose("unable to list " + token + " in " + pattern
-                    + ": token not found in pattern");
+            if (Message.isVerboseEnabled()) {
+                Message.verbose("unable to list " + token + " in " + pattern
+                        + ": token not found in pattern");
+            }
             return null;
         }
         if (((pattern.length() <= index + tokenString.length()) || fileSep.equals(pattern
@@ -60,10 +62,14 @@ public final class ResolverHelper {
             String root = slashIndex == -1 ? "" : pattern.substring(0, slashIndex);
 
             try {
-                Message.debug("\tusing " + rep + " to list all in " + root);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\tusing " + rep + " to list all in " + root);
+                }
                 List all = rep.list(root);
                 if (all != null) {
-                    Message.debug("\t\tfound " + all.size() + " urls");
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t\tfound " + all.size() + " urls");
+                    }
                     List ret = new ArrayList(all.size());
                     int endNameIndex = pattern.indexOf(fileSep, slashIndex + 1);
                     String namePattern;
@@ -83,7 +89,9 @@ public final class ResolverHelper {
                             ret.add(value);
                         }
                     }
-                    Message.debug("\t\t" + ret.size() + " matched " + pattern);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t\t" + ret.size() + " matched " + pattern);
+                    }
                     return (String[]) ret.toArray(new String[ret.size()]);
                 } else {
                     return null;
@@ -101,10 +109,14 @@ public final class ResolverHelper {
     public static String[] listAll(Repository rep, String parent) {
         try {
             String fileSep = rep.getFileSeparator();
-            Message.debug("\tusing " + rep + " to list all in " + parent);
+            if (Message.isDebugEnabled()) {
+                Message.debug("\tusing " + rep + " to list all in " + parent);
+            }
             List all = rep.list(parent);
             if (all != null) {
-                Message.debug("\t\tfound " + all.size() + " resources");
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t\tfound " + all.size() + " resources");
+                }
                 List names = new ArrayList(all.size());
                 for (Iterator iter = all.iterator(); iter.hasNext();) {
                     String path = (String) iter.next();
@@ -134,12 +146,16 @@ public final class ResolverHelper {
         String partiallyResolvedPattern = IvyPatternHelper.substitute(pattern, ModuleRevisionId
                 .newInstance(mrid, IvyPatternHelper.getTokenString(IvyPatternHelper.REVISION_KEY)),
             artifact);
-        Message.debug("\tlisting all in " + partiallyResolvedPattern);
+        if (Message.isDebugEnabled()) {
+            Message.debug("\tlisting all in " + partiallyResolvedPattern);
+        }
 
         String[] revs = listTokenValues(rep, partiallyResolvedPattern,
             IvyPatternHelper.REVISION_KEY);
         if (revs != null) {
-            Message.debug("\tfound revs: " + Arrays.asList(revs));
+            if (Message.isDebugEnabled()) {
+                Message.debug("\tfound revs: " + Arrays.asList(revs));
+            }
             List ret = new ArrayList(revs.length);
             for (int i = 0; i < revs.length; i++) {
                 String rres = IvyPatternHelper.substituteToken(partiallyResolvedPattern,
@@ -158,7 +174,9 @@ public final class ResolverHelper {
                 }
             }
             if (revs.length != ret.size()) {
-                Message.debug("\tfound resolved res: " + ret);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\tfound resolved res: " + ret);
+                }
             }
             return (ResolvedResource[]) ret.toArray(new ResolvedResource[ret.size()]);
         } else if (partiallyResolvedPattern.indexOf(
@@ -167,15 +185,19 @@ public final class ResolverHelper {
             try {
                 Resource res = rep.getResource(partiallyResolvedPattern);
                 if (res.exists()) {
-                    Message.debug("\tonly one resource found without real listing: "
-                                    + "using and defining it as working@"
-                                    + rep.getName() + " revision: " + res.getName());
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\tonly one resource found without real listing: "
+                                        + "using and defining it as working@"
+                                        + rep.getName() + " revision: " + res.getName());
+                    }
                     return new ResolvedResource[] {new ResolvedResource(res, "working@"
                             + rep.getName())};
                 }
             } catch (IOException e) {
-                Message.debug("\timpossible to get resource from name listed by repository: "
-                        + partiallyResolvedPattern, e);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\timpossible to get resource from name listed by repository: "
+                            + partiallyResolvedPattern, e);
+                }
             }
             Message.debug("\tno revision found");
         }
@@ -250,8 +272,10 @@ public final class ResolverHelper {
             String tokenString = IvyPatternHelper.getTokenString(token);
             int index = pattern.indexOf(tokenString);
             if (index == -1) {
-                Message.verbose("unable to list " + token + " in " + pattern
-                        + ": token not found in pattern");
+                if (Message.isVerboseEnabled()) {
+                    Message.verbose("unable to list " + token + " in " + pattern
+                            + ": token not found in pattern");
+                }
                 return null;
             }
             if (((pattern.length() <= index + tokenString.length()) || "/".equals(pattern
@@ -272,9 +296,13 @@ public final class ResolverHelper {
                 String root = slashIndex == -1 ? "" : pattern.substring(0, slashIndex);
 
                 try {
-                    Message.debug("\tusing " + lister + " to list all in " + root);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\tusing " + lister + " to list all in " + root);
+                    }
                     List all = lister.listAll(new URL(root));
-                    Message.debug("\t\tfound " + all.size() + " urls");
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t\tfound " + all.size() + " urls");
+                    }
                     List ret = new ArrayList(all.size());
                     int endNameIndex = pattern.indexOf('/', slashIndex + 1);
                     String namePattern;
@@ -296,7 +324,9 @@ public final class ResolverHelper {
                             ret.add(value);
                         }
                     }
-                    Message.debug("\t\t" + ret.size() + " matched " + pattern);
+                    if (Message.isDebugEnabled()) {
+                        Message.debug("\t\t" + ret.size() + " matched " + pattern);
+                    }
                     return (String[]) ret.toArray(new String[ret.size()]);
                 } catch (Exception e) {
                     Message.warn("problem while listing files in " + root, e);
@@ -314,9 +344,13 @@ public final class ResolverHelper {
     public static String[] listAll(URLLister lister, URL root) {
         try {
             if (lister.accept(root.toExternalForm())) {
-                Message.debug("\tusing " + lister + " to list all in " + root);
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\tusing " + lister + " to list all in " + root);
+                }
                 List all = lister.listAll(root);
-                Message.debug("\t\tfound " + all.size() + " urls");
+                if (Message.isDebugEnabled()) {
+                    Message.debug("\t\tfound " + all.size() + " urls");
+                }
                 List names = new ArrayList(all.size());
                 for (Iterator iter = all.iterator(); iter.hasNext();) {
                     URL dir = (URL) iter.next();
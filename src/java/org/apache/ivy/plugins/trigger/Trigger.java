@@ -18,8 +18,13 @@
 package org.apache.ivy.plugins.trigger;
 
 import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.SynchronousListener;
 import org.apache.ivy.util.filter.Filter;
 
-public interface Trigger extends IvyListener {
+/**
+ * A trigger is called synchronously, even when events are dispatched asynchronously, so that the
+ * work it does is done before the operation which fired the event goes on.
+ */
+public interface Trigger extends IvyListener, SynchronousListener {
     Filter getEventFilter();
 }
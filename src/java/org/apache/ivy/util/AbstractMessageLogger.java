@@ -17,21 +17,32 @@
  */
 package org.apache.ivy.util;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * An abstract base class to ease {@link MessageLogger} implementation.
  */
 public abstract class AbstractMessageLogger implements MessageLogger {
-    private List problems = new ArrayList();
-
-    private List warns = new ArrayList();
-
-    private List errors = new ArrayList();
+    private final ProblemStore problems = new ProblemStore();
 
     private boolean showProgress = true;
     
+    /**
+     * Tells if a message logged at the given level would actually be logged, so that callers can
+     * avoid building messages which would be discarded.
+     * <p>
+     * Returns <code>true</code>: subclasses which know the level of the messages they log should
+     * override this method.
+     * </p>
+     * 
+     * @param level
+     *            the level at which the message would be logged
+     * @return <code>false</code> if messages at this level are discarded
+     */
+    public boolean isLoggable(int level) {
+        return true;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.ivy.util.MessageLogger#debug(java.lang.String)
      */
@@ -73,8 +84,7 @@ public abstract class AbstractMessageLogger implements MessageLogger {
      */
     public void warn(String msg) {
         log("WARN: " + msg, Message.MSG_VERBOSE);
-        problems.add("WARN:  " + msg);
-        getWarns().add(msg);
+        problems.warn(msg);
     }
 
     /* (non-Javadoc)
@@ -84,37 +94,34 @@ public abstract class AbstractMessageLogger implements MessageLogger {
         // log in verbose mode because message is appended as a problem, and will be
         // logged at the end at error level
         log("ERROR: " + msg, Message.MSG_VERBOSE);
-        problems.add("\tERROR: " + msg);
-        getErrors().add(msg);
+        problems.error(msg);
     }
 
     /* (non-Javadoc)
      * @see org.apache.ivy.util.MessageLogger#getProblems()
      */
     public List getProblems() {
-        return problems;
+        return problems.getProblems();
     }
 
     /* (non-Javadoc)
      * @see org.apache.ivy.util.MessageLogger#sumupProblems()
      */
     public void sumupProblems() {
-        MessageLoggerHelper.sumupProblems(this);
+        MessageLoggerHelper.sumupProblems(this, problems);
         clearProblems();
     }
 
     public void clearProblems() {
         problems.clear();
-        warns.clear();
-        errors.clear();
     }
 
     public List getErrors() {
-        return errors;
+        return problems.getErrors();
     }
 
     public List getWarns() {
-        return warns;
+        return problems.getWarns();
     }
 
     /* (non-Javadoc)
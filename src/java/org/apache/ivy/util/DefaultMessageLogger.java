@@ -17,9 +17,14 @@
  */
 package org.apache.ivy.util;
 
+import java.io.PrintStream;
+
 public class DefaultMessageLogger extends AbstractMessageLogger {
     private int level = Message.MSG_INFO;
 
+    // null to use the current System.out
+    private PrintStream out;
+
     /**
      * @param level
      */
@@ -27,9 +32,24 @@ public class DefaultMessageLogger extends AbstractMessageLogger {
         this.level = level;
     }
 
+    /**
+     * @param level
+     *            the maximum level of the messages to log
+     * @param out
+     *            the stream to which messages are written
+     */
+    public DefaultMessageLogger(int level, PrintStream out) {
+        this.level = level;
+        this.out = out;
+    }
+
+    private PrintStream getOut() {
+        return out == null ? System.out : out;
+    }
+
     public void log(String msg, int level) {
         if (level <= this.level) {
-            System.out.println(msg);
+            getOut().println(msg);
         }
     }
 
@@ -37,12 +57,16 @@ public class DefaultMessageLogger extends AbstractMessageLogger {
         log(msg, level);
     }
 
+    public boolean isLoggable(int level) {
+        return level <= this.level;
+    }
+
     public void doProgress() {
-        System.out.print(".");
+        getOut().print(".");
     }
 
     public void doEndProgress(String msg) {
-        System.out.println(msg);
+        getOut().println(msg);
     }
 
     public int getLevel() {
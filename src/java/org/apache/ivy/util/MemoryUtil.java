@@ -17,6 +17,10 @@
  */
 package org.apache.ivy.util;
 
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Memory related utilities.
  */
@@ -68,6 +72,78 @@ public final class MemoryUtil {
         return usedMemory;
     }
 
+    /**
+     * Resets the peak usage of the heap memory pools, so that {@link #getPeakHeapUsage()} returns
+     * the peak usage since this call.
+     * <p>
+     * The memory pools are only available on java 5+, nothing is done on older versions.
+     * </p>
+     */
+    public static void resetPeakHeapUsage() {
+        List pools = getHeapPools();
+        if (pools == null) {
+            return;
+        }
+        try {
+            Method reset = Class.forName("java.lang.management.MemoryPoolMXBean").getMethod(
+                "resetPeakUsage", new Class[0]);
+            for (Iterator it = pools.iterator(); it.hasNext();) {
+                reset.invoke(it.next(), new Object[0]);
+            }
+        } catch (Exception e) {
+            Message.debug(e);
+        }
+    }
+
+    /**
+     * Returns the sum of the peak usages of the heap memory pools since the virtual machine started
+     * or {@link #resetPeakHeapUsage()} was last called.
+     * 
+     * @return the peak heap usage, in bytes, or -1 if the memory pools are not available.
+     */
+    public static long getPeakHeapUsage() {
+        List pools = getHeapPools();
+        if (pools == null) {
+            return -1;
+        }
+        try {
+            Method getPeakUsage = Class.forName("java.lang.management.MemoryPoolMXBean")
+                    .getMethod("getPeakUsage", new Class[0]);
+            Method getUsed = Class.forName("java.lang.management.MemoryUsage").getMethod(
+                "getUsed", new Class[0]);
+            long peak = 0;
+            for (Iterator it = pools.iterator(); it.hasNext();) {
+                Object usage = getPeakUsage.invoke(it.next(), new Object[0]);
+                peak += ((Long) getUsed.invoke(usage, new Object[0])).longValue();
+            }
+            return peak;
+        } catch (Exception e) {
+            Message.debug(e);
+            return -1;
+        }
+    }
+
+    private static List getHeapPools() {
+        try {
+            // java 5+ only
+            Class factory = Class.forName("java.lang.management.ManagementFactory");
+            Object heap = Class.forName("java.lang.management.MemoryType").getField("HEAP").get(
+                null);
+            List pools = (List) factory.getMethod("getMemoryPoolMXBeans", new Class[0]).invoke(
+                null, new Object[0]);
+            Method getType = Class.forName("java.lang.management.MemoryPoolMXBean").getMethod(
+                "getType", new Class[0]);
+            for (Iterator it = pools.iterator(); it.hasNext();) {
+                if (!heap.equals(getType.invoke(it.next(), new Object[0]))) {
+                    it.remove();
+                }
+            }
+            return pools;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private static void gc() {
         try {
             System.gc();
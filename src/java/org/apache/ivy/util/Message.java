@@ -135,6 +135,32 @@ public final class Message {
         }
     }
 
+    /**
+     * Tells if a message logged at the given level would actually be logged by the current logger,
+     * so that hot paths can avoid building messages which would be discarded:
+     * 
+     * <pre>
+     * if (Message.isDebugEnabled()) {
+     *     Message.debug(&quot;found &quot; + mrid + &quot; in &quot; + resolver);
+     * }
+     * </pre>
+     * 
+     * @param level
+     *            one of the MSG_* levels
+     * @return <code>false</code> if messages at this level are discarded
+     */
+    public static boolean isLoggable(int level) {
+        return MessageLoggerEngine.isLoggable(getLogger(), level);
+    }
+
+    public static boolean isDebugEnabled() {
+        return isLoggable(MSG_DEBUG);
+    }
+
+    public static boolean isVerboseEnabled() {
+        return isLoggable(MSG_VERBOSE);
+    }
+
     public static List getProblems() {
         return getLogger().getProblems();
     }
@@ -79,8 +79,29 @@ public interface MessageLogger {
 
     public abstract void error(String msg);
 
+    /**
+     * Returns the warnings and errors reported so far, prefixed by their kind, in the order in
+     * which they were first reported.
+     * <p>
+     * Since 2.4 each distinct message is listed once, however many times it has been reported,
+     * and at most {@link ProblemStore#DEFAULT_CAPACITY} distinct messages are kept: the same
+     * applies to {@link #getWarns()} and {@link #getErrors()}.
+     * </p>
+     */
     public abstract List/*<String>*/ getProblems();
+
+    /**
+     * Returns the distinct warnings reported so far.
+     * 
+     * @see #getProblems()
+     */
     public abstract List/*<String>*/ getWarns();
+
+    /**
+     * Returns the distinct errors reported so far.
+     * 
+     * @see #getProblems()
+     */
     public abstract List/*<String>*/ getErrors();
 
     /**
@@ -17,11 +17,12 @@
  */
 package org.apache.ivy.util;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 
+import org.apache.ivy.core.IvyContext;
+
 /**
  * A {@link MessageLogger} implementation delegating the work to the current top logger on a stack.
  * <p>
@@ -32,17 +33,19 @@ import java.util.Stack;
  * {@link #pushLogger(MessageLogger)} should be called to delegate to a new logger, and
  * {@link #popLogger()} should be called when the context of this logger is finished.
  * </p>
+ * <p>
+ * Warnings and errors are kept in a bounded {@link ProblemStore} until they are summed up. When
+ * the current {@link IvyContext} has its own problem store, as during a resolve, they are kept in
+ * it instead, so that they are dropped with the context and don't mix with the problems of other
+ * threads.
+ * </p>
  */
 public class MessageLoggerEngine implements MessageLogger {
     private final Stack/*<MessageLogger>*/ loggerStack = new Stack();
     
     private MessageLogger defaultLogger = null;
 
-    private List problems = new ArrayList();
-
-    private List warns = new ArrayList();
-
-    private List errors = new ArrayList();
+    private final ProblemStore problems = new ProblemStore();
     
     public MessageLoggerEngine() {
     }
@@ -98,33 +101,55 @@ public class MessageLoggerEngine implements MessageLogger {
         return defaultLogger == null ? Message.getDefaultLogger() : defaultLogger;
     }
 
+    private static ProblemStore getContextProblems() {
+        return IvyContext.getContext().getProblemStore();
+    }
+
+    private ProblemStore getCurrentProblems() {
+        ProblemStore contextProblems = getContextProblems();
+        return contextProblems == null ? problems : contextProblems;
+    }
+
+    /**
+     * Returns the problems kept by this engine followed by the problems of the current context.
+     */
+    private ProblemStore getAllProblems() {
+        ProblemStore contextProblems = getContextProblems();
+        if (contextProblems == null || contextProblems == problems) {
+            return problems;
+        }
+        ProblemStore all = new ProblemStore(problems.getCapacity()
+                + contextProblems.getCapacity());
+        all.addAll(problems);
+        all.addAll(contextProblems);
+        return all;
+    }
+
     // consolidated methods
     public void warn(String msg) {
         peekLogger().warn(msg);
-        problems.add("WARN:  " + msg);
-        warns.add(msg);
+        getCurrentProblems().warn(msg);
     }
     
     public void error(String msg) {
         peekLogger().error(msg);
-        problems.add("\tERROR: " + msg);
-        errors.add(msg);
+        getCurrentProblems().error(msg);
     }
 
     public List getErrors() {
-        return errors;
+        return getAllProblems().getErrors();
     }
 
     public List getProblems() {
-        return problems;
+        return getAllProblems().getProblems();
     }
 
     public List getWarns() {
-        return warns;
+        return getAllProblems().getWarns();
     }
 
     public void sumupProblems() {
-        MessageLoggerHelper.sumupProblems(this);
+        MessageLoggerHelper.sumupProblems(this, getAllProblems());
         clearProblems();
     }
     
@@ -135,8 +160,10 @@ public class MessageLoggerEngine implements MessageLogger {
             l.clearProblems();
         }
         problems.clear();
-        errors.clear();
-        warns.clear();
+        ProblemStore contextProblems = getContextProblems();
+        if (contextProblems != null) {
+            contextProblems.clear();
+        }
     }
 
     public void setShowProgress(boolean progress) {
@@ -191,6 +218,29 @@ public class MessageLoggerEngine implements MessageLogger {
         peekLogger().rawlog(msg, level);
     }
 
+    /**
+     * Tells if a message logged at the given level would actually be logged by the current logger.
+     */
+    public boolean isLoggable(int level) {
+        return isLoggable(peekLogger(), level);
+    }
+
+    /**
+     * Tells if a message logged at the given level would actually be logged by the given logger.
+     * {@link MessageLogger} doesn't tell it, so only the {@link AbstractMessageLogger} and
+     * {@link MessageLoggerEngine} instances are asked, other loggers are considered to log every
+     * message.
+     */
+    static boolean isLoggable(MessageLogger logger, int level) {
+        if (logger instanceof MessageLoggerEngine) {
+            return ((MessageLoggerEngine) logger).isLoggable(level);
+        }
+        if (logger instanceof AbstractMessageLogger) {
+            return ((AbstractMessageLogger) logger).isLoggable(level);
+        }
+        return true;
+    }
+
     public void verbose(String msg) {
         peekLogger().verbose(msg);
     }
@@ -22,10 +22,24 @@ import java.util.List;
 
 public final class MessageLoggerHelper {
     public static void sumupProblems(MessageLogger logger) {
-        List myProblems = logger.getProblems();
-        if (myProblems.size() > 0) {
-            List myWarns = logger.getWarns();
-            List myErrors = logger.getErrors();
+        ProblemStore problems = new ProblemStore(Math.max(1, logger.getProblems().size()));
+        for (Iterator iter = logger.getWarns().iterator(); iter.hasNext();) {
+            problems.warn((String) iter.next());
+        }
+        for (Iterator iter = logger.getErrors().iterator(); iter.hasNext();) {
+            problems.error((String) iter.next());
+        }
+        sumupProblems(logger, problems);
+    }
+
+    /**
+     * Logs a summary of the given problems with the given logger. Problems reported several times
+     * are logged once with the number of times they have been reported.
+     */
+    public static void sumupProblems(MessageLogger logger, ProblemStore problems) {
+        if (!problems.isEmpty()) {
+            List myWarns = problems.getWarns();
+            List myErrors = problems.getErrors();
             logger.info(""); // new line on info to isolate error summary
             if (!myErrors.isEmpty()) {
                 logger.log(":: problems summary ::", Message.MSG_ERR);
@@ -36,20 +50,31 @@ public final class MessageLoggerHelper {
                 logger.log(":::: WARNINGS", Message.MSG_WARN);
                 for (Iterator iter = myWarns.iterator(); iter.hasNext();) {
                     String msg = (String) iter.next();
-                    logger.log("\t" + msg + "\n", Message.MSG_WARN);
+                    logger.log("\t" + msg + times(problems.getWarnCount(msg)) + "\n",
+                        Message.MSG_WARN);
                 }
             }
             if (myErrors.size() > 0) {
                 logger.log(":::: ERRORS", Message.MSG_ERR);
                 for (Iterator iter = myErrors.iterator(); iter.hasNext();) {
                     String msg = (String) iter.next();
-                    logger.log("\t" + msg + "\n", Message.MSG_ERR);
+                    logger.log("\t" + msg + times(problems.getErrorCount(msg)) + "\n",
+                        Message.MSG_ERR);
                 }
             }
+            if (problems.getDropped() > 0) {
+                logger.log("\t" + problems.getDropped() + " more problems not kept: only "
+                        + problems.getCapacity() + " distinct problems are kept\n",
+                    myErrors.isEmpty() ? Message.MSG_WARN : Message.MSG_ERR);
+            }
             logger.info("\n:: USE VERBOSE OR DEBUG MESSAGE LEVEL FOR MORE DETAILS");
         }
     }
 
+    private static String times(int count) {
+        return count > 1 ? " (" + count + " times)" : "";
+    }
+
     private MessageLoggerHelper() {
     }
 }
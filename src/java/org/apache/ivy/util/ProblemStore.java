@@ -0,0 +1,187 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The warnings and errors reported to a {@link MessageLogger}, kept once per distinct message
+ * with the number of times it has been reported.
+ * <p>
+ * The store is bounded: once it holds its capacity of distinct messages, new distinct messages
+ * are only counted as dropped, so that loggers living as long as the JVM don't grow with every
+ * problem ever reported. Problems are listed in the order in which they were first reported.
+ * </p>
+ */
+public class ProblemStore {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private static final String WARN_PREFIX = "WARN:  ";
+
+    private static final String ERROR_PREFIX = "\tERROR: ";
+
+    private final int capacity;
+
+    // Map (String -> int[1]): number of times each warning has been reported
+    private final Map warns = new LinkedHashMap();
+
+    // Map (String -> int[1]): number of times each error has been reported
+    private final Map errors = new LinkedHashMap();
+
+    // List (String): the warnings and errors with their prefix, in the order they were reported
+    private final List problems = new ArrayList();
+
+    private int dropped;
+
+    public ProblemStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a store keeping at most the given number of distinct problems.
+     */
+    public ProblemStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("problem store capacity must be positive: "
+                    + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public void warn(String msg) {
+        warn(msg, 1);
+    }
+
+    public void error(String msg) {
+        error(msg, 1);
+    }
+
+    private synchronized void warn(String msg, int count) {
+        add(warns, WARN_PREFIX, msg, count);
+    }
+
+    private synchronized void error(String msg, int count) {
+        add(errors, ERROR_PREFIX, msg, count);
+    }
+
+    private void add(Map counts, String prefix, String msg, int count) {
+        int[] current = (int[]) counts.get(msg);
+        if (current != null) {
+            current[0] += count;
+        } else if (problems.size() < capacity) {
+            counts.put(msg, new int[] {count});
+            problems.add(prefix + msg);
+        } else {
+            dropped += count;
+        }
+    }
+
+    /**
+     * Adds the problems of the given store to this one, summing the counts of the problems they
+     * have in common.
+     */
+    public void addAll(ProblemStore store) {
+        Map otherWarns;
+        Map otherErrors;
+        int otherDropped;
+        synchronized (store) {
+            otherWarns = copyCounts(store.warns);
+            otherErrors = copyCounts(store.errors);
+            otherDropped = store.dropped;
+        }
+        synchronized (this) {
+            for (Iterator it = otherWarns.entrySet().iterator(); it.hasNext();) {
+                Map.Entry entry = (Map.Entry) it.next();
+                warn((String) entry.getKey(), ((int[]) entry.getValue())[0]);
+            }
+            for (Iterator it = otherErrors.entrySet().iterator(); it.hasNext();) {
+                Map.Entry entry = (Map.Entry) it.next();
+                error((String) entry.getKey(), ((int[]) entry.getValue())[0]);
+            }
+            dropped += otherDropped;
+        }
+    }
+
+    private static Map copyCounts(Map counts) {
+        Map copy = new LinkedHashMap();
+        for (Iterator it = counts.entrySet().iterator(); it.hasNext();) {
+            Map.Entry entry = (Map.Entry) it.next();
+            copy.put(entry.getKey(), new int[] {((int[]) entry.getValue())[0]});
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the distinct warnings and errors, prefixed by their kind.
+     */
+    public synchronized List/*<String>*/ getProblems() {
+        return new ArrayList(problems);
+    }
+
+    public synchronized List/*<String>*/ getWarns() {
+        return new ArrayList(warns.keySet());
+    }
+
+    public synchronized List/*<String>*/ getErrors() {
+        return new ArrayList(errors.keySet());
+    }
+
+    /**
+     * Returns the number of times the given warning has been reported, 0 if it hasn't or if it
+     * has been dropped.
+     */
+    public synchronized int getWarnCount(String msg) {
+        int[] count = (int[]) warns.get(msg);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Returns the number of times the given error has been reported, 0 if it hasn't or if it has
+     * been dropped.
+     */
+    public synchronized int getErrorCount(String msg) {
+        int[] count = (int[]) errors.get(msg);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Returns the number of problems which have not been kept because the store was full.
+     */
+    public synchronized int getDropped() {
+        return dropped;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized boolean isEmpty() {
+        return problems.isEmpty() && dropped == 0;
+    }
+
+    public synchronized void clear() {
+        warns.clear();
+        errors.clear();
+        problems.clear();
+        dropped = 0;
+    }
+}
@@ -17,11 +17,17 @@
  */
 package org.apache.ivy.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -36,6 +42,7 @@ import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.XMLReader;
 import org.xml.sax.ext.LexicalHandler;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -55,12 +62,27 @@ public abstract class XMLHelper {
 
     static final String W3C_XML_SCHEMA = "http://www.w3.org/2001/XMLSchema";
 
+    static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+    /**
+     * Maximum number of idle parsers kept for each parser configuration
+     */
+    private static final int MAX_POOLED_PARSERS = 8;
+
     private static boolean canUseSchemaValidation = true;
 
     private static Boolean canDisableExternalDtds = null;
 
-    private static SAXParser newSAXParser(URL schema, InputStream schemaStream, 
-        boolean loadExternalDtds) throws ParserConfigurationException, SAXException {
+    // idle parsers ready to be reused, by configuration: Map (String -> List<SAXParser>)
+    private static final Map PARSER_POOL = new HashMap();
+
+    // content of the schemas used for validation: Map (String -> byte[])
+    private static final Map SCHEMAS = new HashMap();
+
+    private static final DefaultHandler NO_HANDLER = new DefaultHandler();
+
+    private static SAXParser newSAXParser(URL schema, boolean loadExternalDtds) 
+            throws ParserConfigurationException, SAXException, IOException {
         SAXParserFactory parserFactory = SAXParserFactory.newInstance();
         parserFactory.setNamespaceAware(true);
         parserFactory.setValidating(canUseSchemaValidation && (schema != null));
@@ -72,7 +94,9 @@ public abstract class XMLHelper {
         if (canUseSchemaValidation && (schema != null)) {
             try {
                 parser.setProperty(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
-                parser.setProperty(JAXP_SCHEMA_SOURCE, schemaStream);
+                // the schema is compiled on first parse, and then kept by the parser as long as
+                // the schema source isn't changed
+                parser.setProperty(JAXP_SCHEMA_SOURCE, new ByteArrayInputStream(getSchema(schema)));
             } catch (SAXNotRecognizedException ex) {
                 Message.warn("problem while setting JAXP validating property on SAXParser... "
                         + "XML validation will not be done", ex);
@@ -86,6 +110,69 @@ public abstract class XMLHelper {
         return parser;
     }
 
+    private static byte[] getSchema(URL schema) throws IOException {
+        String key = schema.toExternalForm();
+        synchronized (SCHEMAS) {
+            byte[] content = (byte[]) SCHEMAS.get(key);
+            if (content == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                FileUtil.copy(URLHandlerRegistry.getDefault().openStream(schema), out, null);
+                content = out.toByteArray();
+                SCHEMAS.put(key, content);
+            }
+            return content;
+        }
+    }
+
+    private static String getParserKey(URL schema, boolean loadExternalDtds) {
+        return (schema == null ? "" : schema.toExternalForm()) + "|" + loadExternalDtds;
+    }
+
+    /**
+     * Returns an idle parser of the given configuration, or a new one if none is available. The
+     * parser must be given back with {@link #releaseSAXParser(String, SAXParser)} once the parse
+     * is done, unless it has failed.
+     */
+    private static SAXParser borrowSAXParser(String key, URL schema, boolean loadExternalDtds)
+            throws ParserConfigurationException, SAXException, IOException {
+        synchronized (PARSER_POOL) {
+            List parsers = (List) PARSER_POOL.get(key);
+            if (parsers != null && !parsers.isEmpty()) {
+                return (SAXParser) parsers.remove(parsers.size() - 1);
+            }
+        }
+        return newSAXParser(schema, loadExternalDtds);
+    }
+
+    private static void releaseSAXParser(String key, SAXParser parser, boolean lexicalHandlerSet) {
+        // drop the references to the handlers of the last parse, so that they can be collected
+        try {
+            XMLReader reader = parser.getXMLReader();
+            reader.setContentHandler(NO_HANDLER);
+            reader.setErrorHandler(NO_HANDLER);
+            reader.setEntityResolver(NO_HANDLER);
+            reader.setDTDHandler(NO_HANDLER);
+            if (lexicalHandlerSet) {
+                parser.setProperty(LEXICAL_HANDLER, null);
+            }
+        } catch (SAXException ex) {
+            // this parser can't be reset, don't reuse it
+            return;
+        } catch (RuntimeException ex) {
+            return;
+        }
+        synchronized (PARSER_POOL) {
+            List parsers = (List) PARSER_POOL.get(key);
+            if (parsers == null) {
+                parsers = new ArrayList();
+                PARSER_POOL.put(key, parsers);
+            }
+            if (parsers.size() < MAX_POOLED_PARSERS) {
+                parsers.add(parser);
+            }
+        }
+    }
+
     private static boolean canDisableExternalDtds(SAXParserFactory parserFactory) {
        if (canDisableExternalDtds == null) {
            try {
@@ -151,33 +238,22 @@ public abstract class XMLHelper {
     public static void parse(
             InputSource xmlStream, URL schema, DefaultHandler handler, LexicalHandler lHandler,
             boolean loadExternalDtds) throws SAXException, IOException, ParserConfigurationException {
-        InputStream schemaStream = null;
-        try {
-            if (schema != null) {
-                schemaStream = URLHandlerRegistry.getDefault().openStream(schema);
-            }
-            SAXParser parser = XMLHelper.newSAXParser(schema, schemaStream, loadExternalDtds);
-
-            if (lHandler != null) {
-                try {
-                    parser.setProperty("http://xml.org/sax/properties/lexical-handler", lHandler);
-                } catch (SAXException ex) {
-                    Message.warn("problem while setting the lexical handler property on SAXParser",
-                        ex);
-                    // continue without the lexical handler
-                }
-            }
+        String key = getParserKey(schema, loadExternalDtds);
+        SAXParser parser = borrowSAXParser(key, schema, loadExternalDtds);
 
-            parser.parse(xmlStream, handler);
-        } finally {
-            if (schemaStream != null) {
-                try {
-                    schemaStream.close();
-                } catch (IOException ex) {
-                    // ignored
-                }
+        if (lHandler != null) {
+            try {
+                parser.setProperty(LEXICAL_HANDLER, lHandler);
+            } catch (SAXException ex) {
+                Message.warn("problem while setting the lexical handler property on SAXParser",
+                    ex);
+                // continue without the lexical handler
             }
         }
+
+        // a parser which has failed is not given back, its state is unknown
+        parser.parse(xmlStream, handler);
+        releaseSAXParser(key, parser, lHandler != null);
     }
 
     public static boolean canUseSchemaValidation() {
@@ -0,0 +1,128 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.Message;
+
+/**
+ * A repository generated by {@link RepositoryGenerator} in the ivy layout, with a
+ * {@link FileSystemResolver} reading it, used by the benchmarks.
+ * <p>
+ * The repository only depends on the number of modules, since it is generated with a fixed
+ * seed, and it is generated once in the build directory and reused by later runs.
+ * </p>
+ */
+public final class BenchmarkRepository {
+    private static final String BASE_DIR = "build/benchmark";
+
+    private static final String COMPLETE_MARKER = "complete";
+
+    private static final long SEED = 42L;
+
+    // the benchmarks download no artifact
+    private static final int ARTIFACT_SIZE = 16;
+
+    private final int nbModules;
+
+    private final File dir;
+
+    private final RepositoryGenerator generator = new RepositoryGenerator();
+
+    private BenchmarkRepository(int nbModules) {
+        this.nbModules = nbModules;
+        this.dir = new File(BASE_DIR, "repo-" + nbModules).getAbsoluteFile();
+        generator.setSeed(SEED);
+        generator.setNbModules(nbModules);
+        generator.setArtifactSize(ARTIFACT_SIZE);
+    }
+
+    /**
+     * Returns the repository of the given number of modules, generating it if needed.
+     */
+    public static BenchmarkRepository get(int nbModules) throws IOException {
+        // the benchmarks only need to report problems
+        Message.setDefaultLogger(new DefaultMessageLogger(Message.MSG_WARN));
+        BenchmarkRepository repository = new BenchmarkRepository(nbModules);
+        File marker = new File(repository.dir, COMPLETE_MARKER);
+        if (!marker.exists()) {
+            // a partially generated repository is generated again
+            FileUtil.forceDelete(repository.dir);
+            repository.generator.generate(repository.dir, RepositoryGenerator.IVY_LAYOUT);
+            marker.createNewFile();
+        }
+        return repository;
+    }
+
+    public int getNbModules() {
+        return nbModules;
+    }
+
+    public File getRootIvyFile() {
+        return new File(dir, IvyPatternHelper.substitute(RepositoryGenerator.IVY_PATTERN,
+            generator.getRoot()));
+    }
+
+    /**
+     * Returns a new Ivy instance resolving the modules of this repository with the resolver
+     * named "def", and using the given cache.
+     */
+    public Ivy newIvy(File cache) {
+        IvySettings settings = new IvySettings();
+        settings.setDefaultCache(cache.getAbsoluteFile());
+
+        FileSystemResolver resolver = new FileSystemResolver();
+        resolver.setName("def");
+        resolver.setSettings(settings);
+        resolver.addIvyPattern(dir.getPath() + "/" + RepositoryGenerator.IVY_PATTERN);
+        resolver.addArtifactPattern(dir.getPath() + "/" + RepositoryGenerator.ARTIFACT_PATTERN);
+
+        settings.addResolver(resolver);
+        settings.setDefaultResolver("def");
+        return Ivy.newInstance(settings);
+    }
+
+    /**
+     * Returns the options of a quiet resolve of the root module, downloading nothing and writing
+     * no report.
+     */
+    public static ResolveOptions newResolveOptions() {
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"*"})
+                .setDownload(false).setOutputReport(false);
+        options.setLog(LogOptions.LOG_QUIET);
+        return options;
+    }
+
+    /**
+     * Returns a new empty cache directory with the given name.
+     */
+    public static File newCache(String name) {
+        File cache = new File(BASE_DIR, "cache-" + name).getAbsoluteFile();
+        FileUtil.forceDelete(cache);
+        cache.mkdirs();
+        return cache;
+    }
+}
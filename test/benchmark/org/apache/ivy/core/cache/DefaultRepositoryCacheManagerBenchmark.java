@@ -0,0 +1,92 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.BenchmarkRepository;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up modules found in the repository cache, as done by the resolvers for each dependency of
+ * a resolve once the cache is filled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DefaultRepositoryCacheManagerBenchmark {
+    private static final int NB_MODULES = 100;
+
+    private Ivy ivy;
+
+    private DefaultRepositoryCacheManager cacheManager;
+
+    private DependencyDescriptor[] dependencies;
+
+    private CacheMetadataOptions options;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkRepository repository = BenchmarkRepository.get(NB_MODULES);
+        ivy = repository.newIvy(BenchmarkRepository.newCache("lookup"));
+        ResolveReport report = ivy.resolve(repository.getRootIvyFile(),
+            BenchmarkRepository.newResolveOptions());
+        dependencies = report.getModuleDescriptor().getDependencies();
+        cacheManager = (DefaultRepositoryCacheManager) ivy.getSettings()
+                .getDefaultRepositoryCacheManager();
+        options = new CacheMetadataOptions();
+        // the cache manager uses the settings of the current context
+        ivy.pushContext();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ivy.popContext();
+    }
+
+    @Benchmark
+    public ResolvedModuleRevision findModuleInCache() {
+        DependencyDescriptor dd = dependencies[next];
+        next = (next + 1) % dependencies.length;
+        ResolvedModuleRevision rmr = cacheManager.findModuleInCache(dd,
+            dd.getDependencyRevisionId(), options, "def");
+        if (rmr == null) {
+            throw new IllegalStateException(dd.getDependencyRevisionId() + " not found in cache");
+        }
+        return rmr;
+    }
+}
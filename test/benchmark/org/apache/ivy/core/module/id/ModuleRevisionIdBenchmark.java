@@ -0,0 +1,101 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.module.id;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creates module revision ids, which are interned on creation, both for ids already known and for
+ * ids seen for the first time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModuleRevisionIdBenchmark {
+    private static final int NB_IDS = 1024;
+
+    private String[] organisations;
+
+    private String[] names;
+
+    private String[] revisions;
+
+    private ModuleRevisionId[] known;
+
+    private ModuleRevisionId[] uninterned;
+
+    private int next;
+
+    private long created;
+
+    @Setup
+    public void setUp() {
+        organisations = new String[NB_IDS];
+        names = new String[NB_IDS];
+        revisions = new String[NB_IDS];
+        known = new ModuleRevisionId[NB_IDS];
+        uninterned = new ModuleRevisionId[NB_IDS];
+        for (int i = 0; i < NB_IDS; i++) {
+            organisations[i] = "org" + (i % 32);
+            names[i] = "mod" + i;
+            revisions[i] = "1." + (i % 10);
+            known[i] = ModuleRevisionId.newInstance(organisations[i], names[i], revisions[i]);
+            uninterned[i] = new ModuleRevisionId(ModuleId.newInstance(organisations[i],
+                names[i]), revisions[i]);
+        }
+    }
+
+    @Benchmark
+    public ModuleRevisionId newInstanceKnown() {
+        int i = next();
+        return ModuleRevisionId.newInstance(organisations[i], names[i], revisions[i]);
+    }
+
+    @Benchmark
+    public ModuleRevisionId newInstanceNew() {
+        int i = next();
+        // a revision never seen before, so that the id is added to the intern cache
+        return ModuleRevisionId.newInstance(organisations[i], names[i],
+            String.valueOf(created++));
+    }
+
+    @Benchmark
+    public ModuleRevisionId intern() {
+        return ModuleRevisionId.intern(uninterned[next()]);
+    }
+
+    private int next() {
+        int i = next;
+        next = (next + 1) & (NB_IDS - 1);
+        return i;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.resolve;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.BenchmarkRepository;
+import org.apache.ivy.core.report.ResolveReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves the root module of generated module graphs, with a cache filled by a first resolve:
+ * the time measured is the time of the resolve engine itself, not of the repository accesses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResolveEngineBenchmark {
+    @Param({"100", "1000", "5000"})
+    private int nodes;
+
+    private Ivy ivy;
+
+    private File rootIvyFile;
+
+    private ResolveOptions options;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkRepository repository = BenchmarkRepository.get(nodes);
+        ivy = repository.newIvy(BenchmarkRepository.newCache("resolve-" + nodes));
+        rootIvyFile = repository.getRootIvyFile();
+        options = BenchmarkRepository.newResolveOptions();
+
+        ResolveReport report = ivy.resolve(rootIvyFile, options);
+        if (report.hasError()) {
+            throw new IllegalStateException("the generated graph can't be resolved: "
+                    + report.getAllProblemMessages());
+        }
+    }
+
+    @Benchmark
+    public ResolveReport resolve() throws Exception {
+        return ivy.resolve(rootIvyFile, options);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.latest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorts revisions and finds the latest one, as done for each dynamic revision of a resolve, on
+ * revisions mixing numbers, qualifiers and special meanings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LatestRevisionStrategyBenchmark {
+    private static final String[] QUALIFIERS = {"", "", "", "-SNAPSHOT", "-rc1", "-beta", "-dev",
+            "-final", "_2"};
+
+    @Param({"10", "1000"})
+    private int revisions;
+
+    private LatestRevisionStrategy strategy;
+
+    private ArtifactInfo[] infos;
+
+    private static final class Info implements ArtifactInfo {
+        private final String revision;
+
+        private Info(String revision) {
+            this.revision = revision;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public long getLastModified() {
+            return 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        strategy = new LatestRevisionStrategy();
+        Random r = new Random(42L);
+        infos = new ArtifactInfo[revisions];
+        for (int i = 0; i < revisions; i++) {
+            infos[i] = new Info(r.nextInt(5) + "." + r.nextInt(20) + "." + r.nextInt(50)
+                    + QUALIFIERS[r.nextInt(QUALIFIERS.length)]);
+        }
+    }
+
+    @Benchmark
+    public List sort() {
+        return strategy.sort(infos);
+    }
+
+    @Benchmark
+    public ArtifactInfo findLatest() {
+        return strategy.findLatest(infos, null);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.version;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.latest.LatestRevisionStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checks revisions found in a repository against a version range, as done for each listed
+ * revision when a range is resolved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VersionRangeMatcherBenchmark {
+    private static final int NB_REVISIONS = 1024;
+
+    @Param({"[1.0,2.0]", "[1.0,2.0[", "]1.0,)", "(,2.5.0["})
+    private String range;
+
+    private VersionRangeMatcher matcher;
+
+    private ModuleRevisionId askedMrid;
+
+    private ModuleRevisionId[] foundMrids;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        matcher = new VersionRangeMatcher("range", new LatestRevisionStrategy());
+        askedMrid = ModuleRevisionId.newInstance("apache", "mod", range);
+        Random r = new Random(42L);
+        foundMrids = new ModuleRevisionId[NB_REVISIONS];
+        for (int i = 0; i < NB_REVISIONS; i++) {
+            foundMrids[i] = ModuleRevisionId.newInstance("apache", "mod", r.nextInt(4) + "."
+                    + r.nextInt(10) + "." + r.nextInt(10));
+        }
+    }
+
+    @Benchmark
+    public boolean accept() {
+        ModuleRevisionId foundMrid = foundMrids[next];
+        next = (next + 1) & (NB_REVISIONS - 1);
+        return matcher.accept(askedMrid, foundMrid);
+    }
+}
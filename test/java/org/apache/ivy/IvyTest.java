@@ -18,11 +18,19 @@
 package org.apache.ivy;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.download.EndArtifactDownloadEvent;
 import org.apache.ivy.core.report.ResolveReport;
 import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.repository.TransferEvent;
+import org.apache.ivy.plugins.repository.TransferListener;
 import org.apache.ivy.util.CacheCleaner;
 import org.apache.ivy.util.MockMessageLogger;
 
@@ -90,6 +98,47 @@ public class IvyTest extends TestCase {
             IvyContext.getContext().getIvy() == ivy);
     }
 
+    public void testSharedSettingsEvents() throws Exception {
+        // Ivy instances sharing a snapshot of settings, like the requests of the daemon, each get
+        // the events of their own resolves, even from the resolvers configured by the first one
+        Ivy ivy = Ivy.newInstance();
+        ivy.configure(new File("test/repositories/ivysettings.xml"));
+        Ivy ivy2 = new Ivy();
+        ivy2.setSettings(ivy.getSettings().snapshot());
+        ivy2.bind();
+        List events = listenEvents(ivy);
+        List events2 = listenEvents(ivy2);
+
+        ResolveReport report = ivy2.resolve(new File(
+            "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml"),
+            getResolveOptions(ivy2, new String[] {"*"}));
+        assertFalse(report.hasError());
+        assertEquals(Collections.EMPTY_LIST, events);
+        assertTrue(events2.contains(EndArtifactDownloadEvent.class));
+        assertTrue(events2.contains(TransferEvent.class));
+    }
+
+    /**
+     * Returns the list to which the classes of the download and transfer events of the given Ivy
+     * instance are added.
+     */
+    private List listenEvents(Ivy ivy) {
+        final List events = Collections.synchronizedList(new ArrayList());
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                if (event instanceof EndArtifactDownloadEvent) {
+                    events.add(event.getClass());
+                }
+            }
+        });
+        ivy.getEventManager().addTransferListener(new TransferListener() {
+            public void transferProgress(TransferEvent evt) {
+                events.add(evt.getClass());
+            }
+        });
+        return events;
+    }
+
     private ResolveOptions getResolveOptions(Ivy ivy, String[] confs) {
         return getResolveOptions(ivy.getSettings(), confs);
     }
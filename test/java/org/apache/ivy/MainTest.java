@@ -17,11 +17,15 @@
  */
 package org.apache.ivy;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.util.CacheCleaner;
+import org.apache.ivy.util.FileUtil;
 import org.apache.ivy.util.cli.CommandLine;
 import org.apache.ivy.util.cli.ParseException;
+import org.apache.ivy.util.url.CredentialsStore;
 
 import junit.framework.TestCase;
 
@@ -128,6 +132,252 @@ public class MainTest extends TestCase {
         assertEquals(0, leftOver.length);
     }
 
+    public void testMetrics() throws Exception {
+        File metrics = new File("build/test/metrics/metrics.json");
+        try {
+            run(new String[] {
+                    "-settings", "test/repositories/ivysettings.xml",
+                    "-ivy", "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml",
+                    "-metrics", metrics.getPath()
+            });
+            assertTrue(metrics.exists());
+            String json = FileUtil.readEntirely(metrics);
+            assertTrue(json, json.indexOf("\"resolve\": {\"count\": 1") != -1);
+            assertTrue(json, json.indexOf("\"cache-misses\"") != -1);
+        } finally {
+            CacheCleaner.deleteDir(metrics.getParentFile());
+        }
+    }
+
+    public void testTrace() throws Exception {
+        File trace = new File("build/test/trace/trace.json");
+        try {
+            run(new String[] {
+                    "-settings", "test/repositories/ivysettings.xml",
+                    "-ivy", "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml",
+                    "-trace", trace.getPath()
+            });
+            assertTrue(trace.exists());
+            String json = FileUtil.readEntirely(trace);
+            assertTrue(json, json.startsWith("{\"traceEvents\": ["));
+            assertTrue(json, json.indexOf("\"cat\": \"dependency\"") != -1);
+        } finally {
+            CacheCleaner.deleteDir(trace.getParentFile());
+        }
+    }
+
+    public void testDaemon() throws Exception {
+        MainDaemon daemon = new MainDaemon(Main.getParser(), 0);
+        daemon.start(Main.getParser().parse(new String[0]));
+        try {
+            String port = String.valueOf(daemon.getPort());
+            // the settings loaded by the first request are reused by the second one
+            for (int i = 0; i < 2; i++) {
+                assertEquals(0, Main.run(Main.getParser(), new String[] {"-client", port,
+                        "-settings", "test/repositories/ivysettings.xml",
+                        "-ivy", "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml"}));
+                assertTrue(new File("build/cache/org1/mod1.2/ivy-2.0.xml").exists());
+            }
+            assertEquals(1, Main.run(Main.getParser(), new String[] {"-client", port,
+                    "-settings", "test/repositories/ivysettings.xml",
+                    "-ivy", "test/repositories/1/org1/mod1.1/ivys/ivy-unknown.xml"}));
+            assertEquals(1, Main.run(Main.getParser(), new String[] {"-client", port,
+                    "-main", "org.example.Main"}));
+        } finally {
+            daemon.stop();
+            daemon.join();
+        }
+    }
+
+    public void testDaemonCredentials() throws Exception {
+        MainDaemon daemon = new MainDaemon(Main.getParser(), 0);
+        daemon.start(Main.getParser().parse(new String[0]));
+        try {
+            String port = String.valueOf(daemon.getPort());
+            // each request uses its own credentials, even with the same settings
+            String[] users = new String[] {"first", "second", "first"};
+            for (int i = 0; i < users.length; i++) {
+                assertEquals(0, Main.run(Main.getParser(), new String[] {"-client", port,
+                        "-settings", "test/repositories/ivysettings.xml",
+                        "-realm", "daemon-realm", "-host", "daemon-host",
+                        "-username", users[i], "-passwd", "secret",
+                        "-ivy", "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml"}));
+                assertEquals(users[i], CredentialsStore.INSTANCE.getCredentials("daemon-realm",
+                    "daemon-host").getUserName());
+            }
+        } finally {
+            daemon.stop();
+            daemon.join();
+        }
+    }
+
+    public void testBatch() throws Exception {
+        File dir = new File("build/test/batch");
+        dir.mkdirs();
+        File manifest = new File(dir, "manifest.txt");
+        FileUtil.copy(new ByteArrayInputStream(("# resolves of the batch\n"
+                + "-ivy \"" + new File("test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml")
+                        .getAbsolutePath() + "\" -cachepath cp1.txt\n"
+                + "\n"
+                + "-ivy " + new File("test/repositories/1/org1/mod1.4/ivys/ivy-1.0.2.xml")
+                        .getAbsolutePath() + " -confs default -cachepath cp2.txt\n"
+                + "-ivy unknown.xml\n").getBytes("UTF-8")), manifest, null);
+        try {
+            assertEquals(1, Main.run(Main.getParser(), new String[] {
+                    "-settings", "test/repositories/ivysettings.xml",
+                    "-batch", manifest.getPath(), "-batchthreads", "2"}));
+            // the failed entry doesn't prevent the others from running
+            assertTrue(new File(dir, "cp1.txt").exists());
+            assertTrue(new File(dir, "cp2.txt").exists());
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    public void testBatchOverlappingEntries() throws Exception {
+        File dir = new File("build/test/batch");
+        dir.mkdirs();
+        File manifest = new File(dir, "manifest.txt");
+        // distinct modules with the same transitive dependencies, resolved concurrently:
+        // mod2.1 -> mod1.1 -> mod1.2
+        StringBuffer entries = new StringBuffer();
+        for (int i = 0; i < 8; i++) {
+            FileUtil.copy(new ByteArrayInputStream(("<ivy-module version=\"2.0\">"
+                    + "<info organisation=\"batch\" module=\"mod" + i + "\"/>"
+                    + "<dependencies>"
+                    + "<dependency org=\"org2\" name=\"mod2.1\" rev=\"0.3\"/>"
+                    + "</dependencies></ivy-module>").getBytes("UTF-8")), new File(dir, "ivy-"
+                    + i + ".xml"), null);
+            entries.append("-ivy ivy-" + i + ".xml -cachepath cp" + i + ".txt\n");
+        }
+        FileUtil.copy(new ByteArrayInputStream(entries.toString().getBytes("UTF-8")), manifest,
+            null);
+        try {
+            // the entries share the cache, which must be locked
+            assertEquals(0, Main.run(Main.getParser(), new String[] {
+                    "-settings", "test/repositories/ivysettings-artifact-lock.xml",
+                    "-batch", manifest.getPath(), "-batchthreads", "4"}));
+            for (int i = 0; i < 8; i++) {
+                String cp = FileUtil.readEntirely(new File(dir, "cp" + i + ".txt"));
+                assertTrue(cp, cp.indexOf("art21A-0.3.jar") != -1);
+                assertTrue(cp, cp.indexOf("mod1.1-1.0.jar") != -1);
+                assertTrue(cp, cp.indexOf("mod1.2-2.0.jar") != -1);
+            }
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    public void testBatchEntryWithSettings() throws Exception {
+        File dir = new File("build/test/batch");
+        dir.mkdirs();
+        File manifest = new File(dir, "manifest.txt");
+        FileUtil.copy(new ByteArrayInputStream("-ivy ivy.xml -settings ivysettings.xml"
+                .getBytes("UTF-8")), manifest, null);
+        try {
+            run(new String[] {"-batch", manifest.getPath()});
+            fail("a batch entry can't have its own settings");
+        } catch (ParseException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().endsWith(
+                "manifest.txt:1: -settings can't be used in a batch entry"));
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    public void testBenchmark() throws Exception {
+        File dir = new File("build/test/benchmark");
+        File results = new File(dir, "results.xml");
+        File report = new File(dir, "report/index.html");
+        try {
+            assertEquals(0, Main.run(Main.getParser(), new String[] {
+                    "-benchmark", results.getPath(), "-benchmarkgenerate", "10",
+                    "-benchmarkruns", "2", "-benchmarkwarmup", "0"}));
+            String xml = FileUtil.readEntirely(results);
+            assertTrue(xml, xml.indexOf("workload=\"generated repository of 10 modules\"") != -1);
+            assertEquals(2, xml.split("<run ").length - 1);
+
+            // a build compared with itself doesn't regress
+            assertEquals(0, Main.run(Main.getParser(), new String[] {
+                    "-benchmarkcompare", results.getPath(), results.getPath(),
+                    "-benchmarkreport", report.getPath()}));
+            String html = FileUtil.readEntirely(report);
+            assertTrue(html, html.indexOf("no regression") != -1);
+            assertTrue(new File(report.getParentFile(), "ivy-report.css").exists());
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    public void testBenchmarkBadSettings() throws Exception {
+        File dir = new File("build/test/benchmark");
+        IvyContext context = IvyContext.getContext();
+        try {
+            MainBenchmark.execute(Main.getParser().parse(new String[] {
+                    "-benchmark", new File(dir, "results.xml").getPath(),
+                    "-settings", "unknown-ivysettings.xml", "-benchmarkgenerate", "2"}),
+                null, System.out);
+            fail("a benchmark with missing settings should fail");
+        } catch (ParseException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith(
+                "ivy configuration file not found"));
+            // the context of the failed run has been popped
+            assertSame(context, IvyContext.getContext());
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    public void testBenchmarkCompare() throws Exception {
+        File dir = new File("build/test/benchmark");
+        File baseline = new File(dir, "baseline.xml");
+        File current = new File(dir, "current.xml");
+        File report = new File(dir, "index.html");
+        writeBenchmarkResults(baseline, new int[] {100, 104, 98, 102, 101});
+        writeBenchmarkResults(current, new int[] {120, 118, 123, 121, 119});
+        try {
+            // about 19% slower
+            assertEquals(1, Main.run(Main.getParser(), new String[] {
+                    "-benchmarkcompare", baseline.getPath(), current.getPath(),
+                    "-benchmarkreport", report.getPath()}));
+            String html = FileUtil.readEntirely(report);
+            assertTrue(html, html.indexOf("<tr class=\"regression\">") != -1);
+            assertEquals(0, Main.run(Main.getParser(), new String[] {
+                    "-benchmarkcompare", baseline.getPath(), current.getPath(),
+                    "-benchmarkthreshold", "25"}));
+            // faster is never a regression
+            assertEquals(0, Main.run(Main.getParser(), new String[] {
+                    "-benchmarkcompare", current.getPath(), baseline.getPath()}));
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    public void testBenchmarkCompareNotSignificant() throws Exception {
+        File dir = new File("build/test/benchmark");
+        File baseline = new File(dir, "baseline.xml");
+        File current = new File(dir, "current.xml");
+        writeBenchmarkResults(baseline, new int[] {100, 60, 140});
+        writeBenchmarkResults(current, new int[] {150, 70, 130});
+        try {
+            // 17% slower, but within the noise of the runs
+            assertEquals(0, Main.run(Main.getParser(), new String[] {
+                    "-benchmarkcompare", baseline.getPath(), current.getPath()}));
+        } finally {
+            CacheCleaner.deleteDir(dir);
+        }
+    }
+
+    private static void writeBenchmarkResults(File file, int[] totals) throws Exception {
+        StringBuffer xml = new StringBuffer("<ivy-benchmark version=\"1.0\">\n");
+        for (int i = 0; i < totals.length; i++) {
+            xml.append("<run resolve=\"" + totals[i] + "\" download=\"0\" retrieve=\"0\" total=\""
+                    + totals[i] + "\" heap=\"-1\"/>\n");
+        }
+        xml.append("</ivy-benchmark>\n");
+        FileUtil.copy(new ByteArrayInputStream(xml.toString().getBytes("UTF-8")), file, null);
+    }
+
     private void run(String[] args) throws Exception {
         Main.run(Main.getParser(), args);
     }
@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.ant;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.util.Message;
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+
+public class AntMessageLoggerTest extends TestCase {
+    private Project project;
+
+    private Task task;
+
+    protected void setUp() throws Exception {
+        project = AntTestHelper.newProject();
+        task = new Task() {
+        };
+        task.setProject(project);
+    }
+
+    public void testIsLoggable() throws Exception {
+        AntMessageLogger logger = new AntMessageLogger(task);
+        assertTrue(logger.isLoggable(Message.MSG_ERR));
+        assertTrue(logger.isLoggable(Message.MSG_INFO));
+        assertFalse(logger.isLoggable(Message.MSG_VERBOSE));
+        assertFalse(logger.isLoggable(Message.MSG_DEBUG));
+    }
+
+    public void testIsLoggableHighestLevel() throws Exception {
+        DefaultLogger verbose = new DefaultLogger();
+        verbose.setMessageOutputLevel(Project.MSG_VERBOSE);
+        verbose.setOutputPrintStream(System.out);
+        verbose.setErrorPrintStream(System.out);
+        project.addBuildListener(verbose);
+
+        AntMessageLogger logger = new AntMessageLogger(task);
+        assertTrue(logger.isLoggable(Message.MSG_VERBOSE));
+        assertFalse(logger.isLoggable(Message.MSG_DEBUG));
+    }
+
+    public void testIsLoggableOtherListener() throws Exception {
+        project.addBuildListener(new BuildListener() {
+            public void buildStarted(BuildEvent event) {
+            }
+
+            public void buildFinished(BuildEvent event) {
+            }
+
+            public void targetStarted(BuildEvent event) {
+            }
+
+            public void targetFinished(BuildEvent event) {
+            }
+
+            public void taskStarted(BuildEvent event) {
+            }
+
+            public void taskFinished(BuildEvent event) {
+            }
+
+            public void messageLogged(BuildEvent event) {
+            }
+        });
+
+        // the listener may log messages at any level
+        assertTrue(new AntMessageLogger(task).isLoggable(Message.MSG_DEBUG));
+    }
+
+    public void testRegister() throws Exception {
+        Ivy ivy = new Ivy();
+        AntMessageLogger.register(task, ivy);
+        assertTrue(ivy.getLoggerEngine().peekLogger() instanceof AntMessageLogger);
+
+        // the listener registered to pop the logger doesn't log anything
+        assertFalse(ivy.getLoggerEngine().isLoggable(Message.MSG_VERBOSE));
+    }
+}
@@ -17,8 +17,10 @@
  */
 package org.apache.ivy.ant;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -107,6 +109,75 @@ public class IvyBuildListTest extends TestCase {
         assertListOfFiles("test/buildlist/", new String[] {"B", "C", "A", "D", "E"}, files);
     }
 
+    public void testParseThreads() {
+        FileSet fs = new FileSet();
+        fs.setDir(new File("test/buildlist"));
+        fs.setIncludes("**/build.xml");
+        fs.setExcludes("E2/build.xml,F/build.xml,G/build.xml");
+
+        buildlist.addFileset(fs);
+        buildlist.setOnMissingDescriptor("skip");
+        buildlist.setParseThreads(3);
+
+        String[] files = getFiles(buildlist);
+
+        assertEquals(5, files.length);
+
+        assertListOfFiles("test/buildlist/", new String[] {"B", "C", "A", "D", "E"}, files);
+    }
+
+    public void testCacheDescriptors() throws Exception {
+        File buildlistDir = new File("build/test/buildlist-cache");
+        FileUtil.forceDelete(buildlistDir);
+        FileUtil.deepCopy(new File("test/buildlist"), buildlistDir, null, true);
+        try {
+            String[] files = getCachedFiles(buildlistDir);
+            assertListOfFiles(buildlistDir.getPath() + "/",
+                new String[] {"B", "C", "A", "D", "E"}, files);
+            assertTrue(new File(cache, "buildlist-descriptors.properties").exists());
+
+            // A now depends on E, but its last modified time and length are the same: the
+            // dependencies stored in the cache by the previous build are used
+            File ivyFile = new File(buildlistDir, "A/ivy.xml");
+            long lastModified = ivyFile.lastModified();
+            String content = FileUtil.readEntirely(ivyFile);
+            FileUtil.copy(new ByteArrayInputStream(
+                content.replaceAll("name=\"C\"", "name=\"E\"").getBytes()), ivyFile, null);
+            ivyFile.setLastModified(lastModified);
+            files = getCachedFiles(buildlistDir);
+            assertListOfFiles(buildlistDir.getPath() + "/",
+                new String[] {"B", "C", "A", "D", "E"}, files);
+
+            ivyFile.setLastModified(lastModified - 10000);
+            List list = Arrays.asList(getCachedFiles(buildlistDir));
+            assertTrue(list.indexOf(new File(buildlistDir, "E/build.xml").getAbsolutePath())
+                < list.indexOf(new File(buildlistDir, "A/build.xml").getAbsolutePath()));
+        } finally {
+            FileUtil.forceDelete(buildlistDir);
+        }
+    }
+
+    private String[] getCachedFiles(File buildlistDir) {
+        // each build list runs in a new project, as in a new build
+        Project project = new Project();
+        project.init();
+        IvyBuildList buildlist = new IvyBuildList();
+        buildlist.setProject(project);
+
+        FileSet fs = new FileSet();
+        fs.setDir(buildlistDir);
+        fs.setIncludes("**/build.xml");
+        fs.setExcludes("E2/build.xml,F/build.xml,G/build.xml");
+
+        buildlist.addFileset(fs);
+        buildlist.setOnMissingDescriptor("skip");
+        buildlist.setCacheDescriptors(true);
+
+        String[] files = getFiles(buildlist);
+        assertEquals(5, files.length);
+        return files;
+    }
+
     public void testReverse() {
         FileSet fs = new FileSet();
         fs.setDir(new File("test/buildlist"));
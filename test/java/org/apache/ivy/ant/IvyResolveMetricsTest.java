@@ -0,0 +1,81 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.ant;
+
+import java.io.File;
+
+import org.apache.ivy.ant.testutil.AntTaskTestCase;
+import org.apache.ivy.util.FileUtil;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.Delete;
+
+public class IvyResolveMetricsTest extends AntTaskTestCase {
+    private File cache;
+
+    private IvyResolveMetrics metrics;
+
+    private Project project;
+
+    protected void setUp() throws Exception {
+        createCache();
+        project = configureProject();
+        project.setProperty("ivy.settings.file", "test/repositories/ivysettings.xml");
+
+        metrics = new IvyResolveMetrics();
+        metrics.setProject(project);
+        System.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+    }
+
+    private void createCache() {
+        cache = new File("build/cache");
+        cache.mkdirs();
+    }
+
+    protected void tearDown() throws Exception {
+        cleanCache();
+    }
+
+    private void cleanCache() {
+        Delete del = new Delete();
+        del.setProject(new Project());
+        del.setDir(cache);
+        del.execute();
+    }
+
+    public void testLog() throws Exception {
+        metrics.setFile(new File("test/java/org/apache/ivy/ant/ivy-simple.xml"));
+        metrics.execute();
+        assertLogContaining("resolve metrics of apache-resolve-simple");
+        assertLogContaining("dependency: count=1");
+    }
+
+    public void testToFile() throws Exception {
+        IvyResolve resolve = new IvyResolve();
+        resolve.setProject(project);
+        resolve.setFile(new File("test/java/org/apache/ivy/ant/ivy-simple.xml"));
+        resolve.setResolveId("abc");
+        resolve.execute();
+
+        File json = new File(cache, "metrics.json");
+        metrics.setResolveId("abc");
+        metrics.setTofile(json);
+        metrics.execute();
+        String content = FileUtil.readEntirely(json);
+        assertTrue(content, content.indexOf("\"resolve\": {\"count\": 1") != -1);
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.util.ChecksumHelper;
+
+/**
+ * Generates a repository of modules whose dependency graph looks like the ones found in real
+ * repositories, either with ivy files in the usual file system layout or with poms in the maven 2
+ * layout.
+ * <p>
+ * The graph only depends on the seed and the settings of the generator, so that the same
+ * repository is generated each time, and so that the ivy and maven 2 layouts contain the same
+ * graph. Modules are grouped by organisation and depend on modules with a higher index, mostly
+ * close ones, which gives deep graphs. Each dependency asks either for a fixed revision, so that
+ * dependencies on several revisions of the same module are in conflict, or for a version range.
+ * Some dependencies exclude a transitive dependency, are runtime only, or ask for the classified
+ * artifact of the modules publishing one. In the maven 2 layout, some poms inherit from the
+ * parent pom of their organisation, which manages the versions of the modules of the
+ * organisation, and the revisions of each module are listed in a maven-metadata.xml file.
+ * </p>
+ */
+public class RepositoryGenerator {
+    public static final String IVY_LAYOUT = "ivy";
+
+    public static final String M2_LAYOUT = "m2";
+
+    /**
+     * The pattern of ivy files in the ivy layout, relative to the repository root.
+     */
+    public static final String IVY_PATTERN =
+            "[organisation]/[module]/[revision]/ivy-[revision].xml";
+
+    /**
+     * The pattern of poms in the maven 2 layout, relative to the repository root, the
+     * organisation being m2 compatible.
+     */
+    public static final String POM_PATTERN =
+            "[organisation]/[module]/[revision]/[module]-[revision].pom";
+
+    /**
+     * The pattern of artifacts in both layouts, relative to the repository root, the organisation
+     * being m2 compatible in the maven 2 layout.
+     */
+    public static final String ARTIFACT_PATTERN =
+            "[organisation]/[module]/[revision]/[artifact]-[revision](-[classifier]).[ext]";
+
+    public static final String CLASSIFIER = "jdk5";
+
+    private static final String PUBLICATION = "20140101000000";
+
+    private static final String RANGE = "[1.0,2.0[";
+
+    private static final double RUNTIME_RATIO = 0.2;
+
+    private long seed = 1;
+
+    private int nbModules = 200;
+
+    private int nbOrganisations = 10;
+
+    private int nbVersions = 3;
+
+    private int minDependencies = 1;
+
+    private int maxDependencies = 5;
+
+    private int window = 20;
+
+    private double rangeRatio = 0.2;
+
+    private double excludeRatio = 0.1;
+
+    private double classifierRatio = 0.1;
+
+    private double parentRatio = 0.5;
+
+    private int artifactSize = 4096;
+
+    private Module[] modules;
+
+    private static final class Module {
+        private String organisation;
+
+        private String name;
+
+        private boolean classified;
+
+        private boolean withParent;
+
+        private int[] dependencies;
+
+        // the asked revision of each dependency, for each version of the module
+        private String[][] revisions;
+
+        // the index of the module excluded from each dependency, -1 if none
+        private int[] excludes;
+
+        private boolean[] runtime;
+
+        private boolean[] classifier;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setNbModules(int nbModules) {
+        this.nbModules = nbModules;
+    }
+
+    public void setNbOrganisations(int nbOrganisations) {
+        this.nbOrganisations = nbOrganisations;
+    }
+
+    public void setNbVersions(int nbVersions) {
+        this.nbVersions = nbVersions;
+    }
+
+    public void setMinDependencies(int minDependencies) {
+        this.minDependencies = minDependencies;
+    }
+
+    public void setMaxDependencies(int maxDependencies) {
+        this.maxDependencies = maxDependencies;
+    }
+
+    /**
+     * Sets the number of modules following a module among which most of its dependencies are
+     * chosen: the smaller the window, the deeper the graph.
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public void setRangeRatio(double rangeRatio) {
+        this.rangeRatio = rangeRatio;
+    }
+
+    public void setExcludeRatio(double excludeRatio) {
+        this.excludeRatio = excludeRatio;
+    }
+
+    public void setClassifierRatio(double classifierRatio) {
+        this.classifierRatio = classifierRatio;
+    }
+
+    public void setParentRatio(double parentRatio) {
+        this.parentRatio = parentRatio;
+    }
+
+    public void setArtifactSize(int artifactSize) {
+        this.artifactSize = artifactSize;
+    }
+
+    /**
+     * Returns the module at the top of the generated graph, the latest revision of the first
+     * module.
+     */
+    public ModuleRevisionId getRoot() {
+        return ModuleRevisionId.newInstance(getOrganisation(0), "mod0",
+            getRevision(nbVersions - 1));
+    }
+
+    /**
+     * Generates the repository in the given directory, which should be empty.
+     *
+     * @param dir
+     *            the root of the repository
+     * @param layout
+     *            {@link #IVY_LAYOUT} or {@link #M2_LAYOUT}
+     * @return the module at the top of the generated graph
+     */
+    public ModuleRevisionId generate(File dir, String layout) throws IOException {
+        if (!IVY_LAYOUT.equals(layout) && !M2_LAYOUT.equals(layout)) {
+            throw new IllegalArgumentException("unknown layout " + layout);
+        }
+        generateGraph();
+        Random r = new Random(seed);
+        for (int i = 0; i < nbModules; i++) {
+            Module m = modules[i];
+            File moduleDir = getModuleDir(dir, layout, i);
+            for (int v = 0; v < nbVersions; v++) {
+                String rev = getRevision(v);
+                File revDir = new File(moduleDir, rev);
+                if (IVY_LAYOUT.equals(layout)) {
+                    writeChecksummed(new File(revDir, "ivy-" + rev + ".xml"), getIvyFile(m, v)
+                            .getBytes("UTF-8"));
+                } else {
+                    writeChecksummed(new File(revDir, m.name + "-" + rev + ".pom"), getPom(m, v)
+                            .getBytes("UTF-8"));
+                }
+                writeChecksummed(new File(revDir, m.name + "-" + rev + ".jar"), newArtifact(r));
+                if (m.classified) {
+                    writeChecksummed(new File(revDir, m.name + "-" + rev + "-" + CLASSIFIER
+                            + ".jar"), newArtifact(r));
+                }
+            }
+            if (M2_LAYOUT.equals(layout)) {
+                write(new File(moduleDir, "maven-metadata.xml"), getMavenMetadata(m).getBytes(
+                    "UTF-8"));
+            }
+        }
+        if (M2_LAYOUT.equals(layout)) {
+            for (int o = 0; o < nbOrganisations; o++) {
+                int first = getFirstModule(o);
+                if (first < nbModules) {
+                    String org = getOrganisation(first);
+                    writeChecksummed(new File(dir, org.replace('.', '/')
+                            + "/parent/1.0/parent-1.0.pom"), getParentPom(first).getBytes("UTF-8"));
+                }
+            }
+        }
+        return getRoot();
+    }
+
+    private void generateGraph() {
+        Random r = new Random(seed);
+        modules = new Module[nbModules];
+        for (int i = 0; i < nbModules; i++) {
+            Module m = new Module();
+            m.organisation = getOrganisation(i);
+            m.name = "mod" + i;
+            m.classified = r.nextDouble() < classifierRatio;
+            m.withParent = r.nextDouble() < parentRatio;
+            modules[i] = m;
+        }
+        for (int i = 0; i < nbModules; i++) {
+            Module m = modules[i];
+            int after = nbModules - i - 1;
+            int nbDeps = Math.min(after, minDependencies
+                    + r.nextInt(maxDependencies - minDependencies + 1));
+            m.dependencies = new int[nbDeps];
+            for (int d = 0; d < nbDeps; d++) {
+                int dep;
+                do {
+                    // one dependency out of four anywhere after the module, the others close to it
+                    dep = i + 1 + r.nextInt(r.nextInt(4) == 0 ? after : Math.min(after, window));
+                } while (contains(m.dependencies, d, dep));
+                m.dependencies[d] = dep;
+            }
+            m.revisions = new String[nbVersions][nbDeps];
+            for (int v = 0; v < nbVersions; v++) {
+                for (int d = 0; d < nbDeps; d++) {
+                    m.revisions[v][d] = r.nextDouble() < rangeRatio ? RANGE : getRevision(r
+                            .nextInt(nbVersions));
+                }
+            }
+            m.excludes = new int[nbDeps];
+            m.runtime = new boolean[nbDeps];
+            m.classifier = new boolean[nbDeps];
+            for (int d = 0; d < nbDeps; d++) {
+                Module dep = modules[m.dependencies[d]];
+                m.excludes[d] = -1;
+                m.runtime[d] = r.nextDouble() < RUNTIME_RATIO;
+                m.classifier[d] = dep.classified && r.nextBoolean();
+            }
+        }
+        // excludes are chosen among the dependencies of the dependencies, known only now
+        for (int i = 0; i < nbModules; i++) {
+            Module m = modules[i];
+            for (int d = 0; d < m.dependencies.length; d++) {
+                int[] transitive = modules[m.dependencies[d]].dependencies;
+                if (transitive.length > 0 && r.nextDouble() < excludeRatio) {
+                    m.excludes[d] = transitive[r.nextInt(transitive.length)];
+                }
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getOrganisation(int module) {
+        return "org.gen.g" + (module * nbOrganisations / nbModules);
+    }
+
+    private int getFirstModule(int organisation) {
+        return (organisation * nbModules + nbOrganisations - 1) / nbOrganisations;
+    }
+
+    private static String getRevision(int version) {
+        return "1." + version;
+    }
+
+    private File getModuleDir(File dir, String layout, int module) {
+        Module m = modules[module];
+        String org = IVY_LAYOUT.equals(layout) ? m.organisation : m.organisation.replace('.', '/');
+        return new File(dir, org + "/" + m.name);
+    }
+
+    private String getIvyFile(Module m, int version) {
+        StringBuffer buf = new StringBuffer();
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        buf.append("<ivy-module version=\"2.0\" xmlns:m=\"http://ant.apache.org/ivy/maven\">\n");
+        buf.append("\t<info organisation=\"").append(m.organisation).append("\" module=\"")
+                .append(m.name).append("\" revision=\"").append(getRevision(version))
+                .append("\" status=\"release\" publication=\"").append(PUBLICATION)
+                .append("\"/>\n");
+        buf.append("\t<configurations>\n");
+        buf.append("\t\t<conf name=\"compile\"/>\n");
+        buf.append("\t\t<conf name=\"runtime\" extends=\"compile\"/>\n");
+        buf.append("\t\t<conf name=\"default\" extends=\"runtime\"/>\n");
+        buf.append("\t</configurations>\n");
+        buf.append("\t<publications>\n");
+        buf.append("\t\t<artifact name=\"").append(m.name).append("\" conf=\"compile\"/>\n");
+        if (m.classified) {
+            buf.append("\t\t<artifact name=\"").append(m.name).append(
+                "\" conf=\"compile\" m:classifier=\"").append(CLASSIFIER).append("\"/>\n");
+        }
+        buf.append("\t</publications>\n");
+        buf.append("\t<dependencies>\n");
+        for (int d = 0; d < m.dependencies.length; d++) {
+            Module dep = modules[m.dependencies[d]];
+            buf.append("\t\t<dependency org=\"").append(dep.organisation).append("\" name=\"")
+                    .append(dep.name).append("\" rev=\"").append(m.revisions[version][d])
+                    .append("\" conf=\"").append(
+                        m.runtime[d] ? "runtime->runtime" : "compile->compile;runtime->runtime")
+                    .append("\"");
+            if (!m.classifier[d] && m.excludes[d] == -1) {
+                buf.append("/>\n");
+                continue;
+            }
+            buf.append(">\n");
+            if (m.classifier[d]) {
+                buf.append("\t\t\t<artifact name=\"").append(dep.name).append(
+                    "\" m:classifier=\"").append(CLASSIFIER).append("\"/>\n");
+            }
+            if (m.excludes[d] != -1) {
+                Module excluded = modules[m.excludes[d]];
+                buf.append("\t\t\t<exclude org=\"").append(excluded.organisation).append(
+                    "\" module=\"").append(excluded.name).append("\"/>\n");
+            }
+            buf.append("\t\t</dependency>\n");
+        }
+        buf.append("\t</dependencies>\n");
+        buf.append("</ivy-module>\n");
+        return buf.toString();
+    }
+
+    private String getPom(Module m, int version) {
+        StringBuffer buf = new StringBuffer();
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        buf.append("<project>\n");
+        buf.append("  <modelVersion>4.0.0</modelVersion>\n");
+        if (m.withParent) {
+            buf.append("  <parent>\n");
+            buf.append("    <groupId>").append(m.organisation).append("</groupId>\n");
+            buf.append("    <artifactId>parent</artifactId>\n");
+            buf.append("    <version>1.0</version>\n");
+            buf.append("  </parent>\n");
+        } else {
+            // without parent the group id is mandatory, it is inherited otherwise
+            buf.append("  <groupId>").append(m.organisation).append("</groupId>\n");
+        }
+        buf.append("  <artifactId>").append(m.name).append("</artifactId>\n");
+        buf.append("  <version>").append(getRevision(version)).append("</version>\n");
+        buf.append("  <dependencies>\n");
+        for (int d = 0; d < m.dependencies.length; d++) {
+            Module dep = modules[m.dependencies[d]];
+            String rev = m.revisions[version][d];
+            // the parent manages the latest revision of the modules of its organisation
+            boolean managed = m.withParent && dep.organisation.equals(m.organisation)
+                    && rev.equals(getRevision(nbVersions - 1));
+            buf.append("    <dependency>\n");
+            buf.append("      <groupId>").append(managed ? "${gen.organisation}" : dep.organisation)
+                    .append("</groupId>\n");
+            buf.append("      <artifactId>").append(dep.name).append("</artifactId>\n");
+            if (!managed) {
+                buf.append("      <version>").append(
+                    rev.endsWith("[") ? rev.substring(0, rev.length() - 1) + ")" : rev).append(
+                    "</version>\n");
+            }
+            if (m.classifier[d]) {
+                buf.append("      <classifier>").append(CLASSIFIER).append("</classifier>\n");
+            }
+            if (m.runtime[d]) {
+                buf.append("      <scope>runtime</scope>\n");
+            }
+            if (m.excludes[d] != -1) {
+                Module excluded = modules[m.excludes[d]];
+                buf.append("      <exclusions>\n");
+                buf.append("        <exclusion>\n");
+                buf.append("          <groupId>").append(excluded.organisation).append(
+                    "</groupId>\n");
+                buf.append("          <artifactId>").append(excluded.name).append(
+                    "</artifactId>\n");
+                buf.append("        </exclusion>\n");
+                buf.append("      </exclusions>\n");
+            }
+            buf.append("    </dependency>\n");
+        }
+        buf.append("  </dependencies>\n");
+        buf.append("</project>\n");
+        return buf.toString();
+    }
+
+    private String getParentPom(int first) {
+        String org = getOrganisation(first);
+        StringBuffer buf = new StringBuffer();
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        buf.append("<project>\n");
+        buf.append("  <modelVersion>4.0.0</modelVersion>\n");
+        buf.append("  <groupId>").append(org).append("</groupId>\n");
+        buf.append("  <artifactId>parent</artifactId>\n");
+        buf.append("  <version>1.0</version>\n");
+        buf.append("  <packaging>pom</packaging>\n");
+        buf.append("  <properties>\n");
+        buf.append("    <gen.organisation>").append(org).append("</gen.organisation>\n");
+        buf.append("  </properties>\n");
+        buf.append("  <dependencyManagement>\n");
+        buf.append("    <dependencies>\n");
+        for (int i = first; i < nbModules && modules[i].organisation.equals(org); i++) {
+            buf.append("      <dependency>\n");
+            buf.append("        <groupId>").append(org).append("</groupId>\n");
+            buf.append("        <artifactId>").append(modules[i].name).append("</artifactId>\n");
+            buf.append("        <version>").append(getRevision(nbVersions - 1)).append(
+                "</version>\n");
+            buf.append("      </dependency>\n");
+        }
+        buf.append("    </dependencies>\n");
+        buf.append("  </dependencyManagement>\n");
+        buf.append("</project>\n");
+        return buf.toString();
+    }
+
+    private String getMavenMetadata(Module m) {
+        StringBuffer buf = new StringBuffer();
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        buf.append("<metadata>\n");
+        buf.append("  <groupId>").append(m.organisation).append("</groupId>\n");
+        buf.append("  <artifactId>").append(m.name).append("</artifactId>\n");
+        buf.append("  <versioning>\n");
+        buf.append("    <release>").append(getRevision(nbVersions - 1)).append("</release>\n");
+        buf.append("    <versions>\n");
+        for (int v = 0; v < nbVersions; v++) {
+            buf.append("      <version>").append(getRevision(v)).append("</version>\n");
+        }
+        buf.append("    </versions>\n");
+        buf.append("    <lastUpdated>").append(PUBLICATION).append("</lastUpdated>\n");
+        buf.append("  </versioning>\n");
+        buf.append("</metadata>\n");
+        return buf.toString();
+    }
+
+    private byte[] newArtifact(Random r) {
+        byte[] content = new byte[artifactSize];
+        r.nextBytes(content);
+        return content;
+    }
+
+    private static void writeChecksummed(File f, byte[] content) throws IOException {
+        write(f, content);
+        write(new File(f.getPath() + ".sha1"), ChecksumHelper.computeAsString(f, "sha1")
+                .getBytes("US-ASCII"));
+    }
+
+    private static void write(File f, byte[] content) throws IOException {
+        f.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(f);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+}
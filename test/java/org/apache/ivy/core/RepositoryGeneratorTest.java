@@ -0,0 +1,162 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.io.File;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.plugins.resolver.IBiblioResolver;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.url.LocalHttpServer;
+
+public class RepositoryGeneratorTest extends TestCase {
+    private static final File WORK_DIR = new File("build/test/generator");
+
+    protected void setUp() throws Exception {
+        FileUtil.forceDelete(WORK_DIR);
+    }
+
+    protected void tearDown() throws Exception {
+        FileUtil.forceDelete(WORK_DIR);
+    }
+
+    private static RepositoryGenerator newGenerator(long seed) {
+        RepositoryGenerator generator = new RepositoryGenerator();
+        generator.setSeed(seed);
+        generator.setNbModules(30);
+        generator.setNbOrganisations(3);
+        generator.setClassifierRatio(0.3);
+        generator.setExcludeRatio(0.3);
+        generator.setArtifactSize(64);
+        return generator;
+    }
+
+    public void testSameSeedSameRepository() throws Exception {
+        File first = new File(WORK_DIR, "first");
+        File second = new File(WORK_DIR, "second");
+        File other = new File(WORK_DIR, "other");
+        newGenerator(1).generate(first, RepositoryGenerator.M2_LAYOUT);
+        newGenerator(1).generate(second, RepositoryGenerator.M2_LAYOUT);
+        newGenerator(2).generate(other, RepositoryGenerator.M2_LAYOUT);
+
+        String pom = "org/gen/g0/mod0/1.2/mod0-1.2.pom";
+        assertTrue(new File(first, pom).exists());
+        assertEquals(FileUtil.readEntirely(new File(first, pom)),
+            FileUtil.readEntirely(new File(second, pom)));
+        assertEquals(FileUtil.readEntirely(new File(first, pom + ".sha1")),
+            FileUtil.readEntirely(new File(second, pom + ".sha1")));
+        assertFalse(FileUtil.readEntirely(new File(first, pom)).equals(
+            FileUtil.readEntirely(new File(other, pom))));
+        assertTrue(new File(first, "org/gen/g0/parent/1.0/parent-1.0.pom").exists());
+        assertTrue(new File(first, "org/gen/g0/mod0/maven-metadata.xml").exists());
+    }
+
+    public void testResolveIvyLayout() throws Exception {
+        File repository = new File(WORK_DIR, "ivy");
+        ModuleRevisionId root = newGenerator(1).generate(repository,
+            RepositoryGenerator.IVY_LAYOUT);
+
+        IvySettings settings = new IvySettings();
+        FileSystemResolver resolver = new FileSystemResolver();
+        resolver.setName("generated");
+        resolver.addIvyPattern(repository.getAbsolutePath() + "/"
+                + RepositoryGenerator.IVY_PATTERN);
+        resolver.addArtifactPattern(repository.getAbsolutePath() + "/"
+                + RepositoryGenerator.ARTIFACT_PATTERN);
+        settings.addResolver(resolver);
+        settings.setDefaultResolver("generated");
+
+        assertResolved(settings, root);
+    }
+
+    public void testResolveM2LayoutOverHttp() throws Exception {
+        File repository = new File(WORK_DIR, "m2");
+        ModuleRevisionId root = newGenerator(1).generate(repository,
+            RepositoryGenerator.M2_LAYOUT);
+
+        LocalHttpServer server = new LocalHttpServer(repository, 0);
+        server.start();
+        try {
+            IvySettings settings = new IvySettings();
+            IBiblioResolver resolver = new IBiblioResolver();
+            resolver.setName("generated");
+            resolver.setM2compatible(true);
+            resolver.setRoot(server.getRootUrl());
+            settings.addResolver(resolver);
+            settings.setDefaultResolver("generated");
+
+            assertResolved(settings, root);
+            assertTrue(server.getRequests() > 0);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Disabled: resolving this repository throws an IllegalStateException, "impossible to get
+     * artifacts when data has not been loaded" for org.gen.g1#mod75;1.2. All the poms inherit
+     * from the parent of their organisation, and half of the dependencies use a version range or
+     * a classifier. A dependency whose version is managed by the parent can leave an evicted node
+     * in the report without its data loaded. Rename it to testResolveM2LayoutWithParents once
+     * this is fixed.
+     */
+    public void disabledTestResolveM2LayoutWithParents() throws Exception {
+        RepositoryGenerator generator = newGenerator(2);
+        generator.setNbModules(200);
+        generator.setParentRatio(1);
+        generator.setRangeRatio(0.5);
+        generator.setClassifierRatio(0.5);
+        File repository = new File(WORK_DIR, "m2");
+        ModuleRevisionId root = generator.generate(repository, RepositoryGenerator.M2_LAYOUT);
+
+        IvySettings settings = new IvySettings();
+        IBiblioResolver resolver = new IBiblioResolver();
+        resolver.setName("generated");
+        resolver.setM2compatible(true);
+        resolver.setRoot(repository.toURI().toURL().toExternalForm());
+        settings.addResolver(resolver);
+        settings.setDefaultResolver("generated");
+
+        assertResolved(settings, root);
+    }
+
+    private void assertResolved(IvySettings settings, ModuleRevisionId root) throws Exception {
+        settings.setDefaultCache(new File(WORK_DIR, "cache"));
+        ResolveReport report = Ivy.newInstance(settings).resolve(root,
+            new ResolveOptions().setConfs(new String[] {"default"}), false);
+        assertFalse(report.getAllProblemMessages().toString(), report.hasError());
+        assertTrue(report.getDependencies().size() > 10);
+
+        boolean classified = false;
+        for (Iterator it = report.getArtifacts().iterator(); it.hasNext();) {
+            Artifact artifact = (Artifact) it.next();
+            classified |= RepositoryGenerator.CLASSIFIER.equals(artifact
+                    .getExtraAttribute("classifier"));
+        }
+        assertTrue("no classified artifact resolved", classified);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.Configuration;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.descriptor.MDArtifact;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.util.FileUtil;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.Delete;
+
+/**
+ * Not a Junit test, measures the heap retained by the IvyNode graph of a resolve.
+ * <p>
+ * A synthetic repository of modules with several configurations is generated with a fixed seed,
+ * the root module is resolved in all its configurations and the heap retained by the resulting
+ * nodes is measured by comparing the used heap with and without a reference to them. Results
+ * depend on the JVM, run it on two builds to compare the retained size per node.
+ * </p>
+ * Usage: TestMemoryFootprint [nbModules] [nbRootConfs]
+ */
+public class TestMemoryFootprint {
+    private static final String REPO = "build/test/memperf";
+
+    private static final String PATTERN = new File(REPO).getAbsolutePath()
+            + "/[module]/[artifact]-[revision].[ext]";
+
+    private static final long SEED = 42L;
+
+    private static final int GC_PASSES = 5;
+
+    private static final int LAYER_WIDTH = 100;
+
+    private static final int MAX_DEPENDENCIES = 4;
+
+    private final Ivy ivy;
+
+    private File cache;
+
+    public TestMemoryFootprint() throws Exception {
+        cache = new File("build/cache");
+        IvySettings settings = new IvySettings();
+        settings.setDefaultCache(cache);
+
+        FileSystemResolver resolver = new FileSystemResolver();
+        resolver.setName("def");
+        resolver.setSettings(settings);
+
+        resolver.addIvyPattern(PATTERN);
+        resolver.addArtifactPattern(PATTERN);
+
+        settings.addResolver(resolver);
+        settings.setDefaultResolver("def");
+        ivy = Ivy.newInstance(settings);
+    }
+
+    protected void setUp() throws Exception {
+        cache.mkdirs();
+    }
+
+    protected void tearDown() throws Exception {
+        delete(cache);
+        delete(new File(REPO));
+    }
+
+    private void delete(File dir) {
+        Delete del = new Delete();
+        del.setProject(new Project());
+        del.setDir(dir);
+        del.execute();
+    }
+
+    /**
+     * Generates a layered graph: each module depends on a few modules of the next layer, so that
+     * most nodes have several callers.
+     */
+    private void generateModules(int nbModules, int nbRootConfs) throws IOException {
+        Random r = new Random(SEED);
+        for (int nb = 0; nb < nbModules; nb++) {
+            DefaultModuleDescriptor md = new DefaultModuleDescriptor(ModuleRevisionId
+                    .newInstance("apache", "mod" + nb, "1.0"), "integration", new Date());
+            md.addConfiguration(new Configuration("default"));
+            if (nb == 0) {
+                for (int i = 0; i < nbRootConfs; i++) {
+                    md.addConfiguration(new Configuration("root" + i));
+                }
+            }
+            md.addArtifact("default", new MDArtifact(md, "mod" + nb, "jar", "jar"));
+
+            // module 0 is the root, depending on the whole first layer
+            int layerStart = nb == 0 ? 1 : (((nb - 1) / LAYER_WIDTH) + 1) * LAYER_WIDTH + 1;
+            int deps = nb == 0 ? LAYER_WIDTH : 1 + r.nextInt(MAX_DEPENDENCIES);
+            for (int i = 0; i < deps; i++) {
+                int d = nb == 0 ? layerStart + i : layerStart + r.nextInt(LAYER_WIDTH);
+                if (d >= nbModules) {
+                    break;
+                }
+                DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md,
+                        ModuleRevisionId.newInstance("apache", "mod" + d, "1.0"), false, false,
+                        true);
+                if (nb == 0) {
+                    for (int j = 0; j < nbRootConfs; j++) {
+                        if (r.nextBoolean()) {
+                            dd.addDependencyConfiguration("root" + j, "default");
+                        }
+                    }
+                } else {
+                    dd.addDependencyConfiguration("default", "default");
+                }
+                md.addDependency(dd);
+            }
+            XmlModuleDescriptorWriter.write(md, new File(REPO + "/mod" + nb + "/ivy-1.0.xml"));
+            FileUtil.copy(new File("test/repositories/1/org1/mod1.1/jars/mod1.1-1.0.jar"),
+                new File(REPO + "/mod" + nb + "/mod" + nb + "-1.0.jar"), null);
+        }
+    }
+
+    public void testFootprint(int nbModules, int nbRootConfs) throws Exception {
+        generateModules(nbModules, nbRootConfs);
+
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"*"})
+                .setRevision("1.0").setDownload(false).setOutputReport(false);
+        options.setLog(LogOptions.LOG_QUIET);
+
+        // warm up: load classes and fill caches which are not part of the node graph
+        ivy.resolve(new File(REPO + "/mod0/ivy-1.0.xml"), options);
+
+        long start = System.currentTimeMillis();
+        ResolveReport report = ivy.resolve(new File(REPO + "/mod0/ivy-1.0.xml"), options);
+        long end = System.currentTimeMillis();
+        List nodes = report.getDependencies();
+
+        long withNodes = usedHeap();
+        int nbNodes = nodes.size();
+        nodes = null;
+        report = null;
+        long withoutNodes = usedHeap();
+
+        long retained = withNodes - withoutNodes;
+        System.out.println("resolve " + nbNodes + " nodes in " + nbRootConfs
+                + " root confs took " + (end - start) + " ms");
+        System.out.println("retained " + (retained / 1024) + " kB, "
+                + (nbNodes == 0 ? 0 : retained / nbNodes) + " bytes per node");
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < GC_PASSES; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // ignored
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nbModules = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int nbRootConfs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        TestMemoryFootprint t = new TestMemoryFootprint();
+        t.setUp();
+        try {
+            t.testFootprint(nbModules, nbRootConfs);
+        } finally {
+            t.tearDown();
+        }
+    }
+}
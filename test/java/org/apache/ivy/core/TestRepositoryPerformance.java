@@ -0,0 +1,201 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.io.File;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.retrieve.RetrieveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.resolver.AbstractPatternsBasedResolver;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.plugins.resolver.IBiblioResolver;
+import org.apache.ivy.plugins.resolver.URLResolver;
+import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.MemoryUtil;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.url.LocalHttpServer;
+
+/**
+ * Not a Junit test, performance depends on the machine on which the test is run...
+ * <p>
+ * Generates a repository with the {@link RepositoryGenerator}, in the ivy or maven 2 layout, and
+ * resolves and retrieves its top module twice: first with an empty cache, then with the cache
+ * filled by the first run. The repository is either accessed on disk with a file system
+ * resolver, or served by a {@link LocalHttpServer} answering each request after the given
+ * latency, and accessed with an url resolver in the ivy layout and an ibiblio resolver in the
+ * maven 2 layout.
+ * </p>
+ * <p>
+ * Each run reports the resolve and download times of the resolve report, the retrieve time, the
+ * number of http requests and the peak heap usage. The peak heap usage is only available on java
+ * 5+, as the sum of the peak usages of the heap memory pools.
+ * </p>
+ * Usage: TestRepositoryPerformance [ivy|m2] [file|http] [nbModules] [latency] [seed]
+ */
+public class TestRepositoryPerformance {
+    private static final File BASE_DIR = new File("build/test/perf-repository");
+
+    private static final String RETRIEVE_PATTERN =
+            "[organisation]/[artifact]-[revision](-[classifier]).[ext]";
+
+    private final String layout;
+
+    private final boolean http;
+
+    private final long latency;
+
+    private final File repositoryDir = new File(BASE_DIR, "repository");
+
+    private final File cacheDir = new File(BASE_DIR, "cache");
+
+    private final File retrieveDir = new File(BASE_DIR, "retrieve");
+
+    private LocalHttpServer server;
+
+    private ModuleRevisionId root;
+
+    public TestRepositoryPerformance(String layout, boolean http, long latency) {
+        this.layout = layout;
+        this.http = http;
+        this.latency = latency;
+    }
+
+    public void setUp(int nbModules, long seed) throws Exception {
+        FileUtil.forceDelete(BASE_DIR);
+        RepositoryGenerator generator = new RepositoryGenerator();
+        generator.setNbModules(nbModules);
+        generator.setNbOrganisations(Math.max(1, nbModules / 20));
+        generator.setSeed(seed);
+        long start = System.currentTimeMillis();
+        root = generator.generate(repositoryDir, layout);
+        System.out.println("generated " + nbModules + " modules in the " + layout + " layout in "
+                + (System.currentTimeMillis() - start) + " ms");
+        if (http) {
+            server = new LocalHttpServer(repositoryDir, latency);
+            server.start();
+        }
+    }
+
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+        FileUtil.forceDelete(BASE_DIR);
+    }
+
+    private Ivy newIvy() {
+        IvySettings settings = new IvySettings();
+        settings.setDefaultCache(cacheDir);
+        DependencyResolver resolver;
+        boolean m2 = RepositoryGenerator.M2_LAYOUT.equals(layout);
+        if (http && m2) {
+            IBiblioResolver ibiblio = new IBiblioResolver();
+            ibiblio.setM2compatible(true);
+            ibiblio.setRoot(server.getRootUrl());
+            resolver = ibiblio;
+        } else {
+            AbstractPatternsBasedResolver patternsResolver;
+            String root;
+            if (http) {
+                patternsResolver = new URLResolver();
+                root = server.getRootUrl();
+            } else {
+                patternsResolver = new FileSystemResolver();
+                root = repositoryDir.getAbsolutePath() + "/";
+            }
+            patternsResolver.setM2compatible(m2);
+            patternsResolver.addIvyPattern(root
+                    + (m2 ? RepositoryGenerator.POM_PATTERN : RepositoryGenerator.IVY_PATTERN));
+            patternsResolver.addArtifactPattern(root + RepositoryGenerator.ARTIFACT_PATTERN);
+            resolver = patternsResolver;
+        }
+        resolver.setName("generated");
+        settings.addResolver(resolver);
+        settings.setDefaultResolver("generated");
+        return Ivy.newInstance(settings);
+    }
+
+    /**
+     * Resolves and retrieves the top module of the repository with a new Ivy instance, so that
+     * only the cache on disk is shared between runs.
+     */
+    public void run(String name) throws Exception {
+        Ivy ivy = newIvy();
+        FileUtil.forceDelete(retrieveDir);
+        int requests = http ? server.getRequests() : 0;
+        long bytes = http ? server.getBytesSent() : 0;
+        System.gc();
+        MemoryUtil.resetPeakHeapUsage();
+
+        long start = System.currentTimeMillis();
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"default"});
+        options.setLog(LogOptions.LOG_QUIET);
+        ResolveReport report = ivy.resolve(root, options, false);
+        long resolved = System.currentTimeMillis();
+        if (report.hasError()) {
+            throw new IllegalStateException(name + " resolve of " + root + " failed: "
+                    + report.getAllProblemMessages());
+        }
+        int retrieved = ivy.retrieve(report.getModuleDescriptor().getModuleRevisionId(),
+            retrieveDir.getPath() + "/" + RETRIEVE_PATTERN,
+            (RetrieveOptions) new RetrieveOptions().setConfs(new String[] {"default"})
+                    .setResolveId(report.getResolveId()).setLog(LogOptions.LOG_QUIET));
+        long end = System.currentTimeMillis();
+
+        StringBuffer buf = new StringBuffer(name);
+        buf.append(": ").append(report.getDependencies().size()).append(" modules and ")
+                .append(report.getArtifacts().size()).append(" artifacts resolved in ")
+                .append(resolved - start).append(" ms (resolve time ")
+                .append(report.getResolveTime()).append(" ms, download time ")
+                .append(report.getDownloadTime()).append(" ms), ").append(retrieved)
+                .append(" artifacts retrieved in ").append(end - resolved).append(" ms");
+        if (http) {
+            buf.append(", ").append(server.getRequests() - requests).append(" http requests (")
+                    .append((server.getBytesSent() - bytes) / 1024).append(" kB)");
+        }
+        long peak = MemoryUtil.getPeakHeapUsage();
+        if (peak != -1) {
+            buf.append(", peak heap ").append(peak / 1024 / 1024).append(" MB");
+        }
+        System.out.println(buf);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String layout = args.length > 0 ? args[0] : RepositoryGenerator.M2_LAYOUT;
+        boolean http = args.length > 1 ? "http".equals(args[1]) : true;
+        int nbModules = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long latency = args.length > 3 ? Long.parseLong(args[3]) : 5;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        Message.setDefaultLogger(new DefaultMessageLogger(Message.MSG_WARN));
+
+        TestRepositoryPerformance t = new TestRepositoryPerformance(layout, http, latency);
+        t.setUp(nbModules, seed);
+        try {
+            t.run("cold cache");
+            t.run("warm cache");
+        } finally {
+            t.tearDown();
+        }
+    }
+}
@@ -19,6 +19,8 @@ package org.apache.ivy.core.cache;
 
 import java.io.File;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
@@ -100,6 +102,47 @@ public class DefaultRepositoryCacheManagerTest extends TestCase {
         assertTrue(ArtifactOrigin.isUnknown(found));
     }
 
+    public void testRevisionListing() throws Exception {
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "module", "latest.integration");
+        String pattern = "repo/org/module/[revision]/ivy.xml";
+        Map revisions = new LinkedHashMap();
+        revisions.put("1.1", "repo/org/module/1.1/ivy.xml");
+        revisions.put("1.0", "repo/org/module/1.0/ivy.xml");
+        cacheManager.saveRevisionListing("resolver", mrid, pattern, revisions);
+
+        CacheMetadataOptions options = new CacheMetadataOptions();
+        Map found = cacheManager.getRevisionListing("resolver", mrid, pattern, options);
+        assertEquals(revisions, found);
+        // listing order is kept
+        assertEquals("1.1", found.keySet().iterator().next());
+
+        assertNull(cacheManager.getRevisionListing("other", mrid, pattern, options));
+        assertNull(cacheManager.getRevisionListing("resolver", mrid, pattern + ".pom", options));
+        assertNull(cacheManager.getRevisionListing("resolver", mrid, pattern, 
+            (CacheMetadataOptions) new CacheMetadataOptions().setForce(true)));
+
+        // a new listing replaces the previous one
+        revisions.remove("1.0");
+        cacheManager.saveRevisionListing("resolver", mrid, pattern, revisions);
+        assertEquals(revisions, cacheManager.getRevisionListing("resolver", mrid, pattern,
+            options));
+    }
+
+    public void testRevisionListingTTL() throws Exception {
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "module", "latest.integration");
+        String pattern = "repo/org/module/[revision]/ivy.xml";
+        Map revisions = new LinkedHashMap();
+        revisions.put("1.0", "repo/org/module/1.0/ivy.xml");
+        cacheManager.setDefaultTTL(0);
+        cacheManager.saveRevisionListing("resolver", mrid, pattern, revisions);
+        Thread.sleep(20);
+
+        assertNull(cacheManager.getRevisionListing("resolver", mrid, pattern,
+            new CacheMetadataOptions()));
+        assertEquals(revisions, cacheManager.getRevisionListing("resolver", mrid, pattern,
+            new CacheMetadataOptions().setCheckTTL(false)));
+    }
+
     protected Artifact createArtifact(String org, String module, String rev, String name,
             String type, String ext) {
         ModuleId mid = new ModuleId(org, module);
@@ -119,6 +119,17 @@ public class ModuleDescriptorMemoryCacheTest extends TestCase {
     }
     
     
+    public void testIndirectVariableChangeInvalidateEntry() throws ParseException, IOException {
+        ModuleDescriptorProviderMock providerMock = new ModuleDescriptorProviderMock(md1);
+        ModuleDescriptorProviderMock providerMock2 = new ModuleDescriptorProviderMock(md1);
+        ivySettings2.getVariables().setVariable("val", "${otherVal}", true);
+        assertEquals(md1 , cache.get(url1,ivySettings2 , false, providerMock));
+        ivySettings2.getVariables().setVariable("otherVal", "changedVal", true);
+        assertEquals(md1 , cache.get(url1,ivySettings2 , false, providerMock2));
+        providerMock2.assertCalled();
+    }
+    
+    
     public void testGetStaleDontReadFromCache() throws ParseException, IOException {
         ModuleDescriptorProviderMock providerMock = new ModuleDescriptorProviderMock(md1);
         ModuleDescriptorProviderMock providerMock2 = new ModuleDescriptorProviderMock(md2);
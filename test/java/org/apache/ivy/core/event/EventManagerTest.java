@@ -0,0 +1,223 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.event;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.event.resolve.StartResolveEvent;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.repository.BasicResource;
+import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.plugins.repository.TransferEvent;
+import org.apache.ivy.plugins.repository.TransferListener;
+
+public class EventManagerTest extends TestCase {
+    private EventManager eventManager;
+
+    private ModuleDescriptor md;
+
+    protected void setUp() throws Exception {
+        eventManager = new EventManager();
+        md = new DefaultModuleDescriptor(ModuleRevisionId.newInstance("foo", "bar", "1.0"),
+                "integration", new Date());
+    }
+
+    protected void tearDown() throws Exception {
+        eventManager.setAsync(false);
+    }
+
+    private static class RecordingListener implements IvyListener, TransferListener {
+        private final List events = new ArrayList();
+
+        private final List threads = new ArrayList();
+
+        public synchronized void progress(IvyEvent event) {
+            events.add(event);
+            threads.add(Thread.currentThread());
+        }
+
+        public synchronized void transferProgress(TransferEvent evt) {
+            progress(evt);
+        }
+
+        public synchronized List getEvents() {
+            return new ArrayList(events);
+        }
+
+        public synchronized List getThreads() {
+            return new ArrayList(threads);
+        }
+    }
+
+    private static class SynchronousRecordingListener extends RecordingListener implements
+            SynchronousListener {
+    }
+
+    public void testSynchronousByDefault() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        eventManager.addIvyListener(listener);
+        assertFalse(eventManager.isAsync());
+
+        eventManager.fireIvyEvent(new StartResolveEvent(md, new String[] {"default"}));
+        assertEquals(1, listener.getEvents().size());
+        assertSame(Thread.currentThread(), listener.getThreads().get(0));
+    }
+
+    public void testAsync() throws Exception {
+        RecordingListener async = new RecordingListener();
+        RecordingListener sync = new SynchronousRecordingListener();
+        eventManager.addIvyListener(async);
+        eventManager.addIvyListener(sync);
+        eventManager.setAsync(true);
+
+        List fired = new ArrayList();
+        for (int i = 0; i < 100; i++) {
+            IvyEvent event = new StartResolveEvent(md, new String[] {"conf" + i});
+            fired.add(event);
+            eventManager.fireIvyEvent(event);
+        }
+        // synchronous listeners are called before the event is fired
+        assertEquals(fired, sync.getEvents());
+        assertSame(Thread.currentThread(), sync.getThreads().get(99));
+
+        eventManager.flush();
+        assertEquals(fired, async.getEvents());
+        assertFalse(async.getThreads().contains(Thread.currentThread()));
+    }
+
+    public void testAsyncContext() throws Exception {
+        final List contexts = new ArrayList();
+        eventManager.addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                IvyContext context = IvyContext.getContext();
+                contexts.add(context);
+                contexts.add(context.get("resolving"));
+                // changes of the context by a listener don't reach the firing thread
+                context.set("resolving", "changed by listener");
+            }
+        });
+        eventManager.setAsync(true);
+
+        IvyContext context = IvyContext.pushNewCopyContext();
+        try {
+            context.set("resolving", "bar");
+            eventManager.fireIvyEvent(new StartResolveEvent(md, new String[] {"default"}));
+            eventManager.flush();
+            assertEquals(2, contexts.size());
+            assertNotSame(context, contexts.get(0));
+            assertEquals("bar", contexts.get(1));
+            assertEquals("bar", context.get("resolving"));
+        } finally {
+            IvyContext.popContext();
+        }
+    }
+
+    public void testSlowListener() throws Exception {
+        final Object lock = new Object();
+        final boolean[] released = new boolean[1];
+        RecordingListener slow = new RecordingListener() {
+            public void progress(IvyEvent event) {
+                synchronized (lock) {
+                    while (!released[0]) {
+                        try {
+                            lock.wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+                super.progress(event);
+            }
+        };
+        eventManager.addIvyListener(slow);
+        eventManager.setAsync(true);
+
+        // the events are queued while the listener is blocked
+        eventManager.fireIvyEvent(new StartResolveEvent(md, new String[] {"default"}));
+        eventManager.fireIvyEvent(new StartResolveEvent(md, new String[] {"test"}));
+        assertEquals(0, slow.getEvents().size());
+
+        synchronized (lock) {
+            released[0] = true;
+            lock.notifyAll();
+        }
+        eventManager.flush();
+        assertEquals(2, slow.getEvents().size());
+    }
+
+    public void testFilteredListener() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        eventManager.addIvyListener(listener, "post-resolve");
+        eventManager.setAsync(true);
+
+        eventManager.fireIvyEvent(new StartResolveEvent(md, new String[] {"default"}));
+        eventManager.flush();
+        assertEquals(0, listener.getEvents().size());
+    }
+
+    public void testProgressCoalescing() throws Exception {
+        RecordingListener async = new RecordingListener();
+        RecordingListener sync = new SynchronousRecordingListener();
+        eventManager.addTransferListener(async);
+        eventManager.addTransferListener(sync);
+        eventManager.setAsync(true);
+        eventManager.setProgressRate(1);
+
+        Resource resource = new BasicResource("test", true, 1000, 0, true);
+        for (int i = 0; i < 10; i++) {
+            eventManager.transferProgress(new TransferEvent(null, resource, 100L,
+                    TransferEvent.REQUEST_GET));
+        }
+        eventManager.transferProgress(new TransferEvent(null, resource,
+                TransferEvent.TRANSFER_COMPLETED, TransferEvent.REQUEST_GET));
+        eventManager.flush();
+
+        assertEquals(11, sync.getEvents().size());
+        // the first progress event and the end of the transfer
+        List events = async.getEvents();
+        assertEquals(2, events.size());
+        assertEquals(TransferEvent.TRANSFER_PROGRESS, ((TransferEvent) events.get(0))
+                .getEventType());
+        assertEquals(TransferEvent.TRANSFER_COMPLETED, ((TransferEvent) events.get(1))
+                .getEventType());
+    }
+
+    public void testTransferEventCopy() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        eventManager.addTransferListener(listener);
+        eventManager.setAsync(true);
+
+        Resource resource = new BasicResource("test", true, 1000, 0, true);
+        TransferEvent event = new TransferEvent(null, resource, 100L, TransferEvent.REQUEST_GET);
+        eventManager.transferProgress(event);
+        eventManager.flush();
+
+        TransferEvent delivered = (TransferEvent) listener.getEvents().get(0);
+        assertNotSame(event, delivered);
+        assertSame(resource, delivered.getResource());
+        assertEquals(100, delivered.getLength());
+        assertEquals(event.getAttributes(), delivered.getAttributes());
+    }
+}
@@ -38,6 +38,7 @@ import junit.framework.TestCase;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.TestHelper;
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.cache.ArtifactOrigin;
 import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.deliver.DeliverOptions;
@@ -52,6 +53,7 @@ import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.ConfigurationResolveReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNodeEviction.EvictionData;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.circular.CircularDependencyException;
 import org.apache.ivy.plugins.circular.ErrorCircularDependencyStrategy;
@@ -60,6 +62,7 @@ import org.apache.ivy.plugins.circular.WarnCircularDependencyStrategy;
 import org.apache.ivy.plugins.conflict.StrictConflictException;
 import org.apache.ivy.plugins.matcher.ExactPatternMatcher;
 import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.apache.ivy.plugins.report.TraceReportOutputter;
 import org.apache.ivy.plugins.repository.AbstractRepository;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.resolver.BasicResolver;
@@ -275,6 +278,124 @@ public class ResolveTest extends TestCase {
         assertTrue(getArchiveFileInCache("org1", "mod1.2", "2.0", "mod1.2", "jar", "jar").exists());
     }
 
+    public void testResolveMetrics() throws Exception {
+        // mod2.1 depends on mod1.1 which depends on mod1.2
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}));
+        ResolveMetrics metrics = report.getMetrics();
+
+        assertEquals(1, metrics.getTimings(ResolveMetrics.RESOLVE).getCount());
+        assertEquals(1, metrics.getTimings(ResolveMetrics.REPORT).getCount());
+        assertEquals(2, metrics.getTimings(ResolveMetrics.DEPENDENCY, "test").getCount());
+        assertEquals(2, metrics.getCount(ResolveMetrics.CACHE_MISSES, "test"));
+        assertEquals(2, metrics.getCount(ResolveMetrics.CACHE_MISSES, "1"));
+        assertEquals(0, metrics.getCount(ResolveMetrics.CACHE_HITS));
+        assertEquals(2, metrics.getTimings(ResolveMetrics.METADATA_LOOKUP, "1").getCount());
+        // mod1.2 has no ivy file
+        assertEquals(1, metrics.getTimings(ResolveMetrics.PARSE, "1").getCount());
+        // the ivy file of mod1.1 and the jars of both modules
+        assertEquals(3, metrics.getTimings(ResolveMetrics.DOWNLOAD, "1").getCount());
+        assertTrue(metrics.getTimings(ResolveMetrics.CONFLICTS).getCount() > 0);
+        assertTrue(metrics.toString().indexOf("\"metadata-lookup\": {\"count\": ") != -1);
+
+        // the second time the modules are found in the cache
+        report = ivy.resolve(new File("test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}));
+        metrics = report.getMetrics();
+        assertEquals(2, metrics.getCount(ResolveMetrics.CACHE_HITS, "test"));
+        assertEquals(0, metrics.getTimings(ResolveMetrics.METADATA_LOOKUP).getCount());
+        assertEquals(0, metrics.getTimings(ResolveMetrics.DOWNLOAD).getCount());
+    }
+
+    public void testResolveTrace() throws Exception {
+        // resolves are not traced by default
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}));
+        assertNull(report.getTrace());
+        CacheCleaner.deleteDir(cache);
+        createCache();
+
+        // mod2.1 depends on mod1.1 which depends on mod1.2
+        report = ivy.resolve(new File("test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}).setTraceSize(100));
+        ResolveTrace trace = report.getTrace();
+        assertNotNull(trace);
+        assertEquals(0, trace.getDropped());
+
+        ResolveTrace.Span[] spans = trace.getSpans();
+        Map counts = new HashMap();
+        for (int i = 0; i < spans.length; i++) {
+            String key = spans[i].getCategory() + " " + spans[i].getResolver();
+            Integer count = (Integer) counts.get(key);
+            counts.put(key, new Integer(count == null ? 1 : count.intValue() + 1));
+            assertEquals(Thread.currentThread().getName(), spans[i].getThreadName());
+            assertTrue(spans[i].getDuration() >= 0);
+        }
+        assertEquals(new Integer(2), counts.get(ResolveTrace.CHAIN + " test"));
+        assertEquals(new Integer(2), counts.get(ResolveTrace.DEPENDENCY + " 1"));
+        assertEquals(new Integer(2), counts.get(ResolveTrace.DOWNLOAD + " 1"));
+        assertNotNull(counts.get(ResolveTrace.FETCH + " null"));
+
+        // the trace is written by its report outputter
+        File traceFile = TraceReportOutputter.getTraceFile(ivy.getResolutionCacheManager(),
+            report.getResolveId());
+        assertTrue(traceFile.exists());
+        String json = FileUtil.readEntirely(traceFile);
+        assertTrue(json, json.indexOf("\"name\": \"chain org1#mod1.1;1.0\", \"cat\": \"chain\","
+                + " \"ph\": \"X\"") != -1);
+        assertTrue(json, json.indexOf("\"args\": {\"module\": \"org1#mod1.2;2.0\", "
+                + "\"resolver\": \"1\"}") != -1);
+
+        // only the last spans are kept
+        report = ivy.resolve(new File("test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}).setTraceSize(2));
+        trace = report.getTrace();
+        assertEquals(2, trace.getSpans().length);
+        assertTrue(trace.getDropped() > 0);
+    }
+
+    public void testResolveProblems() throws Exception {
+        // mod1.4 depends on modfailure, modfailure has a bad status
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org1/mod1.4/ivys/ivy-1.1.xml"),
+            getResolveOptions(new String[] {"*"}));
+        assertTrue(report.hasError());
+
+        // the report keeps the problems of the resolve, which are dropped with it
+        assertFalse(report.getProblemMessages().isEmpty());
+        assertNull(IvyContext.getContext().getProblemStore());
+        assertTrue(ivy.getLoggerEngine().getProblems().isEmpty());
+    }
+
+    public void testLatencyHistogram() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getTotal());
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(90));
+        assertEquals(1, histogram.getPercentile(1));
+    }
+
+    public void testResolveWithSettingsSnapshot() throws Exception {
+        Ivy snapshotIvy = Ivy.newInstance(ivy.getSettings().snapshot());
+        ResolveReport report = snapshotIvy.resolve(new File(
+                "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml"),
+            getResolveOptions(new String[] {"*"}));
+        assertFalse(report.hasError());
+
+        assertTrue(getIvyFileInCache(
+            ModuleRevisionId.newInstance("org1", "mod1.2", "2.0")).exists());
+        assertTrue(getArchiveFileInCache("org1", "mod1.2", "2.0", "mod1.2", "jar", "jar").exists());
+    }
+
     public void testResolveBadStatus() throws Exception {
         // mod1.4 depends on modfailure, modfailure has a bad status
         ResolveReport report = ivy.resolve(new File(
@@ -2183,6 +2304,42 @@ public class ResolveTest extends TestCase {
         assertTrue(evictedModules.contains(ModuleRevisionId.newInstance("org1", "mod1.2", "2.0")));
     }
     
+    public void testTransitiveEvictionThroughSeveralLevels() throws Exception {
+        // h 1 -> m 1 -> l 1 and k 1
+        // x 1 -> h 2, which evicts h 1 once its dependencies have been loaded: m 1 is evicted by
+        // transitivity, and so is l 1 since its only caller m 1 is checked before it
+        // y 1 -> k 1, which is kept
+        Ivy ivy = new Ivy();
+        ivy.configure(new File("test/repositories/transitive-eviction/ivysettings.xml"));
+        ivy.getSettings().setDefaultCache(cache);
+
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/transitive-eviction/ivy.xml"),
+            getResolveOptions(new String[] {"default"}));
+        assertFalse(report.hasError());
+
+        ConfigurationResolveReport defaultReport = report.getConfigurationReport("default");
+        assertEquals(new HashSet(Arrays.asList(new ModuleRevisionId[] {
+                ModuleRevisionId.newInstance("test", "h", "2"),
+                ModuleRevisionId.newInstance("test", "x", "1"),
+                ModuleRevisionId.newInstance("test", "y", "1"),
+                ModuleRevisionId.newInstance("test", "k", "1")})), defaultReport
+                .getModuleRevisionIds());
+
+        Map evicted = new HashMap(); // Map (ModuleRevisionId -> EvictionData)
+        IvyNode[] evictedNodes = defaultReport.getEvictedNodes();
+        for (int i = 0; i < evictedNodes.length; i++) {
+            evicted.put(evictedNodes[i].getId(), evictedNodes[i].getEvictedData("default"));
+        }
+        assertEquals(3, evicted.size());
+        assertFalse(((EvictionData) evicted.get(ModuleRevisionId.newInstance("test", "h", "1")))
+                .isTransitivelyEvicted());
+        assertTrue(((EvictionData) evicted.get(ModuleRevisionId.newInstance("test", "m", "1")))
+                .isTransitivelyEvicted());
+        assertTrue(((EvictionData) evicted.get(ModuleRevisionId.newInstance("test", "l", "1")))
+                .isTransitivelyEvicted());
+    }
+
     public void testResolveConflictInConf() throws Exception {
         // conflicts in separate confs are not conflicts
 
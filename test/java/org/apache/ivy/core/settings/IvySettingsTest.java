@@ -98,4 +98,94 @@ public class IvySettingsTest extends TestCase {
         settings.setVariable("ivy", "rocks", true, "foo", "noexist");
         assertEquals("rocks", settings.getVariable("ivy"));
     }
+
+    public void testSubstituteAfterVariableChange() throws Exception {
+        IvySettings settings = new IvySettings();
+        // set before 'other' is defined, so 'val' keeps a reference to it
+        settings.setVariable("val", "${other}/lib");
+        String pattern = "${val}/[artifact].[ext]";
+
+        assertEquals("${other}/lib/[artifact].[ext]", settings.substitute(pattern));
+        settings.setVariable("other", "first");
+        assertEquals("first/lib/[artifact].[ext]", settings.substitute(pattern));
+        assertEquals("first/lib/[artifact].[ext]", settings.substitute(pattern));
+        settings.setVariable("other", "second");
+        assertEquals("second/lib/[artifact].[ext]", settings.substitute(pattern));
+
+        String noVariable = "[artifact].[ext]";
+        assertSame(noVariable, settings.substitute(noVariable));
+    }
+
+    public void testSnapshot() throws Exception {
+        Ivy ivy = new Ivy();
+        ivy.configureDefault();
+        IvySettings settings = ivy.getSettings();
+        settings.setVariable("foo", "bar");
+
+        IvySettings snapshot = settings.snapshot();
+        assertTrue(snapshot.isSnapshot());
+        assertFalse(settings.isSnapshot());
+        assertSame(snapshot, snapshot.snapshot());
+        assertEquals("bar", snapshot.getVariable("foo"));
+        assertEquals(settings.getDefaultCache(), snapshot.getDefaultCache());
+        assertSame(settings.getDefaultResolver(), snapshot.getDefaultResolver());
+        assertSame(settings.getResolver("public"), snapshot.getResolver("public"));
+
+        try {
+            snapshot.setVariable("foo", "other");
+            fail("a snapshot can't be modified");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            snapshot.getVariables().setVariable("foo", "other", true);
+            fail("the variables of a snapshot can't be modified");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            snapshot.setDefaultResolver("public");
+            fail("a snapshot can't be modified");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            snapshot.setLogNotConvertedExclusionRule(true);
+            fail("a snapshot can't be modified");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // modifying the settings doesn't affect the snapshots already taken
+        settings.setVariable("foo", "other");
+        settings.setDefaultResolver("public");
+        assertEquals("bar", snapshot.getVariable("foo"));
+        assertEquals("default", snapshot.getDefaultResolver().getName());
+        assertEquals("other", settings.snapshot().getVariable("foo"));
+        assertEquals("public", settings.snapshot().getDefaultResolver().getName());
+    }
+
+    public void testSnapshotDefaults() throws Exception {
+        // the defaults registered on first use are registered before the snapshot is taken
+        IvySettings settings = new IvySettings();
+        settings.setVariable("foo", "bar");
+        assertEquals("bar/[artifact]", settings.substitute("${foo}/[artifact]"));
+
+        IvySettings snapshot = settings.snapshot();
+        assertNotNull(snapshot.getVersionMatcher("latest"));
+        assertNotNull(snapshot.getVersionMatcher("sub-version"));
+        assertNotNull(snapshot.getVersionMatcher("version-range"));
+        assertEquals(settings.getVersionMatchers().length, snapshot.getVersionMatchers().length);
+        assertSame(settings.getDefaultRepositoryCacheManager(), 
+            snapshot.getRepositoryCacheManager("default-cache"));
+        assertSame(snapshot.getDefaultRepositoryCacheManager(), 
+            snapshot.getRepositoryCacheManager("default-cache"));
+        assertEquals(1, snapshot.getRepositoryCacheManagers().length);
+
+        // substitutions are made with the variables of the snapshot, cached or not
+        settings.setVariable("foo", "other");
+        assertEquals("bar/[artifact]", snapshot.substitute("${foo}/[artifact]"));
+        assertEquals("bar/[module]", snapshot.substitute("${foo}/[module]"));
+        assertEquals("other/[artifact]", settings.substitute("${foo}/[artifact]"));
+    }
 }
@@ -191,6 +191,39 @@ public class SortTest extends TestCase {
         circularDepReportMock.validate();
     }
 
+    /**
+     * Modules depending on each other through several loops are reported once.
+     */
+    public void testCircularDependencyReportedOncePerGroup() {
+        addDependency(md1, "md2", "rev2");
+        addDependency(md1, "md3", "rev3");
+        addDependency(md2, "md3", "rev3");
+        addDependency(md3, "md4", "rev4");
+        addDependency(md4, "md1", "rev1");
+        addDependency(md4, "md2", "rev2");
+
+        final List reported = new ArrayList();
+        settings.setCircularDependencyStrategy(new CircularDependencyStrategy() {
+            public String getName() {
+                return "CircularDependencyReporterMock";
+            }
+
+            public void handleCircularDependency(ModuleRevisionId[] mrids) {
+                reported.add(mrids);
+            }
+        });
+
+        Collection permutations = getAllLists(md1, md3, md2, md4);
+        for (Iterator it = permutations.iterator(); it.hasNext();) {
+            List toSort = (List) it.next();
+            reported.clear();
+            assertEquals(4, sortModuleDescriptors(toSort, nonMatchReporter).size());
+            assertEquals(1, reported.size());
+            ModuleRevisionId[] loop = (ModuleRevisionId[]) reported.get(0);
+            assertEquals(loop[0], loop[loop.length - 1]);
+        }
+    }
+
     /**
      * The dependency can ask for the latest integration. It should match whatever the version
      * declared in the modules to order.
@@ -0,0 +1,116 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.circular.IgnoreCircularDependencyStrategy;
+import org.apache.ivy.plugins.version.ChainVersionMatcher;
+import org.apache.ivy.plugins.version.ExactVersionMatcher;
+import org.apache.ivy.plugins.version.LatestVersionMatcher;
+
+/**
+ * Not a Junit test, measures the time taken to sort a large set of module descriptors.
+ * <p>
+ * The modules are generated with a fixed seed: each module depends on a few modules with a
+ * greater number, some of them through latest.integration, and a few dependencies go back to a
+ * module with a lower number to create loops. A long chain of modules is also included.
+ * </p>
+ * Usage: TestSortPerformance [nbModules] [nbRuns]
+ */
+public class TestSortPerformance {
+    private static final long SEED = 42L;
+
+    private static final int MAX_DEPENDENCIES = 5;
+
+    private static final int MAX_DEPENDENCY_DISTANCE = 200;
+
+    private static final int LOOP_RATIO = 200;
+
+    private static final int CHAIN_LENGTH = 2000;
+
+    private List generateModules(int nbModules) {
+        Random r = new Random(SEED);
+        DefaultModuleDescriptor[] mds = new DefaultModuleDescriptor[nbModules];
+        for (int i = 0; i < nbModules; i++) {
+            mds[i] = new DefaultModuleDescriptor(ModuleRevisionId.newInstance("org", "mod" + i,
+                "1." + i), "integration", new Date());
+        }
+        for (int i = 0; i < nbModules; i++) {
+            if (i < CHAIN_LENGTH && i + 1 < nbModules) {
+                addDependency(mds[i], mds[i + 1], "1." + (i + 1));
+            }
+            int deps = r.nextInt(MAX_DEPENDENCIES);
+            for (int j = 0; j < deps; j++) {
+                int d = i + 1 + r.nextInt(MAX_DEPENDENCY_DISTANCE);
+                if (r.nextInt(LOOP_RATIO) == 0) {
+                    d = r.nextInt(i + 1);
+                }
+                if (d < nbModules) {
+                    addDependency(mds[i], mds[d], r.nextBoolean() ? "latest.integration" : "1."
+                            + d);
+                }
+            }
+        }
+        List modules = new ArrayList(nbModules);
+        for (int i = 0; i < nbModules; i++) {
+            modules.add(mds[i]);
+        }
+        Collections.shuffle(modules, r);
+        return modules;
+    }
+
+    private void addDependency(DefaultModuleDescriptor md, DefaultModuleDescriptor dep,
+            String revision) {
+        md.addDependency(new DefaultDependencyDescriptor(md, ModuleRevisionId.newInstance(dep
+                .getModuleRevisionId(), revision), false, false, true));
+    }
+
+    public void testSort(int nbModules, int nbRuns) {
+        List modules = generateModules(nbModules);
+        SimpleSortEngineSettings settings = new SimpleSortEngineSettings();
+        settings.setCircularDependencyStrategy(IgnoreCircularDependencyStrategy.getInstance());
+        ChainVersionMatcher versionMatcher = new ChainVersionMatcher();
+        versionMatcher.add(new ExactVersionMatcher());
+        versionMatcher.add(new LatestVersionMatcher());
+        settings.setVersionMatcher(versionMatcher);
+        SortEngine sortEngine = new SortEngine(settings);
+        SortOptions options = new SortOptions()
+                .setNonMatchingVersionReporter(new SilentNonMatchingVersionReporter());
+
+        for (int i = 0; i < nbRuns; i++) {
+            long start = System.currentTimeMillis();
+            List sorted = sortEngine.sortModuleDescriptors(modules, options);
+            long end = System.currentTimeMillis();
+            System.out.println("sorted " + sorted.size() + " modules in " + (end - start) + " ms");
+        }
+    }
+
+    public static void main(String[] args) {
+        int nbModules = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int nbRuns = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        new TestSortPerformance().testSort(nbModules, nbRuns);
+    }
+}
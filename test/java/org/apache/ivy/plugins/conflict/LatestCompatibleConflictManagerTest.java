@@ -160,6 +160,25 @@ public class LatestCompatibleConflictManagerTest extends TestCase {
     }
 
 
+    public void testIncrementalRestart() throws Exception {
+        fixture
+            .addMD("#A;3-> { #B;[2.0,2.5] #C;[3.0,3.5] }")
+            .addMD("#B;2.3-> { #D;1.5 #E;1.0 }")
+            .addMD("#B;2.4-> { #D;1.5 #E;2.0 }")
+            .addMD("#B;2.5-> { #D;2.0 }")
+            .addMD("#C;3.4-> { #D;[1.0,1.6] #E;1.0 }")
+            .addMD("#C;3.5-> { #D;[1.0,1.6] #E;1.9 }")
+            .addMD("#D;1.5").addMD("#D;1.6").addMD("#D;2.0")
+            .addMD("#E;1.0").addMD("#E;1.9").addMD("#E;2.0")
+            .init();
+        ResolveReport report = fixture.getIvy().resolve(fixture.getIvyFile("#A;3"),
+            TestHelper.newResolveOptions(fixture.getSettings()).setIncrementalRestart(true));
+        assertFalse(report.hasError());
+        assertTrue(report.getRestartCount() > 0);
+        TestHelper.assertModuleRevisionIds("#B;2.3, #C;3.4, #D;1.5, #E;1.0", 
+            report.getConfigurationReport("default").getModuleRevisionIds());
+    }
+
     public void testConflict() throws Exception {
         try {
             fixture
@@ -19,12 +19,15 @@ package org.apache.ivy.plugins.lock;
 
 import java.io.File;
 import java.text.ParseException;
+import java.util.Date;
 
 import junit.framework.TestCase;
 
 import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.event.EventManager;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
 import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.resolve.ResolveData;
@@ -79,6 +82,44 @@ public class ArtifactLockStrategyTest extends TestCase {
     }    
 
     
+    public void testLockHeldByAnotherThread() throws Exception {
+        final LockStrategy strategy = new CreateFileLockStrategy(false);
+        final Artifact artifact = new DefaultArtifact(
+            ModuleRevisionId.newInstance("org", "mod", "1.0"), new Date(), "mod", "jar", "jar");
+        final File file = new File("build/test/cache/org/mod/jars/mod-1.0.jar");
+        assertTrue(strategy.lockArtifact(artifact, file));
+        // the lock is reentrant for the thread which holds it
+        assertTrue(strategy.lockArtifact(artifact, file));
+        strategy.unlockArtifact(artifact, file);
+
+        final boolean[] locked = new boolean[1];
+        Thread other = new Thread() {
+            public void run() {
+                try {
+                    if (strategy.lockArtifact(artifact, file)) {
+                        synchronized (locked) {
+                            locked[0] = true;
+                        }
+                        strategy.unlockArtifact(artifact, file);
+                    }
+                } catch (InterruptedException e) {
+                    // the lock isn't acquired
+                }
+            }
+        };
+        other.start();
+        sleepSilently(300);
+        synchronized (locked) {
+            assertFalse("the lock is held by another thread", locked[0]);
+        }
+        strategy.unlockArtifact(artifact, file);
+        other.join(10000);
+        synchronized (locked) {
+            assertTrue(locked[0]);
+        }
+        assertFalse(new File(file.getPath() + ".lck").exists());
+    }
+
     private RepositoryCacheManager newCacheManager(IvySettings settings) {
         DefaultRepositoryCacheManager cacheManager 
             = new DefaultRepositoryCacheManager("cache", settings, new File("build/test/cache"));
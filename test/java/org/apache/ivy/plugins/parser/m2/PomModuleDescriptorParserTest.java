@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
@@ -35,6 +36,7 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.resolve.ResolveData;
+import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.parser.AbstractModuleDescriptorParserTester;
@@ -738,6 +740,41 @@ public class PomModuleDescriptorParserTest extends AbstractModuleDescriptorParse
                 .getDependencyRevisionId());//present in the pom using a property defined in the parent
     }
 
+    public void testParentLoadedOncePerResolve() throws ParseException, IOException {
+        final int[] loads = new int[1];
+        settings.setDictatorResolver(new MockResolver() {
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
+                    throws ParseException {
+                loads[0]++;
+                try {
+                    ModuleDescriptor moduleDescriptor = PomModuleDescriptorParser.getInstance()
+                            .parseDescriptor(settings, getClass().getResource("test-version.pom"),
+                                false);
+                    return new ResolvedModuleRevision(null,null,moduleDescriptor,null);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        IvyContext.pushNewCopyContext().setResolveData(
+            new ResolveData(null, new ResolveOptions()));
+        try {
+            // both poms have the same parent, which is loaded by the first parse only
+            ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(
+                settings, getClass().getResource("test-parent-properties.pom"), false);
+            assertEquals(ModuleRevisionId.newInstance("org.apache", "test-version-other", "5.76"), 
+                md.getDependencies()[0].getDependencyRevisionId());
+            md = PomModuleDescriptorParser.getInstance().parseDescriptor(
+                settings, getClass().getResource("test-override-parent-properties.pom"), false);
+            assertEquals(ModuleRevisionId.newInstance("org.apache", "test-yet-other", "5.79"), 
+                md.getDependencies()[1].getDependencyRevisionId());
+        } finally {
+            IvyContext.popContext();
+        }
+        assertEquals(1, loads[0]);
+    }
+
     public void testOverrideParentProperties() throws ParseException, IOException {
         settings.setDictatorResolver(new MockResolver() {
             public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data) throws ParseException {
@@ -798,6 +835,24 @@ public class PomModuleDescriptorParserTest extends AbstractModuleDescriptorParse
                 .getDependencyRevisionId());
     }
 
+    public void testSkippedElements() throws Exception {
+        // the dependencies of profiles, plugins or unknown elements must be skipped, and the text
+        // of the elements read must be complete whatever the sax events it is split in
+        ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(
+            settings, getClass().getResource("test-skipped-elements.pom"), false);
+        assertNotNull(md);
+
+        assertEquals(ModuleRevisionId.newInstance("org.apache", "test", "1.0"), md
+                .getModuleRevisionId());
+        assertEquals("Test <skipped> elements & text", md.getDescription());
+
+        DependencyDescriptor[] dds = md.getDependencies();
+        assertNotNull(dds);
+        assertEquals(1, dds.length);
+        assertEquals(ModuleRevisionId.newInstance("commons-logging", "commons-logging", "1.0.4"),
+            dds[0].getDependencyRevisionId());
+    }
+
     public void testPomWithEntity() throws Exception {
         ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(
             settings, getClass().getResource("test-entity.pom"), true);
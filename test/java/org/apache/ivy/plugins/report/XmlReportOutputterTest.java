@@ -0,0 +1,108 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.cache.ResolutionCacheManager;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.util.CacheCleaner;
+import org.apache.ivy.util.FileUtil;
+
+public class XmlReportOutputterTest extends TestCase {
+    private static final File IVY_FILE = new File(
+            "test/repositories/1/multiple-same-deps/mod3/ivys/ivy-1.0.xml");
+
+    private Ivy ivy;
+
+    private File cache;
+
+    protected void setUp() throws Exception {
+        ivy = new Ivy();
+        ivy.configure(new File("test/repositories/ivysettings.xml"));
+        cache = new File("build/cache");
+        cache.mkdirs();
+    }
+
+    protected void tearDown() throws Exception {
+        CacheCleaner.deleteDir(cache);
+    }
+
+    public void testParallelOutput() throws Exception {
+        ResolveReport report = resolve();
+        String[] confs = report.getConfigurations();
+        assertTrue(confs.length > 2);
+        String[] sequential = readReports(confs);
+
+        ivy.getSettings().setVariable(PerConfigurationOutput.THREADS_VARIABLE, "3");
+        report.output(ivy.getSettings().getReportOutputters(),
+            ivy.getResolutionCacheManager(), new ResolveOptions());
+        String[] parallel = readReports(confs);
+        for (int i = 0; i < confs.length; i++) {
+            assertEquals(confs[i], sequential[i], parallel[i]);
+            assertTrue(BinaryReportOutputter.getBinaryReportFile(getReport(confs[i])).exists());
+        }
+    }
+
+    public void testStaticResources() throws Exception {
+        resolve();
+        File dir = ivy.getResolutionCacheManager().getResolutionCacheRoot();
+        File xsl = new File(dir, "ivy-report.xsl");
+        File css = new File(dir, "ivy-report.css");
+        String expectedXsl = FileUtil.readEntirely(xsl);
+        FileUtil.copy(new File("build.xml"), xsl, null, true);
+        css.setLastModified(css.lastModified() - 10000);
+        long cssModified = css.lastModified();
+
+        resolve();
+        // a changed resource is copied again, an unchanged one is left as is
+        assertEquals(expectedXsl, FileUtil.readEntirely(xsl));
+        assertEquals(cssModified, css.lastModified());
+
+        // a resource with the recorded length and modification date is not read again
+        String expectedCss = FileUtil.readEntirely(css);
+        String changedCss = expectedCss.replace('{', '[');
+        FileUtil.copy(new ByteArrayInputStream(changedCss.getBytes("UTF-8")), css, null);
+        css.setLastModified(cssModified);
+        resolve();
+        assertEquals(changedCss, FileUtil.readEntirely(css));
+    }
+
+    private ResolveReport resolve() throws Exception {
+        return ivy.resolve(IVY_FILE, new ResolveOptions().setConfs(new String[] {"*"})
+                .setResolveId("testXmlReportOutputter"));
+    }
+
+    private File getReport(String conf) {
+        ResolutionCacheManager cacheMgr = ivy.getResolutionCacheManager();
+        return cacheMgr.getConfigurationResolveReportInCache("testXmlReportOutputter", conf);
+    }
+
+    private String[] readReports(String[] confs) throws Exception {
+        String[] reports = new String[confs.length];
+        for (int i = 0; i < confs.length; i++) {
+            reports[i] = FileUtil.readEntirely(getReport(confs[i]));
+        }
+        return reports;
+    }
+}
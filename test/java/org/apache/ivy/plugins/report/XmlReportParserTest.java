@@ -18,14 +18,19 @@
 package org.apache.ivy.plugins.report;
 
 import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.cache.DefaultResolutionCacheManager;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.MetadataArtifactDownloadReport;
 import org.apache.ivy.core.report.ResolveReport;
 import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.resolve.ResolveTest;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.Delete;
 
@@ -73,6 +78,106 @@ public class XmlReportParserTest extends TestCase {
         assertEquals("Resolved module doesn't equals parsed module", modRevId, parsedModRevId);
     }
 
+    public void testBinaryReport() throws Exception {
+        _ivy.resolve(new File("test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}).setResolveId("testBinaryReport"));
+        File xml = _ivy.getResolutionCacheManager().getConfigurationResolveReportInCache(
+            "testBinaryReport", "default");
+        File binary = BinaryReportOutputter.getBinaryReportFile(xml);
+        assertTrue(binary.exists());
+
+        XmlReportParser fromXml = new XmlReportParser();
+        fromXml.parseXml(xml);
+        XmlReportParser fromBinary = new XmlReportParser();
+        fromBinary.parse(xml);
+        assertSameResults(fromXml, fromBinary);
+        assertTrue(fromBinary.getArtifactReports().length > 0);
+
+        // a modified xml report is parsed again
+        xml.setLastModified(xml.lastModified() - 10000);
+        XmlReportParser afterChange = new XmlReportParser();
+        afterChange.parse(xml);
+        assertSameResults(fromXml, afterChange);
+
+        // and the binary report is not kept when the xml report is written again
+        new XmlReportOutputter().output(_ivy.resolve(
+            new File("test/repositories/1/org2/mod2.1/ivys/ivy-0.3.xml"),
+            getResolveOptions(new String[] {"*"}).setResolveId("testBinaryReport")
+                    .setOutputReport(false)).getConfigurationReport("default"),
+            "testBinaryReport", new String[] {"default"}, _ivy.getResolutionCacheManager());
+        assertFalse(binary.exists());
+    }
+
+    public void testBinaryReportWithEvictionsAndErrors() throws Exception {
+        // the binary reports are written from the resolve reports, they must give what parsing
+        // the xml reports gives, including for evicted revisions and revisions in error
+        URL[] ivyFiles = new URL[] {
+                ResolveTest.class.getResource("ivy-590.xml"),
+                new File("test/repositories/1/org1/mod1.4/ivys/ivy-1.1.xml").toURI().toURL()};
+        for (int i = 0; i < ivyFiles.length; i++) {
+            ResolveReport report = _ivy.resolve(ivyFiles[i], getResolveOptions(
+                new String[] {"*"}).setResolveId("testBinaryReport" + i));
+            String[] confs = report.getConfigurations();
+            for (int j = 0; j < confs.length; j++) {
+                File xml = _ivy.getResolutionCacheManager().getConfigurationResolveReportInCache(
+                    "testBinaryReport" + i, confs[j]);
+                assertTrue(BinaryReportOutputter.getBinaryReportFile(xml).exists());
+
+                XmlReportParser fromXml = new XmlReportParser();
+                fromXml.parseXml(xml);
+                XmlReportParser fromBinary = new XmlReportParser();
+                fromBinary.parse(xml);
+                assertSameResults(fromXml, fromBinary);
+                assertEquals(report.getConfigurationReport(confs[j]).hasError(), 
+                    fromBinary.hasError());
+            }
+        }
+    }
+
+    private void assertSameResults(XmlReportParser expected, XmlReportParser actual) {
+        assertEquals(expected.getResolvedModule(), actual.getResolvedModule());
+        assertEquals(expected.hasError(), actual.hasError());
+        assertEquals(Arrays.asList(expected.getDependencyRevisionIds()), Arrays.asList(actual
+                .getDependencyRevisionIds()));
+        assertEquals(Arrays.asList(expected.getRealDependencyRevisionIds()), Arrays
+                .asList(actual.getRealDependencyRevisionIds()));
+        assertEquals(Arrays.asList(expected.getArtifacts()), Arrays.asList(actual
+                .getArtifacts()));
+
+        ArtifactDownloadReport[] expectedReports = expected.getArtifactReports();
+        ArtifactDownloadReport[] actualReports = actual.getArtifactReports();
+        assertEquals(expectedReports.length, actualReports.length);
+        for (int i = 0; i < expectedReports.length; i++) {
+            assertSameReport(expectedReports[i], actualReports[i]);
+        }
+        ModuleRevisionId[] mrids = expected.getRealDependencyRevisionIds();
+        for (int i = 0; i < mrids.length; i++) {
+            MetadataArtifactDownloadReport expectedReport = expected
+                    .getMetadataArtifactReport(mrids[i]);
+            MetadataArtifactDownloadReport actualReport = actual
+                    .getMetadataArtifactReport(mrids[i]);
+            assertSameReport(expectedReport, actualReport);
+            assertEquals(expectedReport.isSearched(), actualReport.isSearched());
+            assertEquals(expectedReport.getOriginalLocalFile(), actualReport
+                    .getOriginalLocalFile());
+        }
+    }
+
+    private void assertSameReport(ArtifactDownloadReport expected,
+            ArtifactDownloadReport actual) {
+        // metadata artifacts parsed from xml have no reliable publication date
+        assertEquals(expected.getArtifact().getId(), actual.getArtifact().getId());
+        assertEquals(expected.getArtifact().getQualifiedExtraAttributes(), actual.getArtifact()
+                .getQualifiedExtraAttributes());
+        assertEquals(expected.getDownloadStatus(), actual.getDownloadStatus());
+        assertEquals(expected.getDownloadDetails(), actual.getDownloadDetails());
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getDownloadTimeMillis(), actual.getDownloadTimeMillis());
+        assertEquals(expected.getLocalFile(), actual.getLocalFile());
+        assertEquals(expected.getUncompressedLocalDir(), actual.getUncompressedLocalDir());
+        assertEquals(expected.getArtifactOrigin(), actual.getArtifactOrigin());
+    }
+
     private ResolveOptions getResolveOptions(String[] confs) {
         return new ResolveOptions().setConfs(confs);
     }
@@ -124,6 +124,29 @@ public class ChainResolverTest extends AbstractDependencyResolverTest {
         assertTrue(resolvers[2].askedDeps.isEmpty());
     }
 
+    public void testPrefetch() throws Exception {
+        ChainResolver chain = new ChainResolver();
+        chain.setName("chain");
+        chain.setSettings(settings);
+        MockResolver[] resolvers = new MockResolver[] {
+                MockResolver.buildMockResolver(settings, "1", false, null),
+                MockResolver.buildMockResolver(settings, "2", true, null)};
+        for (int i = 0; i < resolvers.length; i++) {
+            chain.add(resolvers[i]);
+        }
+
+        List dds = Arrays.asList(new DependencyDescriptor[] {
+                new DefaultDependencyDescriptor(ModuleRevisionId.newInstance("org", "mod1", "rev"),
+                        false),
+                new DefaultDependencyDescriptor(ModuleRevisionId.newInstance("org", "mod2", "rev"),
+                        false)});
+        chain.prefetch(dds, data);
+        // only the first resolver of the chain is asked to prefetch the batch
+        assertEquals(dds, resolvers[0].prefetchedDeps);
+        assertTrue(resolvers[1].prefetchedDeps.isEmpty());
+        assertTrue(resolvers[0].askedDeps.isEmpty());
+    }
+
     public void testLatestTimeResolve() throws Exception {
         ChainResolver chain = new ChainResolver();
         chain.setName("chain");
@@ -23,7 +23,11 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.cache.CacheMetadataOptions;
 import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.Artifact;
@@ -465,6 +469,50 @@ public class FileSystemResolverTest extends AbstractDependencyResolverTest {
         assertEquals(pubdate, rmr.getPublicationDate());
     }
 
+    public void testRevisionListingCache() throws Exception {
+        cacheManager.setDefaultTTL(60000);
+        FileSystemResolver resolver = new FileSystemResolver();
+        resolver.setName("test");
+        resolver.setSettings(settings);
+        resolver.addIvyPattern(IVY_PATTERN);
+        resolver.addArtifactPattern(settings.getBaseDir() + "/test/repositories/1/"
+                + "[organisation]/[module]/[type]s/[artifact]-[revision].[type]");
+
+        ModuleRevisionId latest = ModuleRevisionId.newInstance("org1", "mod1.1",
+            "latest.integration");
+        ResolvedModuleRevision rmr = resolver.getDependency(new DefaultDependencyDescriptor(
+                latest, false), data);
+        assertNotNull(rmr);
+        assertEquals("2.0", rmr.getId().getRevision());
+
+        // the listing has been cached in the repository cache
+        String listedPattern = IvyPatternHelper.substitute(
+            (String) resolver.getIvyPatterns().get(0), "org1", "mod1.1",
+            IvyPatternHelper.getTokenString(IvyPatternHelper.REVISION_KEY), "ivy", "ivy", "xml");
+        Map listing = cacheManager.getRevisionListing("test", latest, listedPattern,
+            new CacheMetadataOptions());
+        assertNotNull(listing);
+        assertTrue(listing.containsKey("2.0"));
+
+        // another resolve uses the cached listing, whatever the dynamic revision asked
+        listing.remove("2.0");
+        cacheManager.saveRevisionListing("test", latest, listedPattern, listing);
+        ResolveData otherData = new ResolveData(engine, new ResolveOptions());
+        rmr = resolver.getDependency(new DefaultDependencyDescriptor(
+                ModuleRevisionId.newInstance("org1", "mod1.1", "[1.0,3.0]"), false), otherData);
+        assertNotNull(rmr);
+        assertEquals("1.1", rmr.getId().getRevision());
+
+        // and within a resolve, revisions are listed only once
+        Map older = new LinkedHashMap();
+        older.put("1.0", listing.get("1.0"));
+        cacheManager.saveRevisionListing("test", latest, listedPattern, older);
+        rmr = resolver.getDependency(new DefaultDependencyDescriptor(
+                ModuleRevisionId.newInstance("org1", "mod1.1", "[1.0,4.0]"), false), otherData);
+        assertNotNull(rmr);
+        assertEquals("1.1", rmr.getId().getRevision());
+    }
+
     public void testLatestRevision() throws Exception {
         FileSystemResolver resolver = new FileSystemResolver();
         resolver.setName("test");
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -66,6 +67,8 @@ public class MockResolver extends AbstractResolver {
 
     List askedDeps = new ArrayList();
 
+    List prefetchedDeps = new ArrayList();
+
     ResolvedModuleRevision rmr;
 
     public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
@@ -92,6 +95,10 @@ public class MockResolver extends AbstractResolver {
         return shouldReturn;
     }
 
+    public void prefetch(Collection dds, ResolveData data) {
+        prefetchedDeps.addAll(dds);
+    }
+
     public DownloadReport download(Artifact[] artifacts, DownloadOptions options) {
         DownloadReport dr = new DownloadReport();
         for (int i = 0; i < artifacts.length; i++) {
@@ -18,8 +18,10 @@
 package org.apache.ivy.plugins.resolver;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
 
 import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.event.EventManager;
@@ -27,6 +29,7 @@ import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
 import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.DefaultIncludeRule;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.id.ArtifactId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
@@ -118,6 +121,49 @@ public class URLResolverTest extends AbstractDependencyResolverTest {
         assertEquals(DownloadStatus.NO, ar.getDownloadStatus());
     }
 
+    public void testPrefetch() throws Exception {
+        URLResolver resolver = new URLResolver();
+        resolver.setSettings(settings);
+        String rootpath = new File("test/repositories/1").getAbsolutePath();
+        resolver.addIvyPattern("file:" + rootpath
+                + "/[organisation]/[module]/ivys/ivy-[revision].xml");
+        resolver.addArtifactPattern("file:" + rootpath
+                + "/[organisation]/[module]/[type]s/[artifact]-[revision].[type]");
+        resolver.setName("test");
+        // prefetching is opt-in
+        assertEquals(0, resolver.getPrefetchThreads());
+        resolver.setPrefetchThreads(4);
+
+        ModuleRevisionId mrid1 = ModuleRevisionId.newInstance("org1", "mod1.1", "1.0");
+        ModuleRevisionId mrid2 = ModuleRevisionId.newInstance("org1", "mod1.2", "2.1");
+        ModuleRevisionId unknown = ModuleRevisionId.newInstance("unknown", "unknown", "1.0");
+        List dds = Arrays.asList(new DependencyDescriptor[] {
+                new DefaultDependencyDescriptor(mrid1, false),
+                new DefaultDependencyDescriptor(mrid2, false),
+                new DefaultDependencyDescriptor(unknown, false)});
+        resolver.prefetch(dds, data);
+        // the threads of the first prefetch are reused by the next one
+        resolver.prefetch(dds, data);
+        Thread[] threads = new Thread[Thread.activeCount() * 2];
+        int count = Thread.enumerate(threads);
+        for (int i = 0; i < count; i++) {
+            String name = threads[i].getName();
+            if (name.startsWith("test-prefetch-")) {
+                assertTrue(name, Integer.parseInt(name.substring("test-prefetch-".length())) <= 3);
+            }
+        }
+
+        // prefetching must not change what is resolved
+        ResolvedModuleRevision rmr = resolver.getDependency(new DefaultDependencyDescriptor(mrid1,
+                false), data);
+        assertNotNull(rmr);
+        assertEquals(mrid1, rmr.getId());
+        rmr = resolver.getDependency(new DefaultDependencyDescriptor(mrid2, false), data);
+        assertNotNull(rmr);
+        assertEquals(mrid2, rmr.getId());
+        assertNull(resolver.getDependency(new DefaultDependencyDescriptor(unknown, false), data));
+    }
+
     public void testLatestFile() throws Exception {
         URLResolver resolver = new URLResolver();
         resolver.setSettings(settings);
@@ -57,6 +57,29 @@ public class IvyPatternHelperTest extends TestCase {
             "test(-[token])(-[othertoken])", tokens));
     }
 
+    public void testSubstituteWithExtraAttributes() {
+        String pattern = "[organisation]/[module](/[platform])/[artifact]-[revision].[ext]";
+        Map extra = new HashMap();
+        extra.put("platform", "win32");
+        assertEquals("apache/Test/win32/test-1.0.jar", IvyPatternHelper.substitute(pattern,
+            "apache", "Test", "1.0", "test", "jar", "jar", null, extra, null));
+        // the same compiled pattern is reused with other values
+        assertEquals("apache/Test/test-1.0.jar", IvyPatternHelper.substitute(pattern, "apache",
+            "Test", "1.0", "test", "jar", "jar"));
+    }
+
+    public void testUnbalancedPattern() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                IvyPatternHelper.substitute("[organisation]/([module]", "apache", "Test", "1.0",
+                    "test", "jar", "jar");
+                fail("unbalanced pattern should raise an exception");
+            } catch (IllegalArgumentException e) {
+                // expected, also when the pattern has already been seen
+            }
+        }
+    }
+
     public void testOrganization() {
         String pattern = "[organization]/[module]/build/archives/[type]s/[artifact]-[revision].[ext]";
         assertEquals("apache/Test/build/archives/jars/test-1.0.jar", IvyPatternHelper.substitute(
@@ -0,0 +1,69 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.Ivy;
+
+public class MessageTest extends TestCase {
+    private Ivy ivy;
+
+    private ByteArrayOutputStream out;
+
+    protected void setUp() throws Exception {
+        ivy = new Ivy();
+        ivy.bind();
+        out = new ByteArrayOutputStream();
+        ivy.getLoggerEngine().pushLogger(
+            new DefaultMessageLogger(Message.MSG_INFO, new PrintStream(out, true)));
+        ivy.pushContext();
+    }
+
+    protected void tearDown() throws Exception {
+        ivy.popContext();
+        ivy.getLoggerEngine().popLogger();
+    }
+
+    public void testIsLoggable() throws Exception {
+        assertTrue(Message.isLoggable(Message.MSG_ERR));
+        assertTrue(Message.isLoggable(Message.MSG_INFO));
+        assertFalse(Message.isVerboseEnabled());
+        assertFalse(Message.isDebugEnabled());
+
+        ivy.getLoggerEngine().pushLogger(new DefaultMessageLogger(Message.MSG_DEBUG));
+        try {
+            assertTrue(Message.isDebugEnabled());
+        } finally {
+            ivy.getLoggerEngine().popLogger();
+        }
+    }
+
+    public void testIsLoggableOtherLogger() throws Exception {
+        // loggers which don't know the level of their messages log every message
+        ivy.getLoggerEngine().pushLogger(new MockMessageLogger());
+        try {
+            assertTrue(Message.isDebugEnabled());
+        } finally {
+            ivy.getLoggerEngine().popLogger();
+        }
+    }
+}
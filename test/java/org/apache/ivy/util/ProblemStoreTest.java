@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.core.IvyContext;
+
+public class ProblemStoreTest extends TestCase {
+
+    public void testDeduplication() throws Exception {
+        ProblemStore store = new ProblemStore();
+        store.warn("missing artifact");
+        store.error("unresolved dependency");
+        store.warn("missing artifact");
+        store.warn("missing artifact");
+
+        assertEquals(Arrays.asList(new String[] {"WARN:  missing artifact",
+                "\tERROR: unresolved dependency"}), store.getProblems());
+        assertEquals(Arrays.asList(new String[] {"missing artifact"}), store.getWarns());
+        assertEquals(Arrays.asList(new String[] {"unresolved dependency"}), store.getErrors());
+        assertEquals(3, store.getWarnCount("missing artifact"));
+        assertEquals(1, store.getErrorCount("unresolved dependency"));
+        assertEquals(0, store.getErrorCount("missing artifact"));
+    }
+
+    public void testBounded() throws Exception {
+        ProblemStore store = new ProblemStore(2);
+        store.warn("w1");
+        store.warn("w2");
+        store.warn("w3");
+        store.error("e1");
+        // problems already kept are still counted
+        store.warn("w1");
+
+        assertEquals(Arrays.asList(new String[] {"w1", "w2"}), store.getWarns());
+        assertEquals(0, store.getErrors().size());
+        assertEquals(2, store.getWarnCount("w1"));
+        assertEquals(2, store.getDropped());
+
+        store.clear();
+        assertTrue(store.isEmpty());
+        assertEquals(0, store.getDropped());
+    }
+
+    public void testAddAll() throws Exception {
+        ProblemStore store = new ProblemStore();
+        store.warn("w1");
+        ProblemStore other = new ProblemStore();
+        other.warn("w1");
+        other.warn("w2");
+        other.error("e1");
+
+        store.addAll(other);
+        assertEquals(Arrays.asList(new String[] {"w1", "w2"}), store.getWarns());
+        assertEquals(2, store.getWarnCount("w1"));
+        assertEquals(1, store.getErrorCount("e1"));
+    }
+
+    public void testContextProblems() throws Exception {
+        MessageLoggerEngine engine = new MessageLoggerEngine();
+        engine.setDefaultLogger(new MockMessageLogger());
+        engine.warn("before");
+
+        IvyContext context = IvyContext.pushNewCopyContext();
+        try {
+            ProblemStore problems = new ProblemStore();
+            context.setProblemStore(problems);
+            engine.warn("during");
+            engine.warn("during");
+
+            assertEquals(Arrays.asList(new String[] {"during"}), problems.getWarns());
+            assertEquals(2, problems.getWarnCount("during"));
+            // the engine gives its own problems and the problems of the context
+            assertEquals(Arrays.asList(new String[] {"before", "during"}), engine.getWarns());
+        } finally {
+            IvyContext.popContext();
+        }
+        assertEquals(Arrays.asList(new String[] {"before"}), engine.getWarns());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.text.MessageFormat;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.LogOptions;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolveOptions;
+
+/**
+ * Not a Junit test, measures the memory allocated by debug and verbose messages which are
+ * discarded by the logger.
+ * <p>
+ * The same message is logged at debug level with the info level logger, first concatenated before
+ * the call, then guarded by {@link Message#isDebugEnabled()}, then deferred: a pattern and its
+ * arguments are passed, and the message is formatted only if it is loggable. Without varargs, the
+ * deferred form creates an array of arguments on each call, which the JIT may or may not
+ * eliminate. Then a module of the test
+ * repositories is resolved several times, to give the bytes allocated per resolve: run it on two
+ * builds to compare them.
+ * </p>
+ * <p>
+ * Allocations are measured with the allocated bytes counter of the current thread when the JVM
+ * provides it (com.sun.management.ThreadMXBean), with the growth of the used heap otherwise,
+ * which is much less accurate.
+ * </p>
+ * Usage: TestMessageAllocation [nbMessages] [nbResolves]
+ */
+public class TestMessageAllocation {
+    private static final String SETTINGS = "test/repositories/ivysettings.xml";
+
+    private static final String MODULE = "test/repositories/1/org6/mod6.2/ivys/ivy-0.4.xml";
+
+    private final Object threadBean;
+
+    private final Method allocatedBytes;
+
+    private final Long threadId;
+
+    public TestMessageAllocation() {
+        Object bean = null;
+        Method method = null;
+        Long id = null;
+        try {
+            // java 5+ only, and not available on all JVMs
+            Class factory = Class.forName("java.lang.management.ManagementFactory");
+            bean = factory.getMethod("getThreadMXBean", new Class[0]).invoke(null, new Object[0]);
+            method = Class.forName("com.sun.management.ThreadMXBean").getMethod(
+                "getThreadAllocatedBytes", new Class[] {long.class});
+            id = (Long) Thread.class.getMethod("getId", new Class[0]).invoke(
+                Thread.currentThread(), new Object[0]);
+            method.invoke(bean, new Object[] {id});
+        } catch (Exception e) {
+            System.out.println("thread allocation counter not available, using heap growth: " + e);
+            method = null;
+        }
+        threadBean = bean;
+        allocatedBytes = method;
+        threadId = id;
+    }
+
+    private long allocated() {
+        if (allocatedBytes != null) {
+            try {
+                return ((Long) allocatedBytes.invoke(threadBean, new Object[] {threadId}))
+                        .longValue();
+            } catch (Exception e) {
+                throw new IllegalStateException("unable to read allocated bytes: " + e);
+            }
+        }
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private abstract static class Scenario {
+        private final String name;
+
+        Scenario(String name) {
+            this.name = name;
+        }
+
+        abstract void run(String resolver, ModuleRevisionId mrid);
+    }
+
+    private static final Scenario[] SCENARIOS = new Scenario[] {new Scenario("concatenated") {
+        void run(String resolver, ModuleRevisionId mrid) {
+            Message.debug("\t" + resolver + ": found md file for " + mrid);
+        }
+    }, new Scenario("guarded") {
+        void run(String resolver, ModuleRevisionId mrid) {
+            if (Message.isDebugEnabled()) {
+                Message.debug("\t" + resolver + ": found md file for " + mrid);
+            }
+        }
+    }, new Scenario("deferred") {
+        void run(String resolver, ModuleRevisionId mrid) {
+            debug("\t{0}: found md file for {1}", new Object[] {resolver, mrid});
+        }
+    }};
+
+    private static void debug(String pattern, Object[] args) {
+        if (Message.isDebugEnabled()) {
+            Message.debug(MessageFormat.format(pattern, args));
+        }
+    }
+
+    public void testMessages(int nbMessages) {
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("apache", "mod1", "1.0");
+        for (int i = 0; i < SCENARIOS.length; i++) {
+            Scenario scenario = SCENARIOS[i];
+            // warm up: let the JIT compile the scenario before measuring it
+            for (int j = 0; j < nbMessages; j++) {
+                scenario.run("resolver", mrid);
+            }
+            long start = System.currentTimeMillis();
+            long before = allocated();
+            for (int j = 0; j < nbMessages; j++) {
+                scenario.run("resolver", mrid);
+            }
+            long bytes = allocated() - before;
+            long end = System.currentTimeMillis();
+            System.out.println(scenario.name + ": " + (bytes / nbMessages)
+                    + " bytes per discarded message, " + nbMessages + " messages in "
+                    + (end - start) + " ms");
+        }
+    }
+
+    public void testResolve(int nbResolves) throws Exception {
+        Ivy ivy = Ivy.newInstance();
+        ivy.configure(new File(SETTINGS));
+        ivy.getSettings().setDefaultCache(new File("build/test/msgalloc/cache"));
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"*"})
+                .setDownload(false).setOutputReport(false);
+        options.setLog(LogOptions.LOG_QUIET);
+        File ivyFile = new File(MODULE);
+
+        // warm up: fill the cache and load classes
+        ivy.resolve(ivyFile, options);
+
+        long before = allocated();
+        for (int i = 0; i < nbResolves; i++) {
+            ivy.resolve(ivyFile, options);
+        }
+        long bytes = allocated() - before;
+        System.out.println("resolve: " + (bytes / nbResolves / 1024) + " kB allocated per resolve");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nbMessages = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int nbResolves = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Message.setDefaultLogger(new DefaultMessageLogger(Message.MSG_INFO));
+        TestMessageAllocation t = new TestMessageAllocation();
+        t.testMessages(nbMessages);
+        try {
+            t.testResolve(nbResolves);
+        } finally {
+            FileUtil.forceDelete(new File("build/test/msgalloc"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class XMLHelperTest extends TestCase {
+    private static final String VALID = "<ivy-module version=\"2.0\">"
+            + "<info organisation=\"org\" module=\"mod\"/></ivy-module>";
+
+    private static final String INVALID = "<ivy-module version=\"2.0\">"
+            + "<info organisation=\"org\" module=\"mod\" unknown=\"value\"/></ivy-module>";
+
+    private static final URL SCHEMA = XmlModuleDescriptorParser.class.getResource("ivy.xsd");
+
+    public void testValidationWithReusedParsers() throws Exception {
+        if (!XMLHelper.canUseSchemaValidation()) {
+            return;
+        }
+        // the same parsers are reused from one parse to the other, the schema must still apply
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, parse(VALID, SCHEMA).errors.size());
+            assertEquals(1, parse(INVALID, SCHEMA).errors.size());
+            assertEquals(0, parse(INVALID, null).errors.size());
+        }
+    }
+
+    public void testNestedParse() throws Exception {
+        final RecordingHandler nested = new RecordingHandler();
+        RecordingHandler outer = new RecordingHandler() {
+            public void startElement(String uri, String localName, String qName,
+                    Attributes attributes) throws SAXException {
+                super.startElement(uri, localName, qName, attributes);
+                if ("info".equals(qName)) {
+                    try {
+                        XMLHelper.parse(new InputSource(new StringReader(VALID)), null, nested,
+                            null);
+                    } catch (Exception e) {
+                        throw new SAXException(e);
+                    }
+                }
+            }
+        };
+        XMLHelper.parse(new InputSource(new StringReader(VALID)), null, outer, null);
+
+        assertEquals(2, outer.elements.size());
+        assertEquals(2, nested.elements.size());
+    }
+
+    public void testFailedParse() throws Exception {
+        try {
+            parse("<ivy-module>", null);
+            fail("a fatal error should have been raised");
+        } catch (SAXParseException e) {
+            // expected, and the parsers available for next parses must not be affected
+        }
+        assertEquals(2, parse(VALID, null).elements.size());
+    }
+
+    private RecordingHandler parse(String xml, URL schema) throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        XMLHelper.parse(new InputSource(new StringReader(xml)), schema, handler, null);
+        return handler;
+    }
+
+    private static class RecordingHandler extends DefaultHandler {
+        private List elements = new ArrayList();
+
+        private List errors = new ArrayList();
+
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) throws SAXException {
+            elements.add(qName);
+        }
+
+        public void error(SAXParseException e) throws SAXException {
+            errors.add(e);
+        }
+    }
+}
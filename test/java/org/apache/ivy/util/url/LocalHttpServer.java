@@ -0,0 +1,265 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.ivy.util.FileUtil;
+
+/**
+ * A minimal http server serving the files of a directory from the local host, with directory
+ * listings in the format of apache, so that the url and ibiblio resolvers can be used against a
+ * repository on disk without network access.
+ * <p>
+ * Only GET and HEAD requests are supported, and each connection serves a single request. Each
+ * request can be delayed by a fixed latency, to simulate a remote repository.
+ * </p>
+ */
+public class LocalHttpServer {
+    private static final int BACKLOG = 50;
+
+    private final File root;
+
+    private final long latency;
+
+    private ServerSocket serverSocket;
+
+    private Thread acceptThread;
+
+    private int requests;
+
+    private long bytesSent;
+
+    /**
+     * @param root
+     *            the directory to serve
+     * @param latency
+     *            the time in milliseconds to wait before answering each request
+     */
+    public LocalHttpServer(File root, long latency) {
+        this.root = root;
+        this.latency = latency;
+    }
+
+    /**
+     * Starts the server on a free port of the local host.
+     */
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(0, BACKLOG, InetAddress.getByName("localhost"));
+        acceptThread = new Thread("local http server " + getPort()) {
+            public void run() {
+                accept();
+            }
+        };
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public void stop() throws IOException {
+        serverSocket.close();
+        try {
+            acceptThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the url of the served directory, ending with a slash.
+     */
+    public String getRootUrl() {
+        return "http://localhost:" + getPort() + "/";
+    }
+
+    public synchronized int getRequests() {
+        return requests;
+    }
+
+    public synchronized long getBytesSent() {
+        return bytesSent;
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                // the server socket has been closed
+                return;
+            }
+            Thread handler = new Thread("local http request") {
+                public void run() {
+                    try {
+                        handle(socket);
+                    } catch (IOException e) {
+                        // the client has closed the connection
+                    } finally {
+                        try {
+                            socket.close();
+                        } catch (IOException e) {
+                            // ignored
+                        }
+                    }
+                }
+            };
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        String requestLine = readLine(in);
+        // skip the headers
+        String header = readLine(in);
+        while (header != null && header.length() > 0) {
+            header = readLine(in);
+        }
+        if (requestLine == null) {
+            return;
+        }
+        synchronized (this) {
+            requests++;
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+        String[] request = requestLine.split(" ");
+        if (request.length < 2) {
+            sendStatus(out, "400 Bad Request");
+        } else if (!"GET".equals(request[0]) && !"HEAD".equals(request[0])) {
+            sendStatus(out, "501 Not Implemented");
+        } else {
+            boolean head = "HEAD".equals(request[0]);
+            String path = request[1];
+            int query = path.indexOf('?');
+            if (query != -1) {
+                path = path.substring(0, query);
+            }
+            path = URLDecoder.decode(path, "UTF-8");
+            File f = new File(root, path);
+            if (path.indexOf("..") != -1 || !f.exists()) {
+                sendStatus(out, "404 Not Found");
+            } else if (f.isDirectory()) {
+                byte[] listing = getListing(f, path).getBytes("UTF-8");
+                sendHeaders(out, "text/html; charset=UTF-8", listing.length, f.lastModified());
+                if (!head) {
+                    out.write(listing);
+                    sent(listing.length);
+                }
+            } else {
+                sendHeaders(out, getContentType(f), f.length(), f.lastModified());
+                if (!head) {
+                    InputStream content = new FileInputStream(f);
+                    try {
+                        FileUtil.copy(content, out, null, false);
+                    } finally {
+                        content.close();
+                    }
+                    sent(f.length());
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private synchronized void sent(long bytes) {
+        bytesSent += bytes;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuffer line = new StringBuffer();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c == -1) {
+                return line.length() == 0 ? null : line.toString();
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static String getListing(File dir, String path) {
+        String[] names = dir.list();
+        Arrays.sort(names);
+        StringBuffer buf = new StringBuffer();
+        buf.append("<html><head><title>Index of ").append(path).append("</title></head><body>\n");
+        buf.append("<h1>Index of ").append(path).append("</h1>\n<pre>");
+        buf.append("<a href=\"../\">Parent Directory</a>\n");
+        for (int i = 0; i < names.length; i++) {
+            String name = new File(dir, names[i]).isDirectory() ? names[i] + "/" : names[i];
+            buf.append("<a href=\"").append(name).append("\">").append(name).append("</a>\n");
+        }
+        buf.append("</pre></body></html>\n");
+        return buf.toString();
+    }
+
+    private static String getContentType(File f) {
+        String name = f.getName();
+        if (name.endsWith(".xml") || name.endsWith(".pom")) {
+            return "text/xml";
+        }
+        if (name.endsWith(".sha1") || name.endsWith(".md5")) {
+            return "text/plain";
+        }
+        return "application/octet-stream";
+    }
+
+    private static void sendStatus(OutputStream out, String status) throws IOException {
+        out.write(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+                .getBytes("US-ASCII"));
+    }
+
+    private static void sendHeaders(OutputStream out, String contentType, long length,
+            long lastModified) throws IOException {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'",
+                Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        out.write(("HTTP/1.1 200 OK\r\nContent-Type: " + contentType + "\r\nContent-Length: "
+                + length + "\r\nLast-Modified: " + format.format(new Date(lastModified))
+                + "\r\nConnection: close\r\n\r\n").getBytes("US-ASCII"));
+    }
+}